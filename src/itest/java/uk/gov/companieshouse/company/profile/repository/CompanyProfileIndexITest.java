@@ -0,0 +1,99 @@
+package uk.gov.companieshouse.company.profile.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import uk.gov.companieshouse.company.profile.configuration.AbstractMongoConfig;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+@Testcontainers
+@DataMongoTest
+class CompanyProfileIndexITest extends AbstractMongoConfig {
+
+    private static final String PROBE = "FR123456";
+    // IDHACK and EXPRESS_IXSCAN are the fast paths MongoDB takes through an index for a lookup by _id
+    private static final List<String> INDEX_SCANS = List.of("IXSCAN", "IDHACK", "EXPRESS_IXSCAN");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private CompanyProfileIndexManager indexManager;
+    private String collection;
+
+    @BeforeAll
+    static void init() {
+        mongoDBContainer.start();
+    }
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.dropCollection(VersionedCompanyProfileDocument.class);
+        indexManager = new CompanyProfileIndexManager(mongoTemplate, new SimpleMeterRegistry(), true, true, true);
+        indexManager.ensureIndexes(VersionedCompanyProfileDocument.class);
+        collection = mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class);
+        for (int i = 0; i < 10; i++) {
+            mongoTemplate.insert(new Document("_id", "BR00000" + i)
+                    .append("parent_company_number", PROBE)
+                    .append("data", new Document("company_number", "BR00000" + i)
+                            .append("company_status", i % 2 == 0 ? "open" : "closed")
+                            .append("date_of_creation", "2020-01-0" + (i + 1))), collection);
+        }
+    }
+
+    static Stream<Arguments> companyProfileQueries() {
+        // Built by the query builders and from the @Query and derived repository methods, as the services make them
+        return CompanyProfileQueries.shapes(PROBE).entrySet().stream()
+                .map(query -> Arguments.of(query.getKey(), query.getValue()));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("companyProfileQueries")
+    void shouldServeCompanyProfileQueryFromIndex(String name, Query query) {
+        // when
+        Set<String> stages = CompanyProfileIndexManager.planStages(indexManager.explain(collection, query));
+
+        // then
+        assertFalse(stages.contains("COLLSCAN"), name + " scans the collection: " + stages);
+        assertTrue(stages.stream().anyMatch(INDEX_SCANS::contains), name + " does not use an index: " + stages);
+    }
+
+    @Test
+    void shouldFindNoQueryScanningCollection() {
+        // when
+        List<String> scans = indexManager.findCollectionScans();
+
+        // then
+        assertTrue(scans.isEmpty(), String.valueOf(scans));
+    }
+
+    @Test
+    void shouldFindNoIndexMissingOnceCreated() {
+        // when
+        List<String> missing = indexManager.ensureIndexes(VersionedCompanyProfileDocument.class);
+
+        // then
+        assertTrue(missing.isEmpty(), String.valueOf(missing));
+    }
+
+    @AfterAll
+    static void tear() {
+        mongoDBContainer.stop();
+    }
+}
@@ -1,34 +1,140 @@
 package uk.gov.companieshouse.company.profile.api;
 
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.DefaultHttpClientConnectionOperator;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import uk.gov.companieshouse.api.InternalApiClient;
 import uk.gov.companieshouse.api.http.ApiKeyHttpClient;
-import uk.gov.companieshouse.api.http.HttpClient;
 
+/**
+ * Gives the one {@link InternalApiClient} used for every call to chs-kafka-api, whose connections are pooled and
+ * kept alive between calls.
+ *
+ * <p>All calls are to the same host, so the pool holds up to the maximum number of connections to it. A call waits
+ * up to the connection request timeout for one to be free, and connections idle for longer than the idle timeout are
+ * closed. The pool is HTTP/1.1 only, as the SDK's transport does not support HTTP/2.
+ */
 @Component
 public class ApiClientServiceImpl implements ApiClientService {
 
-    private final String chsApiKey;
-    private final String internalApiUrl;
+    private static final String POOL_METRIC = "company_profile.chs_kafka_api.pool.";
 
+    private final CloseableHttpClient httpClient;
+    private final InternalApiClient internalApiClient;
+
+    /**
+     * Constructor.
+     */
     public ApiClientServiceImpl(@Value("${chs.kafka.api.key}") String chsApiKey,
-            @Value("${chs.kafka.api.endpoint}") String internalApiUrl) {
-        this.chsApiKey = chsApiKey;
-        this.internalApiUrl = internalApiUrl;
-    }
+            @Value("${chs.kafka.api.endpoint}") String internalApiUrl,
+            @Value("${chs.kafka.api.http.max-connections}") int maxConnections,
+            @Value("${chs.kafka.api.http.connect-timeout}") Duration connectTimeout,
+            @Value("${chs.kafka.api.http.read-timeout}") Duration readTimeout,
+            @Value("${chs.kafka.api.http.connection-request-timeout}") Duration connectionRequestTimeout,
+            @Value("${chs.kafka.api.http.idle-timeout}") Duration idleTimeout,
+            MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                new TimedConnectionOperator(Timer.builder("company_profile.chs_kafka_api.connect")
+                        .description("Time taken to open a connection to chs-kafka-api")
+                        .register(meterRegistry)),
+                ManagedHttpClientConnectionFactory.INSTANCE, -1, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        registerPoolGauge(meterRegistry, connectionManager, "leased", PoolStats::getLeased);
+        registerPoolGauge(meterRegistry, connectionManager, "idle", PoolStats::getAvailable);
+        registerPoolGauge(meterRegistry, connectionManager, "pending", PoolStats::getPending);
+        registerPoolGauge(meterRegistry, connectionManager, "max", PoolStats::getMax);
 
+        this.httpClient = ApacheHttpTransport.newDefaultHttpClientBuilder()
+                .setConnectionManager(connectionManager)
+                .evictIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .addInterceptorFirst(boundConnectionRequest(connectionRequestTimeout))
+                .build();
+
+        this.internalApiClient = new InternalApiClient(new PooledHttpClient(new ApiKeyHttpClient(chsApiKey),
+                new ApacheHttpTransport(httpClient), connectTimeout, readTimeout));
+        this.internalApiClient.setInternalBasePath(internalApiUrl);
+        this.internalApiClient.setBasePath(internalApiUrl);
+    }
 
     @Override
     public InternalApiClient getInternalApiClient() {
-        var internalApiClient = new InternalApiClient(getHttpClient());
-        internalApiClient.setInternalBasePath(internalApiUrl);
-        internalApiClient.setBasePath(internalApiUrl);
-
         return internalApiClient;
     }
 
-    private HttpClient getHttpClient() {
-        return new ApiKeyHttpClient(chsApiKey);
+    @PreDestroy
+    void close() throws IOException {
+        httpClient.close();
+    }
+
+    private static HttpRequestInterceptor boundConnectionRequest(Duration connectionRequestTimeout) {
+        int timeout = Math.toIntExact(connectionRequestTimeout.toMillis());
+        // The SDK's transport replaces the whole request config of each request, so the wait for a pooled
+        // connection is bounded here, before the connection is requested
+        return (request, context) -> {
+            HttpClientContext clientContext = HttpClientContext.adapt(context);
+            clientContext.setRequestConfig(RequestConfig.copy(clientContext.getRequestConfig())
+                    .setConnectionRequestTimeout(timeout)
+                    .build());
+        };
+    }
+
+    private static void registerPoolGauge(MeterRegistry meterRegistry,
+            PoolingHttpClientConnectionManager connectionManager, String name, ToIntFunction<PoolStats> stat) {
+        Gauge.builder(POOL_METRIC + name, connectionManager, manager -> stat.applyAsInt(manager.getTotalStats()))
+                .description("Connections to chs-kafka-api " + name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens connections as the default operator does, recording how long each takes, including any TLS handshake.
+     */
+    private static final class TimedConnectionOperator extends DefaultHttpClientConnectionOperator {
+
+        private final Timer connectTime;
+
+        TimedConnectionOperator(Timer connectTime) {
+            super(RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", SSLConnectionSocketFactory.getSocketFactory())
+                    .build(), null, null);
+            this.connectTime = connectTime;
+        }
+
+        @Override
+        public void connect(ManagedHttpClientConnection conn, HttpHost host, InetSocketAddress localAddress,
+                int connectTimeout, SocketConfig socketConfig, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            try {
+                super.connect(conn, host, localAddress, connectTimeout, socketConfig, context);
+            } finally {
+                connectTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
     }
 }
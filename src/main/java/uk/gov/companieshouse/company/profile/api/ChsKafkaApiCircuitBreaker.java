@@ -0,0 +1,315 @@
+package uk.gov.companieshouse.company.profile.api;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.error.ApiErrorResponseException;
+import uk.gov.companieshouse.api.exception.ServiceUnavailableException;
+import uk.gov.companieshouse.company.profile.exception.ChsKafkaApiRejectedException;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.util.JitteredBackoff;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Guards calls to chs-kafka-api with a circuit breaker, a bulkhead and retries, so that a slow or failing
+ * chs-kafka-api fails writes fast instead of holding every write thread until the SDK gives up.
+ *
+ * <p>The breaker opens when, over the last sliding window of calls, the proportion that failed or the proportion
+ * that were slow reaches its threshold. While open, calls are rejected at once. Once the open duration has passed, a
+ * single probe call is let through, closing the breaker if it succeeds quickly and opening it again otherwise. Only
+ * calls let through since the breaker last changed state are recorded, so a call outlasting a change says nothing of
+ * the new state, and only the probe decides whether a half-open breaker closes. A call
+ * fails if chs-kafka-api responds with a server error or too many requests, or cannot be reached; client errors show
+ * chs-kafka-api to be healthy.
+ *
+ * <p>The bulkhead bounds the number of calls in flight at once, and a call is rejected once it has waited the
+ * maximum wait for a free place. A failed call is retried, up to the maximum attempts, after a random backoff of up
+ * to the retry backoff doubled for each attempt made and no more than the maximum retry backoff. Rejected calls throw
+ * {@link ChsKafkaApiRejectedException}, a {@link ServiceUnavailableException}, so a write responds 503 without
+ * waiting. When disabled, calls are made as they are given.
+ */
+@Component
+public class ChsKafkaApiCircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+    private static final String METRIC = "company_profile.chs_kafka_api.";
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * A call to chs-kafka-api.
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+
+        T execute() throws ApiErrorResponseException;
+    }
+
+    /**
+     * The permission a call was let through with, tagged with the state it was given in and whether it is the probe.
+     */
+    private record Permit(long generation, boolean probe) {
+    }
+
+    /**
+     * A change of state, reported once the lock is released.
+     */
+    private record Transition(State from, State to) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final Duration maxWait;
+    private final int maxAttempts;
+    private final JitteredBackoff retryBackoff;
+    private final Semaphore bulkhead;
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private final Counter retries;
+    private final Counter rejectedOpen;
+    private final Counter rejectedFull;
+    private final AtomicInteger stateGauge = new AtomicInteger();
+    // A lock rather than a monitor, so that contended virtual threads do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private long generation;
+    private boolean probing;
+    private int next;
+    private boolean windowFull;
+    private int failed;
+    private int slow;
+
+    /**
+     * Constructor.
+     */
+    public ChsKafkaApiCircuitBreaker(MeterRegistry meterRegistry,
+            @Value("${chs.kafka.api.resilience.enabled}") boolean enabled,
+            @Value("${chs.kafka.api.resilience.sliding-window-size}") int slidingWindowSize,
+            @Value("${chs.kafka.api.resilience.failure-rate-threshold}") int failureRateThreshold,
+            @Value("${chs.kafka.api.resilience.slow-call-rate-threshold}") int slowCallRateThreshold,
+            @Value("${chs.kafka.api.resilience.slow-call-duration}") Duration slowCallDuration,
+            @Value("${chs.kafka.api.resilience.open-duration}") Duration openDuration,
+            @Value("${chs.kafka.api.resilience.max-concurrent-calls}") int maxConcurrentCalls,
+            @Value("${chs.kafka.api.resilience.max-wait}") Duration maxWait,
+            @Value("${chs.kafka.api.resilience.max-attempts}") int maxAttempts,
+            @Value("${chs.kafka.api.resilience.retry-backoff}") Duration retryBackoff,
+            @Value("${chs.kafka.api.resilience.maximum-retry-backoff}") Duration maximumRetryBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.maxWait = maxWait;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = new JitteredBackoff(retryBackoff, maximumRetryBackoff);
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.failures = new boolean[slidingWindowSize];
+        this.slowCalls = new boolean[slidingWindowSize];
+        this.retries = meterRegistry.counter(METRIC + "retries");
+        this.rejectedOpen = meterRegistry.counter(METRIC + "rejected", "reason", "circuit_breaker");
+        this.rejectedFull = meterRegistry.counter(METRIC + "rejected", "reason", "bulkhead");
+        meterRegistry.gauge(METRIC + "circuit_breaker.state", stateGauge);
+        meterRegistry.gauge(METRIC + "bulkhead.available", bulkhead, Semaphore::availablePermits);
+    }
+
+    /**
+     * Makes the given call, retrying it if it fails.
+     *
+     * @param call the call to chs-kafka-api
+     * @return the result of the call
+     * @throws ApiErrorResponseException   if chs-kafka-api responds with an error on the last attempt
+     * @throws ChsKafkaApiRejectedException if the call is rejected by the breaker or bulkhead
+     */
+    public <T> T call(Call<T> call) throws ApiErrorResponseException {
+        if (!enabled) {
+            return call.execute();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(call);
+            } catch (ApiErrorResponseException ex) {
+                if (attempt >= maxAttempts || !isFailure(ex)) {
+                    throw ex;
+                }
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private <T> T attempt(Call<T> call) throws ApiErrorResponseException {
+        Permit permit = acquirePermission();
+        if (permit == null) {
+            rejectedOpen.increment();
+            throw new ChsKafkaApiRejectedException("chs-kafka-api circuit breaker is open");
+        }
+        if (!enterBulkhead()) {
+            releasePermission(permit);
+            rejectedFull.increment();
+            throw new ChsKafkaApiRejectedException("Too many calls to chs-kafka-api in flight");
+        }
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T result = call.execute();
+            succeeded = true;
+            return result;
+        } catch (ApiErrorResponseException ex) {
+            succeeded = !isFailure(ex);
+            throw ex;
+        } finally {
+            bulkhead.release();
+            record(permit, !succeeded, System.nanoTime() - start >= slowCallNanos);
+        }
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit acquirePermission() {
+        Transition transition = null;
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return null;
+                }
+                transition = transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probing) {
+                    return null;
+                }
+                probing = true;
+                return new Permit(generation, true);
+            }
+            return new Permit(generation, false);
+        } finally {
+            lock.unlock();
+            report(transition);
+        }
+    }
+
+    private void releasePermission(Permit permit) {
+        lock.lock();
+        try {
+            if (permit.probe() && permit.generation() == generation) {
+                probing = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(Permit permit, boolean callFailed, boolean callSlow) {
+        Transition transition = null;
+        lock.lock();
+        try {
+            transition = recordLocked(permit, callFailed, callSlow);
+        } finally {
+            lock.unlock();
+            report(transition);
+        }
+    }
+
+    private Transition recordLocked(Permit permit, boolean callFailed, boolean callSlow) {
+        if (permit.generation() != generation) {
+            // Let through before the breaker last changed state, so says nothing of chs-kafka-api since
+            return null;
+        }
+        if (permit.probe()) {
+            probing = false;
+            return transition(callFailed || callSlow ? State.OPEN : State.CLOSED);
+        }
+        if (windowFull) {
+            failed -= failures[next] ? 1 : 0;
+            slow -= slowCalls[next] ? 1 : 0;
+        }
+        failures[next] = callFailed;
+        slowCalls[next] = callSlow;
+        failed += callFailed ? 1 : 0;
+        slow += callSlow ? 1 : 0;
+        next = (next + 1) % failures.length;
+        windowFull |= next == 0;
+        if (windowFull
+                && (failed * 100 >= failureRateThreshold * failures.length
+                || slow * 100 >= slowCallRateThreshold * failures.length)) {
+            return transition(State.OPEN);
+        }
+        return null;
+    }
+
+    private Transition transition(State to) {
+        Transition transition = new Transition(state, to);
+        state = to;
+        generation++;
+        stateGauge.set(to.ordinal());
+        if (to == State.OPEN) {
+            openedAt = System.nanoTime();
+        } else if (to == State.CLOSED) {
+            next = 0;
+            windowFull = false;
+            failed = 0;
+            slow = 0;
+        }
+        return transition;
+    }
+
+    private void report(Transition transition) {
+        if (transition == null) {
+            return;
+        }
+        LOGGER.info(String.format("chs-kafka-api circuit breaker moved from %s to %s", transition.from(),
+                transition.to()), DataMapHolder.getLogMap());
+        meterRegistry.counter(METRIC + "circuit_breaker.transitions", "from", transition.from().name(),
+                "to", transition.to().name()).increment();
+    }
+
+    private boolean enterBulkhead() {
+        try {
+            return bulkhead.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            retryBackoff.sleep(attempt);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while retrying call to chs-kafka-api", ex);
+        }
+    }
+
+    private static boolean isFailure(ApiErrorResponseException ex) {
+        return ex.getStatusCode() >= SERVER_ERROR || ex.getStatusCode() == TOO_MANY_REQUESTS;
+    }
+}
@@ -30,13 +30,16 @@ public class CompanyProfileApiService {
 
     private final ApiClientService apiClientService;
     private final ObjectMapper objectMapper;
+    private final ChsKafkaApiCircuitBreaker circuitBreaker;
 
     /**
      * Invoke Insolvency API.
      */
-    public CompanyProfileApiService(ApiClientService apiClientService, ObjectMapper objectMapper) {
+    public CompanyProfileApiService(ApiClientService apiClientService, ObjectMapper objectMapper,
+            ChsKafkaApiCircuitBreaker circuitBreaker) {
         this.apiClientService = apiClientService;
         this.objectMapper = objectMapper;
+        this.circuitBreaker = circuitBreaker;
     }
 
     /**
@@ -47,7 +50,6 @@ public class CompanyProfileApiService {
      */
     public ApiResponse<Void> invokeChsKafkaApi(String companyNumber) {
         InternalApiClient internalApiClient = apiClientService.getInternalApiClient();
-        internalApiClient.getHttpClient().setRequestId(DataMapHolder.getRequestId());
         PrivateChangedResourcePost changedResourcePost = internalApiClient
                 .privateChangedResourceHandler()
                 .postChangedResource(CHANGED_RESOURCE_URI,
@@ -64,7 +66,6 @@ public class CompanyProfileApiService {
      */
     public ApiResponse<Void> invokeChsKafkaApiWithDeleteEvent(String companyNumber, Data companyProfile) {
         InternalApiClient internalApiClient = apiClientService.getInternalApiClient();
-        internalApiClient.getHttpClient().setRequestId(DataMapHolder.getRequestId());
         PrivateChangedResourcePost changedResourcePost = internalApiClient
                 .privateChangedResourceHandler()
                 .postChangedResource(CHANGED_RESOURCE_URI,
@@ -101,7 +102,7 @@ public class CompanyProfileApiService {
 
     private ApiResponse<Void> handleApiCall(PrivateChangedResourcePost post) {
         try {
-            return post.execute();
+            return circuitBreaker.call(post::execute);
         } catch (ApiErrorResponseException exception) {
             LOGGER.error("Unsuccessful call to /private/resource-changed endpoint",
                     exception, DataMapHolder.getLogMap());
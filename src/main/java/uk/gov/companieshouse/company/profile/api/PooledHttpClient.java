@@ -0,0 +1,68 @@
+package uk.gov.companieshouse.company.profile.api;
+
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import java.time.Duration;
+import uk.gov.companieshouse.api.http.HttpClient;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+
+/**
+ * HTTP client shared by every call to chs-kafka-api, sending each request over one pooled transport so that
+ * connections are kept alive and reused.
+ *
+ * <p>Requests are authenticated as the given client authenticates them. The request id of each request is taken
+ * from the log context of the thread making it, so the client holds no per-request state and is never changed once
+ * built.
+ */
+public class PooledHttpClient implements HttpClient {
+
+    static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private final HttpTransport transport;
+    private final HttpRequestInitializer authentication;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    /**
+     * Constructor.
+     *
+     * @param authentication the client whose requests are authenticated as these should be
+     * @param transport      the pooled transport every request is sent over
+     * @param connectTimeout how long to wait for a connection to be made
+     * @param readTimeout    how long to wait for data once connected
+     */
+    public PooledHttpClient(HttpClient authentication, HttpTransport transport, Duration connectTimeout,
+            Duration readTimeout) {
+        this.transport = transport;
+        HttpRequestFactory authenticated = authentication.getHttpRequestFactory(transport);
+        this.authentication = authenticated != null ? authenticated.getInitializer() : null;
+        this.connectTimeout = Math.toIntExact(connectTimeout.toMillis());
+        this.readTimeout = Math.toIntExact(readTimeout.toMillis());
+    }
+
+    @Override
+    public HttpRequestFactory getHttpRequestFactory(HttpTransport ignored) {
+        return transport.createRequestFactory(request -> {
+            if (authentication != null) {
+                authentication.initialize(request);
+            }
+            request.getHeaders().set(REQUEST_ID_HEADER, DataMapHolder.getRequestId());
+            request.setConnectTimeout(connectTimeout);
+            request.setReadTimeout(readTimeout);
+        });
+    }
+
+    /**
+     * Does nothing, as the request id is taken from the log context of each request.
+     */
+    @Override
+    public void setRequestId(String requestId) {
+        // The client is shared, so is never changed for one request
+    }
+
+    @Override
+    public String getRequestId() {
+        return DataMapHolder.getRequestId();
+    }
+}
@@ -0,0 +1,300 @@
+package uk.gov.companieshouse.company.profile.api;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+import static uk.gov.companieshouse.company.profile.api.CompanyProfileApiService.DELETED_EVENT_TYPE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.company.profile.exception.ChsKafkaApiRejectedException;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.model.OutboxEvent;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Sends the resource changed events in the outbox to chs-kafka-api, removing each once it has been sent.
+ *
+ * <p>The oldest events that are due and not leased are read at a fixed interval and sent with bounded concurrency:
+ * events for different companies are sent in parallel, while those for the same company are sent one at a time in the
+ * order they were written. An event is leased before it is sent, so that only one instance sends it, and only while no
+ * earlier event for the company is still waiting, so that the order holds across instances too. A failed event is
+ * retried after a backoff that doubles with each attempt, and holds back the later events for its company until then.
+ * An event is sent at least once; it is sent again if its lease runs out before it is removed.
+ *
+ * <p>An event that has failed the maximum number of attempts is moved to the parked collection, where it is left for
+ * investigation, so that it no longer holds back the later events for its company. A call rejected by the chs-kafka-api
+ * circuit breaker or bulkhead is not an attempt, and is retried after the retry backoff, so that an outage parks only
+ * the events it outlasts by the maximum attempts, and the breaker opening does not park them sooner.
+ *
+ * <p>Consecutive changed events for a company are sent as one, once the debounce window has passed since the first
+ * of them was written, so that a burst of changes to a company is sent as a single event. Deleted events are never
+ * merged, and changed events either side of one are sent separately.
+ */
+@Component
+public class ResourceChangedDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+    private static final String ID_FIELD = "_id";
+    private static final String CREATED_AT_FIELD = "created_at";
+    private static final String ATTEMPTS_FIELD = "attempts";
+    private static final String NEXT_ATTEMPT_AT_FIELD = "next_attempt_at";
+    private static final String LEASED_UNTIL_FIELD = "leased_until";
+    private static final String COMPANY_NUMBER_FIELD = "company_number";
+    private static final int MAXIMUM_BACKOFF_DOUBLINGS = 30;
+
+    private final MongoTemplate mongoTemplate;
+    private final CompanyProfileApiService companyProfileApiService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final Duration retryBackoff;
+    private final Duration maximumRetryBackoff;
+    private final int maxAttempts;
+    private final Duration debounceWindow;
+    private final ExecutorService dispatchers;
+    private final Counter dispatched;
+    private final Counter failed;
+    private final Counter coalesced;
+    private final Counter parked;
+    private final Timer lag;
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong parkedDepth = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor.
+     */
+    public ResourceChangedDispatcher(MongoTemplate mongoTemplate, CompanyProfileApiService companyProfileApiService,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.enabled}") boolean enabled,
+            @Value("${outbox.dispatcher.concurrency}") int concurrency,
+            @Value("${outbox.dispatcher.batch-size}") int batchSize,
+            @Value("${outbox.dispatcher.poll-interval}") Duration pollInterval,
+            @Value("${outbox.dispatcher.lease}") Duration lease,
+            @Value("${outbox.dispatcher.retry-backoff}") Duration retryBackoff,
+            @Value("${outbox.dispatcher.maximum-retry-backoff}") Duration maximumRetryBackoff,
+            @Value("${outbox.dispatcher.max-attempts}") int maxAttempts,
+            @Value("${outbox.dispatcher.debounce-window}") Duration debounceWindow) {
+        this.mongoTemplate = mongoTemplate;
+        this.companyProfileApiService = companyProfileApiService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.retryBackoff = retryBackoff;
+        this.maximumRetryBackoff = maximumRetryBackoff;
+        this.maxAttempts = maxAttempts;
+        this.debounceWindow = debounceWindow;
+        this.dispatchers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "resource-changed-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatched = meterRegistry.counter("company_profile.outbox.dispatched");
+        this.failed = meterRegistry.counter("company_profile.outbox.dispatch.failed");
+        this.coalesced = meterRegistry.counter("company_profile.outbox.coalesced");
+        this.parked = meterRegistry.counter("company_profile.outbox.parked");
+        this.lag = Timer.builder("company_profile.outbox.dispatch.lag")
+                .description("Time from a change being written to its resource changed event being sent")
+                .register(meterRegistry);
+        meterRegistry.gauge("company_profile.outbox.depth", depth);
+        meterRegistry.gauge("company_profile.outbox.parked.depth", parkedDepth);
+    }
+
+    /**
+     * Starts polling the outbox once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resource-changed-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        dispatchers.shutdownNow();
+    }
+
+    void poll() {
+        try {
+            depth.set(mongoTemplate.estimatedCount(OutboxEvent.class));
+            parkedDepth.set(mongoTemplate.estimatedCount(OutboxEvent.PARKED_COLLECTION));
+            Instant now = Instant.now();
+            // Events waiting on a retry or leased by another instance are skipped rather than filling the batch
+            Query oldest = new Query(Criteria.where(NEXT_ATTEMPT_AT_FIELD).lte(now).and(LEASED_UNTIL_FIELD).lte(now))
+                    .with(Sort.by(CREATED_AT_FIELD, ID_FIELD))
+                    .limit(batchSize);
+            Map<String, List<OutboxEvent>> byCompany = mongoTemplate.find(oldest, OutboxEvent.class).stream()
+                    .collect(Collectors.groupingBy(OutboxEvent::getCompanyNumber, LinkedHashMap::new,
+                            Collectors.toList()));
+            List<Future<?>> companies = byCompany.values().stream()
+                    .<Future<?>>map(events -> dispatchers.submit(() -> dispatchInOrder(events)))
+                    .toList();
+            for (Future<?> company : companies) {
+                company.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException ex) {
+            LOGGER.error("Unable to dispatch resource changed events", ex, DataMapHolder.getLogMap());
+        }
+    }
+
+    private void dispatchInOrder(List<OutboxEvent> events) {
+        if (hasEarlierEvent(events.getFirst())) {
+            // An earlier event for the company is waiting on a retry or being sent, so none of these may go yet
+            return;
+        }
+        Instant settledBefore = Instant.now().minus(debounceWindow);
+        int start = 0;
+        while (start < events.size()) {
+            int end = start + 1;
+            if (!isDeleted(events.get(start))) {
+                while (end < events.size() && !isDeleted(events.get(end))) {
+                    end++;
+                }
+                if (events.get(start).getCreatedAt().isAfter(settledBefore)) {
+                    // Still within the window of the first change, so more changes may yet be merged with it
+                    return;
+                }
+            }
+            if (!dispatch(events.subList(start, end))) {
+                return;
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Sends the given events as one, leasing the first of them. Only consecutive changed events are ever sent
+     * together, as they all tell chs-kafka-api the same thing.
+     */
+    private boolean dispatch(List<OutboxEvent> events) {
+        OutboxEvent event = events.getFirst();
+        Instant now = Instant.now();
+        Query due = byId(event)
+                .addCriteria(Criteria.where(NEXT_ATTEMPT_AT_FIELD).lte(now))
+                .addCriteria(Criteria.where(LEASED_UNTIL_FIELD).lte(now));
+        if (mongoTemplate.updateFirst(due, new Update().set(LEASED_UNTIL_FIELD, now.plus(lease)), OutboxEvent.class)
+                .getModifiedCount() == 0) {
+            // Not yet due for a retry, being sent by another instance or already sent
+            return false;
+        }
+
+        DataMapHolder.initialise(event.getContextId());
+        try {
+            if (isDeleted(event)) {
+                companyProfileApiService.invokeChsKafkaApiWithDeleteEvent(event.getCompanyNumber(),
+                        event.getDeletedData());
+            } else {
+                companyProfileApiService.invokeChsKafkaApi(event.getCompanyNumber());
+            }
+        } catch (ChsKafkaApiRejectedException ex) {
+            // Never made, so it is not an attempt; a breaker or bulkhead rejecting it would otherwise park it early
+            LOGGER.info(String.format("%s event for company number %s not sent, retrying in %s: %s",
+                    event.getEventType(), event.getCompanyNumber(), retryBackoff, ex.getMessage()),
+                    DataMapHolder.getLogMap());
+            Instant rejectedAt = Instant.now();
+            mongoTemplate.updateFirst(byId(event), new Update()
+                    .set(NEXT_ATTEMPT_AT_FIELD, rejectedAt.plus(retryBackoff))
+                    .set(LEASED_UNTIL_FIELD, rejectedAt), OutboxEvent.class);
+            return false;
+        } catch (RuntimeException ex) {
+            failed.increment();
+            if (event.getAttempts() + 1 >= maxAttempts) {
+                park(event, ex);
+                return false;
+            }
+            Duration backoff = backoff(event.getAttempts());
+            LOGGER.error(String.format("Unable to send %s event for company number %s, retrying in %s",
+                    event.getEventType(), event.getCompanyNumber(), backoff), ex, DataMapHolder.getLogMap());
+            Instant failedAt = Instant.now();
+            mongoTemplate.updateFirst(byId(event), new Update()
+                    .inc(ATTEMPTS_FIELD, 1)
+                    .set(NEXT_ATTEMPT_AT_FIELD, failedAt.plus(backoff))
+                    .set(LEASED_UNTIL_FIELD, failedAt), OutboxEvent.class);
+            return false;
+        } finally {
+            DataMapHolder.clear();
+        }
+
+        mongoTemplate.remove(new Query(Criteria.where(ID_FIELD).in(events.stream().map(OutboxEvent::getId).toList())),
+                OutboxEvent.class);
+        dispatched.increment();
+        coalesced.increment(events.size() - 1.0);
+        Instant sentAt = Instant.now();
+        events.forEach(sent -> lag.record(Duration.between(sent.getCreatedAt(), sentAt)));
+        return true;
+    }
+
+    /**
+     * Moves an event that has failed every attempt to the parked collection, so that the later events for its company
+     * are sent.
+     */
+    private void park(OutboxEvent event, RuntimeException ex) {
+        LOGGER.error(String.format("Unable to send %s event for company number %s after %d attempts, parking it",
+                event.getEventType(), event.getCompanyNumber(), maxAttempts), ex, DataMapHolder.getLogMap());
+        event.setAttempts(event.getAttempts() + 1);
+        event.setParkedAt(Instant.now());
+        mongoTemplate.save(event, OutboxEvent.PARKED_COLLECTION);
+        mongoTemplate.remove(byId(event), OutboxEvent.class);
+        parked.increment();
+    }
+
+    private boolean hasEarlierEvent(OutboxEvent event) {
+        Criteria earlier = new Criteria().orOperator(
+                Criteria.where(CREATED_AT_FIELD).lt(event.getCreatedAt()),
+                Criteria.where(CREATED_AT_FIELD).is(event.getCreatedAt()).and(ID_FIELD).lt(event.getId()));
+        return mongoTemplate.exists(new Query(Criteria.where(COMPANY_NUMBER_FIELD).is(event.getCompanyNumber())
+                .andOperator(earlier)), OutboxEvent.class);
+    }
+
+    Duration backoff(int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts, MAXIMUM_BACKOFF_DOUBLINGS));
+        return backoff.compareTo(maximumRetryBackoff) > 0 ? maximumRetryBackoff : backoff;
+    }
+
+    private static boolean isDeleted(OutboxEvent event) {
+        return DELETED_EVENT_TYPE.equals(event.getEventType());
+    }
+
+    private static Query byId(OutboxEvent event) {
+        return new Query(Criteria.where(ID_FIELD).is(event.getId()));
+    }
+}
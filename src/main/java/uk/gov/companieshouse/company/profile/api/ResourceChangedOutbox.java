@@ -0,0 +1,79 @@
+package uk.gov.companieshouse.company.profile.api;
+
+import static uk.gov.companieshouse.company.profile.api.CompanyProfileApiService.CHANGED_EVENT_TYPE;
+import static uk.gov.companieshouse.company.profile.api.CompanyProfileApiService.DELETED_EVENT_TYPE;
+
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.model.OutboxEvent;
+
+/**
+ * Records the resource changed events for company profile changes.
+ *
+ * <p>When enabled, each event is inserted into the outbox collection, to be sent to chs-kafka-api by the
+ * {@link ResourceChangedDispatcher}. Called within the transaction making the change, the event is written only if the
+ * change is. When disabled, the event is sent to chs-kafka-api straight away, once the change has been written outside
+ * any transaction, so that a failed call fails the request without holding the change's transaction open.
+ */
+@Component
+public class ResourceChangedOutbox {
+
+    private final MongoTemplate mongoTemplate;
+    private final CompanyProfileApiService companyProfileApiService;
+    private final boolean enabled;
+
+    /**
+     * Constructor.
+     */
+    public ResourceChangedOutbox(MongoTemplate mongoTemplate, CompanyProfileApiService companyProfileApiService,
+            @Value("${outbox.enabled}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.companyProfileApiService = companyProfileApiService;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether events are written to the outbox, so are recorded if and only if the change they are for is.
+     *
+     * @return true if the outbox is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records that a company profile has been inserted or updated.
+     *
+     * @param companyNumber the company number
+     */
+    public void changed(String companyNumber) {
+        if (enabled) {
+            insert(companyNumber, CHANGED_EVENT_TYPE, null);
+        } else {
+            companyProfileApiService.invokeChsKafkaApi(companyNumber);
+        }
+    }
+
+    /**
+     * Records that a company profile has been deleted.
+     *
+     * @param companyNumber  the company number
+     * @param companyProfile the company profile deleted, or null if there was none
+     */
+    public void deleted(String companyNumber, Data companyProfile) {
+        if (enabled) {
+            insert(companyNumber, DELETED_EVENT_TYPE, companyProfile);
+        } else {
+            companyProfileApiService.invokeChsKafkaApiWithDeleteEvent(companyNumber, companyProfile);
+        }
+    }
+
+    private void insert(String companyNumber, String eventType, Data deletedData) {
+        mongoTemplate.insert(new OutboxEvent(companyNumber, eventType, deletedData, DataMapHolder.getRequestId(),
+                Instant.now()));
+    }
+}
@@ -56,6 +56,7 @@ public class EricTokenAuthenticationFilter extends OncePerRequestFilter {
         String[] privileges = getApiKeyPrivileges(request);
 
         return request.getMethod().equals("GET")
+                || request.getMethod().equals("HEAD")
                 || (ericIdentityType.equalsIgnoreCase("Key")
                 && ArrayUtils.contains(privileges, "internal-app"));
     }
@@ -0,0 +1,321 @@
+package uk.gov.companieshouse.company.profile.cache;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Bloom filter of the company numbers held in MongoDB, used to answer lookups of company numbers that definitely
+ * do not exist without querying MongoDB.
+ *
+ * <p>The filter follows the inserts into the company profile collection, by this instance or any other, through a
+ * MongoDB change stream, so a company inserted through another instance is found here straight away. Once the
+ * change stream is open the filter is built in the background by streaming only the {@code _id} of each company
+ * profile, and is rebuilt at a fixed interval, which drops the company numbers deleted since. Company profiles
+ * inserted by this instance are also added immediately, ahead of the change stream. The change stream needs
+ * MongoDB to run as a replica set.
+ *
+ * <p>A miss is trusted only while the change stream is open and has been since the filter was built. Until the
+ * first build completes, while the change stream is reopened after failing and until the build that follows it
+ * completes, and when disabled, every company number might exist.
+ */
+@Component
+public class CompanyNumberFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+    private static final String ID_FIELD = "_id";
+    private static final String DOCUMENT_KEY_FIELD = "documentKey";
+    private static final String OPERATION_TYPE_FIELD = "operationType";
+    private static final int CURSOR_BATCH_SIZE = 10_000;
+    private static final Duration WATCH_RETRY_INTERVAL = Duration.ofSeconds(5);
+    // Only the key of each insert is read, rather than the whole company profile inserted
+    private static final List<Bson> INSERTS = List.of(
+            Aggregates.match(Filters.eq(OPERATION_TYPE_FIELD, "insert")),
+            Aggregates.project(Projections.include(OPERATION_TYPE_FIELD, DOCUMENT_KEY_FIELD)));
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private final Duration rebuildInterval;
+    private final Counter rejected;
+    private final AtomicLong size = new AtomicLong();
+
+    private final AtomicLong openings = new AtomicLong();
+    // Orders publishing a build against the change stream failing, so that a build missing inserts is never used
+    private final ReentrantLock publishing = new ReentrantLock();
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+    private volatile boolean started;
+    private volatile boolean watching;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> changeStream;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService watcher;
+
+    /**
+     * Constructor.
+     */
+    public CompanyNumberFilter(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+            @Value("${cache.company-number-filter.enabled}") boolean enabled,
+            @Value("${cache.company-number-filter.expected-insertions}") long expectedInsertions,
+            @Value("${cache.company-number-filter.false-positive-probability}") double falsePositiveProbability,
+            @Value("${cache.company-number-filter.rebuild-interval}") Duration rebuildInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.rebuildInterval = rebuildInterval;
+        this.rejected = meterRegistry.counter("company_profile.company_number_filter.rejected");
+        meterRegistry.gauge("company_profile.company_number_filter.size", size);
+    }
+
+    /**
+     * Starts following the inserts into MongoDB, which builds the filter once they are followed, and schedules its
+     * rebuilds, once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        started = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "company-number-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "company-number-filter-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.execute(this::watch);
+        scheduler.scheduleWithFixedDelay(this::rebuild, rebuildInterval.toMillis(), rebuildInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream;
+        if (cursor != null) {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Returns false only if no company profile with the given company number exists.
+     *
+     * @param companyNumber the company number
+     * @return false if the company definitely does not exist, otherwise true
+     */
+    public boolean mightContain(String companyNumber) {
+        BloomFilter filter = current;
+        if (filter == null || filter.mightContain(companyNumber)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Records that a company profile with the given company number has been inserted.
+     *
+     * @param companyNumber the company number
+     */
+    public void add(String companyNumber) {
+        // Added to a filter being built too, in case the build has already streamed past it
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(companyNumber);
+        }
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(companyNumber);
+        }
+    }
+
+    private void watch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            follow();
+            try {
+                Thread.sleep(WATCH_RETRY_INTERVAL);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Opens a change stream on the inserts into the company profile collection, then builds the filter and adds the
+     * company number of each insert to it until the change stream fails. Every company number might exist from then
+     * on, until the change stream is open again and the filter is rebuilt, as inserts are no longer seen.
+     */
+    void follow() {
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = mongoTemplate
+                .getCollection(mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class))
+                .watch(INSERTS)
+                .cursor()) {
+            changeStream = cursor;
+            openings.incrementAndGet();
+            watching = true;
+            if (scheduler != null) {
+                // Inserts made while the change stream was closed are found only by a build
+                scheduler.execute(this::rebuild);
+            }
+            while (true) {
+                add(cursor.next().getDocumentKey().getString(ID_FIELD).getValue());
+            }
+        } catch (MongoException | IllegalStateException ex) {
+            publishing.lock();
+            try {
+                watching = false;
+                current = null;
+            } finally {
+                publishing.unlock();
+            }
+            if (!Thread.currentThread().isInterrupted()) {
+                LOGGER.error("Company number filter is no longer following inserts, allowing every company number "
+                        + "until it is rebuilt", ex, DataMapHolder.getLogMap());
+            }
+        } finally {
+            changeStream = null;
+        }
+    }
+
+    void rebuild() {
+        long opening = openings.get();
+        if (started && !watching) {
+            // Inserts by other instances would be missed, so the filter is built once the change stream is open
+            return;
+        }
+        BloomFilter next = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        building = next;
+        long count = 0;
+        Query query = new Query().cursorBatchSize(CURSOR_BATCH_SIZE);
+        query.fields().include(ID_FIELD);
+        try (Stream<Document> ids = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class))) {
+            for (Document id : (Iterable<Document>) ids::iterator) {
+                next.put(String.valueOf(id.get(ID_FIELD)));
+                count++;
+            }
+            publishing.lock();
+            try {
+                if (started && (!watching || openings.get() != opening)) {
+                    LOGGER.info("Company number filter not used, as inserts were missed while it was built",
+                            DataMapHolder.getLogMap());
+                    return;
+                }
+                current = next;
+            } finally {
+                publishing.unlock();
+            }
+            size.set(count);
+            LOGGER.info(String.format("Company number filter built with %d company numbers", count),
+                    DataMapHolder.getLogMap());
+        } catch (DataAccessException ex) {
+            LOGGER.error("Unable to build company number filter", ex, DataMapHolder.getLogMap());
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Fixed size Bloom filter over strings that can be written and read concurrently without locking.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+            long insertions = Math.max(1, expectedInsertions);
+            long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveProbability)
+                    / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (optimalBits + 63) / 64));
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / insertions * Math.log(2)));
+        }
+
+        void put(String value) {
+            long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+            long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long existing = bits.get(word);
+                while ((existing & mask) == 0 && !bits.compareAndSet(word, existing, existing | mask)) {
+                    existing = bits.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+            long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String value, long seed) {
+            long hash = seed;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ b) * 0x100000001B3L;
+            }
+            // Finalise as in MurmurHash3 so that similar company numbers spread across the filter
+            hash ^= hash >>> 33;
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            hash *= 0xC4CEB9FE1A85EC53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
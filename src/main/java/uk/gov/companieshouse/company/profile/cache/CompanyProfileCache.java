@@ -0,0 +1,151 @@
+package uk.gov.companieshouse.company.profile.cache;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Bounded in-process cache of the shaped company profile returned by GET /company/{company_number}.
+ *
+ * <p>Entries are held as serialised snapshots so that callers always receive their own copy and can never
+ * change what is cached. The cache is local to each instance; writes invalidate the local entry and the
+ * time to live bounds how long other instances may serve the previous version.
+ *
+ * <p>A profile read before a write but cached after the write has invalidated the entry would otherwise be served
+ * until it expires. Each company number is hashed to a generation that invalidation moves on, so a profile is only
+ * cached while the generation is still the one taken before it was read. Company numbers sharing a generation only
+ * cost each other the odd skipped store.
+ */
+@Component
+public class CompanyProfileCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+    private static final String CACHE_NAME = "company_profile";
+    private static final int GENERATIONS = 1024;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Cache<String, CachedProfile> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATIONS);
+
+    /**
+     * Constructor.
+     */
+    public CompanyProfileCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${cache.company-profile.enabled}") boolean enabled,
+            @Value("${cache.company-profile.maximum-size}") long maximumSize,
+            @Value("${cache.company-profile.time-to-live}") Duration timeToLive) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns a private copy of the cached profile for the given company number, if present.
+     *
+     * @param companyNumber the company number
+     * @return the cached profile, otherwise empty
+     */
+    public Optional<Data> get(String companyNumber) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        CachedProfile cachedProfile = cache.getIfPresent(companyNumber);
+        if (cachedProfile == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(cachedProfile.snapshot(), Data.class));
+        } catch (IOException ex) {
+            LOGGER.error("Unable to read cached company profile", ex, DataMapHolder.getLogMap());
+            cache.invalidate(companyNumber);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the etag of the cached profile for the given company number without reading the snapshot.
+     *
+     * @param companyNumber the company number
+     * @return the etag of the cached profile, otherwise empty
+     */
+    public Optional<String> getEtag(String companyNumber) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(companyNumber))
+                .map(CachedProfile::etag);
+    }
+
+    /**
+     * Returns the generation of the given company number, to be taken before its profile is read for caching.
+     *
+     * @param companyNumber the company number
+     * @return the generation, passed to {@link #put(String, long, Data)}
+     */
+    public long generation(String companyNumber) {
+        return generations.get(slot(companyNumber));
+    }
+
+    /**
+     * Stores a snapshot of the given profile, unless the entry has been invalidated since its generation was taken.
+     * Later changes to the profile are not reflected in the cache.
+     *
+     * @param companyNumber the company number
+     * @param generation    the generation taken before the profile was read
+     * @param data          the shaped profile
+     */
+    public void put(String companyNumber, long generation, Data data) {
+        if (!enabled || data == null) {
+            return;
+        }
+        try {
+            CachedProfile cachedProfile = new CachedProfile(data.getEtag(), objectMapper.writeValueAsBytes(data));
+            // Compared under the entry's lock, which invalidation waits on after moving the generation on
+            cache.asMap().compute(companyNumber, (key, existing) ->
+                    generations.get(slot(key)) == generation ? cachedProfile : existing);
+        } catch (JsonProcessingException ex) {
+            LOGGER.error("Unable to cache company profile", ex, DataMapHolder.getLogMap());
+        }
+    }
+
+    /**
+     * Removes any cached profile for the given company number, and stops a profile read before now being cached.
+     *
+     * @param companyNumber the company number
+     */
+    public void invalidate(String companyNumber) {
+        if (enabled && companyNumber != null) {
+            generations.incrementAndGet(slot(companyNumber));
+            cache.invalidate(companyNumber);
+        }
+    }
+
+    private static int slot(String companyNumber) {
+        return Math.floorMod(companyNumber.hashCode(), GENERATIONS);
+    }
+
+    private record CachedProfile(String etag, byte[] snapshot) {
+
+    }
+}
@@ -0,0 +1,112 @@
+package uk.gov.companieshouse.company.profile.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.company.Data;
+
+/**
+ * Coalesces concurrent identical reads of a company profile so that only one of them goes to MongoDB.
+ *
+ * <p>The first caller for a key loads the profile; callers arriving while that load is in flight wait for it and
+ * receive their own copy of the result, or the same exception. The result is only copied when a caller has waited
+ * for it. Nothing is retained once the load completes.
+ */
+@Component
+public class CompanyProfileSingleFlight {
+
+    private static final String COALESCED_METRIC = "company_profile.single_flight.coalesced";
+    private static final String LOADED_METRIC = "company_profile.single_flight.loaded";
+    private static final String OPERATION_TAG = "operation";
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Key, Flight> inFlight = new ConcurrentHashMap<>();
+
+    public CompanyProfileSingleFlight(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Loads the profile for the given operation and company number, sharing the load with any identical call
+     * already in flight.
+     *
+     * @param operation     the name of the read, so that differently shaped reads are not shared
+     * @param companyNumber the company number
+     * @param loader        loads the profile from MongoDB
+     * @return the loaded profile, private to this caller
+     */
+    public Data execute(String operation, String companyNumber, Supplier<Data> loader) {
+        Key key = new Key(operation, companyNumber);
+        Flight flight = new Flight();
+        // Joined under the key's lock, so that no caller joins once the flight has been removed
+        Flight joined = inFlight.compute(key, (inFlightKey, existing) -> {
+            if (existing == null) {
+                return flight;
+            }
+            existing.followers().incrementAndGet();
+            return existing;
+        });
+        if (joined != flight) {
+            meterRegistry.counter(COALESCED_METRIC, OPERATION_TAG, operation).increment();
+            return await(joined.load());
+        }
+
+        meterRegistry.counter(LOADED_METRIC, OPERATION_TAG, operation).increment();
+        try {
+            Data data = loader.get();
+            inFlight.remove(key, flight);
+            if (flight.followers().get() > 0) {
+                // Snapshot before returning so later changes by this caller are not seen by those waiting
+                flight.load().complete(objectMapper.writeValueAsBytes(data));
+            }
+            return data;
+        } catch (JsonProcessingException ex) {
+            flight.load().completeExceptionally(ex);
+            throw new UncheckedIOException(ex);
+        } catch (Throwable ex) {
+            // Errors too, so that no caller waits for ever on a load that has failed
+            flight.load().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private Data await(CompletableFuture<byte[]> load) {
+        try {
+            return objectMapper.readValue(load.join(), Data.class);
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private record Key(String operation, String companyNumber) {
+
+    }
+
+    private record Flight(CompletableFuture<byte[]> load, AtomicInteger followers) {
+
+        Flight() {
+            this(new CompletableFuture<>(), new AtomicInteger());
+        }
+    }
+}
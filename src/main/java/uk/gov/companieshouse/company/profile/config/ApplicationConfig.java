@@ -19,10 +19,13 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.csrf.CsrfFilter;
+import org.springframework.security.web.header.writers.CacheControlHeadersWriter;
+import org.springframework.security.web.header.writers.DelegatingRequestMatcherHeaderWriter;
 import uk.gov.companieshouse.api.company.Data;
 import uk.gov.companieshouse.api.company.SensitiveData;
 import uk.gov.companieshouse.api.converter.EnumWriteConverter;
@@ -58,6 +61,11 @@ public class ApplicationConfig {
                 .formLogin(AbstractHttpConfigurer::disable)
                 .logout(AbstractHttpConfigurer::disable)
                 .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Responses completed asynchronously set their own Cache-Control after this chain has returned
+                .headers(headers -> headers
+                        .cacheControl(HeadersConfigurer.CacheControlConfig::disable)
+                        .addHeaderWriter(new DelegatingRequestMatcherHeaderWriter(
+                                request -> !request.isAsyncStarted(), new CacheControlHeadersWriter())))
                 .addFilterAt(new EricTokenAuthenticationFilter(),
                         BasicAuthenticationFilter.class)
                 .addFilterBefore(new CustomCorsFilter(externalMethods()), CsrfFilter.class)
@@ -105,7 +113,7 @@ public class ApplicationConfig {
      *
      * @return ObjectMapper.
      */
-    private ObjectMapper mongoDbObjectMapper() {
+    public static ObjectMapper mongoDbObjectMapper() {
         var objectMapper = new ObjectMapper();
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         objectMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
@@ -12,6 +12,8 @@ import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Configuration
 public class MongoCompanyProfileConfig extends AbstractMongoClientConfiguration {
@@ -22,6 +24,9 @@ public class MongoCompanyProfileConfig extends AbstractMongoClientConfiguration
     @Value("${spring.data.mongodb.uri}")
     private String databaseUri;
 
+    @Value("${mongodb.auto-index-creation}")
+    private boolean autoIndexCreation;
+
     private final MongoCustomConversions mongoCustomConversions;
 
     @Autowired
@@ -35,6 +40,20 @@ public class MongoCompanyProfileConfig extends AbstractMongoClientConfiguration
         return new MongoTransactionManager(dbFactory);
     }
 
+    /**
+     * Runs the writes of a company profile change, with the insert of its resource changed event into the outbox, in
+     * one transaction when transactions and the outbox are enabled, and one after another otherwise. Without the
+     * outbox, the event is sent to chs-kafka-api once the change is written, so no transaction is held open across
+     * the call.
+     */
+    @Bean
+    TransactionOperations transactionOperations(MongoTransactionManager transactionManager,
+            @Value("${mongodb.transactional}") boolean transactional,
+            @Value("${outbox.enabled}") boolean outboxEnabled) {
+        return transactional && outboxEnabled ? new TransactionTemplate(transactionManager)
+                : TransactionOperations.withoutTransaction();
+    }
+
     @Override
     protected String getDatabaseName() {
         return this.databaseName;
@@ -44,6 +63,11 @@ public class MongoCompanyProfileConfig extends AbstractMongoClientConfiguration
         return this.databaseUri;
     }
 
+    @Override
+    protected boolean autoIndexCreation() {
+        return this.autoIndexCreation;
+    }
+
     @Override
     public MongoCustomConversions customConversions() {
         return this.mongoCustomConversions;
@@ -0,0 +1,49 @@
+package uk.gov.companieshouse.company.profile.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+import uk.gov.companieshouse.company.profile.repository.ReactiveCompanyProfileRepository;
+
+/**
+ * Reactive MongoDB client for the reactive read path, enabled by the reactive reads profile.
+ *
+ * <p>Documents are mapped with the same converter, and so the same custom conversions, as the blocking path. Writes
+ * and index creation stay with {@link MongoCompanyProfileConfig}.
+ */
+@Configuration
+@Profile(ReactiveMongoCompanyProfileConfig.REACTIVE_READS_PROFILE)
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveCompanyProfileRepository.class)
+public class ReactiveMongoCompanyProfileConfig {
+
+    public static final String REACTIVE_READS_PROFILE = "reactive-reads";
+
+    @Bean(destroyMethod = "close")
+    MongoClient reactiveMongoClient(@Value("${spring.data.mongodb.uri}") String databaseUri) {
+        return MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(databaseUri))
+                .build());
+    }
+
+    @Bean
+    ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory(MongoClient reactiveMongoClient,
+            @Value("${spring.data.mongodb.collection}") String databaseName) {
+        return new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, databaseName);
+    }
+
+    @Bean
+    ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+            MappingMongoConverter mappingMongoConverter) {
+        return new ReactiveMongoTemplate(reactiveMongoDatabaseFactory, mappingMongoConverter);
+    }
+}
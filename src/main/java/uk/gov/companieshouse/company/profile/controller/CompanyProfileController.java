@@ -1,29 +1,40 @@
 package uk.gov.companieshouse.company.profile.controller;
 
 import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+import static uk.gov.companieshouse.company.profile.controller.ConditionalResponses.notModified;
+import static uk.gov.companieshouse.company.profile.util.EtagUtils.matchesIfNoneMatch;
+import static uk.gov.companieshouse.company.profile.util.EtagUtils.toEntityTag;
 
 import com.mongodb.MongoTimeoutException;
 import jakarta.validation.Valid;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 import uk.gov.companieshouse.api.company.CompanyDetails;
 import uk.gov.companieshouse.api.company.CompanyProfile;
 import uk.gov.companieshouse.api.company.Data;
-import uk.gov.companieshouse.api.company.UkEstablishmentsList;
 import uk.gov.companieshouse.api.exception.BadRequestException;
 import uk.gov.companieshouse.api.exception.ServiceUnavailableException;
-import uk.gov.companieshouse.api.model.ukestablishments.PrivateUkEstablishmentsAddressListApi;
 import uk.gov.companieshouse.company.profile.exception.ResourceNotFoundException;
 import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.model.BatchLookupRequest;
+import uk.gov.companieshouse.company.profile.model.BatchLookupResponse;
+import uk.gov.companieshouse.company.profile.model.CompanyDetailsWithEtag;
 import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
 import uk.gov.companieshouse.company.profile.service.CompanyProfileService;
 import uk.gov.companieshouse.logging.Logger;
@@ -35,74 +46,98 @@ public class CompanyProfileController {
     private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
 
     private final CompanyProfileService companyProfileService;
+    private final CacheControl publicCacheControl;
+    private final CacheControl privateCacheControl;
 
     /**
      * Constructor.
      *
      * @param companyProfileService Company Profile Service
+     * @param maxAge                How long clients may reuse a response before revalidating it
      */
-    public CompanyProfileController(CompanyProfileService companyProfileService) {
+    public CompanyProfileController(CompanyProfileService companyProfileService,
+            @Value("${cache.http.max-age}") Duration maxAge) {
         this.companyProfileService = companyProfileService;
+        this.publicCacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+        this.privateCacheControl = CacheControl.maxAge(maxAge).cachePrivate().mustRevalidate();
     }
 
     /**
-     * Get the data object for given company profile number.
+     * Check whether a company profile exists for given company number.
      *
      * @param companyNumber The number of the company
-     * @return data object
+     * @return 200 if the company profile exists, otherwise 404
      */
-    @GetMapping("/company/{company_number}")
-    public ResponseEntity<Data> searchCompanyProfile(
-            @PathVariable("company_number") String companyNumber)
-            throws ResourceNotFoundException {
+    @RequestMapping(method = RequestMethod.HEAD, value = "/company/{company_number}")
+    public ResponseEntity<Void> checkCompanyProfileExists(@PathVariable("company_number") String companyNumber) {
         DataMapHolder.get()
                 .companyNumber(companyNumber);
-        LOGGER.info("Processing GET company profile", DataMapHolder.getLogMap());
-        try {
-            Data data = companyProfileService.retrieveCompanyNumber(companyNumber);
-            return new ResponseEntity<>(data, HttpStatus.OK);
-        } catch (DataAccessException dataAccessException) {
-            LOGGER.error("Error while trying to retrieve company profile", dataAccessException,
-                    DataMapHolder.getLogMap());
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        LOGGER.info("Processing HEAD company profile", DataMapHolder.getLogMap());
+        if (companyProfileService.exists(companyNumber)) {
+            return ResponseEntity.ok()
+                    .cacheControl(publicCacheControl)
+                    .build();
         }
+        return ResponseEntity.notFound().build();
     }
 
     /**
      * Retrieve a company profile for a given company number.
      *
      * @param companyNumber The company number of the company
+     * @param ifNoneMatch   The entity tags held by the client, if any
      * @return The company profile
      */
     @GetMapping("/company/{company_number}/links")
     public ResponseEntity<CompanyProfile> getCompanyProfile(
-            @PathVariable("company_number") String companyNumber) {
+            @PathVariable("company_number") String companyNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         DataMapHolder.get()
                 .companyNumber(companyNumber);
         LOGGER.info("Processing GET company links", DataMapHolder.getLogMap());
 
+        if (ifNoneMatch != null) {
+            String entityTag = toEntityTag(companyProfileService.getEtag(companyNumber).orElse(null));
+            if (matchesIfNoneMatch(ifNoneMatch, entityTag)) {
+                return notModified(entityTag, privateCacheControl);
+            }
+        }
+
         VersionedCompanyProfileDocument document = companyProfileService.get(companyNumber);
 
-        return new ResponseEntity<>(new CompanyProfile().data(document.companyProfile), HttpStatus.OK);
+        return ResponseEntity.ok()
+                .eTag(toEntityTag(document.companyProfile.getEtag()))
+                .cacheControl(privateCacheControl)
+                .body(new CompanyProfile().data(document.companyProfile));
     }
 
     /**
      * Get the company details object for given company number.
      *
      * @param companyNumber The number of the company
+     * @param ifNoneMatch   The entity tags held by the client, if any
      * @return company details object
      */
     @GetMapping("/company/{company_number}/company-detail")
     public ResponseEntity<CompanyDetails> getCompanyDetails(
-            @PathVariable("company_number") String companyNumber)
+            @PathVariable("company_number") String companyNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
             throws ResourceNotFoundException {
         DataMapHolder.get()
                 .companyNumber(companyNumber);
         LOGGER.info("Processing GET company profile detail",
                 DataMapHolder.getLogMap());
         try {
-            CompanyDetails companyDetails = companyProfileService.getCompanyDetails(companyNumber);
-            return new ResponseEntity<>(companyDetails, HttpStatus.OK);
+            // The etag is read with the company details, so a conditional request costs the same single read
+            CompanyDetailsWithEtag companyDetails = companyProfileService.getCompanyDetails(companyNumber);
+            String entityTag = toEntityTag(companyDetails.getEtag());
+            if (matchesIfNoneMatch(ifNoneMatch, entityTag)) {
+                return notModified(entityTag, publicCacheControl);
+            }
+            return ResponseEntity.ok()
+                    .eTag(entityTag)
+                    .cacheControl(publicCacheControl)
+                    .body(companyDetails.getCompanyDetails());
         } catch (DataAccessException dataAccessException) {
             LOGGER.error("Error while trying to get company details.", dataAccessException, DataMapHolder.getLogMap());
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
@@ -110,47 +145,38 @@ public class CompanyProfileController {
     }
 
     /**
-     * Retrieve a list of uk establishments for a given parent company number.
+     * Get the data objects for several company numbers with a single lookup.
      *
-     * @param parentCompanyNumber the supplied parent company number
-     * @return list of uk establishments
+     * @param request The company numbers to look up
+     * @return data objects keyed by company number, and the company numbers that were not found
      */
-    @GetMapping("/company/{company_number}/uk-establishments")
-    public ResponseEntity<UkEstablishmentsList> getUkEstablishments(
-            @PathVariable("company_number") String parentCompanyNumber) {
-        DataMapHolder.get().companyNumber(parentCompanyNumber);
-        LOGGER.info(
-                "Processing GET company profile uk establishments",
-                DataMapHolder.getLogMap());
+    @PostMapping("/company/internal/batch")
+    public ResponseEntity<BatchLookupResponse<Data>> searchCompanyProfiles(
+            @RequestBody BatchLookupRequest request) {
+        LOGGER.info("Processing batch GET company profiles", DataMapHolder.getLogMap());
         try {
-            UkEstablishmentsList data = companyProfileService
-                    .getUkEstablishments(parentCompanyNumber);
-            return new ResponseEntity<>(data, HttpStatus.OK);
+            return ResponseEntity.ok(companyProfileService.retrieveCompanyProfiles(request.getCompanyNumbers()));
         } catch (DataAccessException dataAccessException) {
-            LOGGER.error("Error accessing MongoDB for company.", dataAccessException, DataMapHolder.getLogMap());
+            LOGGER.error("Error while trying to retrieve company profiles", dataAccessException,
+                    DataMapHolder.getLogMap());
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
 
     /**
-     * Retrieve a list of uk establishments addresses for a given parent company number.
+     * Get the company details objects for several company numbers with a single lookup.
      *
-     * @param parentCompanyNumber the supplied parent company number
-     * @return list of uk establishments addresses
+     * @param request The company numbers to look up
+     * @return company details objects keyed by company number, and the company numbers that were not found
      */
-    @GetMapping("/company/{company_number}/uk-establishments/addresses")
-    public ResponseEntity<PrivateUkEstablishmentsAddressListApi> getUkEstablishmentsAddresses(
-            @PathVariable("company_number") String parentCompanyNumber) {
-        DataMapHolder.get().companyNumber(parentCompanyNumber);
-        LOGGER.info(
-                "Processing GET company profile uk establishments addresses",
-                DataMapHolder.getLogMap());
+    @PostMapping("/company/internal/batch/company-detail")
+    public ResponseEntity<BatchLookupResponse<CompanyDetails>> searchCompanyDetails(
+            @RequestBody BatchLookupRequest request) {
+        LOGGER.info("Processing batch GET company profile details", DataMapHolder.getLogMap());
         try {
-            PrivateUkEstablishmentsAddressListApi data = companyProfileService
-                    .getUkEstablishmentsAddresses(parentCompanyNumber);
-            return new ResponseEntity<>(data, HttpStatus.OK);
+            return ResponseEntity.ok(companyProfileService.retrieveCompanyDetails(request.getCompanyNumbers()));
         } catch (DataAccessException dataAccessException) {
-            LOGGER.error("Error accessing MongoDB for company.", dataAccessException, DataMapHolder.getLogMap());
+            LOGGER.error("Error while trying to get company details.", dataAccessException, DataMapHolder.getLogMap());
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
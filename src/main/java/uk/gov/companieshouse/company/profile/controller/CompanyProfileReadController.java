@@ -0,0 +1,144 @@
+package uk.gov.companieshouse.company.profile.controller;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+import static uk.gov.companieshouse.company.profile.config.ReactiveMongoCompanyProfileConfig.REACTIVE_READS_PROFILE;
+import static uk.gov.companieshouse.company.profile.controller.ConditionalResponses.notModified;
+import static uk.gov.companieshouse.company.profile.util.EtagUtils.matchesIfNoneMatch;
+import static uk.gov.companieshouse.company.profile.util.EtagUtils.toDatedEntityTag;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.api.company.UkEstablishmentsList;
+import uk.gov.companieshouse.api.model.ukestablishments.PrivateUkEstablishmentsAddressListApi;
+import uk.gov.companieshouse.company.profile.exception.ResourceNotFoundException;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.service.CompanyProfileService;
+import uk.gov.companieshouse.company.profile.util.EtagUtils;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Read endpoints that have a reactive alternative, served on the request thread unless the reactive reads profile
+ * is active.
+ */
+@RestController
+@Profile("!" + REACTIVE_READS_PROFILE)
+public class CompanyProfileReadController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+
+    private final CompanyProfileService companyProfileService;
+    private final CacheControl publicCacheControl;
+
+    /**
+     * Constructor.
+     *
+     * @param companyProfileService Company Profile Service
+     * @param maxAge                How long clients may reuse a response before revalidating it
+     */
+    public CompanyProfileReadController(CompanyProfileService companyProfileService,
+            @Value("${cache.http.max-age}") Duration maxAge) {
+        this.companyProfileService = companyProfileService;
+        this.publicCacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+    }
+
+    /**
+     * Get the data object for given company profile number.
+     *
+     * @param companyNumber The number of the company
+     * @param ifNoneMatch   The entity tags held by the client, if any
+     * @return data object
+     */
+    @GetMapping("/company/{company_number}")
+    public ResponseEntity<Data> searchCompanyProfile(
+            @PathVariable("company_number") String companyNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws ResourceNotFoundException {
+        DataMapHolder.get()
+                .companyNumber(companyNumber);
+        LOGGER.info("Processing GET company profile", DataMapHolder.getLogMap());
+        try {
+            if (ifNoneMatch != null) {
+                String entityTag = companyProfileService.getEtag(companyNumber)
+                        .map(EtagUtils::toDatedEntityTag)
+                        .orElse(null);
+                if (matchesIfNoneMatch(ifNoneMatch, entityTag)) {
+                    return notModified(entityTag, publicCacheControl);
+                }
+            }
+            Data data = companyProfileService.retrieveCompanyNumber(companyNumber);
+            return ResponseEntity.ok()
+                    .eTag(toDatedEntityTag(data.getEtag()))
+                    .cacheControl(publicCacheControl)
+                    .body(data);
+        } catch (DataAccessException dataAccessException) {
+            LOGGER.error("Error while trying to retrieve company profile", dataAccessException,
+                    DataMapHolder.getLogMap());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+
+    /**
+     * Retrieve a list of uk establishments for a given parent company number.
+     *
+     * @param parentCompanyNumber the supplied parent company number
+     * @param itemsPerPage        the number of uk establishments to return
+     * @param startIndex          the zero based index of the first uk establishment to return
+     * @return list of uk establishments
+     */
+    @GetMapping("/company/{company_number}/uk-establishments")
+    public ResponseEntity<UkEstablishmentsList> getUkEstablishments(
+            @PathVariable("company_number") String parentCompanyNumber,
+            @RequestParam(value = "items_per_page", required = false) Integer itemsPerPage,
+            @RequestParam(value = "start_index", defaultValue = "0") int startIndex) {
+        DataMapHolder.get().companyNumber(parentCompanyNumber);
+        LOGGER.info(
+                "Processing GET company profile uk establishments",
+                DataMapHolder.getLogMap());
+        try {
+            UkEstablishmentsList data = companyProfileService
+                    .getUkEstablishments(parentCompanyNumber, itemsPerPage, startIndex);
+            return new ResponseEntity<>(data, HttpStatus.OK);
+        } catch (DataAccessException dataAccessException) {
+            LOGGER.error("Error accessing MongoDB for company.", dataAccessException, DataMapHolder.getLogMap());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Retrieve a list of uk establishments addresses for a given parent company number.
+     *
+     * @param parentCompanyNumber the supplied parent company number
+     * @return list of uk establishments addresses
+     */
+    @GetMapping("/company/{company_number}/uk-establishments/addresses")
+    public ResponseEntity<PrivateUkEstablishmentsAddressListApi> getUkEstablishmentsAddresses(
+            @PathVariable("company_number") String parentCompanyNumber) {
+        DataMapHolder.get().companyNumber(parentCompanyNumber);
+        LOGGER.info(
+                "Processing GET company profile uk establishments addresses",
+                DataMapHolder.getLogMap());
+        try {
+            PrivateUkEstablishmentsAddressListApi data = companyProfileService
+                    .getUkEstablishmentsAddresses(parentCompanyNumber);
+            return new ResponseEntity<>(data, HttpStatus.OK);
+        } catch (DataAccessException dataAccessException) {
+            LOGGER.error("Error accessing MongoDB for company.", dataAccessException, DataMapHolder.getLogMap());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+}
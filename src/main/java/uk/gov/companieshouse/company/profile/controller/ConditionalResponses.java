@@ -0,0 +1,26 @@
+package uk.gov.companieshouse.company.profile.controller;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+final class ConditionalResponses {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+
+    private ConditionalResponses() {
+    }
+
+    static <T> ResponseEntity<T> notModified(String entityTag, CacheControl cacheControl) {
+        LOGGER.info("Company profile not modified", DataMapHolder.getLogMap());
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(entityTag)
+                .cacheControl(cacheControl)
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package uk.gov.companieshouse.company.profile.controller;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+import static uk.gov.companieshouse.company.profile.config.ReactiveMongoCompanyProfileConfig.REACTIVE_READS_PROFILE;
+import static uk.gov.companieshouse.company.profile.util.EtagUtils.matchesIfNoneMatch;
+import static uk.gov.companieshouse.company.profile.util.EtagUtils.toDatedEntityTag;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.api.company.UkEstablishment;
+import uk.gov.companieshouse.api.company.UkEstablishmentsList;
+import uk.gov.companieshouse.api.model.ukestablishments.PrivateUkEstablishmentsAddressApi;
+import uk.gov.companieshouse.api.model.ukestablishments.PrivateUkEstablishmentsAddressListApi;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.service.ReactiveCompanyProfileService;
+import uk.gov.companieshouse.company.profile.util.EtagUtils;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Read endpoints served without holding the request thread while MongoDB is read, active with the reactive reads
+ * profile in place of {@link CompanyProfileReadController}.
+ *
+ * <p>The uk establishments lists can also be requested as {@code application/x-ndjson}, in which case each item is
+ * written as soon as it is read rather than after the whole list has been collected.
+ */
+@RestController
+@Profile(REACTIVE_READS_PROFILE)
+public class ReactiveCompanyProfileReadController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+
+    private final ReactiveCompanyProfileService reactiveCompanyProfileService;
+    private final CacheControl publicCacheControl;
+
+    /**
+     * Constructor.
+     *
+     * @param reactiveCompanyProfileService Reactive Company Profile Service
+     * @param maxAge                        How long clients may reuse a response before revalidating it
+     */
+    public ReactiveCompanyProfileReadController(ReactiveCompanyProfileService reactiveCompanyProfileService,
+            @Value("${cache.http.max-age}") Duration maxAge) {
+        this.reactiveCompanyProfileService = reactiveCompanyProfileService;
+        this.publicCacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+    }
+
+    /**
+     * Get the data object for given company profile number.
+     *
+     * @param companyNumber The number of the company
+     * @param ifNoneMatch   The entity tags held by the client, if any
+     * @return data object
+     */
+    @GetMapping("/company/{company_number}")
+    public Mono<ResponseEntity<Data>> searchCompanyProfile(
+            @PathVariable("company_number") String companyNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        DataMapHolder.get()
+                .companyNumber(companyNumber);
+        Map<String, Object> logMap = DataMapHolder.getLogMap();
+        LOGGER.info("Processing GET company profile", logMap);
+        Mono<String> notModifiedEntityTag = ifNoneMatch == null ? Mono.empty()
+                : reactiveCompanyProfileService.getEtag(companyNumber)
+                        .map(EtagUtils::toDatedEntityTag)
+                        .filter(entityTag -> matchesIfNoneMatch(ifNoneMatch, entityTag));
+        return notModifiedEntityTag
+                .map(entityTag -> ConditionalResponses.<Data>notModified(entityTag, publicCacheControl))
+                .switchIfEmpty(Mono.defer(() -> reactiveCompanyProfileService.retrieveCompanyNumber(companyNumber)
+                        .map(data -> ResponseEntity.ok()
+                                .eTag(toDatedEntityTag(data.getEtag()))
+                                .cacheControl(publicCacheControl)
+                                .body(data))))
+                .onErrorResume(DataAccessException.class, dataAccessException -> {
+                    LOGGER.error("Error while trying to retrieve company profile", dataAccessException, logMap);
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+                });
+    }
+
+    /**
+     * Retrieve a list of uk establishments for a given parent company number.
+     *
+     * @param parentCompanyNumber the supplied parent company number
+     * @param itemsPerPage        the number of uk establishments to return
+     * @param startIndex          the zero based index of the first uk establishment to return
+     * @return list of uk establishments
+     */
+    @GetMapping("/company/{company_number}/uk-establishments")
+    public Mono<ResponseEntity<UkEstablishmentsList>> getUkEstablishments(
+            @PathVariable("company_number") String parentCompanyNumber,
+            @RequestParam(value = "items_per_page", required = false) Integer itemsPerPage,
+            @RequestParam(value = "start_index", defaultValue = "0") int startIndex) {
+        DataMapHolder.get().companyNumber(parentCompanyNumber);
+        Map<String, Object> logMap = DataMapHolder.getLogMap();
+        LOGGER.info("Processing GET company profile uk establishments", logMap);
+        return reactiveCompanyProfileService.getUkEstablishments(parentCompanyNumber, itemsPerPage, startIndex)
+                .map(ResponseEntity::ok)
+                .onErrorResume(DataAccessException.class, dataAccessException -> serviceUnavailable(
+                        dataAccessException, logMap));
+    }
+
+    /**
+     * Stream the uk establishments for a given parent company number as newline delimited JSON.
+     *
+     * @param parentCompanyNumber the supplied parent company number
+     * @return the uk establishments
+     */
+    @GetMapping(value = "/company/{company_number}/uk-establishments", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UkEstablishment> streamUkEstablishments(
+            @PathVariable("company_number") String parentCompanyNumber) {
+        DataMapHolder.get().companyNumber(parentCompanyNumber);
+        LOGGER.info("Processing streamed GET company profile uk establishments", DataMapHolder.getLogMap());
+        return reactiveCompanyProfileService.streamUkEstablishments(parentCompanyNumber);
+    }
+
+    /**
+     * Retrieve a list of uk establishments addresses for a given parent company number.
+     *
+     * @param parentCompanyNumber the supplied parent company number
+     * @return list of uk establishments addresses
+     */
+    @GetMapping("/company/{company_number}/uk-establishments/addresses")
+    public Mono<ResponseEntity<PrivateUkEstablishmentsAddressListApi>> getUkEstablishmentsAddresses(
+            @PathVariable("company_number") String parentCompanyNumber) {
+        DataMapHolder.get().companyNumber(parentCompanyNumber);
+        Map<String, Object> logMap = DataMapHolder.getLogMap();
+        LOGGER.info("Processing GET company profile uk establishments addresses", logMap);
+        return reactiveCompanyProfileService.getUkEstablishmentsAddresses(parentCompanyNumber)
+                .map(ResponseEntity::ok)
+                .onErrorResume(DataAccessException.class, dataAccessException -> serviceUnavailable(
+                        dataAccessException, logMap));
+    }
+
+    /**
+     * Stream the uk establishments addresses for a given parent company number as newline delimited JSON.
+     *
+     * @param parentCompanyNumber the supplied parent company number
+     * @return the uk establishments addresses
+     */
+    @GetMapping(value = "/company/{company_number}/uk-establishments/addresses",
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PrivateUkEstablishmentsAddressApi> streamUkEstablishmentsAddresses(
+            @PathVariable("company_number") String parentCompanyNumber) {
+        DataMapHolder.get().companyNumber(parentCompanyNumber);
+        LOGGER.info("Processing streamed GET company profile uk establishments addresses",
+                DataMapHolder.getLogMap());
+        return reactiveCompanyProfileService.streamUkEstablishmentsAddresses(parentCompanyNumber);
+    }
+
+    private static <T> Mono<ResponseEntity<T>> serviceUnavailable(DataAccessException dataAccessException,
+            Map<String, Object> logMap) {
+        LOGGER.error("Error accessing MongoDB for company.", dataAccessException, logMap);
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
@@ -1,14 +1,22 @@
 package uk.gov.companieshouse.company.profile.converter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.convert.ReadingConverter;
 import uk.gov.companieshouse.api.company.Data;
-import uk.gov.companieshouse.api.converter.ReadConverter;
 
 @ReadingConverter
-public class CompanyProfileDataReadConverter extends ReadConverter<Data> {
+public class CompanyProfileDataReadConverter implements Converter<Document, Data> {
+
+    private final JacksonDocumentCodec<Data> codec;
 
     public CompanyProfileDataReadConverter(ObjectMapper objectMapper, Class<Data> objectClass) {
-        super(objectMapper, objectClass);
+        this.codec = new JacksonDocumentCodec<>(objectMapper, objectClass);
+    }
+
+    @Override
+    public Data convert(Document source) {
+        return codec.decode(source);
     }
 }
@@ -1,14 +1,22 @@
 package uk.gov.companieshouse.company.profile.converter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.convert.WritingConverter;
 import uk.gov.companieshouse.api.company.Data;
-import uk.gov.companieshouse.api.converter.WriteConverter;
 
 @WritingConverter
-public class CompanyProfileDataWriteConverter extends WriteConverter<Data> {
+public class CompanyProfileDataWriteConverter implements Converter<Data, Document> {
+
+    private final JacksonDocumentCodec<Data> codec;
 
     public CompanyProfileDataWriteConverter(ObjectMapper objectMapper) {
-        super(objectMapper);
+        this.codec = new JacksonDocumentCodec<>(objectMapper, Data.class);
+    }
+
+    @Override
+    public Document convert(Data source) {
+        return codec.encode(source);
     }
 }
@@ -0,0 +1,193 @@
+package uk.gov.companieshouse.company.profile.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+/**
+ * Maps a model class to and from a BSON {@link Document} through Jackson's token stream, without building the
+ * intermediate JSON string that the SDK's {@code ReadConverter} and {@code WriteConverter} parse.
+ *
+ * <p>Documents written and objects read are the same as those of the JSON round trip. Dates are passed to the
+ * {@link LocalDate} deserialiser as the stored {@link Date}, which it reads as it would the relaxed extended JSON form
+ * that {@link Document#toJson()} gives them, and numbers are narrowed the way the BSON JSON reader narrows them. A
+ * document holding a value the relaxed JSON form would represent in some other way is read through the JSON round
+ * trip instead.
+ *
+ * @param <T> the model class
+ */
+public class JacksonDocumentCodec<T> {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final ObjectMapper jsonObjectMapper;
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper the object mapper used for MongoDB documents
+     * @param type         the model class
+     */
+    public JacksonDocumentCodec(ObjectMapper objectMapper, Class<T> type) {
+        this.jsonObjectMapper = objectMapper;
+        this.objectMapper = objectMapper.copy()
+                .registerModule(new SimpleModule("BsonDates")
+                        .addSerializer(LocalDate.class, new BsonDateSerializer()));
+        this.type = type;
+    }
+
+    /**
+     * Read a model object from a document.
+     *
+     * @param document the stored document
+     * @return the model object
+     */
+    public T decode(Document document) {
+        try (TokenBuffer tokens = new TokenBuffer(objectMapper, false)) {
+            if (!writeValue(document, tokens)) {
+                return jsonObjectMapper.readValue(document.toJson(), type);
+            }
+            return objectMapper.readValue(tokens.asParser(), type);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Write a model object to a document.
+     *
+     * @param value the model object
+     * @return the document to store
+     */
+    public Document encode(T value) {
+        try (TokenBuffer tokens = new TokenBuffer(objectMapper, false)) {
+            objectMapper.writeValue(tokens, value);
+            try (JsonParser parser = tokens.asParser()) {
+                parser.nextToken();
+                return (Document) readValue(parser);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static boolean writeValue(Object value, JsonGenerator generator) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String string) {
+            generator.writeString(string);
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof Integer number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Long number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Double number && Double.isFinite(number)) {
+            generator.writeNumber(number);
+        } else if (value instanceof Date date) {
+            generator.writeEmbeddedObject(date);
+        } else if (value instanceof ObjectId objectId) {
+            writeWrapped("$oid", objectId.toHexString(), generator);
+        } else if (value instanceof Decimal128 decimal) {
+            writeWrapped("$numberDecimal", decimal.toString(), generator);
+        } else if (value instanceof Map<?, ?> map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                generator.writeFieldName((String) entry.getKey());
+                if (!writeValue(entry.getValue(), generator)) {
+                    return false;
+                }
+            }
+            generator.writeEndObject();
+        } else if (value instanceof List<?> list) {
+            generator.writeStartArray();
+            for (Object item : list) {
+                if (!writeValue(item, generator)) {
+                    return false;
+                }
+            }
+            generator.writeEndArray();
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static void writeWrapped(String key, String value, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField(key, value);
+        generator.writeEndObject();
+    }
+
+    private static Object readValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        return switch (token) {
+            case START_OBJECT -> {
+                Document document = new Document();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = parser.currentName();
+                    parser.nextToken();
+                    document.put(key, readValue(parser));
+                }
+                yield document;
+            }
+            case START_ARRAY -> {
+                List<Object> list = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readValue(parser));
+                }
+                yield list;
+            }
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT -> readInteger(parser);
+            // The JSON round trip writes the number's text and reads it back as a double
+            case VALUE_NUMBER_FLOAT -> Double.parseDouble(parser.getText());
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            case VALUE_EMBEDDED_OBJECT -> parser.getEmbeddedObject();
+            default -> throw new IllegalStateException("Unexpected token " + token);
+        };
+    }
+
+    private static Object readInteger(JsonParser parser) throws IOException {
+        if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+            BigInteger value = parser.getBigIntegerValue();
+            if (value.bitLength() >= Long.SIZE) {
+                return value.doubleValue();
+            }
+        }
+        long value = parser.getLongValue();
+        return value == (int) value ? (Object) (int) value : (Object) value;
+    }
+
+    /**
+     * Writes a date as the BSON date that parsing the {@code ISODate} written by the JSON round trip gives.
+     */
+    private static final class BsonDateSerializer extends JsonSerializer<LocalDate> {
+
+        @Override
+        public void serialize(LocalDate localDate, JsonGenerator jsonGenerator,
+                SerializerProvider serializerProvider) throws IOException {
+            jsonGenerator.writeEmbeddedObject(new Date(localDate.toEpochDay() * MILLIS_PER_DAY));
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package uk.gov.companieshouse.company.profile.converter;
 
-import org.springframework.data.convert.ReadingConverter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
 import uk.gov.companieshouse.api.company.SensitiveData;
-import uk.gov.companieshouse.api.converter.ReadConverter;
 
 @ReadingConverter
-public class SensitiveDataReadConverter extends ReadConverter<SensitiveData> {
+public class SensitiveDataReadConverter implements Converter<Document, SensitiveData> {
+
+    private final JacksonDocumentCodec<SensitiveData> codec;
+
+    public SensitiveDataReadConverter(ObjectMapper objectMapper, Class<SensitiveData> objectClass) {
+        this.codec = new JacksonDocumentCodec<>(objectMapper, objectClass);
+    }
 
-    public SensitiveDataReadConverter(ObjectMapper objectMapper,  Class<SensitiveData> objectClass) {
-        super(objectMapper,objectClass);
+    @Override
+    public SensitiveData convert(Document source) {
+        return codec.decode(source);
     }
-}
\ No newline at end of file
+}
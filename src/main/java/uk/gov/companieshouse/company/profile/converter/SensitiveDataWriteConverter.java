@@ -1,17 +1,22 @@
 package uk.gov.companieshouse.company.profile.converter;
 
-import org.springframework.data.convert.WritingConverter;
 import com.fasterxml.jackson.databind.ObjectMapper;
-
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
 import uk.gov.companieshouse.api.company.SensitiveData;
-import uk.gov.companieshouse.api.converter.WriteConverter;
-
 
 @WritingConverter
-public class SensitiveDataWriteConverter extends WriteConverter<SensitiveData> {
+public class SensitiveDataWriteConverter implements Converter<SensitiveData, Document> {
 
+    private final JacksonDocumentCodec<SensitiveData> codec;
 
     public SensitiveDataWriteConverter(ObjectMapper objectMapper) {
-        super(objectMapper);
+        this.codec = new JacksonDocumentCodec<>(objectMapper, SensitiveData.class);
+    }
+
+    @Override
+    public Document convert(SensitiveData source) {
+        return codec.encode(source);
     }
-}
\ No newline at end of file
+}
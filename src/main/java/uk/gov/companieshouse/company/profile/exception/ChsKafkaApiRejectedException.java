@@ -0,0 +1,14 @@
+package uk.gov.companieshouse.company.profile.exception;
+
+import uk.gov.companieshouse.api.exception.ServiceUnavailableException;
+
+/**
+ * Thrown when a call to chs-kafka-api is rejected by its circuit breaker or bulkhead without being made.
+ */
+public class ChsKafkaApiRejectedException extends ServiceUnavailableException {
+
+    public ChsKafkaApiRejectedException(String message) {
+        super(message);
+    }
+
+}
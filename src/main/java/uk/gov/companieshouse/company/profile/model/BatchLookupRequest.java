@@ -0,0 +1,43 @@
+package uk.gov.companieshouse.company.profile.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import java.util.Objects;
+
+public class BatchLookupRequest {
+
+    @JsonProperty("company_numbers")
+    private List<String> companyNumbers;
+
+    public BatchLookupRequest() {
+    }
+
+    public BatchLookupRequest(List<String> companyNumbers) {
+        this.companyNumbers = companyNumbers;
+    }
+
+    public List<String> getCompanyNumbers() {
+        return companyNumbers;
+    }
+
+    public void setCompanyNumbers(List<String> companyNumbers) {
+        this.companyNumbers = companyNumbers;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BatchLookupRequest that = (BatchLookupRequest) o;
+        return Objects.equals(companyNumbers, that.companyNumbers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(companyNumbers);
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.companieshouse.company.profile.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The result of a batch lookup, keyed by company number, with the company numbers that were not found.
+ *
+ * @param <T> the type returned for each company
+ */
+public class BatchLookupResponse<T> {
+
+    @JsonProperty("items")
+    private final Map<String, T> items;
+
+    @JsonProperty("missing")
+    private final List<String> missing;
+
+    public BatchLookupResponse(Map<String, T> items, List<String> missing) {
+        this.items = items;
+        this.missing = missing;
+    }
+
+    public Map<String, T> getItems() {
+        return items;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BatchLookupResponse<?> that = (BatchLookupResponse<?>) o;
+        return Objects.equals(items, that.items) && Objects.equals(missing, that.missing);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(items, missing);
+    }
+}
@@ -0,0 +1,43 @@
+package uk.gov.companieshouse.company.profile.model;
+
+import java.util.Objects;
+import uk.gov.companieshouse.api.company.CompanyDetails;
+
+/**
+ * The company details of a company profile, with the etag of the profile they were read from.
+ */
+public class CompanyDetailsWithEtag {
+
+    private final CompanyDetails companyDetails;
+    private final String etag;
+
+    public CompanyDetailsWithEtag(CompanyDetails companyDetails, String etag) {
+        this.companyDetails = companyDetails;
+        this.etag = etag;
+    }
+
+    public CompanyDetails getCompanyDetails() {
+        return companyDetails;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CompanyDetailsWithEtag that = (CompanyDetailsWithEtag) o;
+        return Objects.equals(companyDetails, that.companyDetails) && Objects.equals(etag, that.etag);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(companyDetails, etag);
+    }
+}
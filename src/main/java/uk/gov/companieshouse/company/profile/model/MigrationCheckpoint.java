@@ -0,0 +1,86 @@
+package uk.gov.companieshouse.company.profile.model;
+
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * How far a background migration of the company profile collection has got, so that it resumes where it stopped.
+ */
+@Document("company_profile_migrations")
+public class MigrationCheckpoint {
+
+    @Id
+    private String id;
+
+    @Field("last_id")
+    private String lastId;
+
+    @Field("pass_migrated")
+    private long passMigrated;
+
+    @Field("migrated")
+    private long migrated;
+
+    @Field("updated_at")
+    private Instant updatedAt;
+
+    @Field("completed_at")
+    private Instant completedAt;
+
+    public MigrationCheckpoint() {
+    }
+
+    public MigrationCheckpoint(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(String lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getPassMigrated() {
+        return passMigrated;
+    }
+
+    public void setPassMigrated(long passMigrated) {
+        this.passMigrated = passMigrated;
+    }
+
+    public long getMigrated() {
+        return migrated;
+    }
+
+    public void setMigrated(long migrated) {
+        this.migrated = migrated;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+}
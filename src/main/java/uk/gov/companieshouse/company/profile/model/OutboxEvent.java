@@ -0,0 +1,129 @@
+package uk.gov.companieshouse.company.profile.model;
+
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import uk.gov.companieshouse.api.company.Data;
+
+/**
+ * A resource changed event written alongside the company profile change it reports, waiting to be sent to
+ * chs-kafka-api. An event that fails every attempt is parked in the parked collection, with when it was parked.
+ */
+@Document("company_profile_outbox")
+@CompoundIndexes({
+        // Serves the poll for due events in order, filtering on the index keys of those not yet due
+        @CompoundIndex(name = "due", def = "{'created_at': 1, '_id': 1, 'next_attempt_at': 1, 'leased_until': 1}"),
+        @CompoundIndex(name = "company_number", def = "{'company_number': 1, 'created_at': 1, '_id': 1}")
+})
+public class OutboxEvent {
+
+    public static final String PARKED_COLLECTION = "company_profile_outbox_parked";
+
+    @Id
+    private String id;
+
+    @Field("company_number")
+    private String companyNumber;
+
+    @Field("event_type")
+    private String eventType;
+
+    @Field("deleted_data")
+    private Data deletedData;
+
+    @Field("context_id")
+    private String contextId;
+
+    @Field("created_at")
+    private Instant createdAt;
+
+    @Field("attempts")
+    private int attempts;
+
+    @Field("next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Field("leased_until")
+    private Instant leasedUntil;
+
+    @Field("parked_at")
+    private Instant parkedAt;
+
+    public OutboxEvent() {
+    }
+
+    /**
+     * Constructor for an event to be sent as soon as possible.
+     *
+     * @param companyNumber the company number of the company profile changed
+     * @param eventType     changed or deleted
+     * @param deletedData   the company profile deleted, if any
+     * @param contextId     the request id of the request making the change
+     * @param createdAt     when the change was made
+     */
+    public OutboxEvent(String companyNumber, String eventType, Data deletedData, String contextId,
+            Instant createdAt) {
+        this.companyNumber = companyNumber;
+        this.eventType = eventType;
+        this.deletedData = deletedData;
+        this.contextId = contextId;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+        this.leasedUntil = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCompanyNumber() {
+        return companyNumber;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public Data getDeletedData() {
+        return deletedData;
+    }
+
+    public String getContextId() {
+        return contextId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public Instant getLeasedUntil() {
+        return leasedUntil;
+    }
+
+    public Instant getParkedAt() {
+        return parkedAt;
+    }
+
+    public void setParkedAt(Instant parkedAt) {
+        this.parkedAt = parkedAt;
+    }
+}
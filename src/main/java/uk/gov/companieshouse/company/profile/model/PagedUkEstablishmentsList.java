@@ -0,0 +1,74 @@
+package uk.gov.companieshouse.company.profile.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Objects;
+import uk.gov.companieshouse.api.company.UkEstablishmentsList;
+
+/**
+ * A page of UK establishments, with the paging details the generated list model does not carry.
+ */
+public class PagedUkEstablishmentsList extends UkEstablishmentsList {
+
+    @JsonProperty("items_per_page")
+    private Integer itemsPerPage;
+
+    @JsonProperty("start_index")
+    private Integer startIndex;
+
+    @JsonProperty("total_results")
+    private Long totalResults;
+
+    public Integer getItemsPerPage() {
+        return itemsPerPage;
+    }
+
+    public PagedUkEstablishmentsList itemsPerPage(Integer itemsPerPage) {
+        this.itemsPerPage = itemsPerPage;
+        return this;
+    }
+
+    public Integer getStartIndex() {
+        return startIndex;
+    }
+
+    public PagedUkEstablishmentsList startIndex(Integer startIndex) {
+        this.startIndex = startIndex;
+        return this;
+    }
+
+    public Long getTotalResults() {
+        return totalResults;
+    }
+
+    public PagedUkEstablishmentsList totalResults(Long totalResults) {
+        this.totalResults = totalResults;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        PagedUkEstablishmentsList that = (PagedUkEstablishmentsList) o;
+        return Objects.equals(itemsPerPage, that.itemsPerPage)
+                && Objects.equals(startIndex, that.startIndex)
+                && Objects.equals(totalResults, that.totalResults);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + Objects.hashCode(itemsPerPage);
+        result = 31 * result + Objects.hashCode(startIndex);
+        result = 31 * result + Objects.hashCode(totalResults);
+        return result;
+    }
+}
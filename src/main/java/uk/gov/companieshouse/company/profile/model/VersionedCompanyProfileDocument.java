@@ -3,10 +3,19 @@ package uk.gov.companieshouse.company.profile.model;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import uk.gov.companieshouse.api.company.Data;
 import uk.gov.companieshouse.api.model.CompanyProfileDocument;
 import uk.gov.companieshouse.api.model.Updated;
 
+@CompoundIndexes({
+        @CompoundIndex(name = "company_detail_etag", def = "{'_id': 1, 'data.company_number': 1, "
+                + "'data.company_name': 1, 'data.company_status': 1, 'data.etag': 1}"),
+        @CompoundIndex(name = "parent_company_number", def = "{'parent_company_number': 1, '_id': 1}"),
+        @CompoundIndex(name = "parent_company_status", def = "{'parent_company_number': 1, 'data.company_status': 1, "
+                + "'data.date_of_creation': -1}")
+})
 public class VersionedCompanyProfileDocument extends CompanyProfileDocument {
 
     @Version
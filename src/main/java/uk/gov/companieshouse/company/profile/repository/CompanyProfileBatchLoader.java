@@ -0,0 +1,175 @@
+package uk.gov.companieshouse.company.profile.repository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+/**
+ * Merges concurrent lookups of different company profiles by id into a single {@code $in} query.
+ *
+ * <p>The first lookup to arrive opens a batch and waits for the configured window, or until the batch is full,
+ * before reading every company number collected in the meantime. Later lookups wait for that read rather than
+ * making their own. A company number already waiting in the open batch is read on its own so that no two callers
+ * are handed the same document. When disabled each lookup goes straight to the repository.
+ */
+@Component
+public class CompanyProfileBatchLoader {
+
+    private static final String BATCH_SIZE_METRIC = "company_profile.batch_loader.batch_size";
+    private static final String WAIT_METRIC = "company_profile.batch_loader.wait";
+
+    private final CompanyProfileRepository companyProfileRepository;
+    private final boolean enabled;
+    private final int maximumSize;
+    private final long waitWindowNanos;
+    private final DistributionSummary batchSize;
+    private final Timer wait;
+
+    // A lock rather than a monitor, so that contended virtual threads do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, PendingLookup> openBatch = new LinkedHashMap<>();
+    private Thread openBatchOwner;
+
+    /**
+     * Constructor.
+     */
+    public CompanyProfileBatchLoader(CompanyProfileRepository companyProfileRepository, MeterRegistry meterRegistry,
+            @Value("${mongodb.batch-loader.enabled}") boolean enabled,
+            @Value("${mongodb.batch-loader.maximum-size}") int maximumSize,
+            @Value("${mongodb.batch-loader.wait-window}") Duration waitWindow) {
+        this.companyProfileRepository = companyProfileRepository;
+        this.enabled = enabled;
+        this.maximumSize = maximumSize;
+        this.waitWindowNanos = waitWindow.toNanos();
+        this.batchSize = DistributionSummary.builder(BATCH_SIZE_METRIC)
+                .description("Number of company profiles read by each batched query")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.wait = Timer.builder(WAIT_METRIC)
+                .description("Time a lookup waited for its batch to be read")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Finds the company profile with the given id, batching the read with any concurrent lookups.
+     *
+     * @param companyNumber the company number
+     * @return the company profile, otherwise empty
+     */
+    public Optional<VersionedCompanyProfileDocument> findById(String companyNumber) {
+        if (!enabled) {
+            return companyProfileRepository.findById(companyNumber);
+        }
+
+        PendingLookup lookup = new PendingLookup(System.nanoTime());
+        boolean opensBatch;
+        Map<String, PendingLookup> fullBatch = null;
+        Thread waitingOwner = null;
+        lock.lock();
+        try {
+            if (openBatch.containsKey(companyNumber)) {
+                lookup = null;
+                opensBatch = false;
+            } else {
+                opensBatch = openBatch.isEmpty();
+                if (opensBatch) {
+                    openBatchOwner = Thread.currentThread();
+                }
+                openBatch.put(companyNumber, lookup);
+                if (openBatch.size() >= maximumSize) {
+                    waitingOwner = openBatchOwner;
+                    fullBatch = closeBatch();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (lookup == null) {
+            return companyProfileRepository.findById(companyNumber);
+        }
+        if (fullBatch != null) {
+            // Stop the lookup that opened the batch from waiting out the rest of the window
+            if (waitingOwner != Thread.currentThread()) {
+                LockSupport.unpark(waitingOwner);
+            }
+            read(fullBatch);
+        } else if (opensBatch) {
+            LockSupport.parkNanos(waitWindowNanos);
+            Map<String, PendingLookup> batch = null;
+            lock.lock();
+            try {
+                // The batch may already have been read by a lookup that filled it
+                if (openBatch.get(companyNumber) == lookup) {
+                    batch = closeBatch();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (batch != null) {
+                read(batch);
+            }
+        }
+        return await(lookup.result());
+    }
+
+    private Map<String, PendingLookup> closeBatch() {
+        Map<String, PendingLookup> batch = openBatch;
+        openBatch = new LinkedHashMap<>();
+        openBatchOwner = null;
+        return batch;
+    }
+
+    private void read(Map<String, PendingLookup> batch) {
+        long readStarted = System.nanoTime();
+        batch.values().forEach(lookup -> wait.record(readStarted - lookup.enqueued(), TimeUnit.NANOSECONDS));
+        batchSize.record(batch.size());
+        try {
+            Map<String, VersionedCompanyProfileDocument> found = new HashMap<>();
+            companyProfileRepository.findAllById(new ArrayList<>(batch.keySet()))
+                    .forEach(document -> found.put(document.getId(), document));
+            batch.forEach((companyNumber, lookup) ->
+                    lookup.result().complete(Optional.ofNullable(found.get(companyNumber))));
+        } catch (Throwable ex) {
+            // Errors too, so that no lookup waits for ever on a read that has failed
+            batch.values().forEach(lookup -> lookup.result().completeExceptionally(ex));
+        }
+    }
+
+    private static Optional<VersionedCompanyProfileDocument> await(
+            CompletableFuture<Optional<VersionedCompanyProfileDocument>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    private record PendingLookup(long enqueued, CompletableFuture<Optional<VersionedCompanyProfileDocument>> result) {
+
+        PendingLookup(long enqueued) {
+            this(enqueued, new CompletableFuture<>());
+        }
+    }
+}
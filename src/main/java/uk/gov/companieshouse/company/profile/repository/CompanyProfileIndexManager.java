@@ -0,0 +1,208 @@
+package uk.gov.companieshouse.company.profile.repository;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.model.OutboxEvent;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Checks that the indexes the company profile queries rely on exist, so that none of them reads the whole collection.
+ *
+ * <p>Once the application has started, and before it accepts traffic, the indexes declared on the documents are
+ * compared by their keys with those in MongoDB. A missing index is created when enabled, and reported otherwise. Each
+ * company profile query, as {@link CompanyProfileQueries} builds it, is then explained, and any that would scan the
+ * whole collection reported. When enabled, the service reports itself out of service on its healthcheck while an
+ * index is missing or a query would scan the whole collection.
+ */
+@Component
+public class CompanyProfileIndexManager implements HealthIndicator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+    private static final String COLLECTION_SCAN = "COLLSCAN";
+    private static final String PROBE = "probe";
+    private static final List<Class<?>> DOCUMENTS = List.of(VersionedCompanyProfileDocument.class, OutboxEvent.class);
+
+    // The shapes of the company profile queries, from the builders and repository methods making them
+    static final Map<String, Query> QUERIES = CompanyProfileQueries.shapes(PROBE);
+
+    private final MongoTemplate mongoTemplate;
+    private final IndexResolver indexResolver;
+    private final QueryMapper queryMapper;
+    private final boolean verify;
+    private final boolean createMissing;
+    private final boolean failReadiness;
+    private final AtomicInteger missing = new AtomicInteger();
+    private final AtomicInteger collectionScans = new AtomicInteger();
+
+    private volatile List<String> problems = List.of();
+
+    /**
+     * Constructor.
+     */
+    public CompanyProfileIndexManager(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+            @Value("${mongodb.indexes.verify}") boolean verify,
+            @Value("${mongodb.indexes.create-missing}") boolean createMissing,
+            @Value("${mongodb.indexes.fail-readiness}") boolean failReadiness) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexResolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        this.verify = verify;
+        this.createMissing = createMissing;
+        this.failReadiness = failReadiness;
+        meterRegistry.gauge("company_profile.indexes.missing", missing);
+        meterRegistry.gauge("company_profile.indexes.collection_scans", collectionScans);
+    }
+
+    /**
+     * Checks the indexes once the application has started, before it accepts traffic.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        if (!verify) {
+            return;
+        }
+        try {
+            List<String> found = new ArrayList<>();
+            DOCUMENTS.forEach(document -> found.addAll(ensureIndexes(document)));
+            missing.set(found.size());
+            List<String> scans = findCollectionScans();
+            collectionScans.set(scans.size());
+            found.addAll(scans);
+            problems = List.copyOf(found);
+            if (found.isEmpty()) {
+                LOGGER.info("Company profile indexes verified", DataMapHolder.getLogMap());
+            }
+        } catch (DataAccessException ex) {
+            LOGGER.error("Unable to verify company profile indexes", ex, DataMapHolder.getLogMap());
+            problems = List.of("Unable to verify indexes");
+        }
+    }
+
+    @Override
+    public Health health() {
+        List<String> found = problems;
+        if (!failReadiness || found.isEmpty()) {
+            return Health.up().build();
+        }
+        return Health.outOfService().withDetail("problems", found).build();
+    }
+
+    /**
+     * Creates or reports the indexes declared on the given document that are missing from its collection.
+     *
+     * @param document the document class
+     * @return the indexes still missing
+     */
+    List<String> ensureIndexes(Class<?> document) {
+        String collection = mongoTemplate.getCollectionName(document);
+        Set<List<String>> existing = mongoTemplate.execute(collection, indexes -> indexes.listIndexes()
+                .map(index -> keys(index.get("key", Document.class)))
+                .into(new HashSet<>()));
+        List<String> stillMissing = new ArrayList<>();
+        for (IndexDefinition index : indexResolver.resolveIndexFor(document)) {
+            if (existing.contains(keys(index.getIndexKeys()))) {
+                continue;
+            }
+            String name = index.getIndexOptions().getString("name");
+            if (createMissing) {
+                mongoTemplate.indexOps(document).createIndex(index);
+                LOGGER.info(String.format("Created index %s on %s", name, collection), DataMapHolder.getLogMap());
+            } else {
+                LOGGER.error(String.format("Index %s is missing from %s", name, collection),
+                        DataMapHolder.getLogMap());
+                stillMissing.add(String.format("Index %s is missing from %s", name, collection));
+            }
+        }
+        return stillMissing;
+    }
+
+    /**
+     * Explains each company profile query.
+     *
+     * @return the queries that would scan the whole collection
+     */
+    List<String> findCollectionScans() {
+        String collection = mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class);
+        List<String> scans = new ArrayList<>();
+        QUERIES.forEach((name, query) -> {
+            if (planStages(explain(collection, query)).contains(COLLECTION_SCAN)) {
+                LOGGER.error(String.format("Query %s would scan the whole of %s", name, collection),
+                        DataMapHolder.getLogMap());
+                scans.add(String.format("Query %s would scan the whole of %s", name, collection));
+            }
+        });
+        return scans;
+    }
+
+    Document explain(String collection, Query query) {
+        // Mapped as the MongoTemplate maps the queries it makes, so that property names and values are as sent
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getPersistentEntity(VersionedCompanyProfileDocument.class);
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+        Document fields = queryMapper.getMappedFields(query.getFieldsObject(), entity);
+        return mongoTemplate.execute(collection, documents -> documents.find(filter)
+                .sort(sort)
+                .projection(fields)
+                .explain());
+    }
+
+    /**
+     * Gives the stages of the plan MongoDB chose for an explained query.
+     *
+     * @param explain the explain output
+     * @return the names of the stages of the winning plan
+     */
+    static Set<String> planStages(Document explain) {
+        Set<String> stages = new HashSet<>();
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        if (queryPlanner != null) {
+            addStages(queryPlanner.get("winningPlan"), stages);
+        }
+        return stages;
+    }
+
+    private static void addStages(Object plan, Set<String> stages) {
+        // Stages nest as inputStage, inputStages and, from MongoDB 7, queryPlan
+        if (plan instanceof Document stage) {
+            if (stage.get("stage") instanceof String name) {
+                stages.add(name);
+            }
+            stage.values().forEach(value -> addStages(value, stages));
+        } else if (plan instanceof List<?> inputs) {
+            inputs.forEach(input -> addStages(input, stages));
+        }
+    }
+
+    private static List<String> keys(Document keys) {
+        // Compared in order, as a compound index with its keys in another order is another index
+        return keys.entrySet().stream()
+                .map(key -> key.getKey() + ":" + (key.getValue() instanceof Number direction
+                        ? direction.intValue() : key.getValue()))
+                .toList();
+    }
+}
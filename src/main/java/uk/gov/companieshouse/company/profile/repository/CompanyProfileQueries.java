@@ -0,0 +1,146 @@
+package uk.gov.companieshouse.company.profile.repository;
+
+import static uk.gov.companieshouse.company.profile.util.DateUtils.parseDeltaAt;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+/**
+ * Builds the company profile queries made through the {@link org.springframework.data.mongodb.core.MongoTemplate},
+ * and gives the shape of every company profile query, those of the repositories included, so that the indexes they
+ * rely on are checked against the queries actually made.
+ */
+public final class CompanyProfileQueries {
+
+    private static final String ID_FIELD = "_id";
+    private static final String PARENT_COMPANY_NUMBER_FIELD = "parent_company_number";
+    private static final String DELTA_AT_FIELD = "delta_at";
+    private static final String PROBE_DELTA_AT = "20240101000000000000";
+    private static final List<Class<?>> REPOSITORIES =
+            List.of(CompanyProfileRepository.class, ReactiveCompanyProfileRepository.class);
+
+    private CompanyProfileQueries() {
+    }
+
+    /**
+     * Builds the query for a page of the uk establishments of a parent company.
+     *
+     * @param companyNumber the parent company number
+     * @param itemsPerPage  the most uk establishments to read
+     * @param startIndex    the number of uk establishments to skip
+     * @return the query
+     */
+    public static Query ukEstablishmentsQuery(String companyNumber, int itemsPerPage, int startIndex) {
+        // Ordered by _id so that the parent_company_number index serves the sort, skip and limit
+        Query query = new Query(Criteria.where(PARENT_COMPANY_NUMBER_FIELD).is(companyNumber))
+                .with(Sort.by(Sort.Direction.ASC, ID_FIELD))
+                .skip(startIndex)
+                .limit(itemsPerPage);
+        query.fields().include("data.company_name", "data.company_status", "data.registered_office_address.locality");
+        return query;
+    }
+
+    /**
+     * Builds the query a link is added to or deleted from a company profile by, to which the state of the link is
+     * added.
+     *
+     * @param companyNumber the company number
+     * @return the query
+     */
+    public static Query linkQuery(String companyNumber) {
+        Query query = new Query(Criteria.where(ID_FIELD).is(companyNumber));
+        query.fields().include(ID_FIELD);
+        return query;
+    }
+
+    /**
+     * Builds a query matching the company profile unless it holds a later delta than the one given, as
+     * {@link uk.gov.companieshouse.company.profile.util.DateUtils#isDeltaStale} decides in memory.
+     *
+     * @param companyNumber  the company number
+     * @param requestDeltaAt the delta_at of the request
+     * @return the query
+     */
+    public static Query deltaAtQuery(String companyNumber, String requestDeltaAt) {
+        return new Query(Criteria.where(ID_FIELD).is(companyNumber)
+                .orOperator(Criteria.where(DELTA_AT_FIELD).is(null),
+                        Criteria.where(DELTA_AT_FIELD).lte(parseDeltaAt(requestDeltaAt))));
+    }
+
+    /**
+     * Gives the shape of every company profile query, built by the query builders and from the repository methods.
+     *
+     * @param probe the company number the queries are made for
+     * @return the queries by name
+     */
+    static Map<String, Query> shapes(String probe) {
+        Map<String, Query> shapes = new LinkedHashMap<>();
+        shapes.put("uk_establishments", ukEstablishmentsQuery(probe, 1, 0));
+        shapes.put("link", linkQuery(probe));
+        shapes.put("delta_at", deltaAtQuery(probe, PROBE_DELTA_AT));
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                shapes.put(repository.getSimpleName() + "." + method.getName(), repositoryQuery(method, probe));
+            }
+        }
+        return shapes;
+    }
+
+    /**
+     * Gives the query a repository method makes, from its {@link org.springframework.data.mongodb.repository.Query}
+     * annotation or, without one, from the query derived from its name.
+     *
+     * @param method the repository method
+     * @param probe  the value of each of its parameters
+     * @return the query
+     */
+    static Query repositoryQuery(Method method, String probe) {
+        org.springframework.data.mongodb.repository.Query annotation =
+                method.getAnnotation(org.springframework.data.mongodb.repository.Query.class);
+        if (annotation == null) {
+            return derivedQuery(method, probe);
+        }
+        // A quoted ?0 is a single value and a bare ?0 a collection
+        BasicQuery query = new BasicQuery(annotation.value()
+                .replace("'?0'", "'" + probe + "'")
+                .replace("?0", "['" + probe + "']"),
+                annotation.fields().isEmpty() ? "{}" : annotation.fields());
+        if (!annotation.sort().isEmpty()) {
+            query.setSortObject(Document.parse(annotation.sort()));
+        }
+        return query;
+    }
+
+    private static Query derivedQuery(Method method, String probe) {
+        PartTree tree = new PartTree(method.getName(), VersionedCompanyProfileDocument.class);
+        List<Criteria> alternatives = tree.stream()
+                .map(alternative -> new Criteria().andOperator(alternative.stream()
+                        .map(part -> derivedCriteria(method, part, probe))
+                        .toList()))
+                .toList();
+        Query query = new Query(alternatives.size() == 1 ? alternatives.getFirst()
+                : new Criteria().orOperator(alternatives));
+        return query.with(tree.getSort());
+    }
+
+    private static Criteria derivedCriteria(Method method, Part part, String probe) {
+        Criteria criteria = Criteria.where(part.getProperty().toDotPath());
+        return switch (part.getType()) {
+            case SIMPLE_PROPERTY -> criteria.is(probe);
+            case IN -> criteria.in(probe);
+            case NEGATING_SIMPLE_PROPERTY -> criteria.ne(probe);
+            default -> throw new IllegalArgumentException(String.format("Derived query %s of %s has no shape",
+                    part.getType(), method.getName()));
+        };
+    }
+}
@@ -1,6 +1,8 @@
 package uk.gov.companieshouse.company.profile.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -9,9 +11,25 @@ import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocume
 @Repository
 public interface CompanyProfileRepository extends MongoRepository<VersionedCompanyProfileDocument, String> {
 
-    @Query("{'parent_company_number' : '?0'}")
-    List<VersionedCompanyProfileDocument> findAllByParentCompanyNumber(String parentCompanyNumber);
+    @Query(value = "{'parent_company_number' : '?0'}", count = true)
+    long countByParentCompanyNumber(String parentCompanyNumber);
 
     @Query(value = "{'parent_company_number' : '?0', 'data.company_status': 'open'}", sort = "{'data.date_of_creation': -1}")
     List<VersionedCompanyProfileDocument> findAllOpenCompanyProfilesByParentNumberSortedByCreation(String parentCompanyNumber);
+
+    @Query(value = "{'_id' : '?0'}", fields = "{'data.etag': 1}")
+    Optional<VersionedCompanyProfileDocument> findEtagById(String companyNumber);
+
+    @Query(value = "{'_id' : '?0'}", fields = "{'data': 1}")
+    Optional<VersionedCompanyProfileDocument> findCompanyProfileDataById(String companyNumber);
+
+    // $eq keeps MongoDB off its _id fast path, so the company_detail_etag index, led by _id, covers the query and
+    // only the index is read; without that index the _id index serves it
+    @Query(value = "{'_id' : {'$eq' : '?0'}}",
+            fields = "{'data.company_number': 1, 'data.company_name': 1, 'data.company_status': 1, 'data.etag': 1}")
+    Optional<VersionedCompanyProfileDocument> findCompanyDetailsById(String companyNumber);
+
+    @Query(value = "{'_id' : {'$in' : ?0}}",
+            fields = "{'data.company_number': 1, 'data.company_name': 1, 'data.company_status': 1}")
+    List<VersionedCompanyProfileDocument> findCompanyDetailsByIdIn(Collection<String> companyNumbers);
 }
@@ -0,0 +1,23 @@
+package uk.gov.companieshouse.company.profile.repository;
+
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+@Repository
+public interface ReactiveCompanyProfileRepository
+        extends ReactiveMongoRepository<VersionedCompanyProfileDocument, String> {
+
+    @Query(value = "{'parent_company_number' : '?0'}", count = true)
+    Mono<Long> countByParentCompanyNumber(String parentCompanyNumber);
+
+    @Query(value = "{'parent_company_number' : '?0', 'data.company_status': 'open'}", sort = "{'data.date_of_creation': -1}")
+    Flux<VersionedCompanyProfileDocument> findAllOpenCompanyProfilesByParentNumberSortedByCreation(
+            String parentCompanyNumber);
+
+    @Query(value = "{'_id' : '?0'}", fields = "{'data.etag': 1}")
+    Mono<VersionedCompanyProfileDocument> findEtagById(String companyNumber);
+}
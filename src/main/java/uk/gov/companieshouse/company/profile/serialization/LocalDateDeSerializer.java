@@ -3,59 +3,168 @@ package uk.gov.companieshouse.company.profile.serialization;
 import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.NumberInput;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.Optional;
+import java.util.Date;
 import uk.gov.companieshouse.api.exception.BadRequestException;
 import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
 import uk.gov.companieshouse.logging.Logger;
 import uk.gov.companieshouse.logging.LoggerFactory;
 
-
+/**
+ * Reads a date stored as a BSON date, either in the relaxed extended JSON form {@code Document.toJson()} gives it or
+ * as the {@link Date} itself, streaming the tokens rather than reading them into a tree.
+ */
 public class LocalDateDeSerializer extends JsonDeserializer<LocalDate> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
 
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd'T'HH:mm[:ss[.SSS][.SS][.S]]'Z'");
+
+    // Latest date Document.toJson() writes as an ISO-8601 string rather than as milliseconds
+    private static final long LAST_ISO_DATE_MILLIS = 253402300799999L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
     @Override
     public LocalDate deserialize(JsonParser jsonParser, DeserializationContext
             deserializationContext) {
         try {
-            DateTimeFormatter dateTimeFormatter = DateTimeFormatter
-                    .ofPattern("yyyy-MM-dd'T'HH:mm[:ss[.SSS][.SS][.S]]'Z'");
-            JsonNode jsonNode = jsonParser.readValueAsTree();
-            JsonNode dateNode = jsonNode.get("$date");
-
-            LocalDate parsedDate = null;
-
-            if (dateNode != null && !dateNode.isNull()) {
-                if (dateNode.isTextual() && dateNode.textValue() != null) {
-                    parsedDate = LocalDate.parse(dateNode.textValue(), dateTimeFormatter);
-                } else if (dateNode.has("$numberLong")) {
-                    long epochMillis = dateNode.get("$numberLong").asLong();
-                    parsedDate = LocalDate.ofInstant(
-                            Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
-                }
+            JsonToken token = jsonParser.currentToken();
+            if (token == JsonToken.VALUE_EMBEDDED_OBJECT) {
+                return jsonParser.getEmbeddedObject() instanceof Date date ? fromBsonDate(date.getTime()) : null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                jsonParser.skipChildren();
+                return null;
             }
 
-            parsedDate = Optional.ofNullable(parsedDate).orElse(null);
-
-            /** If textValue() returns a value we received a string of
-             * format yyyy-MM-dd'T'HH:mm:ss'Z
-             * and use dateTimeFormatter to return LocalDate.
-             *
-             * Otherwise we received a long of milliseconds away
-             * from 01/01/1970 and need to return
-             * a LocalDate without dateTimeFormatter.
+            /* The value of the last $date field is either a string of
+             * format yyyy-MM-dd'T'HH:mm:ss'Z, parsed to a LocalDate,
+             * or a $numberLong of milliseconds away from 01/01/1970,
+             * converted to a LocalDate in the system default zone.
              */
-            return parsedDate;
+            Object dateValue = null;
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = jsonParser.currentName();
+                JsonToken valueToken = jsonParser.nextToken();
+                if ("$date".equals(fieldName)) {
+                    dateValue = readDateValue(jsonParser, valueToken);
+                } else {
+                    jsonParser.skipChildren();
+                }
+            }
+
+            if (dateValue instanceof String text) {
+                return parse(text);
+            }
+            if (dateValue instanceof Long epochMillis) {
+                return LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+            }
+            return null;
         } catch (Exception exception) {
             LOGGER.error("Deserialization failed.", exception, DataMapHolder.getLogMap());
             throw new BadRequestException(exception.getMessage());
         }
     }
+
+    private static Object readDateValue(JsonParser jsonParser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return jsonParser.getText();
+        }
+        if (token != JsonToken.START_OBJECT) {
+            jsonParser.skipChildren();
+            return null;
+        }
+        Long epochMillis = null;
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jsonParser.currentName();
+            JsonToken valueToken = jsonParser.nextToken();
+            if ("$numberLong".equals(fieldName)) {
+                epochMillis = readNumberLong(jsonParser, valueToken);
+            } else {
+                jsonParser.skipChildren();
+            }
+        }
+        return epochMillis;
+    }
+
+    // Mirrors JsonNode.asLong(), which gives 0 for values that are not numbers
+    private static long readNumberLong(JsonParser jsonParser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> NumberInput.parseAsLong(jsonParser.getText(), 0L);
+            case VALUE_NUMBER_INT -> jsonParser.getLongValue();
+            case VALUE_NUMBER_FLOAT -> (long) jsonParser.getDoubleValue();
+            case VALUE_TRUE -> 1L;
+            default -> {
+                jsonParser.skipChildren();
+                yield 0L;
+            }
+        };
+    }
+
+    /**
+     * Gives the date {@code Document.toJson()} would have written for a BSON date: the UTC date of an ISO-8601 string
+     * within its range, otherwise the date of the $numberLong milliseconds in the system default zone.
+     */
+    private static LocalDate fromBsonDate(long epochMillis) {
+        if (epochMillis >= 0 && epochMillis <= LAST_ISO_DATE_MILLIS) {
+            return LocalDate.ofEpochDay(epochMillis / MILLIS_PER_DAY);
+        }
+        return LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Reads the date from the fields of the yyyy-MM-dd'T'HH:mm[:ss[.S{1,3}]]'Z' strings Document.toJson() writes,
+     * leaving anything else, including values the formatter would resolve onto a valid date, to the formatter.
+     */
+    private static LocalDate parse(String text) {
+        int length = text.length();
+        if ((length == 17 || length == 20 || (length >= 22 && length <= 24))
+                && isDigits(text, 0, 4) && text.charAt(4) == '-'
+                && isDigits(text, 5, 7) && text.charAt(7) == '-'
+                && isDigits(text, 8, 10) && text.charAt(10) == 'T'
+                && isDigits(text, 11, 13) && text.charAt(13) == ':'
+                && isDigits(text, 14, 16) && text.charAt(length - 1) == 'Z'
+                && (length == 17 || text.charAt(16) == ':' && isDigits(text, 17, 19))
+                && (length <= 20 || text.charAt(19) == '.' && isDigits(text, 20, length - 1))) {
+            int year = number(text, 0, 4);
+            int month = number(text, 5, 7);
+            int day = number(text, 8, 10);
+            if (year > 0 && month >= 1 && month <= 12 && day >= 1
+                    && day <= Month.of(month).length(Year.isLeap(year))
+                    && number(text, 11, 13) < 24 && number(text, 14, 16) < 60
+                    && (length == 17 || number(text, 17, 19) < 60)) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(text, DATE_TIME_FORMATTER);
+    }
+
+    private static boolean isDigits(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char character = text.charAt(i);
+            if (character < '0' || character > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int number(String text, int start, int end) {
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            number = number * 10 + (text.charAt(i) - '0');
+        }
+        return number;
+    }
 }
@@ -9,16 +9,33 @@ import java.time.format.DateTimeFormatter;
 
 public class LocalDateSerializer extends JsonSerializer<LocalDate> {
 
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+    // ISODate("yyyy-MM-ddT00:00:00.000Z"), with the date written from index 9
+    private static final char[] ISO_DATE_TEMPLATE = "ISODate(\"0000-00-00T00:00:00.000Z\")".toCharArray();
+
     @Override
     public void serialize(LocalDate localDate, JsonGenerator jsonGenerator,
             SerializerProvider serializerProvider) throws IOException {
         if (localDate == null) {
             jsonGenerator.writeNull();
+        } else if (localDate.getYear() >= 1 && localDate.getYear() <= 9999) {
+            char[] isoDate = ISO_DATE_TEMPLATE.clone();
+            writeDigits(isoDate, 9, 4, localDate.getYear());
+            writeDigits(isoDate, 14, 2, localDate.getMonthValue());
+            writeDigits(isoDate, 17, 2, localDate.getDayOfMonth());
+            jsonGenerator.writeRawValue(isoDate, 0, isoDate.length);
         } else {
-            DateTimeFormatter dateTimeFormatter =
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-            String format = localDate.atStartOfDay().format(dateTimeFormatter);
+            String format = localDate.atStartOfDay().format(DATE_TIME_FORMATTER);
             jsonGenerator.writeRawValue("ISODate(\"" + format + "\")");
         }
     }
+
+    private static void writeDigits(char[] target, int offset, int width, int value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
 }
@@ -4,24 +4,47 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+import static uk.gov.companieshouse.company.profile.repository.CompanyProfileQueries.deltaAtQuery;
+import static uk.gov.companieshouse.company.profile.repository.CompanyProfileQueries.linkQuery;
+import static uk.gov.companieshouse.company.profile.repository.CompanyProfileQueries.ukEstablishmentsQuery;
 import static uk.gov.companieshouse.company.profile.util.DateUtils.isDeltaStale;
-import static uk.gov.companieshouse.company.profile.util.LinkRequest.UK_ESTABLISHMENTS_DELTA_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.CHARGES_LINK_TYPE;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.UK_ESTABLISHMENTS_LINK_TYPE;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReplaceOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import uk.gov.companieshouse.GenerateEtagUtil;
 import uk.gov.companieshouse.api.company.Accounts;
 import uk.gov.companieshouse.api.company.AnnualReturn;
@@ -42,57 +65,119 @@ import uk.gov.companieshouse.api.exception.BadRequestException;
 import uk.gov.companieshouse.api.exception.DocumentNotFoundException;
 import uk.gov.companieshouse.api.exception.ResourceStateConflictException;
 import uk.gov.companieshouse.api.exception.ServiceUnavailableException;
-import uk.gov.companieshouse.api.model.ApiResponse;
 import uk.gov.companieshouse.api.model.CompanyProfileDocument;
 import uk.gov.companieshouse.api.model.Updated;
 import uk.gov.companieshouse.api.model.ukestablishments.PrivateUkEstablishmentsAddressListApi;
-import uk.gov.companieshouse.company.profile.api.CompanyProfileApiService;
+import uk.gov.companieshouse.company.profile.api.ResourceChangedOutbox;
+import uk.gov.companieshouse.company.profile.cache.CompanyNumberFilter;
+import uk.gov.companieshouse.company.profile.cache.CompanyProfileCache;
+import uk.gov.companieshouse.company.profile.cache.CompanyProfileSingleFlight;
 import uk.gov.companieshouse.company.profile.exception.ConflictException;
 import uk.gov.companieshouse.company.profile.exception.ResourceNotFoundException;
 import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
 import uk.gov.companieshouse.company.profile.mapper.UkEstablishmentAddressMapper;
+import uk.gov.companieshouse.company.profile.model.BatchLookupResponse;
+import uk.gov.companieshouse.company.profile.model.CompanyDetailsWithEtag;
+import uk.gov.companieshouse.company.profile.model.PagedUkEstablishmentsList;
 import uk.gov.companieshouse.company.profile.model.UnversionedCompanyProfileDocument;
 import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+import uk.gov.companieshouse.company.profile.repository.CompanyProfileBatchLoader;
 import uk.gov.companieshouse.company.profile.repository.CompanyProfileRepository;
+import uk.gov.companieshouse.company.profile.transform.CompanyProfileChangeSet;
 import uk.gov.companieshouse.company.profile.transform.CompanyProfileTransformer;
 import uk.gov.companieshouse.company.profile.util.LinkRequest;
 import uk.gov.companieshouse.company.profile.util.LinkRequestFactory;
+import uk.gov.companieshouse.company.profile.util.LinkType;
 import uk.gov.companieshouse.logging.Logger;
 import uk.gov.companieshouse.logging.LoggerFactory;
 
 @Service
 public class CompanyProfileService {
 
-    private static final String LINK_TYPE_CHARGES = "charges";
     private static final String ERROR_ACCESSING_MONGO_DB = "Error accessing MongoDB";
     private static final String RELATED_COMPANIES_KIND = "related-companies";
     private static final String COMPANY_SELF_LINK = "/company/%s";
     private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
     private static final String RESOURCE_NOT_FOUND_STRING = "Resource not found for company profile %s";
+    // A page size of zero reads every uk establishment
+    static final int UNPAGED = 0;
+    private static final String ID_FIELD = "_id";
+    private static final String COMPANY_PROFILE_FIELD = "data";
+    private static final String LINKS_FIELD = "data.links";
+    private static final String ETAG_FIELD = "data.etag";
+    private static final String HAS_CHARGES_FIELD = "data.has_charges";
+    private static final String HAS_MORTGAGES_FIELD = "has_mortgages";
+    private static final String UPDATED_FIELD = "updated";
+    private static final String VERSION_FIELD = "version";
+    private static final String NOT_BLANK = "\\S";
+    private static final String LINK_CHANGED = "Resource state conflict; %s link was changed by another request";
+    private static final String COMPANY_PROFILE_CHANGED = "Company profile %s was changed by another request";
+    private static final String SUPPRESSED_WRITES_METRIC = "company_profile.write.suppressed";
+    private static final String SUPPRESSED_EVENTS_METRIC = "company_profile.event.suppressed";
+    private static final String PROFILE_READ = "company_profile";
+    private static final String LINKS_READ = "links";
+    private static final String PROFILE_WRITE = "company_profile";
+    private static final String INSOLVENCY_LINKS_WRITE = "insolvency_links";
+    private static final String ADD_LINK_WRITE = "add_link";
+    private static final String DELETE_LINK_WRITE = "delete_link";
+    private static final String DELETE_WRITE = "delete";
 
     private final CompanyProfileRepository companyProfileRepository;
     private final MongoTemplate mongoTemplate;
-    private final CompanyProfileApiService companyProfileApiService;
+    private final ResourceChangedOutbox resourceChangedOutbox;
+    private final TransactionOperations transactionOperations;
+    private final CompanyProfileWriteLanes companyProfileWriteLanes;
+    private final CompanyProfileWriteRetry companyProfileWriteRetry;
     private final LinkRequestFactory linkRequestFactory;
     private final CompanyProfileTransformer companyProfileTransformer;
+    private final CompanyProfileChangeSet companyProfileChangeSet;
+    private final CompanyProfileCache companyProfileCache;
+    private final CompanyProfileSingleFlight companyProfileSingleFlight;
+    private final CompanyProfileBatchLoader companyProfileBatchLoader;
+    private final CompanyNumberFilter companyNumberFilter;
+    private final MeterRegistry meterRegistry;
 
     @Value("${feature.overseas-company-filing-disabled}")
     private boolean isOverseasCompanyFileDisabled;
 
+    @Value("${uk-establishments.items-per-page.maximum}")
+    private int maximumItemsPerPage;
+
+    @Value("${batch-lookup.maximum-size}")
+    private int maximumBatchSize;
+
     /**
      * Constructor.
      */
     @Autowired
     public CompanyProfileService(CompanyProfileRepository companyProfileRepository,
             MongoTemplate mongoTemplate,
-            CompanyProfileApiService companyProfileApiService,
+            ResourceChangedOutbox resourceChangedOutbox,
+            TransactionOperations transactionOperations,
+            CompanyProfileWriteLanes companyProfileWriteLanes,
+            CompanyProfileWriteRetry companyProfileWriteRetry,
             LinkRequestFactory linkRequestFactory,
-            CompanyProfileTransformer companyProfileTransformer) {
+            CompanyProfileTransformer companyProfileTransformer,
+            CompanyProfileChangeSet companyProfileChangeSet,
+            CompanyProfileCache companyProfileCache,
+            CompanyProfileSingleFlight companyProfileSingleFlight,
+            CompanyProfileBatchLoader companyProfileBatchLoader,
+            CompanyNumberFilter companyNumberFilter,
+            MeterRegistry meterRegistry) {
         this.companyProfileRepository = companyProfileRepository;
         this.mongoTemplate = mongoTemplate;
-        this.companyProfileApiService = companyProfileApiService;
+        this.resourceChangedOutbox = resourceChangedOutbox;
+        this.transactionOperations = transactionOperations;
+        this.companyProfileWriteLanes = companyProfileWriteLanes;
+        this.companyProfileWriteRetry = companyProfileWriteRetry;
         this.linkRequestFactory = linkRequestFactory;
         this.companyProfileTransformer = companyProfileTransformer;
+        this.companyProfileChangeSet = companyProfileChangeSet;
+        this.companyProfileCache = companyProfileCache;
+        this.companyProfileSingleFlight = companyProfileSingleFlight;
+        this.companyProfileBatchLoader = companyProfileBatchLoader;
+        this.companyNumberFilter = companyNumberFilter;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -102,9 +187,29 @@ public class CompanyProfileService {
      * @return a company profile if one with given company number exists, otherwise throw ResourceNotFoundException
      */
     public VersionedCompanyProfileDocument get(String companyNumber) throws ResourceNotFoundException {
+        checkMightExist(companyNumber);
+        AtomicReference<VersionedCompanyProfileDocument> loadedDocument = new AtomicReference<>();
+        Data companyProfile = companyProfileSingleFlight.execute(LINKS_READ, companyNumber, () -> {
+            VersionedCompanyProfileDocument document = getCompanyProfileData(companyNumber);
+            loadedDocument.set(document);
+            return document.getCompanyProfile();
+        });
+
+        VersionedCompanyProfileDocument document = loadedDocument.get();
+        if (document == null) {
+            // Shared a read already in flight, which only loads the data
+            document = new VersionedCompanyProfileDocument();
+            document.setId(companyNumber);
+            document.setCompanyProfile(companyProfile);
+        }
+        return document;
+    }
+
+    private VersionedCompanyProfileDocument getCompanyProfileData(String companyNumber)
+            throws ResourceNotFoundException {
         Optional<VersionedCompanyProfileDocument> companyProfileDocument;
         try {
-            companyProfileDocument = companyProfileRepository.findById(companyNumber);
+            companyProfileDocument = companyProfileRepository.findCompanyProfileDataById(companyNumber);
         } catch (DataAccessException dbException) {
             throw new ServiceUnavailableException(dbException.getMessage());
         } catch (IllegalArgumentException illegalArgumentEx) {
@@ -130,6 +235,49 @@ public class CompanyProfileService {
         }
     }
 
+    /**
+     * Retrieve the etag of a company profile without loading the rest of the document.
+     *
+     * @param companyNumber the company number
+     * @return the etag of the company profile if one with given company number exists, otherwise empty
+     */
+    public Optional<String> getEtag(String companyNumber) {
+        Optional<String> cachedEtag = companyProfileCache.getEtag(companyNumber);
+        if (cachedEtag.isPresent()) {
+            return cachedEtag;
+        }
+        if (!companyNumberFilter.mightContain(companyNumber)) {
+            return Optional.empty();
+        }
+        try {
+            return companyProfileRepository.findEtagById(companyNumber)
+                    .map(VersionedCompanyProfileDocument::getCompanyProfile)
+                    .map(Data::getEtag);
+        } catch (DataAccessException dbException) {
+            throw new ServiceUnavailableException(dbException.getMessage());
+        }
+    }
+
+    /**
+     * Check whether a company profile exists without loading it.
+     *
+     * @param companyNumber the company number
+     * @return true if a company profile with the given company number exists
+     */
+    public boolean exists(String companyNumber) {
+        if (companyProfileCache.getEtag(companyNumber).isPresent()) {
+            return true;
+        }
+        if (!companyNumberFilter.mightContain(companyNumber)) {
+            return false;
+        }
+        try {
+            return companyProfileRepository.existsById(companyNumber);
+        } catch (DataAccessException dbException) {
+            throw new ServiceUnavailableException(dbException.getMessage());
+        }
+    }
+
     /**
      * Update insolvency links in company profile.
      *
@@ -138,6 +286,21 @@ public class CompanyProfileService {
      */
     public void updateInsolvencyLink(String companyNumber,
             final CompanyProfile companyProfileRequest) {
+        writeInLane(INSOLVENCY_LINKS_WRITE, companyNumber,
+                () -> writeInsolvencyLink(companyNumber, companyProfileRequest),
+                () -> new ServiceUnavailableException(COMPANY_PROFILE_CHANGED.formatted(companyNumber)));
+    }
+
+    /**
+     * Makes each attempt of a write in the company's lane, so that the lane is free while a conflicting write backs
+     * off before it is made again.
+     */
+    private void writeInLane(String endpoint, String companyNumber, Runnable write,
+            Supplier<RuntimeException> exhausted) {
+        companyProfileWriteRetry.run(endpoint, () -> companyProfileWriteLanes.run(companyNumber, write), exhausted);
+    }
+
+    private void writeInsolvencyLink(String companyNumber, CompanyProfile companyProfileRequest) {
         try {
 
             Optional<VersionedCompanyProfileDocument> cpDocumentOptional =
@@ -180,21 +343,16 @@ public class CompanyProfileService {
                 cpDocument.setUpdated(updated);
             }
 
-            ApiResponse<Void> response = companyProfileApiService.invokeChsKafkaApi(companyNumber);
-
-            HttpStatus statusCode = HttpStatus.valueOf(response.getStatusCode());
-
-            if (statusCode.is2xxSuccessful()) {
+            writeAndRecordChange(companyNumber, () -> {
                 if (cpDocument.getVersion() == null) { // Update a legacy document
                     mongoTemplate.save(new UnversionedCompanyProfileDocument(cpDocument));
                 } else { // Update a versioned document
                     companyProfileRepository.save(cpDocument);
                 }
-                LOGGER.info("Company profile is updated in MongoDB", DataMapHolder.getLogMap());
-            } else {
-                LOGGER.error(String.format("Chs-kafka-api CHANGED invocation failed. Response code %s.",
-                        statusCode.value()), DataMapHolder.getLogMap());
-            }
+            }, () -> companyProfileCache.invalidate(companyNumber));
+            LOGGER.info("Company profile is updated in MongoDB", DataMapHolder.getLogMap());
+        } catch (OptimisticLockingFailureException conflict) {
+            throw conflict;
         } catch (DataAccessException dbException) {
             throw new ServiceUnavailableException(dbException.getMessage());
         }
@@ -206,17 +364,27 @@ public class CompanyProfileService {
     public void processLinkRequest(String linkType, String companyNumber, boolean delete) {
         LinkRequest linkRequest = linkRequestFactory.createLinkRequest(linkType, companyNumber);
 
+        Supplier<RuntimeException> linkChanged =
+                () -> new ResourceStateConflictException(LINK_CHANGED.formatted(linkRequest.getLinkType()));
         if (delete) {
-            checkForDeleteLink(linkRequest);
+            writeInLane(DELETE_LINK_WRITE, companyNumber, () -> deleteLinkOrThrowConflict(linkRequest), linkChanged);
         } else {
-            checkForAddLink(linkRequest);
+            writeInLane(ADD_LINK_WRITE, companyNumber, () -> addLinkOrThrowConflict(linkRequest), linkChanged);
         }
     }
 
     /**
-     * Checks if link for given type exists in document and call addLink if this is false.
+     * Adds the link for the given type when the document does not have it, reporting why it could not otherwise. It
+     * is attempted once, as part of a write that is retried as a whole.
      */
     public void checkForAddLink(LinkRequest linkRequest) {
+        addLinkOrThrowConflict(linkRequest);
+    }
+
+    private void addLinkOrThrowConflict(LinkRequest linkRequest) {
+        if (addLink(linkRequest)) {
+            return;
+        }
         VersionedCompanyProfileDocument existingDocument = getDocument(linkRequest.getCompanyNumber());
         Data data = Optional.of(existingDocument)
                 .map(CompanyProfileDocument::getCompanyProfile).orElseThrow(() ->
@@ -225,66 +393,99 @@ public class CompanyProfileService {
         Links links = Optional.ofNullable(data.getLinks()).orElse(new Links());
         String linkData = linkRequest.getCheckLink().apply(links);
 
-        if (!isBlank(linkData)) {
-            throw new ResourceStateConflictException(
-                    "Resource state conflict; %s link already exists".formatted(linkRequest.getLinkType()));
-        } else {
-            addLink(linkRequest, existingDocument);
+        if (isBlank(linkData)) { // Removed since the update, so it may be added again
+            throw new OptimisticLockingFailureException(LINK_CHANGED.formatted(linkRequest.getLinkType()));
         }
+        throw new ResourceStateConflictException(
+                "Resource state conflict; %s link already exists".formatted(linkRequest.getLinkType()));
     }
 
     /**
-     * Checks if link for given type does not exist in document and call deleteLink if this is false.
+     * Deletes the link for the given type when the document has it, reporting why it could not otherwise.
      */
     public void checkForDeleteLink(LinkRequest linkRequest) {
-        VersionedCompanyProfileDocument existingDocument = getDocument(linkRequest.getCompanyNumber());
-        Data data = Optional.of(existingDocument)
-                .map(CompanyProfileDocument::getCompanyProfile).orElseThrow(() ->
-                        new ResourceNotFoundException(HttpStatus.NOT_FOUND,
-                                RESOURCE_NOT_FOUND_STRING.formatted(linkRequest.getCompanyNumber())));
-        Links links = Optional.ofNullable(data.getLinks()).orElseThrow(() ->
-                new ResourceStateConflictException("No links exist for this company profile"));
-        String linkData = linkRequest.getCheckLink().apply(links);
+        companyProfileWriteRetry.run(DELETE_LINK_WRITE, () -> deleteLinkOrThrowConflict(linkRequest),
+                () -> new ResourceStateConflictException(LINK_CHANGED.formatted(linkRequest.getLinkType())));
+    }
 
-        if (isBlank(linkData)) {
-            throw new ResourceStateConflictException(
-                    "Resource state conflict; %s link already does not exist".formatted(linkRequest.getLinkType()));
-        } else {
-            deleteLink(linkRequest, existingDocument);
+    private void deleteLinkOrThrowConflict(LinkRequest linkRequest) {
+        if (!deleteLink(linkRequest, false)) {
+            throwDeleteLinkConflict(linkRequest, getDocument(linkRequest.getCompanyNumber()),
+                    "No links exist for this company profile");
         }
     }
 
+    /**
+     * Deletes the UK establishments link from the parent of a removed establishment. It is attempted once, as part of
+     * the delete, which is retried as a whole on a conflict.
+     */
     public void checkForDeleteLinkUkEstablishmentParent(LinkRequest linkRequest) {
+        deleteParentLinkOrThrowConflict(linkRequest);
+    }
+
+    private void deleteParentLinkOrThrowConflict(LinkRequest linkRequest) {
+        if (deleteLink(linkRequest, true)) {
+            return;
+        }
         Optional<VersionedCompanyProfileDocument> existingDocumentOptional =
                 companyProfileRepository.findById(linkRequest.getCompanyNumber());
 
         if (existingDocumentOptional.isPresent()) {
-            Data data = existingDocumentOptional
-                    .map(CompanyProfileDocument::getCompanyProfile).orElseThrow(() ->
-                            new ResourceNotFoundException(HttpStatus.NOT_FOUND,
-                                    RESOURCE_NOT_FOUND_STRING.formatted(linkRequest.getCompanyNumber())));
-            Links links = Optional.ofNullable(data.getLinks()).orElseThrow(() ->
-                    new ResourceStateConflictException("links data not found"));
-            String linkData = linkRequest.getCheckLink().apply(links);
-
-            if (isBlank(linkData)) {
-                throw new ResourceStateConflictException(
-                        "Resource state conflict; %s link already does not exist".formatted(linkRequest.getLinkType()));
-            } else {
-                deleteLink(linkRequest, existingDocumentOptional.get());
-            }
+            throwDeleteLinkConflict(linkRequest, existingDocumentOptional.get(), "links data not found");
         } else {
             LOGGER.info("No document found for parent profile, continuing to delete child Uk establishment",
                     DataMapHolder.getLogMap());
         }
     }
 
+    private void throwDeleteLinkConflict(LinkRequest linkRequest, VersionedCompanyProfileDocument existingDocument,
+            String noLinksMessage) {
+        Data data = Optional.of(existingDocument)
+                .map(CompanyProfileDocument::getCompanyProfile).orElseThrow(() ->
+                        new ResourceNotFoundException(HttpStatus.NOT_FOUND,
+                                RESOURCE_NOT_FOUND_STRING.formatted(linkRequest.getCompanyNumber())));
+        Links links = Optional.ofNullable(data.getLinks()).orElseThrow(() ->
+                new ResourceStateConflictException(noLinksMessage));
+        String linkData = linkRequest.getCheckLink().apply(links);
+
+        if (!isBlank(linkData)) { // Set again since the update, so it may be deleted again
+            throw new OptimisticLockingFailureException(LINK_CHANGED.formatted(linkRequest.getLinkType()));
+        }
+        throw new ResourceStateConflictException(
+                "Resource state conflict; %s link already does not exist".formatted(linkRequest.getLinkType()));
+    }
+
     /**
      * Finds existing company profile from db if any and updates or saves new record into db.
      */
     public void processCompanyProfile(String companyNumber, CompanyProfile companyProfile)
             throws ServiceUnavailableException, BadRequestException {
+        // Each attempt changes the request as it merges it with the document read, so starts from it as received
+        Runnable restoreRequest = requestRestorer(companyProfile);
+        writeInLane(PROFILE_WRITE, companyNumber, () -> {
+            restoreRequest.run();
+            writeCompanyProfile(companyNumber, companyProfile);
+        }, () -> new ServiceUnavailableException(COMPANY_PROFILE_CHANGED.formatted(companyNumber)));
+    }
 
+    private static Runnable requestRestorer(CompanyProfile companyProfile) {
+        Boolean hasMortgages = companyProfile.getHasMortgages();
+        Data data = companyProfile.getData();
+        if (data == null) {
+            return () -> companyProfile.setHasMortgages(hasMortgages);
+        }
+        Boolean hasCharges = data.getHasCharges();
+        Boolean hasBeenLiquidated = data.getHasBeenLiquidated();
+        Links links = data.getLinks() == null ? null : LinkType.merge(data.getLinks(), null);
+        return () -> {
+            companyProfile.setHasMortgages(hasMortgages);
+            data.setHasCharges(hasCharges);
+            data.setHasBeenLiquidated(hasBeenLiquidated);
+            data.setLinks(links == null ? null : LinkType.merge(links, null));
+        };
+    }
+
+    private void writeCompanyProfile(String companyNumber, CompanyProfile companyProfile) {
         VersionedCompanyProfileDocument companyProfileDocument =
                 companyProfileRepository.findById(companyNumber)
                         .orElse(new VersionedCompanyProfileDocument());
@@ -300,8 +501,7 @@ public class CompanyProfileService {
                 .ifPresent(parentCompanyNumber -> {
                     LinkRequest ukEstablishmentLinkRequest =
                             new LinkRequest(DataMapHolder.getRequestId(), parentCompanyNumber,
-                                    UK_ESTABLISHMENTS_LINK_TYPE,
-                                    UK_ESTABLISHMENTS_DELTA_TYPE, Links::getUkEstablishments);
+                                    LinkType.UK_ESTABLISHMENTS);
 
                     setLinksForUkCompany(companyProfile, parentCompanyNumber, ukEstablishmentLinkRequest);
                 });
@@ -331,27 +531,85 @@ public class CompanyProfileService {
             }
         }
 
+        boolean newDocument = companyProfileDocument.getId() == null;
+        Long version = companyProfileDocument.getVersion();
+        // Taken before the transformer, which changes the document read, so that only changed fields are written
+        Document storedDocument = newDocument ? null : companyProfileChangeSet.snapshot(companyProfileDocument);
         VersionedCompanyProfileDocument transformedDocument = companyProfileTransformer
                 .transform(companyProfileDocument, companyProfile, existingLinks.orElse(null));
+        transformedDocument.setId(companyNumber);
+        // New and legacy documents are written at version 0, as an insert of a versioned document would be
+        transformedDocument.version(version == null ? 0L : version + 1);
 
+        // Matches the document read only while it is unchanged and still not newer than this delta
+        Query query = deltaAtQuery(companyNumber, companyProfile.getDeltaAt())
+                .addCriteria(Criteria.where(VERSION_FIELD).is(version));
         try {
-            if (companyProfileDocument.getId() == null) { // A new document
-                transformedDocument.setId(companyNumber);
-                companyProfileRepository.insert(transformedDocument);
-            } else if (companyProfileDocument.getVersion() == null) { // A legacy document
-                mongoTemplate.save(new UnversionedCompanyProfileDocument(transformedDocument));
-            } else {
-                companyProfileRepository.save(transformedDocument);
+            CompanyProfileChangeSet.Diff diff = newDocument ? null
+                    : companyProfileChangeSet.diff(storedDocument, transformedDocument);
+            if (diff != null && !diff.contentChanged() && resourceChangedOutbox.isEnabled()) {
+                // Only delta_at has moved on, so there is nothing for consumers of the changed event to see. Without
+                // the outbox the event of an earlier write of this content may have failed, so it is sent again below
+                if (diff.isEmpty()) {
+                    meterRegistry.counter(SUPPRESSED_WRITES_METRIC).increment();
+                } else {
+                    updateCompanyProfile(query, diff.update(), companyNumber, companyProfile.getDeltaAt());
+                }
+                meterRegistry.counter(SUPPRESSED_EVENTS_METRIC).increment();
+                LOGGER.info(String.format("Company profile is unchanged in MongoDb for company number: %s",
+                        companyNumber), DataMapHolder.getLogMap());
+                return;
             }
-            companyProfileApiService.invokeChsKafkaApi(companyNumber);
+            writeAndRecordChange(companyNumber, () -> {
+                if (diff == null) { // Unless one has been inserted since, which fails the insert on its _id
+                    mongoTemplate.replace(query, transformedDocument, ReplaceOptions.replaceOptions().upsert());
+                } else if (diff.isEmpty()) { // Resent unchanged, so there is only the event to send
+                    meterRegistry.counter(SUPPRESSED_WRITES_METRIC).increment();
+                } else {
+                    updateCompanyProfile(query, diff.update(), companyNumber, companyProfile.getDeltaAt());
+                }
+            }, () -> {
+                if (newDocument) {
+                    companyNumberFilter.add(companyNumber);
+                }
+                companyProfileCache.invalidate(companyNumber);
+            });
 
             LOGGER.info(String.format("Company profile is updated in MongoDb for company number: %s", companyNumber),
                     DataMapHolder.getLogMap());
+        } catch (DuplicateKeyException duplicateKeyException) {
+            throw writeConflict(companyNumber, companyProfile.getDeltaAt());
         } catch (IllegalArgumentException illegalArgumentEx) {
             throw new BadRequestException("Saving to MongoDb failed", illegalArgumentEx);
         }
     }
 
+    /**
+     * Writes a change to a company profile and records its event, then updates what this instance holds of the
+     * company once the write has been made. Without the outbox the write is saved before the event is sent, so this
+     * is done even when sending the event fails.
+     */
+    private void writeAndRecordChange(String companyNumber, Runnable write, Runnable afterWrite) {
+        AtomicBoolean written = new AtomicBoolean();
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                write.run();
+                written.set(true);
+                resourceChangedOutbox.changed(companyNumber);
+            });
+        } finally {
+            if (written.get()) {
+                afterWrite.run();
+            }
+        }
+    }
+
+    private void updateCompanyProfile(Query query, Update update, String companyNumber, String requestDeltaAt) {
+        if (mongoTemplate.updateFirst(query, update, VersionedCompanyProfileDocument.class).getMatchedCount() == 0) {
+            throw writeConflict(companyNumber, requestDeltaAt);
+        }
+    }
+
     private void setLinksForUkCompany(CompanyProfile companyProfile, String parentCompanyNumber,
             LinkRequest ukEstablishmentLinkRequest) {
         try {
@@ -364,9 +622,9 @@ public class CompanyProfileService {
         } catch (DocumentNotFoundException documentNotFoundException) {
             // create parent company if not present
             LOGGER.info("Creating new parent company document", DataMapHolder.getLogMap());
-            companyProfileRepository.insert(
-                    createParentCompanyDocument(parentCompanyNumber));
-            companyProfileApiService.invokeChsKafkaApi(parentCompanyNumber);
+            writeAndRecordChange(parentCompanyNumber,
+                    () -> companyProfileRepository.insert(createParentCompanyDocument(parentCompanyNumber)),
+                    () -> companyNumberFilter.add(parentCompanyNumber));
         } catch (ResourceStateConflictException resourceStateConflictException) {
             LOGGER.info("Parent company link already exists", DataMapHolder.getLogMap());
         }
@@ -377,7 +635,55 @@ public class CompanyProfileService {
      */
     public Data retrieveCompanyNumber(String companyNumber)
             throws ResourceNotFoundException {
-        VersionedCompanyProfileDocument companyProfileDocument = getCompanyProfileDocument(companyNumber);
+        Optional<Data> cachedProfile = companyProfileCache.get(companyNumber);
+        if (cachedProfile.isPresent()) {
+            return refreshOverdue(cachedProfile.get());
+        }
+
+        checkMightExist(companyNumber);
+        return companyProfileSingleFlight.execute(PROFILE_READ, companyNumber, () -> {
+            long generation = companyProfileCache.generation(companyNumber);
+            Data profileData = shapeCompanyProfile(getCompanyProfileDocument(companyNumber));
+            companyProfileCache.put(companyNumber, generation, profileData);
+            return profileData;
+        });
+    }
+
+    /**
+     * Retrieve company profiles for several company numbers, reading those not already cached with a single query.
+     *
+     * @param companyNumbers the company numbers
+     * @return the company profiles keyed by company number, and the company numbers that were not found
+     */
+    public BatchLookupResponse<Data> retrieveCompanyProfiles(List<String> companyNumbers) {
+        Set<String> requested = validateBatchLookup(companyNumbers);
+        Map<String, Data> profiles = new HashMap<>();
+        Map<String, Long> uncached = new LinkedHashMap<>();
+        for (String companyNumber : requested) {
+            companyProfileCache.get(companyNumber).ifPresentOrElse(
+                    cachedProfile -> profiles.put(companyNumber, refreshOverdue(cachedProfile)),
+                    () -> uncached.put(companyNumber, companyProfileCache.generation(companyNumber)));
+        }
+        if (!uncached.isEmpty()) {
+            companyProfileRepository.findAllById(List.copyOf(uncached.keySet())).forEach(document -> {
+                Data profileData = shapeCompanyProfile(document);
+                if (profileData != null) {
+                    companyProfileCache.put(document.getId(), uncached.get(document.getId()), profileData);
+                    profiles.put(document.getId(), profileData);
+                }
+            });
+        }
+        return toBatchLookupResponse(requested, profiles, Function.identity());
+    }
+
+    Data refreshOverdue(Data cachedProfile) {
+        // Overdue flags depend on the current date so are re-evaluated on every read
+        VersionedCompanyProfileDocument cachedDocument = new VersionedCompanyProfileDocument();
+        cachedDocument.setCompanyProfile(cachedProfile);
+        return determineOverdue(cachedDocument).getCompanyProfile();
+    }
+
+    Data shapeCompanyProfile(VersionedCompanyProfileDocument companyProfileDocument) {
         companyProfileDocument = determineCanFile(companyProfileDocument);
         companyProfileDocument = determineOverdue(companyProfileDocument);
 
@@ -422,40 +728,113 @@ public class CompanyProfileService {
         if (StringUtils.isBlank(requestDeltaAt)) {
             throw new BadRequestException("delta_at is missing from delete request");
         }
-        companyProfileRepository.findById(companyNumber).ifPresentOrElse(
-                companyProfileDocument -> {
-                    Data companyProfile = companyProfileDocument.getCompanyProfile();
-                    LocalDateTime existingDeltaAt = companyProfileDocument.getDeltaAt();
-
-                    deltaAtCheck(requestDeltaAt, existingDeltaAt);
-
-                    String parentCompanyNumber = companyProfileDocument.getParentCompanyNumber();
-                    if (parentCompanyNumber != null && companyProfile.getType().equals("uk-establishment")) {
-                        LinkRequest ukEstablishmentLinkRequest =
-                                new LinkRequest(DataMapHolder.getRequestId(), parentCompanyNumber,
-                                        UK_ESTABLISHMENTS_LINK_TYPE,
-                                        UK_ESTABLISHMENTS_DELTA_TYPE, Links::getUkEstablishments);
-                        // Business logic states UK establishments need deletion even if the parent document is not present
-                        checkForDeleteLinkUkEstablishmentParent(ukEstablishmentLinkRequest);
-                    }
-
-                    companyProfileRepository.delete(companyProfileDocument);
-                    LOGGER.info("Company profile is deleted in MongoDb successfully", DataMapHolder.getLogMap());
-                    companyProfileApiService.invokeChsKafkaApiWithDeleteEvent(companyNumber, companyProfile);
-                },
-                () -> {
-                    LOGGER.info("Delete for non-existent document", DataMapHolder.getLogMap());
-                    companyProfileApiService.invokeChsKafkaApiWithDeleteEvent(companyNumber, null);
+        // Without a transaction a removal outlasts an attempt that then fails, so the next attempt carries on from it
+        AtomicReference<VersionedCompanyProfileDocument> removed = new AtomicReference<>();
+        writeInLane(DELETE_WRITE, companyNumber, () -> removeCompanyProfile(companyNumber, requestDeltaAt, removed),
+                () -> new ServiceUnavailableException(COMPANY_PROFILE_CHANGED.formatted(companyNumber)));
+    }
+
+    private void removeCompanyProfile(String companyNumber, String requestDeltaAt,
+            AtomicReference<VersionedCompanyProfileDocument> removed) {
+        VersionedCompanyProfileDocument companyProfileDocument = transactionOperations.execute(status -> {
+            VersionedCompanyProfileDocument removedDocument = removed.get();
+            if (removedDocument == null) {
+                removedDocument = mongoTemplate.findAndRemove(deltaAtQuery(companyNumber, requestDeltaAt),
+                        VersionedCompanyProfileDocument.class);
+                if (removedDocument != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+                    removed.set(removedDocument);
                 }
-        );
+            }
+            if (removedDocument == null) {
+                // Nothing removed; either there is no document or it holds a later delta
+                companyProfileRepository.findById(companyNumber).ifPresent(existingDocument -> {
+                    throw writeConflict(companyNumber, requestDeltaAt, existingDocument);
+                });
+                resourceChangedOutbox.deleted(companyNumber, null);
+                return null;
+            }
+
+            Data companyProfile = removedDocument.getCompanyProfile();
+            String parentCompanyNumber = removedDocument.getParentCompanyNumber();
+            if (parentCompanyNumber != null && companyProfile.getType().equals("uk-establishment")) {
+                LinkRequest ukEstablishmentLinkRequest =
+                        new LinkRequest(DataMapHolder.getRequestId(), parentCompanyNumber,
+                                LinkType.UK_ESTABLISHMENTS);
+                // Business logic states UK establishments need deletion even if the parent document is not present
+                checkForDeleteLinkUkEstablishmentParent(ukEstablishmentLinkRequest);
+            }
+            resourceChangedOutbox.deleted(companyNumber, companyProfile);
+            return removedDocument;
+        });
+        if (companyProfileDocument == null) {
+            LOGGER.info("Delete for non-existent document", DataMapHolder.getLogMap());
+            return;
+        }
+        companyProfileCache.invalidate(companyNumber);
+        LOGGER.info("Company profile is deleted in MongoDb successfully", DataMapHolder.getLogMap());
     }
 
     /**
-     * Get company details.
+     * Get company details, with the etag of the company profile they were read from.
      */
-    public CompanyDetails getCompanyDetails(String companyNumber) {
-        Data companyProfile = retrieveCompanyNumber(companyNumber);
+    public CompanyDetailsWithEtag getCompanyDetails(String companyNumber) {
+        Data companyProfile = companyProfileCache.get(companyNumber)
+                .or(() -> companyProfileRepository.findCompanyDetailsById(companyNumber)
+                        .map(VersionedCompanyProfileDocument::getCompanyProfile))
+                .orElseThrow(() -> new ResourceNotFoundException(HttpStatus.NOT_FOUND,
+                        String.format(RESOURCE_NOT_FOUND_STRING, companyNumber)));
+
+        return new CompanyDetailsWithEtag(toCompanyDetails(companyProfile), companyProfile.getEtag());
+    }
+
+    /**
+     * Get company details for several company numbers, reading those not already cached with a single query.
+     *
+     * @param companyNumbers the company numbers
+     * @return the company details keyed by company number, and the company numbers that were not found
+     */
+    public BatchLookupResponse<CompanyDetails> retrieveCompanyDetails(List<String> companyNumbers) {
+        Set<String> requested = validateBatchLookup(companyNumbers);
+        Map<String, Data> profiles = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String companyNumber : requested) {
+            companyProfileCache.get(companyNumber).ifPresentOrElse(
+                    cachedProfile -> profiles.put(companyNumber, cachedProfile),
+                    () -> uncached.add(companyNumber));
+        }
+        if (!uncached.isEmpty()) {
+            companyProfileRepository.findCompanyDetailsByIdIn(uncached).stream()
+                    .filter(document -> document.getCompanyProfile() != null)
+                    .forEach(document -> profiles.put(document.getId(), document.getCompanyProfile()));
+        }
+        return toBatchLookupResponse(requested, profiles, CompanyProfileService::toCompanyDetails);
+    }
+
+    private Set<String> validateBatchLookup(List<String> companyNumbers) {
+        if (companyNumbers == null || companyNumbers.isEmpty() || companyNumbers.size() > maximumBatchSize
+                || companyNumbers.stream().anyMatch(StringUtils::isBlank)) {
+            throw new BadRequestException(
+                    "company_numbers must contain between 1 and %d company numbers".formatted(maximumBatchSize));
+        }
+        return new LinkedHashSet<>(companyNumbers);
+    }
 
+    private static <T> BatchLookupResponse<T> toBatchLookupResponse(Set<String> requested, Map<String, Data> found,
+            Function<Data, T> mapper) {
+        Map<String, T> items = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String companyNumber : requested) {
+            Data profileData = found.get(companyNumber);
+            if (profileData == null) {
+                missing.add(companyNumber);
+            } else {
+                items.put(companyNumber, mapper.apply(profileData));
+            }
+        }
+        return new BatchLookupResponse<>(items, missing);
+    }
+
+    private static CompanyDetails toCompanyDetails(Data companyProfile) {
         CompanyDetails companyDetails = new CompanyDetails();
         companyDetails.setCompanyName(companyProfile.getCompanyName());
         companyDetails.setCompanyNumber(companyProfile.getCompanyNumber());
@@ -465,16 +844,22 @@ public class CompanyProfileService {
     }
 
     /**
-     * Retrieves a list of company profile documents. And then maps them into a list of UK establishments.
+     * Retrieves a page of company profile documents. And then maps them into a list of UK establishments.
      *
      * @param parentCompanyNumber the supplied parent company number
-     * @return a list of uk establishments
+     * @param itemsPerPage        the number of UK establishments to return, or null for all of them
+     * @param startIndex          the zero based index of the first UK establishment to return
+     * @return a page of uk establishments
      * @throws ResourceNotFoundException when a company is not located
      */
-    public UkEstablishmentsList getUkEstablishments(String parentCompanyNumber)
-            throws ResourceNotFoundException {
-        String numberFound = getCompanyProfileDocument(parentCompanyNumber).getId();
-        return retrieveUkEstablishments(numberFound);
+    public UkEstablishmentsList getUkEstablishments(String parentCompanyNumber, Integer itemsPerPage,
+            int startIndex) throws ResourceNotFoundException {
+        int pageSize = resolvePageSize(itemsPerPage, startIndex);
+        if (!companyProfileRepository.existsById(parentCompanyNumber)) {
+            throw new ResourceNotFoundException(HttpStatus.NOT_FOUND,
+                    String.format(RESOURCE_NOT_FOUND_STRING, parentCompanyNumber));
+        }
+        return retrieveUkEstablishments(parentCompanyNumber, pageSize, startIndex);
     }
 
 
@@ -553,33 +938,32 @@ public class CompanyProfileService {
         return companyProfileDocument;
     }
 
-    private void addLink(LinkRequest linkRequest, VersionedCompanyProfileDocument existingDocument) {
-        try {
-            Links links = Optional.ofNullable(existingDocument.getCompanyProfile().getLinks()).orElse(new Links());
-            setLinksOnType(links, linkRequest.getLinkType(), linkRequest.getCompanyNumber());
-            existingDocument.getCompanyProfile().setLinks(links);
-            existingDocument.getCompanyProfile().setEtag(GenerateEtagUtil.generateEtag());
-            existingDocument.setUpdated(new Updated()
-                    .setAt(LocalDateTime.now())
-                    .setType(linkRequest.getDeltaType())
-                    .setBy(linkRequest.getContextId()));
-
-            if (linkRequest.getLinkType().equals(LINK_TYPE_CHARGES)) {
-                existingDocument.getCompanyProfile().setHasCharges(true);
-                existingDocument.setHasMortgages(true);
-            } else {
-                existingDocument.setHasMortgages(false);
-            }
+    /**
+     * Sets the link in one conditional update of a document that has company data but not the link.
+     *
+     * @return whether a document was updated
+     */
+    private boolean addLink(LinkRequest linkRequest) {
+        LinkType link = linkOfType(linkRequest.getLinkType());
+        Query query = linkQuery(linkRequest.getCompanyNumber())
+                .addCriteria(Criteria.where(COMPANY_PROFILE_FIELD).ne(null))
+                .addCriteria(Criteria.where(linkField(link)).not().regex(NOT_BLANK));
+        Update update = linkUpdate(linkRequest)
+                .set(linkField(link), link.linkFor(linkRequest.getCompanyNumber()));
+        if (linkRequest.getLinkType().equals(CHARGES_LINK_TYPE)) {
+            update.set(HAS_CHARGES_FIELD, true).set(HAS_MORTGAGES_FIELD, true);
+        } else {
+            update.set(HAS_MORTGAGES_FIELD, false);
+        }
 
-            if (existingDocument.getVersion() == null) { // Update a legacy document with links
-                mongoTemplate.save(new UnversionedCompanyProfileDocument(existingDocument));
-            } else { // Update a versioned document with links
-                companyProfileRepository.save(existingDocument);
+        try {
+            if (!updateLink(query, update, linkRequest.getCompanyNumber())) {
+                return false;
             }
+            companyProfileCache.invalidate(linkRequest.getCompanyNumber());
             LOGGER.info(String.format("Company %s link inserted in Company Profile", linkRequest.getLinkType()),
                     DataMapHolder.getLogMap());
-
-            companyProfileApiService.invokeChsKafkaApi(linkRequest.getCompanyNumber());
+            return true;
         } catch (IllegalArgumentException exception) {
             LOGGER.error("Error calling chs-kafka-api", exception, DataMapHolder.getLogMap());
             throw new ServiceUnavailableException(exception.getMessage());
@@ -589,34 +973,42 @@ public class CompanyProfileService {
         }
     }
 
-    private void deleteLink(LinkRequest linkRequest, VersionedCompanyProfileDocument existingDocument) {
-        if (UK_ESTABLISHMENTS_LINK_TYPE.equals(linkRequest.getLinkType())) {
-            int ukEstablishmentsCount = retrieveUkEstablishments(linkRequest.getCompanyNumber())
-                    .getItems().size();
-            if (ukEstablishmentsCount > 1) {
+    /**
+     * Unsets the link in one conditional update of a document that has it. The uk-establishments link is kept, without
+     * an update, while the company has a UK establishment other than the one being deleted.
+     *
+     * @param linkRequest          the link request
+     * @param establishmentRemoved whether the UK establishment being deleted has already been removed, so is no
+     *                             longer counted among those of the company
+     * @return whether the document had the link
+     */
+    private boolean deleteLink(LinkRequest linkRequest, boolean establishmentRemoved) {
+        LinkType link = linkOfType(linkRequest.getLinkType());
+        Query query = linkQuery(linkRequest.getCompanyNumber())
+                .addCriteria(Criteria.where(linkField(link)).regex(NOT_BLANK));
+        long keptWhileMoreThan = establishmentRemoved ? 0 : 1;
+        try {
+            if (UK_ESTABLISHMENTS_LINK_TYPE.equals(linkRequest.getLinkType())
+                    && companyProfileRepository.countByParentCompanyNumber(linkRequest.getCompanyNumber())
+                    > keptWhileMoreThan) {
+                if (!mongoTemplate.exists(query, VersionedCompanyProfileDocument.class)) {
+                    return false;
+                }
                 LOGGER.info("Link not deleted, UK establishments still exists",
                         DataMapHolder.getLogMap());
-                return;
+                return true;
             }
-        }
-        try {
-            existingDocument.setHasMortgages(!linkRequest.getLinkType().equals(LINK_TYPE_CHARGES));
-            unsetLinksOnType(existingDocument.getCompanyProfile().getLinks(), linkRequest.getLinkType());
-            existingDocument.getCompanyProfile().setEtag(GenerateEtagUtil.generateEtag());
-            existingDocument.setUpdated(new Updated()
-                    .setAt(LocalDateTime.now())
-                    .setType(linkRequest.getDeltaType())
-                    .setBy(linkRequest.getContextId()));
-
-            if (existingDocument.getVersion() == null) { // Update a legacy document
-                mongoTemplate.save(new UnversionedCompanyProfileDocument(existingDocument));
-            } else { // Update a versioned document
-                companyProfileRepository.save(existingDocument);
+
+            Update update = linkUpdate(linkRequest)
+                    .unset(linkField(link))
+                    .set(HAS_MORTGAGES_FIELD, !linkRequest.getLinkType().equals(CHARGES_LINK_TYPE));
+            if (!updateLink(query, update, linkRequest.getCompanyNumber())) {
+                return false;
             }
+            companyProfileCache.invalidate(linkRequest.getCompanyNumber());
             LOGGER.info(String.format("Company %s link deleted in Company Profile",
                     linkRequest.getLinkType()), DataMapHolder.getLogMap());
-
-            companyProfileApiService.invokeChsKafkaApi(linkRequest.getCompanyNumber());
+            return true;
         } catch (IllegalArgumentException exception) {
             LOGGER.error("Error calling chs-kafka-api", exception,
                     DataMapHolder.getLogMap());
@@ -628,6 +1020,31 @@ public class CompanyProfileService {
         }
     }
 
+    private boolean updateLink(Query query, Update update, String companyNumber) {
+        return Boolean.TRUE.equals(transactionOperations.execute(status -> {
+            if (mongoTemplate.findAndModify(query, update, VersionedCompanyProfileDocument.class) == null) {
+                return false;
+            }
+            resourceChangedOutbox.changed(companyNumber);
+            return true;
+        }));
+    }
+
+    static Update linkUpdate(LinkRequest linkRequest) {
+        // Versioned like a full save, so that a concurrent save of the whole document fails rather than undoing this
+        return new Update()
+                .set(ETAG_FIELD, GenerateEtagUtil.generateEtag())
+                .set(UPDATED_FIELD, new Updated()
+                        .setAt(LocalDateTime.now())
+                        .setType(linkRequest.getDeltaType())
+                        .setBy(linkRequest.getContextId()))
+                .inc(VERSION_FIELD, 1);
+    }
+
+    private static String linkField(LinkType link) {
+        return LINKS_FIELD + "." + link.getField();
+    }
+
     private VersionedCompanyProfileDocument getDocument(String companyNumber) {
         try {
             return companyProfileRepository.findById(companyNumber)
@@ -644,41 +1061,70 @@ public class CompanyProfileService {
         parentCompanyDocument.setId(parentCompanyNumber);
         Data parentCompanyData = new Data();
         Links parentCompanyLinks = new Links();
-        String ukEstablishmentLink = String.format("/company/%s/uk-establishments",
-                parentCompanyNumber);
-        parentCompanyLinks.setUkEstablishments(ukEstablishmentLink);
+        LinkType.UK_ESTABLISHMENTS.set(parentCompanyLinks, LinkType.UK_ESTABLISHMENTS.linkFor(parentCompanyNumber));
         parentCompanyData.setLinks(parentCompanyLinks);
         parentCompanyDocument.setCompanyProfile(parentCompanyData);
         return parentCompanyDocument;
     }
 
+    private void checkMightExist(String companyNumber) throws ResourceNotFoundException {
+        if (!companyNumberFilter.mightContain(companyNumber)) {
+            throw companyProfileNotFound(companyNumber);
+        }
+    }
+
+    static ResourceNotFoundException companyProfileNotFound(String companyNumber) {
+        return new ResourceNotFoundException(HttpStatus.NOT_FOUND, String.format(
+                RESOURCE_NOT_FOUND_STRING, companyNumber));
+    }
+
     private VersionedCompanyProfileDocument getCompanyProfileDocument(String companyNumber)
             throws ResourceNotFoundException {
         Optional<VersionedCompanyProfileDocument> companyProfileOptional =
-                companyProfileRepository.findById(companyNumber);
-        return companyProfileOptional.orElseThrow(() ->
-                new ResourceNotFoundException(HttpStatus.NOT_FOUND, String.format(
-                        RESOURCE_NOT_FOUND_STRING, companyNumber)));
-    }
-
-    private UkEstablishmentsList retrieveUkEstablishments(String companyNumber) {
-        List<UkEstablishment> ukEstablishments = companyProfileRepository
-                .findAllByParentCompanyNumber(companyNumber)
-                .stream().map(company -> {
-                    UkEstablishment ukEstablishment = new UkEstablishment();
-                    ukEstablishment.setCompanyName(company.getCompanyProfile().getCompanyName());
-                    ukEstablishment.setCompanyNumber(company.getId());
-                    ukEstablishment.setCompanyStatus(company.getCompanyProfile()
-                            .getCompanyStatus());
-                    ukEstablishment.setLocality(company.getCompanyProfile()
-                            .getRegisteredOfficeAddress().getLocality());
-                    SelfLink companySelfLink = new SelfLink();
-                    companySelfLink.setCompany(String.format(COMPANY_SELF_LINK, company.getId()));
-                    ukEstablishment.setLinks(companySelfLink);
-                    return ukEstablishment;
-                }).toList();
-
-        UkEstablishmentsList ukEstablishmentsList = new UkEstablishmentsList();
+                companyProfileBatchLoader.findById(companyNumber);
+        return companyProfileOptional.orElseThrow(() -> companyProfileNotFound(companyNumber));
+    }
+
+    private UkEstablishmentsList retrieveUkEstablishments(String companyNumber, int itemsPerPage, int startIndex) {
+        List<UkEstablishment> ukEstablishments = mongoTemplate
+                .find(ukEstablishmentsQuery(companyNumber, itemsPerPage, startIndex),
+                        VersionedCompanyProfileDocument.class)
+                .stream()
+                .map(CompanyProfileService::toUkEstablishment)
+                .toList();
+        return toUkEstablishmentsList(companyNumber, ukEstablishments, itemsPerPage, startIndex,
+                companyProfileRepository.countByParentCompanyNumber(companyNumber));
+    }
+
+    int resolvePageSize(Integer itemsPerPage, int startIndex) {
+        if ((itemsPerPage != null && itemsPerPage < 1) || startIndex < 0) {
+            throw new BadRequestException("items_per_page must be positive and start_index must not be negative");
+        }
+        // Without items_per_page every uk establishment is returned, as before the listing was paged
+        return itemsPerPage == null ? UNPAGED : Math.min(itemsPerPage, maximumItemsPerPage);
+    }
+
+    static UkEstablishment toUkEstablishment(VersionedCompanyProfileDocument company) {
+        UkEstablishment ukEstablishment = new UkEstablishment();
+        ukEstablishment.setCompanyName(company.getCompanyProfile().getCompanyName());
+        ukEstablishment.setCompanyNumber(company.getId());
+        ukEstablishment.setCompanyStatus(company.getCompanyProfile()
+                .getCompanyStatus());
+        Optional.ofNullable(company.getCompanyProfile().getRegisteredOfficeAddress())
+                .map(RegisteredOfficeAddress::getLocality)
+                .ifPresent(ukEstablishment::setLocality);
+        SelfLink companySelfLink = new SelfLink();
+        companySelfLink.setCompany(String.format(COMPANY_SELF_LINK, company.getId()));
+        ukEstablishment.setLinks(companySelfLink);
+        return ukEstablishment;
+    }
+
+    static UkEstablishmentsList toUkEstablishmentsList(String companyNumber, List<UkEstablishment> ukEstablishments,
+            int itemsPerPage, int startIndex, long totalResults) {
+        PagedUkEstablishmentsList ukEstablishmentsList = new PagedUkEstablishmentsList()
+                .itemsPerPage(itemsPerPage == UNPAGED ? ukEstablishments.size() : itemsPerPage)
+                .startIndex(startIndex)
+                .totalResults(totalResults);
         ukEstablishmentsList.setItems(ukEstablishments);
         ukEstablishmentsList.setKind(RELATED_COMPANIES_KIND);
         ukEstablishmentsList.setEtag(GenerateEtagUtil.generateEtag());
@@ -699,40 +1145,20 @@ public class CompanyProfileService {
                 ));
     }
 
-    private static void setLinksOnType(Links links, String linkType, String companyNumber) {
-        switch (linkType) {
-            case LINK_TYPE_CHARGES -> links.setCharges(formatLinks(companyNumber, linkType));
-            case "exemptions" -> links.setExemptions(formatLinks(companyNumber, linkType));
-            case "filing-history" -> links.setFilingHistory(formatLinks(companyNumber, linkType));
-            case "insolvency" -> links.setInsolvency(formatLinks(companyNumber, linkType));
-            case "officers" -> links.setOfficers(formatLinks(companyNumber, linkType));
-            case "persons-with-significant-control" ->
-                    links.setPersonsWithSignificantControl(formatLinks(companyNumber, linkType));
-            case "persons-with-significant-control-statements" ->
-                    links.setPersonsWithSignificantControlStatements(formatLinks(companyNumber, linkType));
-            case "uk-establishments" -> links.setUkEstablishments(formatLinks(companyNumber, linkType));
-            case "registers" -> links.setRegisters(formatLinks(companyNumber, linkType));
-            default -> throw new BadRequestException("DID NOT MATCH KNOWN LINK TYPE");
-        }
-    }
-
-    private static String formatLinks(String companyNumber, String linkType) {
-        return String.format("/company/%s/%s", companyNumber, linkType);
-    }
-
-    private static void unsetLinksOnType(Links links, String linkType) {
-        switch (linkType) {
-            case LINK_TYPE_CHARGES -> links.setCharges(null);
-            case "exemptions" -> links.setExemptions(null);
-            case "filing-history" -> links.setFilingHistory(null);
-            case "insolvency" -> links.setInsolvency(null);
-            case "officers" -> links.setOfficers(null);
-            case "persons-with-significant-control" -> links.setPersonsWithSignificantControl(null);
-            case "persons-with-significant-control-statements" -> links.setPersonsWithSignificantControlStatements(null);
-            case "uk-establishments" -> links.setUkEstablishments(null);
-            case "registers" -> links.setRegisters(null);
-            default -> throw new BadRequestException("DID NOT MATCH KNOWN LINK TYPE");
-        }
+    private static LinkType linkOfType(String linkType) {
+        return LinkType.fromLinkType(linkType)
+                .orElseThrow(() -> new BadRequestException("DID NOT MATCH KNOWN LINK TYPE"));
+    }
+
+    private RuntimeException writeConflict(String companyNumber, String requestDeltaAt) {
+        return writeConflict(companyNumber, requestDeltaAt,
+                companyProfileRepository.findById(companyNumber).orElseGet(VersionedCompanyProfileDocument::new));
+    }
+
+    private RuntimeException writeConflict(String companyNumber, String requestDeltaAt,
+            VersionedCompanyProfileDocument existingDocument) {
+        deltaAtCheck(requestDeltaAt, existingDocument.getDeltaAt());
+        return new OptimisticLockingFailureException(String.format(COMPANY_PROFILE_CHANGED, companyNumber));
     }
 
     private void deltaAtCheck(String requestDeltaAt, LocalDateTime existingDeltaAt) {
@@ -0,0 +1,174 @@
+package uk.gov.companieshouse.company.profile.service;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.model.MigrationCheckpoint;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Stamps version 0 on legacy company profiles that have no version, so that every company profile is written with
+ * optimistic locking rather than copied whole by the legacy write path.
+ *
+ * <p>Once the application is ready, legacy company profiles are found in {@code _id} order, a batch at a time, and
+ * each batch is stamped in one update, with a pause between batches to bound the load on MongoDB. The last
+ * {@code _id} of each batch is checkpointed, so that the migration resumes where it stopped after a restart. A pass
+ * that stamps any company profile is followed by another, to pick up legacy company profiles written behind the
+ * checkpoint since, and the migration is complete once a pass stamps none. The update only matches company profiles
+ * that still have no version, so instances migrating at once do no harm.
+ */
+@Component
+public class CompanyProfileVersionMigrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+    private static final String CHECKPOINT_ID = "version";
+    private static final String ID_FIELD = "_id";
+    private static final String VERSION_FIELD = "version";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration batchInterval;
+    private final Counter migrated;
+    private final Timer batchTime;
+    private final AtomicLong remaining = new AtomicLong(-1);
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor.
+     */
+    public CompanyProfileVersionMigrator(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+            @Value("${version-migration.enabled}") boolean enabled,
+            @Value("${version-migration.batch-size}") int batchSize,
+            @Value("${version-migration.batch-interval}") Duration batchInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.batchInterval = batchInterval;
+        this.migrated = meterRegistry.counter("company_profile.version_migration.migrated");
+        this.batchTime = Timer.builder("company_profile.version_migration.batch")
+                .description("Time taken to find and stamp a batch of legacy company profiles")
+                .register(meterRegistry);
+        meterRegistry.gauge("company_profile.version_migration.remaining", remaining);
+    }
+
+    /**
+     * Starts the migration once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "company-profile-version-migrator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            if (!migrateBatch()) {
+                scheduler.shutdown();
+            }
+        }, 0, batchInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Stamps the next batch of legacy company profiles.
+     *
+     * @return whether there is more to migrate
+     */
+    boolean migrateBatch() {
+        try {
+            MigrationCheckpoint checkpoint = Optional.ofNullable(
+                            mongoTemplate.findById(CHECKPOINT_ID, MigrationCheckpoint.class))
+                    .orElseGet(() -> new MigrationCheckpoint(CHECKPOINT_ID));
+            if (checkpoint.getCompletedAt() != null) {
+                remaining.set(0);
+                return false;
+            }
+            if (remaining.get() < 0) {
+                remaining.set(mongoTemplate.count(legacy(), VersionedCompanyProfileDocument.class));
+            }
+            return batchTime.record(() -> migrateBatch(checkpoint));
+        } catch (DataAccessException ex) {
+            LOGGER.error("Unable to migrate legacy company profiles", ex, DataMapHolder.getLogMap());
+            return true;
+        }
+    }
+
+    private boolean migrateBatch(MigrationCheckpoint checkpoint) {
+        Query next = legacy().with(Sort.by(ID_FIELD)).limit(batchSize);
+        if (checkpoint.getLastId() != null) {
+            next.addCriteria(Criteria.where(ID_FIELD).gt(checkpoint.getLastId()));
+        }
+        next.fields().include(ID_FIELD);
+        List<String> ids = mongoTemplate.find(next, Document.class,
+                        mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class)).stream()
+                .map(id -> String.valueOf(id.get(ID_FIELD)))
+                .toList();
+
+        checkpoint.setUpdatedAt(Instant.now());
+        if (ids.isEmpty()) {
+            boolean complete = checkpoint.getPassMigrated() == 0;
+            if (complete) {
+                checkpoint.setCompletedAt(checkpoint.getUpdatedAt());
+                remaining.set(0);
+                LOGGER.info(String.format("Legacy company profile migration complete, %d migrated",
+                        checkpoint.getMigrated()), DataMapHolder.getLogMap());
+            } else {
+                checkpoint.setLastId(null);
+                checkpoint.setPassMigrated(0);
+            }
+            mongoTemplate.save(checkpoint);
+            return !complete;
+        }
+
+        long stamped = mongoTemplate.updateMulti(legacy().addCriteria(Criteria.where(ID_FIELD).in(ids)),
+                new Update().set(VERSION_FIELD, 0L), VersionedCompanyProfileDocument.class).getModifiedCount();
+        migrated.increment(stamped);
+        remaining.updateAndGet(left -> Math.max(0, left - stamped));
+        checkpoint.setLastId(ids.getLast());
+        checkpoint.setPassMigrated(checkpoint.getPassMigrated() + stamped);
+        checkpoint.setMigrated(checkpoint.getMigrated() + stamped);
+        mongoTemplate.save(checkpoint);
+        return true;
+    }
+
+    private static Query legacy() {
+        // Matches a missing version as well as a null one
+        return new Query(Criteria.where(VERSION_FIELD).is(null));
+    }
+}
@@ -0,0 +1,99 @@
+package uk.gov.companieshouse.company.profile.service;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.exception.ServiceUnavailableException;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Runs the writes of each company one at a time, in the order they arrive, while writes of different companies run
+ * in parallel, so that concurrent writes of a company queue behind each other rather than fail on its version.
+ *
+ * <p>Each company number is hashed to one of a fixed number of lanes, so unrelated companies sharing a lane also
+ * queue behind each other. A write runs on the thread that made it, once the writes ahead of it in its lane are done,
+ * and is rejected when it has waited the maximum wait. Lanes only order the writes of this instance; writes made
+ * through other instances still meet as version conflicts. When disabled, writes run at once.
+ *
+ * <p>A lane is held for one attempt of a write: reading the document, changing it and writing it back, so a write
+ * that conflicts backs off outside its lane. With the outbox enabled that is all, bounded by the MongoDB timeouts.
+ * With the outbox disabled the attempt also calls chs-kafka-api, holding the lane for up to every attempt of that
+ * call, which is why lanes are enabled by default only with the outbox.
+ */
+@Component
+public class CompanyProfileWriteLanes {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+
+    private final boolean enabled;
+    private final ReentrantLock[] lanes;
+    private final long maxWaitNanos;
+    private final Timer waitTime;
+    private final Counter timedOut;
+
+    /**
+     * Constructor.
+     */
+    public CompanyProfileWriteLanes(MeterRegistry meterRegistry,
+            @Value("${write-lanes.enabled}") boolean enabled,
+            @Value("${write-lanes.count}") int count,
+            @Value("${write-lanes.max-wait}") Duration maxWait) {
+        this.enabled = enabled;
+        this.lanes = new ReentrantLock[count];
+        // Fair, so that the writes of a company are made in the order they arrived
+        Arrays.setAll(lanes, lane -> new ReentrantLock(true));
+        this.maxWaitNanos = maxWait.toNanos();
+        this.waitTime = Timer.builder("company_profile.write_lane.wait")
+                .description("Time a company profile write waits for the writes ahead of it in its lane")
+                .register(meterRegistry);
+        this.timedOut = meterRegistry.counter("company_profile.write_lane.timed_out");
+        meterRegistry.gauge("company_profile.write_lane.depth", lanes,
+                all -> Arrays.stream(all).mapToInt(ReentrantLock::getQueueLength).sum());
+    }
+
+    /**
+     * Runs the given write of the company once the writes ahead of it are done.
+     *
+     * @param companyNumber the company number written
+     * @param write         the write
+     * @throws ServiceUnavailableException if the write waits longer than the maximum wait
+     */
+    public void run(String companyNumber, Runnable write) {
+        if (!enabled) {
+            write.run();
+            return;
+        }
+        ReentrantLock lane = lanes[Math.floorMod(companyNumber.hashCode(), lanes.length)];
+        long start = System.nanoTime();
+        boolean entered;
+        try {
+            entered = lane.tryLock(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted waiting to write company profile " + companyNumber);
+        } finally {
+            waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!entered) {
+            timedOut.increment();
+            LOGGER.error(String.format("Timed out waiting to write company profile %s", companyNumber),
+                    DataMapHolder.getLogMap());
+            throw new ServiceUnavailableException("Timed out waiting to write company profile " + companyNumber);
+        }
+        try {
+            write.run();
+        } finally {
+            lane.unlock();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package uk.gov.companieshouse.company.profile.service;
+
+import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.exception.ServiceUnavailableException;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.util.JitteredBackoff;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Runs a company profile write again when it loses a race with another write of the company, signalled by an
+ * {@link OptimisticLockingFailureException}. Each attempt reads the document afresh, so a write that conflicts once
+ * usually succeeds when made again.
+ *
+ * <p>A conflicting write is retried, up to the maximum attempts, after a random backoff of up to the backoff doubled
+ * for each attempt made and no more than the maximum backoff, so that writes racing each other do not meet again. The
+ * conflicts, retries and exhausted writes of each endpoint are counted, to show how contended its companies are.
+ */
+@Component
+public class CompanyProfileWriteRetry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
+    private static final String METRIC = "company_profile.write.";
+    private static final String ENDPOINT_TAG = "endpoint";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final JitteredBackoff backoff;
+
+    /**
+     * Constructor.
+     */
+    public CompanyProfileWriteRetry(MeterRegistry meterRegistry,
+            @Value("${write-retry.max-attempts}") int maxAttempts,
+            @Value("${write-retry.backoff}") Duration backoff,
+            @Value("${write-retry.maximum-backoff}") Duration maximumBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoff = new JitteredBackoff(backoff, maximumBackoff);
+    }
+
+    /**
+     * Makes the given write, making it again while it conflicts.
+     *
+     * @param endpoint  the endpoint making the write, as its metrics are tagged
+     * @param write     the write, which reads what it changes on each attempt
+     * @param exhausted gives the exception thrown when the last attempt conflicts
+     */
+    public void run(String endpoint, Runnable write, Supplier<RuntimeException> exhausted) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write.run();
+                return;
+            } catch (OptimisticLockingFailureException ex) {
+                meterRegistry.counter(METRIC + "conflicts", ENDPOINT_TAG, endpoint).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter(METRIC + "retries_exhausted", ENDPOINT_TAG, endpoint).increment();
+                    LOGGER.error(String.format("Write conflicted on all %d attempts: %s", attempt, ex.getMessage()),
+                            DataMapHolder.getLogMap());
+                    RuntimeException exception = exhausted.get();
+                    exception.addSuppressed(ex);
+                    throw exception;
+                }
+                meterRegistry.counter(METRIC + "retries", ENDPOINT_TAG, endpoint).increment();
+                LOGGER.info(String.format("Retrying write after conflict: %s", ex.getMessage()),
+                        DataMapHolder.getLogMap());
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            backoff.sleep(attempt);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while retrying company profile write", ex);
+        }
+    }
+}
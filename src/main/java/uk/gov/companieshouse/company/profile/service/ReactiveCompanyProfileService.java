@@ -0,0 +1,163 @@
+package uk.gov.companieshouse.company.profile.service;
+
+import static uk.gov.companieshouse.company.profile.config.ReactiveMongoCompanyProfileConfig.REACTIVE_READS_PROFILE;
+import static uk.gov.companieshouse.company.profile.repository.CompanyProfileQueries.ukEstablishmentsQuery;
+import static uk.gov.companieshouse.company.profile.service.CompanyProfileService.UNPAGED;
+import static uk.gov.companieshouse.company.profile.service.CompanyProfileService.companyProfileNotFound;
+import static uk.gov.companieshouse.company.profile.service.CompanyProfileService.toUkEstablishmentsList;
+
+import java.util.Optional;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.api.company.UkEstablishment;
+import uk.gov.companieshouse.api.company.UkEstablishmentsList;
+import uk.gov.companieshouse.api.model.ukestablishments.PrivateUkEstablishmentsAddressApi;
+import uk.gov.companieshouse.api.model.ukestablishments.PrivateUkEstablishmentsAddressListApi;
+import uk.gov.companieshouse.company.profile.cache.CompanyNumberFilter;
+import uk.gov.companieshouse.company.profile.cache.CompanyProfileCache;
+import uk.gov.companieshouse.company.profile.mapper.UkEstablishmentAddressMapper;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+import uk.gov.companieshouse.company.profile.repository.ReactiveCompanyProfileRepository;
+
+/**
+ * Non-blocking counterparts of the company profile and uk establishments reads in {@link CompanyProfileService},
+ * reading through the reactive MongoDB driver and shaping results in the same way.
+ */
+@Service
+@Profile(REACTIVE_READS_PROFILE)
+public class ReactiveCompanyProfileService {
+
+    private final ReactiveCompanyProfileRepository reactiveCompanyProfileRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final CompanyProfileService companyProfileService;
+    private final CompanyProfileCache companyProfileCache;
+    private final CompanyNumberFilter companyNumberFilter;
+
+    /**
+     * Constructor.
+     */
+    public ReactiveCompanyProfileService(ReactiveCompanyProfileRepository reactiveCompanyProfileRepository,
+            ReactiveMongoTemplate reactiveMongoTemplate,
+            CompanyProfileService companyProfileService,
+            CompanyProfileCache companyProfileCache,
+            CompanyNumberFilter companyNumberFilter) {
+        this.reactiveCompanyProfileRepository = reactiveCompanyProfileRepository;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.companyProfileService = companyProfileService;
+        this.companyProfileCache = companyProfileCache;
+        this.companyNumberFilter = companyNumberFilter;
+    }
+
+    /**
+     * Retrieve the etag of a company profile without loading the rest of the document.
+     *
+     * @param companyNumber the company number
+     * @return the etag, otherwise empty
+     */
+    public Mono<String> getEtag(String companyNumber) {
+        Optional<String> cachedEtag = companyProfileCache.getEtag(companyNumber);
+        if (cachedEtag.isPresent()) {
+            return Mono.just(cachedEtag.get());
+        }
+        if (!companyNumberFilter.mightContain(companyNumber)) {
+            return Mono.empty();
+        }
+        return reactiveCompanyProfileRepository.findEtagById(companyNumber)
+                .mapNotNull(document -> document.getCompanyProfile().getEtag());
+    }
+
+    /**
+     * Retrieve company profile.
+     *
+     * @param companyNumber the company number
+     * @return the company profile, otherwise an error of ResourceNotFoundException
+     */
+    public Mono<Data> retrieveCompanyNumber(String companyNumber) {
+        Optional<Data> cachedProfile = companyProfileCache.get(companyNumber);
+        if (cachedProfile.isPresent()) {
+            return Mono.just(companyProfileService.refreshOverdue(cachedProfile.get()));
+        }
+        if (!companyNumberFilter.mightContain(companyNumber)) {
+            return Mono.error(companyProfileNotFound(companyNumber));
+        }
+        long generation = companyProfileCache.generation(companyNumber);
+        return reactiveCompanyProfileRepository.findById(companyNumber)
+                .switchIfEmpty(Mono.error(() -> companyProfileNotFound(companyNumber)))
+                .map(companyProfileService::shapeCompanyProfile)
+                .doOnNext(profileData -> companyProfileCache.put(companyNumber, generation, profileData));
+    }
+
+    /**
+     * Retrieve a page of uk establishments for a parent company.
+     *
+     * @param parentCompanyNumber the parent company number
+     * @param itemsPerPage        the page size, or null for every uk establishment
+     * @param startIndex          the index of the first uk establishment to return
+     * @return the page of uk establishments, otherwise an error of ResourceNotFoundException
+     */
+    public Mono<UkEstablishmentsList> getUkEstablishments(String parentCompanyNumber, Integer itemsPerPage,
+            int startIndex) {
+        return Mono.fromCallable(() -> companyProfileService.resolvePageSize(itemsPerPage, startIndex))
+                .flatMap(pageSize -> whenExists(parentCompanyNumber)
+                        .then(Mono.defer(() -> Mono.zip(
+                                reactiveMongoTemplate.find(
+                                                ukEstablishmentsQuery(parentCompanyNumber, pageSize, startIndex),
+                                                VersionedCompanyProfileDocument.class)
+                                        .map(CompanyProfileService::toUkEstablishment)
+                                        .collectList(),
+                                reactiveCompanyProfileRepository.countByParentCompanyNumber(parentCompanyNumber))))
+                        .map(page -> toUkEstablishmentsList(parentCompanyNumber, page.getT1(), pageSize,
+                                startIndex, page.getT2())));
+    }
+
+    /**
+     * Stream every uk establishment of a parent company as it is read, without collecting them into a list.
+     *
+     * @param parentCompanyNumber the parent company number
+     * @return the uk establishments, otherwise an error of ResourceNotFoundException
+     */
+    public Flux<UkEstablishment> streamUkEstablishments(String parentCompanyNumber) {
+        return whenExists(parentCompanyNumber)
+                .thenMany(Flux.defer(() -> reactiveMongoTemplate.find(
+                        ukEstablishmentsQuery(parentCompanyNumber, UNPAGED, 0),
+                        VersionedCompanyProfileDocument.class)))
+                .map(CompanyProfileService::toUkEstablishment);
+    }
+
+    /**
+     * Retrieve the addresses of the open uk establishments of a parent company.
+     *
+     * @param parentCompanyNumber the parent company number
+     * @return the addresses, otherwise an error of ResourceNotFoundException
+     */
+    public Mono<PrivateUkEstablishmentsAddressListApi> getUkEstablishmentsAddresses(String parentCompanyNumber) {
+        return streamUkEstablishmentsAddresses(parentCompanyNumber)
+                .collectList()
+                .map(PrivateUkEstablishmentsAddressListApi::new);
+    }
+
+    /**
+     * Stream the addresses of the open uk establishments of a parent company as they are read.
+     *
+     * @param parentCompanyNumber the parent company number
+     * @return the addresses, otherwise an error of ResourceNotFoundException
+     */
+    public Flux<PrivateUkEstablishmentsAddressApi> streamUkEstablishmentsAddresses(String parentCompanyNumber) {
+        return whenExists(parentCompanyNumber)
+                .thenMany(Flux.defer(() -> reactiveCompanyProfileRepository
+                        .findAllOpenCompanyProfilesByParentNumberSortedByCreation(parentCompanyNumber)))
+                .map(UkEstablishmentAddressMapper::mapToUkEstablishmentAddress);
+    }
+
+    private Mono<Void> whenExists(String companyNumber) {
+        if (!companyNumberFilter.mightContain(companyNumber)) {
+            return Mono.error(companyProfileNotFound(companyNumber));
+        }
+        return reactiveCompanyProfileRepository.existsById(companyNumber)
+                .flatMap(exists -> exists ? Mono.<Void>empty() : Mono.error(companyProfileNotFound(companyNumber)));
+    }
+}
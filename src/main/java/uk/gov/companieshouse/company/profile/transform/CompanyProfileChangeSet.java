@@ -0,0 +1,169 @@
+package uk.gov.companieshouse.company.profile.transform;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+/**
+ * Works out the smallest update that turns a stored company profile document into the one a delta transforms it
+ * into, so that a delta changing one field writes that field rather than the whole document.
+ *
+ * <p>Both documents are compared as the converter writes them. Embedded documents are compared field by field; any
+ * other value, arrays included, is set whole when it differs, and a field no longer present is unset. The company
+ * profile keeps its etag when nothing else in it has changed.
+ *
+ * <p>A delta whose content matches the stored document, as upstream resends do, changes only the fields recording
+ * the delta itself. Of those, only delta_at is written, so that the document's version, updated and etag stay as
+ * they were.
+ */
+@Component
+public class CompanyProfileChangeSet {
+
+    private static final String CHANGED_PATHS_METRIC = "company_profile.write.changed_paths";
+    private static final String DOCUMENT_PATHS_METRIC = "company_profile.write.document_paths";
+    private static final String CHANGED_PATH_METRIC = "company_profile.write.changed_path";
+    private static final String PATH_TAG = "path";
+    private static final String COMPANY_PROFILE_FIELD = "data";
+    private static final String ETAG_FIELD = "etag";
+    private static final String DELTA_AT_FIELD = "delta_at";
+    private static final String UPDATED_FIELD = "updated";
+    private static final Set<String> DELTA_FIELDS = Set.of(DELTA_AT_FIELD, UPDATED_FIELD, "version");
+
+    private final MongoConverter mongoConverter;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary changedPaths;
+    private final DistributionSummary documentPaths;
+
+    /**
+     * Constructor.
+     *
+     * @param mongoConverter the converter documents are written with
+     * @param meterRegistry  the registry the changed paths are recorded in
+     */
+    public CompanyProfileChangeSet(MongoConverter mongoConverter, MeterRegistry meterRegistry) {
+        this.mongoConverter = mongoConverter;
+        this.meterRegistry = meterRegistry;
+        this.changedPaths = DistributionSummary.builder(CHANGED_PATHS_METRIC)
+                .description("Number of fields set or unset by a company profile update")
+                .register(meterRegistry);
+        this.documentPaths = DistributionSummary.builder(DOCUMENT_PATHS_METRIC)
+                .description("Number of fields a whole company profile document write would have set")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes a document as it is stored, to be compared once it has been transformed.
+     *
+     * @param document the document as read
+     * @return the stored form of the document
+     */
+    public Document snapshot(VersionedCompanyProfileDocument document) {
+        Document stored = new Document();
+        mongoConverter.write(document, stored);
+        return stored;
+    }
+
+    /**
+     * Builds the update that turns the stored document into the transformed one, recording which fields it changes.
+     *
+     * @param stored   the stored form of the document before it was transformed
+     * @param document the transformed document
+     * @return the update setting and unsetting only the changed fields, and whether the content changed
+     */
+    public Diff diff(Document stored, VersionedCompanyProfileDocument document) {
+        Document updated = snapshot(document);
+        keepEtagIfUnchanged(stored, updated, document);
+
+        Document set = new Document();
+        List<String> unset = new ArrayList<>();
+        diff("", stored, updated, set, unset);
+        boolean contentChanged = !unset.isEmpty()
+                || set.keySet().stream().anyMatch(path -> !DELTA_FIELDS.contains(topLevelField(path)));
+        if (!contentChanged) {
+            set.keySet().retainAll(Set.of(DELTA_AT_FIELD));
+        }
+
+        Update update = new Update();
+        set.forEach((path, value) -> {
+            update.set(path, value);
+            changed(path);
+        });
+        unset.forEach(path -> {
+            update.unset(path);
+            changed(path);
+        });
+        changedPaths.record(set.size() + unset.size());
+        documentPaths.record(countPaths(updated));
+        return new Diff(update, contentChanged);
+    }
+
+    private static void diff(String prefix, Document stored, Document updated, Document set, List<String> unset) {
+        for (Map.Entry<String, Object> field : updated.entrySet()) {
+            String path = prefix + field.getKey();
+            Object storedValue = stored.get(field.getKey());
+            if (storedValue instanceof Document storedDocument && field.getValue() instanceof Document document) {
+                diff(path + ".", storedDocument, document, set, unset);
+            } else if (!stored.containsKey(field.getKey()) || !Objects.equals(storedValue, field.getValue())) {
+                set.put(path, field.getValue());
+            }
+        }
+        for (String key : stored.keySet()) {
+            if (!updated.containsKey(key)) {
+                unset.add(prefix + key);
+            }
+        }
+    }
+
+    private static String topLevelField(String path) {
+        int dot = path.indexOf('.');
+        return dot < 0 ? path : path.substring(0, dot);
+    }
+
+    private void changed(String path) {
+        meterRegistry.counter(CHANGED_PATH_METRIC, PATH_TAG, path).increment();
+    }
+
+    private static void keepEtagIfUnchanged(Document stored, Document updated,
+            VersionedCompanyProfileDocument document) {
+        if (stored.get(COMPANY_PROFILE_FIELD) instanceof Document storedData
+                && updated.get(COMPANY_PROFILE_FIELD) instanceof Document data
+                && storedData.containsKey(ETAG_FIELD)) {
+            Document withStoredEtag = new Document(data);
+            withStoredEtag.put(ETAG_FIELD, storedData.get(ETAG_FIELD));
+            if (withStoredEtag.equals(storedData)) {
+                data.put(ETAG_FIELD, storedData.get(ETAG_FIELD));
+                document.getCompanyProfile().setEtag(storedData.getString(ETAG_FIELD));
+            }
+        }
+    }
+
+    private static int countPaths(Document document) {
+        int paths = 0;
+        for (Object value : document.values()) {
+            paths += value instanceof Document embedded ? countPaths(embedded) : 1;
+        }
+        return paths;
+    }
+
+    /**
+     * The update for a transformed document.
+     *
+     * @param update         sets and unsets the changed fields, and is empty when there are none
+     * @param contentChanged whether anything other than the fields recording the delta changed
+     */
+    public record Diff(Update update, boolean contentChanged) {
+
+        public boolean isEmpty() {
+            return update.getUpdateObject().isEmpty();
+        }
+    }
+}
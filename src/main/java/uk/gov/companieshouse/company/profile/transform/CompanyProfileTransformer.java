@@ -1,10 +1,6 @@
 package uk.gov.companieshouse.company.profile.transform;
 
-import static uk.gov.companieshouse.company.profile.CompanyProfileApiApplication.APPLICATION_NAME_SPACE;
-
 import jakarta.annotation.Nullable;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import org.apache.commons.lang3.StringUtils;
@@ -14,16 +10,12 @@ import uk.gov.companieshouse.api.company.CompanyProfile;
 import uk.gov.companieshouse.api.company.Links;
 import uk.gov.companieshouse.api.company.RegisteredOfficeAddress;
 import uk.gov.companieshouse.api.model.Updated;
-import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
 import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.company.profile.util.LinkType;
 
 @Component
 public class CompanyProfileTransformer {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(APPLICATION_NAME_SPACE);
-
     /**
      * transforms links in accordance with existing links in db.
      */
@@ -75,34 +67,9 @@ public class CompanyProfileTransformer {
 
     private void transformLinks(CompanyProfile companyProfile, Links existinglinks,
             VersionedCompanyProfileDocument companyProfileDocument) {
-        Links links = new Links();
-        if (companyProfile.getData().getLinks() != null) {
-            // Iterating through each link in the Links class and calling the getter and setter
-            for (Field linkField : Links.class.getDeclaredFields()) {
-                String upperCamelCaseField = linkField.getName().substring(0, 1).toUpperCase()
-                        + linkField.getName().substring(1);
-                String getMethodName = "get" + upperCamelCaseField;
-                String setMethodName = "set" + upperCamelCaseField;
-                try {
-                    Method getMethod = Links.class.getMethod(getMethodName);
-                    Method setMethod = Links.class.getMethod(setMethodName, String.class);
-
-                    String newLink = (String) getMethod.invoke(companyProfile.getData().getLinks());
-                    if (newLink != null) {
-                        setMethod.invoke(links, newLink);
-                    } else {
-                        if (existinglinks != null) {
-                            String existingLink = (String) getMethod.invoke(existinglinks);
-                            setMethod.invoke(links, existingLink);
-                        }
-                    }
-                } catch (Exception ex) {
-                    LOGGER.error("Error with links reflection: " + ex.getMessage(), DataMapHolder.getLogMap());
-                }
-            }
-        } else {
-            links = existinglinks;
-        }
+        Links links = companyProfile.getData().getLinks() != null
+                ? LinkType.merge(companyProfile.getData().getLinks(), existinglinks)
+                : existinglinks;
         companyProfileDocument.getCompanyProfile().setLinks(links);
     }
 }
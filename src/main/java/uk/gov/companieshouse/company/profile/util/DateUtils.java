@@ -24,6 +24,10 @@ public final class DateUtils {
                                 .isBefore(existingDeltaAt.atOffset(UTC)));
     }
 
+    public static LocalDateTime parseDeltaAt(final String deltaAt) {
+        return LocalDateTime.parse(deltaAt, DELTA_AT_FORMATTER);
+    }
+
     public static String publishedAtString(final Instant source) {
         return source.atOffset(UTC).format(PUBLISHED_AT_FORMATTER);
     }
@@ -0,0 +1,38 @@
+package uk.gov.companieshouse.company.profile.util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+public final class EtagUtils {
+
+    private static final String WILDCARD = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private EtagUtils() {
+    }
+
+    public static String toEntityTag(final String etag) {
+        return etag == null ? null : "\"" + etag + "\"";
+    }
+
+    /**
+     * The company profile response includes overdue flags that are worked out against the current date, so its
+     * entity tag changes daily as well as whenever the stored profile changes.
+     */
+    public static String toDatedEntityTag(final String etag) {
+        return etag == null ? null
+                : toEntityTag(etag + "-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE));
+    }
+
+    public static boolean matchesIfNoneMatch(final String ifNoneMatch, final String entityTag) {
+        if (ifNoneMatch == null || entityTag == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(candidate -> candidate.startsWith(WEAK_PREFIX) ? candidate.substring(WEAK_PREFIX.length())
+                        : candidate)
+                .anyMatch(candidate -> WILDCARD.equals(candidate) || entityTag.equals(candidate));
+    }
+}
@@ -0,0 +1,44 @@
+package uk.gov.companieshouse.company.profile.util;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A random wait before a retry, of up to the backoff doubled for each attempt already made, and never more than the
+ * maximum, so that callers retrying together spread out rather than meet again.
+ */
+public final class JitteredBackoff {
+
+    // Beyond this the ceiling is past any sensible maximum, and shifting further would overflow
+    private static final int MAXIMUM_DOUBLINGS = 30;
+
+    private final long backoffMillis;
+    private final long maximumMillis;
+
+    public JitteredBackoff(Duration backoff, Duration maximum) {
+        this.backoffMillis = backoff.toMillis();
+        this.maximumMillis = maximum.toMillis();
+    }
+
+    /**
+     * Gives the wait before the retry following the given attempt.
+     *
+     * @param attempt the number of attempts made, from 1
+     * @return a random wait of up to the backoff doubled for each attempt after the first, capped at the maximum
+     */
+    public Duration delay(int attempt) {
+        long ceiling = Math.min(backoffMillis << Math.min(Math.max(attempt - 1, 0), MAXIMUM_DOUBLINGS),
+                maximumMillis);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    /**
+     * Waits before the retry following the given attempt.
+     *
+     * @param attempt the number of attempts made, from 1
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void sleep(int attempt) throws InterruptedException {
+        Thread.sleep(delay(attempt));
+    }
+}
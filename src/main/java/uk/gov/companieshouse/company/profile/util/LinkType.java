@@ -0,0 +1,143 @@
+package uk.gov.companieshouse.company.profile.util;
+
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.CHARGES_DELTA_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.CHARGES_LINK_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.EXEMPTIONS_DELTA_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.EXEMPTIONS_LINK_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.FILING_HISTORY_DELTA_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.FILING_HISTORY_LINK_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.INSOLVENCY_DELTA_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.INSOLVENCY_LINK_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.OFFICERS_DELTA_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.OFFICERS_LINK_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.PSC_DELTA_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.PSC_LINK_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.PSC_STATEMENTS_DELTA_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.PSC_STATEMENTS_LINK_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.REGISTERS_LINK_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.UK_ESTABLISHMENTS_DELTA_TYPE;
+import static uk.gov.companieshouse.company.profile.util.LinkRequest.UK_ESTABLISHMENTS_LINK_TYPE;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import uk.gov.companieshouse.api.company.Links;
+
+/**
+ * Every link held in {@link Links}, with its stored field name, its accessors and, for links the company profile
+ * can be asked to add or delete, its link and delta types.
+ */
+public enum LinkType {
+
+    SELF("self", null, null, Links::getSelf, Links::setSelf),
+    CHARGES("charges", CHARGES_LINK_TYPE, CHARGES_DELTA_TYPE, Links::getCharges, Links::setCharges),
+    EXEMPTIONS("exemptions", EXEMPTIONS_LINK_TYPE, EXEMPTIONS_DELTA_TYPE, Links::getExemptions,
+            Links::setExemptions),
+    FILING_HISTORY("filing_history", FILING_HISTORY_LINK_TYPE, FILING_HISTORY_DELTA_TYPE, Links::getFilingHistory,
+            Links::setFilingHistory),
+    INSOLVENCY("insolvency", INSOLVENCY_LINK_TYPE, INSOLVENCY_DELTA_TYPE, Links::getInsolvency,
+            Links::setInsolvency),
+    OFFICERS("officers", OFFICERS_LINK_TYPE, OFFICERS_DELTA_TYPE, Links::getOfficers, Links::setOfficers),
+    PSC("persons_with_significant_control", PSC_LINK_TYPE, PSC_DELTA_TYPE,
+            Links::getPersonsWithSignificantControl, Links::setPersonsWithSignificantControl),
+    PSC_STATEMENTS("persons_with_significant_control_statements", PSC_STATEMENTS_LINK_TYPE,
+            PSC_STATEMENTS_DELTA_TYPE, Links::getPersonsWithSignificantControlStatements,
+            Links::setPersonsWithSignificantControlStatements),
+    UK_ESTABLISHMENTS("uk_establishments", UK_ESTABLISHMENTS_LINK_TYPE, UK_ESTABLISHMENTS_DELTA_TYPE,
+            Links::getUkEstablishments, Links::setUkEstablishments),
+    REGISTERS("registers", REGISTERS_LINK_TYPE, null, Links::getRegisters, Links::setRegisters),
+    OVERSEAS("overseas", null, null, Links::getOverseas, Links::setOverseas);
+
+    private static final List<LinkType> ALL = List.of(values());
+
+    private static final Map<String, LinkType> BY_LINK_TYPE = Arrays.stream(values())
+            .filter(link -> link.linkType != null)
+            .collect(Collectors.toUnmodifiableMap(link -> link.linkType, Function.identity()));
+
+    private final String field;
+    private final String linkType;
+    private final String deltaType;
+    private final Function<Links, String> getter;
+    private final BiConsumer<Links, String> setter;
+
+    LinkType(String field, String linkType, String deltaType, Function<Links, String> getter,
+            BiConsumer<Links, String> setter) {
+        this.field = field;
+        this.linkType = linkType;
+        this.deltaType = deltaType;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Finds the link with the given link type.
+     *
+     * @param linkType the link type, as in the path of the link
+     * @return the link, if there is one of that type
+     */
+    public static Optional<LinkType> fromLinkType(String linkType) {
+        return Optional.ofNullable(BY_LINK_TYPE.get(linkType));
+    }
+
+    /**
+     * Merges incoming links onto existing ones, keeping each existing link the incoming links do not have.
+     *
+     * @param incoming the links received
+     * @param existing the links stored, if any
+     * @return the merged links
+     */
+    public static Links merge(Links incoming, Links existing) {
+        Links links = new Links();
+        for (LinkType link : ALL) {
+            String value = link.get(incoming);
+            if (value == null && existing != null) {
+                value = link.get(existing);
+            }
+            link.set(links, value);
+        }
+        return links;
+    }
+
+    /**
+     * Gives the name of the link in a stored document.
+     *
+     * @return the field name within data.links
+     */
+    public String getField() {
+        return field;
+    }
+
+    public String getLinkType() {
+        return linkType;
+    }
+
+    public String getDeltaType() {
+        return deltaType;
+    }
+
+    public Function<Links, String> getter() {
+        return getter;
+    }
+
+    public String get(Links links) {
+        return getter.apply(links);
+    }
+
+    public void set(Links links, String value) {
+        setter.accept(links, value);
+    }
+
+    /**
+     * Gives the link of this type for a company.
+     *
+     * @param companyNumber the company number
+     * @return the link, /company/{company_number}/{link_type}
+     */
+    public String linkFor(String companyNumber) {
+        return String.format("/company/%s/%s", companyNumber, linkType);
+    }
+}
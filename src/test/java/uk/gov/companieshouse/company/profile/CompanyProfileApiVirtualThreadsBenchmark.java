@@ -0,0 +1,128 @@
+package uk.gov.companieshouse.company.profile;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+import uk.gov.companieshouse.company.profile.repository.CompanyProfileRepository;
+
+/**
+ * Compares the throughput and latency percentiles of the application with request handling on virtual threads and
+ * on Tomcat's platform thread pool, at equal heap. The application is booted in each mode and sent company detail
+ * requests by more concurrent clients than the platform pool has threads. Every request blocks on a read given a
+ * fixed latency in place of MongoDB, with the company profile cache disabled, so that each one holds its thread for
+ * the read as it would in production. Run from the test classpath with {@link #main(String[])}; the latency and
+ * client count can be changed with {@code -p mongoLatencyMillis=} and {@code -t} when run through the JMH runner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(400)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+public class CompanyProfileApiVirtualThreadsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"20"})
+    public long mongoLatencyMillis;
+
+    private final AtomicLong companyNumbers = new AtomicLong();
+
+    private ConfigurableApplicationContext application;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup
+    public void setUp() {
+        application = new SpringApplicationBuilder(CompanyProfileApiApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "cache.company-profile.enabled=false")
+                .initializers(context -> ((GenericApplicationContext) context).registerBean(
+                        "simulatedCompanyProfileRepository", CompanyProfileRepository.class,
+                        this::simulatedRepository, definition -> definition.setPrimary(true)))
+                .run();
+        int port = ((ServletWebServerApplicationContext) application).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        application.close();
+    }
+
+    @Benchmark
+    public int getCompanyDetails() throws IOException, InterruptedException {
+        // A distinct company for each request, so that no read is shared with another
+        String companyNumber = String.format("%08d", companyNumbers.incrementAndGet() % 100_000_000);
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/company/" + companyNumber + "/company-detail"))
+                .header("ERIC-Identity", "benchmark")
+                .header("ERIC-Identity-Type", "key")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Company detail request failed with " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private CompanyProfileRepository simulatedRepository() {
+        return (CompanyProfileRepository) Proxy.newProxyInstance(CompanyProfileRepository.class.getClassLoader(),
+                new Class<?>[]{CompanyProfileRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findCompanyDetailsById")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    Thread.sleep(mongoLatencyMillis);
+                    VersionedCompanyProfileDocument document = new VersionedCompanyProfileDocument();
+                    document.setCompanyProfile(new Data()
+                            .companyNumber((String) args[0])
+                            .companyName("BENCHMARK LIMITED")
+                            .companyStatus("active")
+                            .etag("etag"));
+                    return Optional.of(document);
+                });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CompanyProfileApiVirtualThreadsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
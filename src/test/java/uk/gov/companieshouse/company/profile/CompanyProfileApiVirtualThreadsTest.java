@@ -0,0 +1,60 @@
+package uk.gov.companieshouse.company.profile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "spring.threads.virtual.enabled=true")
+class CompanyProfileApiVirtualThreadsTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext applicationContext;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void shouldHandleRequestsOnVirtualThreads() {
+        TomcatWebServer webServer = (TomcatWebServer) applicationContext.getWebServer();
+
+        assertInstanceOf(VirtualThreadExecutor.class,
+                webServer.getTomcat().getConnector().getProtocolHandler().getExecutor());
+    }
+
+    @Test
+    void shouldServeRequestsOnVirtualThreads() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/healthcheck", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void shouldKeepLoggingContextPerVirtualThread() throws InterruptedException {
+        DataMapHolder.initialise("request-one");
+        try {
+            String[] requestId = new String[1];
+            Thread thread = Thread.ofVirtual().start(() -> {
+                DataMapHolder.initialise("request-two");
+                requestId[0] = DataMapHolder.getRequestId();
+                DataMapHolder.clear();
+            });
+            thread.join();
+
+            assertEquals("request-two", requestId[0]);
+            assertEquals("request-one", DataMapHolder.getRequestId());
+        } finally {
+            DataMapHolder.clear();
+        }
+    }
+}
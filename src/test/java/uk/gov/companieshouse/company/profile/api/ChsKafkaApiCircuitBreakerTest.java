@@ -0,0 +1,245 @@
+package uk.gov.companieshouse.company.profile.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.error.ApiErrorResponseException;
+import uk.gov.companieshouse.company.profile.api.ChsKafkaApiCircuitBreaker.State;
+import uk.gov.companieshouse.company.profile.exception.ChsKafkaApiRejectedException;
+
+class ChsKafkaApiCircuitBreakerTest {
+
+    private static final Duration LONG = Duration.ofMinutes(1);
+
+    private MeterRegistry meterRegistry;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldMakeCallOnceWhenDisabled() {
+        // given
+        ChsKafkaApiCircuitBreaker breaker = breaker(false, LONG, LONG, 1, 3);
+
+        // when
+        assertThrows(ApiErrorResponseException.class, () -> breaker.call(failWith(503)));
+
+        // then
+        assertEquals(1, calls.get());
+        assertEquals(0.0, meterRegistry.counter("company_profile.chs_kafka_api.retries").count());
+    }
+
+    @Test
+    void shouldRetryServerErrorUntilCallSucceeds() throws ApiErrorResponseException {
+        // when
+        String result = breaker(true, LONG, LONG, 1, 3).call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw error(503);
+            }
+            return "sent";
+        });
+
+        // then
+        assertEquals("sent", result);
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.counter("company_profile.chs_kafka_api.retries").count());
+    }
+
+    @Test
+    void shouldNotRetryClientError() {
+        // when
+        assertThrows(ApiErrorResponseException.class,
+                () -> breaker(true, LONG, LONG, 1, 3).call(failWith(400)));
+
+        // then
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldOpenAtFailureRateAndRejectCallsWithoutMakingThem() throws ApiErrorResponseException {
+        // given
+        ChsKafkaApiCircuitBreaker breaker = breaker(true, LONG, LONG, 1, 1);
+        breaker.call(succeed());
+        breaker.call(succeed());
+        assertThrows(ApiErrorResponseException.class, () -> breaker.call(failWith(500)));
+        assertThrows(ApiErrorResponseException.class, () -> breaker.call(failWith(500)));
+
+        // when
+        assertThrows(ChsKafkaApiRejectedException.class, () -> breaker.call(succeed()));
+
+        // then
+        assertEquals(State.OPEN, breaker.state());
+        assertEquals(4, calls.get());
+        assertEquals(1.0, meterRegistry.counter("company_profile.chs_kafka_api.rejected",
+                "reason", "circuit_breaker").count());
+        assertEquals(1.0, meterRegistry.counter("company_profile.chs_kafka_api.circuit_breaker.transitions",
+                "from", "CLOSED", "to", "OPEN").count());
+        assertEquals(1.0, meterRegistry.get("company_profile.chs_kafka_api.circuit_breaker.state").gauge().value());
+    }
+
+    @Test
+    void shouldOpenAtSlowCallRate() throws ApiErrorResponseException {
+        // given
+        ChsKafkaApiCircuitBreaker breaker = breaker(true, Duration.ZERO, LONG, 1, 1);
+
+        // when
+        for (int call = 0; call < 4; call++) {
+            breaker.call(succeed());
+        }
+
+        // then
+        assertEquals(State.OPEN, breaker.state());
+    }
+
+    @Test
+    void shouldCloseWhenProbeCallSucceedsAfterOpenDuration() throws ApiErrorResponseException {
+        // given
+        ChsKafkaApiCircuitBreaker breaker = breaker(true, LONG, Duration.ZERO, 1, 1);
+        for (int call = 0; call < 4; call++) {
+            assertThrows(ApiErrorResponseException.class, () -> breaker.call(failWith(502)));
+        }
+
+        // when
+        breaker.call(succeed());
+
+        // then
+        assertEquals(State.CLOSED, breaker.state());
+        assertEquals(1.0, meterRegistry.counter("company_profile.chs_kafka_api.circuit_breaker.transitions",
+                "from", "HALF_OPEN", "to", "CLOSED").count());
+    }
+
+    @Test
+    void shouldForgetCallsSlidingOutOfWindow() throws ApiErrorResponseException {
+        // given
+        ChsKafkaApiCircuitBreaker breaker = breaker(true, LONG, LONG, 1, 1);
+        assertThrows(ApiErrorResponseException.class, () -> breaker.call(failWith(500)));
+        for (int call = 0; call < 4; call++) {
+            breaker.call(succeed());
+        }
+
+        // when
+        assertThrows(ApiErrorResponseException.class, () -> breaker.call(failWith(500)));
+
+        // then
+        assertEquals(State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void shouldLetOnlyProbeCallDecideHalfOpenBreaker() throws Exception {
+        // given
+        ChsKafkaApiCircuitBreaker breaker = breaker(true, LONG, Duration.ZERO, 2, 1);
+        CountDownLatch releaseEarlier = new CountDownLatch(1);
+        CompletableFuture<String> earlier = hold(breaker, releaseEarlier, succeed());
+        for (int call = 0; call < 4; call++) {
+            assertThrows(ApiErrorResponseException.class, () -> breaker.call(failWith(502)));
+        }
+        CountDownLatch releaseProbe = new CountDownLatch(1);
+        CompletableFuture<String> probe = hold(breaker, releaseProbe, failWith(502));
+
+        // when
+        releaseEarlier.countDown();
+        earlier.get();
+
+        // then
+        assertEquals(State.HALF_OPEN, breaker.state());
+        releaseProbe.countDown();
+        assertThrows(ExecutionException.class, probe::get);
+        assertEquals(State.OPEN, breaker.state());
+        assertEquals(1.0, meterRegistry.counter("company_profile.chs_kafka_api.circuit_breaker.transitions",
+                "from", "HALF_OPEN", "to", "OPEN").count());
+    }
+
+    @Test
+    void shouldRejectCallWhenBulkheadIsFull() throws Exception {
+        // given
+        ChsKafkaApiCircuitBreaker breaker = breaker(true, LONG, LONG, 1, 1);
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> held = CompletableFuture.supplyAsync(() -> {
+            try {
+                return breaker.call(() -> {
+                    inFlight.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "sent";
+                });
+            } catch (ApiErrorResponseException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        inFlight.await();
+
+        // when
+        assertThrows(ChsKafkaApiRejectedException.class, () -> breaker.call(succeed()));
+        release.countDown();
+
+        // then
+        assertEquals("sent", held.get());
+        assertEquals(0, calls.get());
+        assertEquals(1.0, meterRegistry.counter("company_profile.chs_kafka_api.rejected",
+                "reason", "bulkhead").count());
+    }
+
+    private ChsKafkaApiCircuitBreaker breaker(boolean enabled, Duration slowCallDuration, Duration openDuration,
+            int maxConcurrentCalls, int maxAttempts) {
+        return new ChsKafkaApiCircuitBreaker(meterRegistry, enabled, 4, 50, 80, slowCallDuration, openDuration,
+                maxConcurrentCalls, Duration.ofMillis(10), maxAttempts, Duration.ofMillis(1), Duration.ofMillis(10));
+    }
+
+    private static CompletableFuture<String> hold(ChsKafkaApiCircuitBreaker breaker, CountDownLatch release,
+            ChsKafkaApiCircuitBreaker.Call<String> call) throws InterruptedException {
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CompletableFuture<String> held = CompletableFuture.supplyAsync(() -> {
+            try {
+                return breaker.call(() -> {
+                    inFlight.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return call.execute();
+                });
+            } catch (ApiErrorResponseException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        inFlight.await();
+        return held;
+    }
+
+    private ChsKafkaApiCircuitBreaker.Call<String> succeed() {
+        return () -> {
+            calls.incrementAndGet();
+            return "sent";
+        };
+    }
+
+    private ChsKafkaApiCircuitBreaker.Call<String> failWith(int statusCode) {
+        return () -> {
+            calls.incrementAndGet();
+            throw error(statusCode);
+        };
+    }
+
+    private static ApiErrorResponseException error(int statusCode) {
+        return new ApiErrorResponseException(new HttpResponseException.Builder(statusCode, null, new HttpHeaders()));
+    }
+}
@@ -13,6 +13,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpResponseException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
 import org.junit.Assert;
@@ -23,6 +25,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.companieshouse.api.InternalApiClient;
 import uk.gov.companieshouse.api.company.Data;
@@ -30,7 +33,6 @@ import uk.gov.companieshouse.api.error.ApiErrorResponseException;
 import uk.gov.companieshouse.api.exception.ServiceUnavailableException;
 import uk.gov.companieshouse.api.handler.chskafka.PrivateChangedResourceHandler;
 import uk.gov.companieshouse.api.handler.chskafka.request.PrivateChangedResourcePost;
-import uk.gov.companieshouse.api.http.HttpClient;
 import uk.gov.companieshouse.api.model.ApiResponse;
 import uk.gov.companieshouse.company.profile.exception.SerDesException;
 
@@ -58,8 +60,10 @@ class CompanyProfileApiClientServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
-    @Mock
-    private HttpClient httpClient;
+    @Spy
+    private ChsKafkaApiCircuitBreaker circuitBreaker = new ChsKafkaApiCircuitBreaker(new SimpleMeterRegistry(),
+            false, 20, 50, 80, Duration.ofSeconds(2), Duration.ofSeconds(10), 20, Duration.ofMillis(500), 3,
+            Duration.ofMillis(100), Duration.ofSeconds(1));
 
     @InjectMocks
     private CompanyProfileApiService companyProfileApiService;
@@ -69,7 +73,6 @@ class CompanyProfileApiClientServiceTest {
 
         when(apiClientService.getInternalApiClient()).thenReturn(internalApiClient);
         when(internalApiClient.privateChangedResourceHandler()).thenReturn(privateChangedResourceHandler);
-        when(internalApiClient.getHttpClient()).thenReturn(httpClient);
         when(privateChangedResourceHandler.postChangedResource(any(), any())).thenReturn(changedResourcePost);
         when(changedResourcePost.execute()).thenReturn(response);
 
@@ -88,7 +91,6 @@ class CompanyProfileApiClientServiceTest {
 
         when(apiClientService.getInternalApiClient()).thenReturn(internalApiClient);
         when(internalApiClient.privateChangedResourceHandler()).thenReturn(privateChangedResourceHandler);
-        when(internalApiClient.getHttpClient()).thenReturn(httpClient);
         when(objectMapper.writeValueAsString(any())).thenReturn("serialisedData");
         when(objectMapper.readValue(anyString(), eq(Object.class))).thenReturn(mappedData);
         when(privateChangedResourceHandler.postChangedResource(any(), any())).thenReturn(changedResourcePost);
@@ -113,7 +115,6 @@ class CompanyProfileApiClientServiceTest {
             throws ApiErrorResponseException {
         when(apiClientService.getInternalApiClient()).thenReturn(internalApiClient);
         when(internalApiClient.privateChangedResourceHandler()).thenReturn(privateChangedResourceHandler);
-        when(internalApiClient.getHttpClient()).thenReturn(httpClient);
         when(privateChangedResourceHandler.postChangedResource(any(), any())).thenReturn(changedResourcePost);
 
         HttpResponseException.Builder builder =
@@ -143,7 +144,6 @@ class CompanyProfileApiClientServiceTest {
 
         when(apiClientService.getInternalApiClient()).thenReturn(internalApiClient);
         when(internalApiClient.privateChangedResourceHandler()).thenReturn(privateChangedResourceHandler);
-        when(internalApiClient.getHttpClient()).thenReturn(httpClient);
         when(privateChangedResourceHandler.postChangedResource(any(), any())).thenReturn(changedResourcePost);
         when(changedResourcePost.execute()).thenThrow(apiErrorResponseException);
 
@@ -162,7 +162,6 @@ class CompanyProfileApiClientServiceTest {
     void should_handle_exception_when_object_mapper_read_throws_exception() throws JsonProcessingException {
         when(apiClientService.getInternalApiClient()).thenReturn(internalApiClient);
         when(internalApiClient.privateChangedResourceHandler()).thenReturn(privateChangedResourceHandler);
-        when(internalApiClient.getHttpClient()).thenReturn(httpClient);
         when(objectMapper.writeValueAsString(any())).thenReturn("serialisedData");
         when(objectMapper.readValue(anyString(), eq(Object.class))).thenThrow(JsonProcessingException.class);
 
@@ -181,7 +180,6 @@ class CompanyProfileApiClientServiceTest {
     void should_handle_exception_when_object_mapper_write_throws_exception() throws JsonProcessingException {
         when(apiClientService.getInternalApiClient()).thenReturn(internalApiClient);
         when(internalApiClient.privateChangedResourceHandler()).thenReturn(privateChangedResourceHandler);
-        when(internalApiClient.getHttpClient()).thenReturn(httpClient);
         when(objectMapper.writeValueAsString(any())).thenThrow(JsonProcessingException.class);
 
         final Data data = new Data();
@@ -0,0 +1,71 @@
+package uk.gov.companieshouse.company.profile.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.testing.http.MockHttpTransport;
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.api.http.HttpClient;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+
+@ExtendWith(MockitoExtension.class)
+class PooledHttpClientTest {
+
+    private static final GenericUrl URL = new GenericUrl("http://localhost/private/resource-changed");
+
+    @Mock
+    private HttpClient authentication;
+
+    private final HttpTransport transport = new MockHttpTransport();
+
+    @AfterEach
+    void tearDown() {
+        DataMapHolder.clear();
+    }
+
+    @Test
+    void shouldAuthenticateEachRequestAndSendRequestIdOfItsLogContext() throws IOException {
+        // given
+        when(authentication.getHttpRequestFactory(transport)).thenReturn(transport.createRequestFactory(
+                request -> request.getHeaders().setAuthorization("api-key")));
+        PooledHttpClient client = new PooledHttpClient(authentication, transport, Duration.ofSeconds(2),
+                Duration.ofSeconds(3));
+
+        // when
+        DataMapHolder.initialise("first-request");
+        HttpRequest first = client.getHttpRequestFactory(null).buildPostRequest(URL, null);
+        DataMapHolder.initialise("second-request");
+        HttpRequest second = client.getHttpRequestFactory(null).buildPostRequest(URL, null);
+
+        // then
+        assertEquals("api-key", first.getHeaders().getAuthorization());
+        assertEquals("first-request", first.getHeaders().getFirstHeaderStringValue("X-Request-Id"));
+        assertEquals("second-request", second.getHeaders().getFirstHeaderStringValue("X-Request-Id"));
+        assertEquals(2000, first.getConnectTimeout());
+        assertEquals(3000, first.getReadTimeout());
+    }
+
+    @Test
+    void shouldTakeRequestIdFromLogContextRatherThanSetOne() {
+        // given
+        when(authentication.getHttpRequestFactory(transport)).thenReturn(transport.createRequestFactory());
+        PooledHttpClient client = new PooledHttpClient(authentication, transport, Duration.ofSeconds(2),
+                Duration.ofSeconds(3));
+        DataMapHolder.initialise("context-id");
+
+        // when
+        client.setRequestId("other-id");
+
+        // then
+        assertEquals("context-id", client.getRequestId());
+    }
+}
@@ -0,0 +1,289 @@
+package uk.gov.companieshouse.company.profile.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.api.exception.ServiceUnavailableException;
+import uk.gov.companieshouse.company.profile.exception.ChsKafkaApiRejectedException;
+import uk.gov.companieshouse.company.profile.model.OutboxEvent;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceChangedDispatcherTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final String OTHER_COMPANY_NUMBER = "87654321";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private CompanyProfileApiService companyProfileApiService;
+
+    private MeterRegistry meterRegistry;
+    private ResourceChangedDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new ResourceChangedDispatcher(mongoTemplate, companyProfileApiService, meterRegistry, true,
+                2, 100, Duration.ofMillis(500), Duration.ofSeconds(30), Duration.ofSeconds(1),
+                Duration.ofMinutes(5), 3, Duration.ofMillis(250));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void shouldSendEventsForCompanyInOrderAndRemoveThem() {
+        // given
+        Data deletedData = new Data().companyNumber(COMPANY_NUMBER);
+        OutboxEvent changed = event("1", COMPANY_NUMBER, "changed", null);
+        OutboxEvent deleted = event("2", COMPANY_NUMBER, "deleted", deletedData);
+        when(mongoTemplate.estimatedCount(OutboxEvent.class)).thenReturn(2L);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(changed, deleted));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboxEvent.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+
+        // when
+        dispatcher.poll();
+
+        // then
+        InOrder inOrder = inOrder(companyProfileApiService, mongoTemplate);
+        inOrder.verify(companyProfileApiService).invokeChsKafkaApi(COMPANY_NUMBER);
+        inOrder.verify(mongoTemplate).remove(any(Query.class), eq(OutboxEvent.class));
+        inOrder.verify(companyProfileApiService).invokeChsKafkaApiWithDeleteEvent(COMPANY_NUMBER, deletedData);
+        inOrder.verify(mongoTemplate).remove(any(Query.class), eq(OutboxEvent.class));
+        assertEquals(2.0, meterRegistry.counter("company_profile.outbox.dispatched").count());
+        assertEquals(2L, meterRegistry.timer("company_profile.outbox.dispatch.lag").count());
+        assertEquals(2.0, meterRegistry.get("company_profile.outbox.depth").gauge().value());
+    }
+
+    @Test
+    void shouldHoldBackLaterEventsForCompanyWhenSendFails() {
+        // given
+        OutboxEvent first = event("1", COMPANY_NUMBER, "changed", null);
+        OutboxEvent second = event("2", COMPANY_NUMBER, "changed", null);
+        OutboxEvent other = event("3", OTHER_COMPANY_NUMBER, "changed", null);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(first, second, other));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboxEvent.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+        when(companyProfileApiService.invokeChsKafkaApi(any())).thenAnswer(invocation -> {
+            if (COMPANY_NUMBER.equals(invocation.getArgument(0))) {
+                throw new ServiceUnavailableException("chs-kafka-api unavailable");
+            }
+            return null;
+        });
+
+        // when
+        dispatcher.poll();
+
+        // then
+        verify(companyProfileApiService, times(1)).invokeChsKafkaApi(COMPANY_NUMBER);
+        verify(companyProfileApiService).invokeChsKafkaApi(OTHER_COMPANY_NUMBER);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), updates.capture(), eq(OutboxEvent.class));
+        Document retry = updates.getAllValues().stream()
+                .map(Update::getUpdateObject)
+                .filter(update -> update.containsKey("$inc"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(new Document("attempts", 1), retry.get("$inc"));
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq(OutboxEvent.class));
+        assertEquals(1.0, meterRegistry.counter("company_profile.outbox.dispatch.failed").count());
+        assertEquals(1.0, meterRegistry.counter("company_profile.outbox.dispatched").count());
+    }
+
+    @Test
+    void shouldSendConsecutiveChangedEventsAsOneButNeverMergeDeletedEvent() {
+        // given
+        Data deletedData = new Data().companyNumber(COMPANY_NUMBER);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(
+                event("1", COMPANY_NUMBER, "changed", null),
+                event("2", COMPANY_NUMBER, "changed", null),
+                event("3", COMPANY_NUMBER, "deleted", deletedData),
+                event("4", COMPANY_NUMBER, "changed", null)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboxEvent.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+
+        // when
+        dispatcher.poll();
+
+        // then
+        InOrder inOrder = inOrder(companyProfileApiService);
+        inOrder.verify(companyProfileApiService).invokeChsKafkaApi(COMPANY_NUMBER);
+        inOrder.verify(companyProfileApiService).invokeChsKafkaApiWithDeleteEvent(COMPANY_NUMBER, deletedData);
+        inOrder.verify(companyProfileApiService).invokeChsKafkaApi(COMPANY_NUMBER);
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).remove(removed.capture(), eq(OutboxEvent.class));
+        assertEquals(new Document("_id", new Document("$in", List.of("1", "2"))),
+                removed.getAllValues().getFirst().getQueryObject());
+        assertEquals(3.0, meterRegistry.counter("company_profile.outbox.dispatched").count());
+        assertEquals(1.0, meterRegistry.counter("company_profile.outbox.coalesced").count());
+        assertEquals(4L, meterRegistry.timer("company_profile.outbox.dispatch.lag").count());
+    }
+
+    @Test
+    void shouldHoldChangedEventsWithinDebounceWindow() {
+        // given
+        OutboxEvent recent = new OutboxEvent(COMPANY_NUMBER, "changed", null, "context-id", Instant.now());
+        recent.setId("1");
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(recent,
+                event("2", COMPANY_NUMBER, "deleted", new Data())));
+
+        // when
+        dispatcher.poll();
+
+        // then
+        verifyNoInteractions(companyProfileApiService);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(OutboxEvent.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(OutboxEvent.class));
+    }
+
+    @Test
+    void shouldNotSendEventLeasedByAnotherInstance() {
+        // given
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class)))
+                .thenReturn(List.of(event("1", COMPANY_NUMBER, "changed", null),
+                        event("2", COMPANY_NUMBER, "changed", null)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboxEvent.class)))
+                .thenReturn(UpdateResult.acknowledged(0L, 0L, null));
+
+        // when
+        dispatcher.poll();
+
+        // then
+        verifyNoInteractions(companyProfileApiService);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(OutboxEvent.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(OutboxEvent.class));
+    }
+
+    @Test
+    void shouldPollOnlyEventsDueAndNotLeased() {
+        // given
+        ArgumentCaptor<Query> polled = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(polled.capture(), eq(OutboxEvent.class))).thenReturn(List.of());
+
+        // when
+        dispatcher.poll();
+
+        // then
+        Document criteria = polled.getValue().getQueryObject();
+        assertTrue(criteria.get("next_attempt_at", Document.class).containsKey("$lte"));
+        assertTrue(criteria.get("leased_until", Document.class).containsKey("$lte"));
+        assertEquals(new Document("created_at", 1).append("_id", 1), polled.getValue().getSortObject());
+        assertEquals(100, polled.getValue().getLimit());
+    }
+
+    @Test
+    void shouldHoldBackCompanyWhileEarlierEventWaiting() {
+        // given
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class)))
+                .thenReturn(List.of(event("2", COMPANY_NUMBER, "changed", null)));
+        when(mongoTemplate.exists(any(Query.class), eq(OutboxEvent.class))).thenReturn(true);
+
+        // when
+        dispatcher.poll();
+
+        // then
+        verifyNoInteractions(companyProfileApiService);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(OutboxEvent.class));
+    }
+
+    @Test
+    void shouldParkEventAfterMaxAttempts() {
+        // given
+        OutboxEvent failing = event("1", COMPANY_NUMBER, "changed", null);
+        failing.setAttempts(2);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(failing));
+        when(mongoTemplate.estimatedCount(OutboxEvent.class)).thenReturn(1L);
+        when(mongoTemplate.estimatedCount(OutboxEvent.PARKED_COLLECTION)).thenReturn(1L);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboxEvent.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+        when(companyProfileApiService.invokeChsKafkaApi(COMPANY_NUMBER))
+                .thenThrow(new ServiceUnavailableException("chs-kafka-api unavailable"));
+
+        // when
+        dispatcher.poll();
+
+        // then
+        ArgumentCaptor<OutboxEvent> saved = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(mongoTemplate).save(saved.capture(), eq(OutboxEvent.PARKED_COLLECTION));
+        assertEquals(3, saved.getValue().getAttempts());
+        assertNotNull(saved.getValue().getParkedAt());
+        verify(mongoTemplate).remove(any(Query.class), eq(OutboxEvent.class));
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(OutboxEvent.class));
+        assertEquals(1.0, meterRegistry.counter("company_profile.outbox.parked").count());
+        assertEquals(1.0, meterRegistry.get("company_profile.outbox.parked.depth").gauge().value());
+    }
+
+    @Test
+    void shouldNotCountRejectedSendAsAttempt() {
+        // given
+        OutboxEvent rejected = event("1", COMPANY_NUMBER, "changed", null);
+        rejected.setAttempts(2);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(rejected));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboxEvent.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+        when(companyProfileApiService.invokeChsKafkaApi(COMPANY_NUMBER))
+                .thenThrow(new ChsKafkaApiRejectedException("chs-kafka-api circuit breaker is open"));
+
+        // when
+        dispatcher.poll();
+
+        // then
+        verify(mongoTemplate, never()).save(any(), eq(OutboxEvent.PARKED_COLLECTION));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(OutboxEvent.class));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq(OutboxEvent.class));
+        Document retry = updates.getAllValues().getLast().getUpdateObject();
+        assertTrue(((Document) retry.get("$set")).containsKey("next_attempt_at"));
+        assertFalse(retry.containsKey("$inc"));
+        assertEquals(0.0, meterRegistry.counter("company_profile.outbox.dispatch.failed").count());
+        assertEquals(0.0, meterRegistry.counter("company_profile.outbox.parked").count());
+    }
+
+    @Test
+    void shouldDoubleBackoffUpToMaximum() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoff(0));
+        assertEquals(Duration.ofSeconds(8), dispatcher.backoff(3));
+        assertEquals(Duration.ofMinutes(5), dispatcher.backoff(9));
+        assertEquals(Duration.ofMinutes(5), dispatcher.backoff(Integer.MAX_VALUE));
+    }
+
+    private static OutboxEvent event(String id, String companyNumber, String eventType, Data deletedData) {
+        OutboxEvent event = new OutboxEvent(companyNumber, eventType, deletedData, "context-id",
+                Instant.now().minusSeconds(1));
+        event.setId(id);
+        return event;
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.companieshouse.company.profile.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.company.profile.logging.DataMapHolder;
+import uk.gov.companieshouse.company.profile.model.OutboxEvent;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceChangedOutboxTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final String CONTEXT_ID = "context-id";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private CompanyProfileApiService companyProfileApiService;
+    @Captor
+    private ArgumentCaptor<OutboxEvent> event;
+
+    @Test
+    void shouldInsertChangedEventWhenEnabled() {
+        // given
+        DataMapHolder.initialise(CONTEXT_ID);
+        ResourceChangedOutbox outbox = new ResourceChangedOutbox(mongoTemplate, companyProfileApiService, true);
+
+        // when
+        outbox.changed(COMPANY_NUMBER);
+
+        // then
+        verify(mongoTemplate).insert(event.capture());
+        assertEquals(COMPANY_NUMBER, event.getValue().getCompanyNumber());
+        assertEquals("changed", event.getValue().getEventType());
+        assertNull(event.getValue().getDeletedData());
+        assertEquals(CONTEXT_ID, event.getValue().getContextId());
+        assertEquals(event.getValue().getCreatedAt(), event.getValue().getNextAttemptAt());
+        verifyNoInteractions(companyProfileApiService);
+    }
+
+    @Test
+    void shouldInsertDeletedEventWithDeletedDataWhenEnabled() {
+        // given
+        Data deletedData = new Data().companyNumber(COMPANY_NUMBER);
+        ResourceChangedOutbox outbox = new ResourceChangedOutbox(mongoTemplate, companyProfileApiService, true);
+
+        // when
+        outbox.deleted(COMPANY_NUMBER, deletedData);
+
+        // then
+        verify(mongoTemplate).insert(event.capture());
+        assertEquals("deleted", event.getValue().getEventType());
+        assertEquals(deletedData, event.getValue().getDeletedData());
+        verifyNoInteractions(companyProfileApiService);
+    }
+
+    @Test
+    void shouldCallChsKafkaApiWhenDisabled() {
+        // given
+        Data deletedData = new Data().companyNumber(COMPANY_NUMBER);
+        ResourceChangedOutbox outbox = new ResourceChangedOutbox(mongoTemplate, companyProfileApiService, false);
+
+        // when
+        outbox.changed(COMPANY_NUMBER);
+        outbox.deleted(COMPANY_NUMBER, deletedData);
+
+        // then
+        verify(companyProfileApiService).invokeChsKafkaApi(COMPANY_NUMBER);
+        verify(companyProfileApiService).invokeChsKafkaApiWithDeleteEvent(COMPANY_NUMBER, deletedData);
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -55,6 +55,20 @@ class EricTokenAuthenticationFilterTest {
         verify(filterChain).doFilter(request, response);
     }
 
+    @Test
+    @DisplayName("OAUTH2 HEAD request passes filter")
+    void doFilterInternalHead() throws ServletException, IOException {
+        EricTokenAuthenticationFilter ericTokenAuthenticationFilter = new EricTokenAuthenticationFilter();
+
+        when(request.getHeader("ERIC-Identity")).thenReturn("SOME-IDENTITY");
+        when(request.getHeader("ERIC-Identity-Type")).thenReturn("OAUTH2");
+        when(request.getMethod()).thenReturn("HEAD");
+
+        ericTokenAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+    }
+
     @Test
     @DisplayName("KEY type GET request with internal app privileges passes filter")
     void doFilterInternalKeyAndInternalApp() throws ServletException, IOException {
@@ -0,0 +1,212 @@
+package uk.gov.companieshouse.company.profile.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyNumberFilterTest {
+
+    private static final String COLLECTION = "company_profile";
+    private static final String COMPANY_NUMBER = "12345678";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MongoCollection<Document> collection;
+    @Mock
+    private ChangeStreamIterable<Document> changeStreamIterable;
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> changeStream;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CompanyNumberFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new CompanyNumberFilter(mongoTemplate, meterRegistry, true, 1000, 0.01, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void shouldAllowEveryCompanyNumberBeforeFilterIsBuilt() {
+        // when
+        boolean actual = filter.mightContain(COMPANY_NUMBER);
+
+        // then
+        assertTrue(actual);
+    }
+
+    @Test
+    void shouldRejectCompanyNumbersNotStreamedFromMongo() {
+        // given
+        givenCompanyNumbers(COMPANY_NUMBER, "SC123456");
+
+        // when
+        filter.rebuild();
+
+        // then
+        assertTrue(filter.mightContain(COMPANY_NUMBER));
+        assertTrue(filter.mightContain("SC123456"));
+        assertFalse(filter.mightContain("00000000"));
+        assertEquals(1.0, meterRegistry.get("company_profile.company_number_filter.rejected").counter().count());
+        assertEquals(2.0, meterRegistry.get("company_profile.company_number_filter.size").gauge().value());
+    }
+
+    @Test
+    void shouldStreamOnlyIds() {
+        // given
+        givenCompanyNumbers(COMPANY_NUMBER);
+
+        // when
+        filter.rebuild();
+
+        // then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Document.class), eq(COLLECTION));
+        assertEquals(new Document("_id", 1), query.getValue().getFieldsObject());
+    }
+
+    @Test
+    void shouldAllowCompanyNumbersAddedAfterBuild() {
+        // given
+        givenCompanyNumbers(COMPANY_NUMBER);
+        filter.rebuild();
+
+        // when
+        filter.add("SC123456");
+
+        // then
+        assertTrue(filter.mightContain("SC123456"));
+    }
+
+    @Test
+    void shouldKeepAllowingEveryCompanyNumberWhenBuildFails() {
+        // given
+        when(mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class)).thenReturn(COLLECTION);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq(COLLECTION)))
+                .thenThrow(new DataAccessResourceFailureException("Connection broken"));
+
+        // when
+        filter.rebuild();
+
+        // then
+        assertTrue(filter.mightContain(COMPANY_NUMBER));
+    }
+
+    @Test
+    void shouldAllowCompanyNumbersInsertedByOtherInstances() {
+        // given
+        givenCompanyNumbers(COMPANY_NUMBER);
+        filter.rebuild();
+        AtomicBoolean inserted = new AtomicBoolean();
+        givenChangeStream();
+        when(changeStream.next())
+                .thenReturn(insertOf("SC123456"))
+                .thenAnswer(invocation -> {
+                    inserted.set(filter.mightContain("SC123456"));
+                    throw new MongoException("Change stream closed");
+                });
+
+        // when
+        filter.follow();
+
+        // then
+        assertTrue(inserted.get());
+        verify(changeStream).close();
+    }
+
+    @Test
+    void shouldAllowEveryCompanyNumberOnceChangeStreamFails() {
+        // given
+        givenCompanyNumbers(COMPANY_NUMBER);
+        filter.rebuild();
+        givenChangeStream();
+        when(changeStream.next()).thenThrow(new MongoException("Change stream closed"));
+
+        // when
+        filter.follow();
+
+        // then
+        assertTrue(filter.mightContain("00000000"));
+    }
+
+    @Test
+    void shouldNotBuildWhileChangeStreamIsClosed() {
+        // given
+        ReflectionTestUtils.setField(filter, "started", true);
+
+        // when
+        filter.rebuild();
+
+        // then
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Document.class), any(String.class));
+        assertTrue(filter.mightContain(COMPANY_NUMBER));
+    }
+
+    @Test
+    void shouldHaveNoFalseNegativesAndFewFalsePositives() {
+        // given
+        CompanyNumberFilter.BloomFilter bloomFilter = new CompanyNumberFilter.BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> bloomFilter.put(String.format("%08d", i)));
+
+        // when
+        long falseNegatives = IntStream.range(0, 10_000)
+                .filter(i -> !bloomFilter.mightContain(String.format("%08d", i))).count();
+        long falsePositives = IntStream.range(10_000, 20_000)
+                .filter(i -> bloomFilter.mightContain(String.format("%08d", i))).count();
+
+        // then
+        assertEquals(0, falseNegatives);
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    private void givenChangeStream() {
+        when(mongoTemplate.getCollection(COLLECTION)).thenReturn(collection);
+        when(collection.watch(anyList())).thenReturn(changeStreamIterable);
+        when(changeStreamIterable.cursor()).thenReturn(changeStream);
+    }
+
+    private static ChangeStreamDocument<Document> insertOf(String companyNumber) {
+        return new ChangeStreamDocument<>(OperationType.INSERT.getValue(), new BsonDocument(), null, null, null, null,
+                new BsonDocument("_id", new BsonString(companyNumber)), null, null, null, null, null, null, null);
+    }
+
+    private void givenCompanyNumbers(String... companyNumbers) {
+        when(mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class)).thenReturn(COLLECTION);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq(COLLECTION)))
+                .thenReturn(Stream.of(companyNumbers).map(companyNumber -> new Document("_id", companyNumber)));
+    }
+}
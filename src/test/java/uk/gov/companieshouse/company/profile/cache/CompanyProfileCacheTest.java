@@ -0,0 +1,154 @@
+package uk.gov.companieshouse.company.profile.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.api.company.RegisteredOfficeAddress;
+import uk.gov.companieshouse.company.profile.config.ApplicationConfig;
+
+class CompanyProfileCacheTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+
+    private SimpleMeterRegistry meterRegistry;
+    private CompanyProfileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CompanyProfileCache(new ApplicationConfig().objectMapper(), meterRegistry, true, 100,
+                Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldReturnCopyOfCachedProfile() {
+        // given
+        Data data = buildData();
+        cache.put(COMPANY_NUMBER, cache.generation(COMPANY_NUMBER), data);
+
+        // when
+        Data first = cache.get(COMPANY_NUMBER).orElseThrow();
+        first.getRegisteredOfficeAddress().setLocality("Changed");
+        Data second = cache.get(COMPANY_NUMBER).orElseThrow();
+
+        // then
+        assertNotSame(first, second);
+        assertEquals(data, second);
+        assertEquals("Cardiff", second.getRegisteredOfficeAddress().getLocality());
+    }
+
+    @Test
+    void shouldNotReflectChangesMadeAfterProfileIsCached() {
+        // given
+        Data data = buildData();
+        cache.put(COMPANY_NUMBER, cache.generation(COMPANY_NUMBER), data);
+
+        // when
+        data.setCompanyName("Changed");
+
+        // then
+        assertEquals("Company Name", cache.get(COMPANY_NUMBER).orElseThrow().getCompanyName());
+    }
+
+    @Test
+    void shouldReturnEtagOfCachedProfile() {
+        // given
+        Data data = buildData();
+        data.setEtag("etag");
+        cache.put(COMPANY_NUMBER, cache.generation(COMPANY_NUMBER), data);
+
+        // when
+        Optional<String> actual = cache.getEtag(COMPANY_NUMBER);
+
+        // then
+        assertEquals(Optional.of("etag"), actual);
+    }
+
+    @Test
+    void shouldReturnEmptyAfterInvalidation() {
+        // given
+        cache.put(COMPANY_NUMBER, cache.generation(COMPANY_NUMBER), buildData());
+
+        // when
+        cache.invalidate(COMPANY_NUMBER);
+
+        // then
+        assertTrue(cache.get(COMPANY_NUMBER).isEmpty());
+    }
+
+    @Test
+    void shouldNotCacheProfileReadBeforeInvalidation() {
+        // given
+        long generation = cache.generation(COMPANY_NUMBER);
+        Data readBeforeWrite = buildData();
+
+        // when
+        cache.invalidate(COMPANY_NUMBER);
+        cache.put(COMPANY_NUMBER, generation, readBeforeWrite);
+
+        // then
+        assertTrue(cache.get(COMPANY_NUMBER).isEmpty());
+    }
+
+    @Test
+    void shouldCacheProfileReadAfterInvalidation() {
+        // given
+        cache.invalidate(COMPANY_NUMBER);
+        long generation = cache.generation(COMPANY_NUMBER);
+
+        // when
+        cache.put(COMPANY_NUMBER, generation, buildData());
+
+        // then
+        assertTrue(cache.get(COMPANY_NUMBER).isPresent());
+    }
+
+    @Test
+    void shouldRecordHitsAndMisses() {
+        // given
+        cache.put(COMPANY_NUMBER, cache.generation(COMPANY_NUMBER), buildData());
+
+        // when
+        cache.get(COMPANY_NUMBER);
+        cache.get("87654321");
+
+        // then
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "company_profile")
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "company_profile")
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void shouldNotCacheWhenDisabled() {
+        // given
+        CompanyProfileCache disabledCache = new CompanyProfileCache(new ApplicationConfig().objectMapper(),
+                meterRegistry, false, 100, Duration.ofMinutes(1));
+
+        // when
+        disabledCache.put(COMPANY_NUMBER, disabledCache.generation(COMPANY_NUMBER), buildData());
+
+        // then
+        assertTrue(disabledCache.get(COMPANY_NUMBER).isEmpty());
+    }
+
+    private static Data buildData() {
+        RegisteredOfficeAddress registeredOfficeAddress = new RegisteredOfficeAddress();
+        registeredOfficeAddress.setLocality("Cardiff");
+
+        Data data = new Data();
+        data.setCompanyNumber(COMPANY_NUMBER);
+        data.setCompanyName("Company Name");
+        data.setDateOfCreation(LocalDate.of(2020, 1, 1));
+        data.setRegisteredOfficeAddress(registeredOfficeAddress);
+        return data;
+    }
+}
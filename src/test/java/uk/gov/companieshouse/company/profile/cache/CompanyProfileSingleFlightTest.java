@@ -0,0 +1,216 @@
+package uk.gov.companieshouse.company.profile.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.company.profile.config.ApplicationConfig;
+import uk.gov.companieshouse.company.profile.exception.ResourceNotFoundException;
+
+class CompanyProfileSingleFlightTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final String OPERATION = "company_profile";
+    private static final int CALLERS = 5;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CompanyProfileSingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new CompanyProfileSingleFlight(new ApplicationConfig().objectMapper(), meterRegistry);
+    }
+
+    @Test
+    void shouldShareOneLoadBetweenConcurrentCallers() throws Exception {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        Data data = new Data().companyNumber(COMPANY_NUMBER).companyName("Company Name");
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            // when
+            Future<Data> leader = executor.submit(() -> singleFlight.execute(OPERATION, COMPANY_NUMBER, () -> {
+                loads.incrementAndGet();
+                loadStarted.countDown();
+                await(releaseLoad);
+                return data;
+            }));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+            List<Future<Data>> followers = new ArrayList<>();
+            for (int i = 1; i < CALLERS; i++) {
+                followers.add(executor.submit(() -> singleFlight.execute(OPERATION, COMPANY_NUMBER, () -> {
+                    loads.incrementAndGet();
+                    return data;
+                })));
+            }
+            awaitCoalesced(CALLERS - 1);
+            releaseLoad.countDown();
+
+            // then
+            assertSame(data, leader.get(5, TimeUnit.SECONDS));
+            for (Future<Data> follower : followers) {
+                Data actual = follower.get(5, TimeUnit.SECONDS);
+                assertNotSame(data, actual);
+                assertEquals(data, actual);
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1.0, meterRegistry.get("company_profile.single_flight.loaded")
+                    .tag("operation", OPERATION).counter().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldPropagateLoadFailureToConcurrentCallers() throws Exception {
+        // given
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        ResourceNotFoundException notFound = new ResourceNotFoundException(HttpStatus.NOT_FOUND, "not found");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // when
+            executor.submit(() -> singleFlight.execute(OPERATION, COMPANY_NUMBER, () -> {
+                loadStarted.countDown();
+                await(releaseLoad);
+                throw notFound;
+            }));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            Future<Data> follower = executor.submit(() -> singleFlight.execute(OPERATION, COMPANY_NUMBER,
+                    Data::new));
+            awaitCoalesced(1);
+            releaseLoad.countDown();
+
+            // then
+            Exception exception = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertSame(notFound, exception.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldPropagateErrorToConcurrentCallers() throws Exception {
+        // given
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        StackOverflowError error = new StackOverflowError();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // when
+            executor.submit(() -> singleFlight.execute(OPERATION, COMPANY_NUMBER, () -> {
+                loadStarted.countDown();
+                await(releaseLoad);
+                throw error;
+            }));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            Future<Data> follower = executor.submit(() -> singleFlight.execute(OPERATION, COMPANY_NUMBER,
+                    Data::new));
+            awaitCoalesced(1);
+            releaseLoad.countDown();
+
+            // then
+            Exception exception = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertSame(error, exception.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotCopyResultWhenNoCallerWaited() throws Exception {
+        // given
+        ObjectMapper objectMapper = spy(new ApplicationConfig().objectMapper());
+        CompanyProfileSingleFlight uncontended = new CompanyProfileSingleFlight(objectMapper, meterRegistry);
+        Data data = new Data().companyNumber(COMPANY_NUMBER);
+
+        // when
+        Data actual = uncontended.execute(OPERATION, COMPANY_NUMBER, () -> data);
+
+        // then
+        assertSame(data, actual);
+        verify(objectMapper, never()).writeValueAsBytes(any());
+    }
+
+    @Test
+    void shouldLoadAgainOnceLoadHasCompleted() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        singleFlight.execute(OPERATION, COMPANY_NUMBER, () -> new Data().etag(String.valueOf(loads.incrementAndGet())));
+        Data actual = singleFlight.execute(OPERATION, COMPANY_NUMBER,
+                () -> new Data().etag(String.valueOf(loads.incrementAndGet())));
+
+        // then
+        assertEquals("2", actual.getEtag());
+        assertEquals(2.0, meterRegistry.get("company_profile.single_flight.loaded")
+                .tag("operation", OPERATION).counter().count());
+    }
+
+    @Test
+    void shouldNotShareLoadsBetweenOperations() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        singleFlight.execute(OPERATION, COMPANY_NUMBER, () -> singleFlight.execute("links", COMPANY_NUMBER, () -> {
+            loads.incrementAndGet();
+            return new Data();
+        }));
+
+        // then
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("company_profile.single_flight.loaded")
+                .tag("operation", "links").counter().count());
+    }
+
+    private void awaitCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, coalesced());
+    }
+
+    private double coalesced() {
+        var counter = meterRegistry.find("company_profile.single_flight.coalesced").tag("operation", OPERATION)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package uk.gov.companieshouse.company.profile.config;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class MongoCompanyProfileConfigTest {
+
+    private final MongoCompanyProfileConfig config = new MongoCompanyProfileConfig(
+            new MongoCustomConversions(List.of()));
+
+    @Mock
+    private MongoTransactionManager transactionManager;
+
+    @Test
+    void shouldWriteInTransactionWhenOutboxEnabled() {
+        // when
+        TransactionOperations operations = config.transactionOperations(transactionManager, true, true);
+
+        // then
+        assertInstanceOf(TransactionTemplate.class, operations);
+    }
+
+    @Test
+    void shouldWriteWithoutTransactionWhenOutboxDisabled() {
+        // when
+        TransactionOperations operations = config.transactionOperations(transactionManager, true, false);
+
+        // then
+        assertSame(TransactionOperations.withoutTransaction(), operations);
+    }
+}
@@ -1,6 +1,8 @@
 package uk.gov.companieshouse.company.profile.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Optional;
@@ -29,6 +31,8 @@ class CompanyProfileConcurrencyITest {
 
     private static final String COMPANY_NUMBER = "6146287";
     private static final String DELTA_AT = "20241129123010123789";
+    private static final String UK_ESTABLISHMENT_NUMBER = "BR000001";
+    private static final String OTHER_UK_ESTABLISHMENT_NUMBER = "BR000002";
 
     @Container
     private static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.19");
@@ -135,6 +139,44 @@ class CompanyProfileConcurrencyITest {
         assertTrue(actual.isEmpty());
     }
 
+    @Test
+    void shouldKeepParentUkEstablishmentsLinkUntilLastUkEstablishmentDeleted() {
+        // given
+        VersionedCompanyProfileDocument parent = buildCompanyProfileDocument();
+        parent.getCompanyProfile().getLinks().setUkEstablishments("/company/" + COMPANY_NUMBER + "/uk-establishments");
+        companyProfileRepository.insert(parent);
+        companyProfileRepository.insert(buildUkEstablishmentDocument(UK_ESTABLISHMENT_NUMBER));
+        companyProfileRepository.insert(buildUkEstablishmentDocument(OTHER_UK_ESTABLISHMENT_NUMBER));
+
+        // when
+        companyProfileService.deleteCompanyProfile(UK_ESTABLISHMENT_NUMBER, DELTA_AT);
+
+        // then
+        assertNotNull(companyProfileRepository.findById(COMPANY_NUMBER).orElseThrow()
+                .getCompanyProfile().getLinks().getUkEstablishments());
+
+        // when
+        companyProfileService.deleteCompanyProfile(OTHER_UK_ESTABLISHMENT_NUMBER, DELTA_AT);
+
+        // then
+        assertNull(companyProfileRepository.findById(COMPANY_NUMBER).orElseThrow()
+                .getCompanyProfile().getLinks().getUkEstablishments());
+    }
+
+    private static VersionedCompanyProfileDocument buildUkEstablishmentDocument(String companyNumber) {
+        VersionedCompanyProfileDocument companyProfileDocument = new VersionedCompanyProfileDocument();
+        companyProfileDocument.setId(companyNumber);
+        companyProfileDocument.setParentCompanyNumber(COMPANY_NUMBER);
+        companyProfileDocument.setCompanyProfile(new Data()
+                .companyNumber(companyNumber)
+                .type("uk-establishment")
+                .links(new Links()
+                        .self("/company/" + companyNumber)));
+        companyProfileDocument.setHasMortgages(false);
+        companyProfileDocument.version(0L);
+        return companyProfileDocument;
+    }
+
     private static VersionedCompanyProfileDocument buildCompanyProfileDocument() {
         VersionedCompanyProfileDocument companyProfileDocument = new VersionedCompanyProfileDocument();
         companyProfileDocument.setId(COMPANY_NUMBER);
@@ -16,6 +16,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -24,8 +25,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.DisplayName;
@@ -67,20 +70,25 @@ import uk.gov.companieshouse.company.profile.adapter.LocalDateTypeAdapter;
 import uk.gov.companieshouse.company.profile.config.ApplicationConfig;
 import uk.gov.companieshouse.company.profile.config.ExceptionHandlerConfig;
 import uk.gov.companieshouse.company.profile.exception.ResourceNotFoundException;
+import uk.gov.companieshouse.company.profile.model.BatchLookupResponse;
+import uk.gov.companieshouse.company.profile.model.CompanyDetailsWithEtag;
+import uk.gov.companieshouse.company.profile.model.PagedUkEstablishmentsList;
 import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
 import uk.gov.companieshouse.company.profile.service.CompanyProfileService;
 import uk.gov.companieshouse.company.profile.util.TestHelper;
 
 // Need to set context configuration otherwise non-dependent beans (the repository) will be created.
 @ExtendWith(SpringExtension.class)
-@WebMvcTest(controllers = CompanyProfileController.class)
-@ContextConfiguration(classes = {CompanyProfileController.class, ExceptionHandlerConfig.class})
+@WebMvcTest(controllers = {CompanyProfileController.class, CompanyProfileReadController.class})
+@ContextConfiguration(classes = {CompanyProfileController.class, CompanyProfileReadController.class,
+        ExceptionHandlerConfig.class})
 @Import({ApplicationConfig.class})
 class CompanyProfileControllerTest {
 
     private static final String MOCK_COMPANY_NUMBER = "6146287";
     private static final String MOCK_PARENT_COMPANY_NUMBER = "FR123456";
     private static final String MOCK_DELTA_AT = "20241129123010123789";
+    private static final String MOCK_ETAG = "etag";
     private final TestHelper testHelper = new TestHelper();
     private static final String COMPANY_PROFILE_URL = String.format("/company/%s", MOCK_COMPANY_NUMBER);
     private static final String PUT_COMPANY_PROFILE_URL = String.format("/company/%s/internal", MOCK_COMPANY_NUMBER);
@@ -106,6 +114,7 @@ class CompanyProfileControllerTest {
             MOCK_COMPANY_NUMBER);
 
     private static final String DELETE_COMPANY_PROFILE_URL = String.format("/company/%s/internal", MOCK_COMPANY_NUMBER);
+    private static final String BATCH_URL = "/company/internal/batch";
 
     private static final String X_REQUEST_ID = "123456";
     private static final String ERIC_IDENTITY = "Test-Identity";
@@ -176,13 +185,17 @@ class CompanyProfileControllerTest {
 
         Optional<CompanyDetails> mockCompanyDetailsOP = Optional.of(mockCompanyDetails);
 
-        when(companyProfileService.getCompanyDetails(MOCK_COMPANY_NUMBER)).thenReturn(mockCompanyDetails);
+        when(companyProfileService.getCompanyDetails(MOCK_COMPANY_NUMBER))
+                .thenReturn(new CompanyDetailsWithEtag(mockCompanyDetails, MOCK_ETAG));
 
         mockMvc.perform(get(COMPANY_DETAILS_URL).header("ERIC-Identity", ERIC_IDENTITY)
                         .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE))
                 .andExpect(content().string(objectMapper.writeValueAsString(mockCompanyDetailsOP.get())))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + MOCK_ETAG + "\""))
                 .andExpect(status().isOk());
 
+        verify(companyProfileService, times(0)).getEtag(any());
+
     }
 
     @Test
@@ -1105,6 +1118,209 @@ class CompanyProfileControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
     }
 
+    @Test
+    @DisplayName("Retrieve a company profile returns an ETag and Cache-Control header")
+    void testSearchCompanyProfileReturnsEtag() throws Exception {
+        Data mockData = new Data();
+        mockData.setCompanyNumber(MOCK_COMPANY_NUMBER);
+        mockData.setEtag(MOCK_ETAG);
+
+        when(companyProfileService.retrieveCompanyNumber(MOCK_COMPANY_NUMBER)).thenReturn(mockData);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(COMPANY_PROFILE_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header("x-request-id", X_REQUEST_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, profileEntityTag()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, must-revalidate, public"));
+
+        verify(companyProfileService, times(0)).getEtag(any());
+    }
+
+    @Test
+    @DisplayName("Retrieve a company profile returns 304 Not Modified when If-None-Match matches")
+    void testSearchCompanyProfileNotModified() throws Exception {
+        when(companyProfileService.getEtag(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(MOCK_ETAG));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(COMPANY_PROFILE_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header("x-request-id", X_REQUEST_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, profileEntityTag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, profileEntityTag()))
+                .andExpect(content().string(""));
+
+        verify(companyProfileService, times(0)).retrieveCompanyNumber(any());
+    }
+
+    @Test
+    @DisplayName("Retrieve a company profile returns 200 when If-None-Match holds a previous day's entity tag")
+    void testSearchCompanyProfileModifiedOnNewDay() throws Exception {
+        Data mockData = new Data();
+        mockData.setCompanyNumber(MOCK_COMPANY_NUMBER);
+        mockData.setEtag(MOCK_ETAG);
+
+        when(companyProfileService.getEtag(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(MOCK_ETAG));
+        when(companyProfileService.retrieveCompanyNumber(MOCK_COMPANY_NUMBER)).thenReturn(mockData);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(COMPANY_PROFILE_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header("x-request-id", X_REQUEST_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + MOCK_ETAG + "-20200101\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, profileEntityTag()));
+    }
+
+    @Test
+    @DisplayName("Retrieve company links returns 304 Not Modified when If-None-Match matches")
+    void getCompanyProfileNotModified() throws Exception {
+        when(companyProfileService.getEtag(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(MOCK_ETAG));
+
+        mockMvc.perform(get(COMPANY_LINKS_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + MOCK_ETAG + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, must-revalidate, private"));
+
+        verify(companyProfileService, times(0)).get(any());
+    }
+
+    @Test
+    @DisplayName("Retrieve company details returns an ETag and 304 Not Modified when If-None-Match matches")
+    void getCompanyDetailNotModified() throws Exception {
+        when(companyProfileService.getCompanyDetails(MOCK_COMPANY_NUMBER))
+                .thenReturn(new CompanyDetailsWithEtag(new CompanyDetails(), MOCK_ETAG));
+
+        mockMvc.perform(get(COMPANY_DETAILS_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + MOCK_ETAG + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + MOCK_ETAG + "\""))
+                .andExpect(content().string(""));
+
+        verify(companyProfileService, times(0)).getEtag(any());
+    }
+
+    @Test
+    @DisplayName("HEAD company profile returns 200 when the company profile exists")
+    void headCompanyProfileExists() throws Exception {
+        when(companyProfileService.exists(MOCK_COMPANY_NUMBER)).thenReturn(true);
+
+        mockMvc.perform(head(COMPANY_PROFILE_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+
+        verify(companyProfileService, times(0)).retrieveCompanyNumber(any());
+    }
+
+    @Test
+    @DisplayName("HEAD company profile returns 404 when the company profile does not exist")
+    void headCompanyProfileNotFound() throws Exception {
+        when(companyProfileService.exists(MOCK_COMPANY_NUMBER)).thenReturn(false);
+
+        mockMvc.perform(head(COMPANY_PROFILE_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("HEAD company profile returns 503 when MongoDB is unavailable")
+    void headCompanyProfileServiceUnavailable() throws Exception {
+        when(companyProfileService.exists(MOCK_COMPANY_NUMBER))
+                .thenThrow(new ServiceUnavailableException("Service unavailable"));
+
+        mockMvc.perform(head(COMPANY_PROFILE_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    private static String profileEntityTag() {
+        return "\"" + MOCK_ETAG + "-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "\"";
+    }
+
+
+    @Test
+    @DisplayName("Retrieve several company profiles with a batch request")
+    void testSearchCompanyProfiles() throws Exception {
+        Data mockData = new Data();
+        mockData.setCompanyNumber(MOCK_COMPANY_NUMBER);
+        BatchLookupResponse<Data> response = new BatchLookupResponse<>(Map.of(MOCK_COMPANY_NUMBER, mockData),
+                List.of("00000000"));
+
+        when(companyProfileService.retrieveCompanyProfiles(List.of(MOCK_COMPANY_NUMBER, "00000000")))
+                .thenReturn(response);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BATCH_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header("x-request-id", X_REQUEST_ID)
+                        .header("ERIC-Authorised-Key-Privileges", "internal-app")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"company_numbers\":[\"" + MOCK_COMPANY_NUMBER + "\",\"00000000\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items." + MOCK_COMPANY_NUMBER + ".company_number")
+                        .value(MOCK_COMPANY_NUMBER))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missing[0]").value("00000000"));
+    }
+
+    @Test
+    @DisplayName("Retrieve several company details with a batch request")
+    void testGetCompanyDetailsBatch() throws Exception {
+        CompanyDetails companyDetails = new CompanyDetails();
+        companyDetails.setCompanyNumber(MOCK_COMPANY_NUMBER);
+        BatchLookupResponse<CompanyDetails> response = new BatchLookupResponse<>(
+                Map.of(MOCK_COMPANY_NUMBER, companyDetails), List.of());
+
+        when(companyProfileService.retrieveCompanyDetails(List.of(MOCK_COMPANY_NUMBER))).thenReturn(response);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BATCH_URL + "/company-detail")
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header("x-request-id", X_REQUEST_ID)
+                        .header("ERIC-Authorised-Key-Privileges", "internal-app")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"company_numbers\":[\"" + MOCK_COMPANY_NUMBER + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(response)));
+    }
+
+    @Test
+    @DisplayName("Batch request returns 400 when too many company numbers are requested")
+    void testSearchCompanyProfilesBadRequest() throws Exception {
+        when(companyProfileService.retrieveCompanyProfiles(any())).thenThrow(BadRequestException.class);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BATCH_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header("x-request-id", X_REQUEST_ID)
+                        .header("ERIC-Authorised-Key-Privileges", "internal-app")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"company_numbers\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Batch request returns 403 without internal app privileges")
+    void testSearchCompanyProfilesForbidden() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(BATCH_URL)
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header("x-request-id", X_REQUEST_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"company_numbers\":[\"" + MOCK_COMPANY_NUMBER + "\"]}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(companyProfileService);
+    }
 
     @Test
     @DisplayName("Return 401 when no api key is present")
@@ -1155,7 +1371,7 @@ class CompanyProfileControllerTest {
     void testGetUkEstablishmentsStatusOK() throws Exception {
         UkEstablishmentsList ukEstablishmentsList = new UkEstablishmentsList();
 
-        when(companyProfileService.getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(ukEstablishmentsList);
+        when(companyProfileService.getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, null, 0)).thenReturn(ukEstablishmentsList);
 
         mockMvc.perform(MockMvcRequestBuilders.get(GET_UK_ESTABLISHMENTS_URL, MOCK_PARENT_COMPANY_NUMBER)
                         .header("ERIC-Identity", ERIC_IDENTITY)
@@ -1164,7 +1380,46 @@ class CompanyProfileControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isOk());
 
-        verify(companyProfileService).getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER);
+        verify(companyProfileService).getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, null, 0);
+    }
+
+    @Test
+    @DisplayName("Retrieve a page of uk establishments for given parent company number")
+    void testGetUkEstablishmentsPage() throws Exception {
+        PagedUkEstablishmentsList ukEstablishmentsList = new PagedUkEstablishmentsList()
+                .itemsPerPage(10)
+                .startIndex(20)
+                .totalResults(25L);
+
+        when(companyProfileService.getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, 10, 20))
+                .thenReturn(ukEstablishmentsList);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(GET_UK_ESTABLISHMENTS_URL, MOCK_PARENT_COMPANY_NUMBER)
+                        .param("items_per_page", "10")
+                        .param("start_index", "20")
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header("x-request-id", X_REQUEST_ID)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items_per_page").value(10))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.start_index").value(20))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total_results").value(25));
+    }
+
+    @Test
+    @DisplayName("Failed to retrieve uk establishments due to invalid paging parameters")
+    void testGetUkEstablishmentsStatusBadRequest() throws Exception {
+        doThrow(BadRequestException.class).when(companyProfileService)
+                .getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, 0, 0);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(GET_UK_ESTABLISHMENTS_URL, MOCK_PARENT_COMPANY_NUMBER)
+                        .param("items_per_page", "0")
+                        .header("ERIC-Identity", ERIC_IDENTITY)
+                        .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                        .header("x-request-id", X_REQUEST_ID)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
 
     @Test
@@ -1182,7 +1437,7 @@ class CompanyProfileControllerTest {
     @DisplayName("Failed to retrieve uk establishments due to non existent company")
     void testGetUkEstablishmentsStatusNotFound() throws Exception {
         doThrow(ResourceNotFoundException.class).when(companyProfileService)
-                .getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER);
+                .getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, null, 0);
 
         mockMvc.perform(MockMvcRequestBuilders.get(GET_UK_ESTABLISHMENTS_URL, MOCK_PARENT_COMPANY_NUMBER)
                         .header("ERIC-Identity", ERIC_IDENTITY)
@@ -1191,7 +1446,7 @@ class CompanyProfileControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
 
-        verify(companyProfileService).getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER);
+        verify(companyProfileService).getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, null, 0);
     }
 
     @Test
@@ -1199,7 +1454,7 @@ class CompanyProfileControllerTest {
     void testGetUkEstablishmentsStatusServiceUnavailable() throws Exception {
         doThrow(new DataAccessException("...") {
         }).when(companyProfileService)
-                .getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER);
+                .getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, null, 0);
 
         mockMvc.perform(MockMvcRequestBuilders.get(GET_UK_ESTABLISHMENTS_URL, MOCK_PARENT_COMPANY_NUMBER)
                         .header("ERIC-Identity", ERIC_IDENTITY)
@@ -1208,7 +1463,7 @@ class CompanyProfileControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
 
-        verify(companyProfileService).getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER);
+        verify(companyProfileService).getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, null, 0);
     }
 
     @Test
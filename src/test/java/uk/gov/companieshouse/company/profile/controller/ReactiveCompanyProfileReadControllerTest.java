@@ -0,0 +1,185 @@
+package uk.gov.companieshouse.company.profile.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.api.company.UkEstablishment;
+import uk.gov.companieshouse.api.company.UkEstablishmentsList;
+import uk.gov.companieshouse.company.profile.config.ApplicationConfig;
+import uk.gov.companieshouse.company.profile.config.ExceptionHandlerConfig;
+import uk.gov.companieshouse.company.profile.exception.ResourceNotFoundException;
+import uk.gov.companieshouse.company.profile.service.CompanyProfileService;
+import uk.gov.companieshouse.company.profile.service.ReactiveCompanyProfileService;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = {CompanyProfileController.class, ReactiveCompanyProfileReadController.class})
+@ContextConfiguration(classes = {CompanyProfileController.class, CompanyProfileReadController.class,
+        ReactiveCompanyProfileReadController.class, ExceptionHandlerConfig.class})
+@Import({ApplicationConfig.class})
+@ActiveProfiles("reactive-reads")
+class ReactiveCompanyProfileReadControllerTest {
+
+    private static final String MOCK_COMPANY_NUMBER = "FR123456";
+    private static final String MOCK_ETAG = "etag";
+    private static final String COMPANY_PROFILE_URL = String.format("/company/%s", MOCK_COMPANY_NUMBER);
+    private static final String GET_UK_ESTABLISHMENTS_URL = String.format("/company/%s/uk-establishments",
+            MOCK_COMPANY_NUMBER);
+    private static final String ERIC_IDENTITY = "Test-Identity";
+    private static final String ERIC_IDENTITY_TYPE = "key";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private CompanyProfileService companyProfileService;
+
+    @MockitoBean
+    private ReactiveCompanyProfileService reactiveCompanyProfileService;
+
+    @Test
+    @DisplayName("Retrieve a company profile through the reactive read path")
+    void searchCompanyProfile() throws Exception {
+        Data data = new Data().companyNumber(MOCK_COMPANY_NUMBER).etag(MOCK_ETAG);
+        when(reactiveCompanyProfileService.retrieveCompanyNumber(MOCK_COMPANY_NUMBER)).thenReturn(Mono.just(data));
+
+        MvcResult result = mockMvc.perform(authorised(get(COMPANY_PROFILE_URL)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, profileEntityTag()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, must-revalidate, public"))
+                .andExpect(content().string(objectMapper.writeValueAsString(data)));
+        verify(companyProfileService, times(0)).retrieveCompanyNumber(any());
+    }
+
+    @Test
+    @DisplayName("Retrieve a company profile through the reactive read path returns 304 when If-None-Match matches")
+    void searchCompanyProfileNotModified() throws Exception {
+        when(reactiveCompanyProfileService.getEtag(MOCK_COMPANY_NUMBER)).thenReturn(Mono.just(MOCK_ETAG));
+
+        MvcResult result = mockMvc.perform(authorised(get(COMPANY_PROFILE_URL))
+                        .header(HttpHeaders.IF_NONE_MATCH, profileEntityTag()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, profileEntityTag()))
+                .andExpect(content().string(""));
+        verify(reactiveCompanyProfileService, times(0)).retrieveCompanyNumber(any());
+    }
+
+    @Test
+    @DisplayName("Retrieve a company profile through the reactive read path returns 404 when not found")
+    void searchCompanyProfileNotFound() throws Exception {
+        when(reactiveCompanyProfileService.retrieveCompanyNumber(MOCK_COMPANY_NUMBER))
+                .thenReturn(Mono.error(new ResourceNotFoundException(HttpStatus.NOT_FOUND, "not found")));
+
+        MvcResult result = mockMvc.perform(authorised(get(COMPANY_PROFILE_URL)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Retrieve a company profile through the reactive read path returns 503 when MongoDB is unavailable")
+    void searchCompanyProfileServiceUnavailable() throws Exception {
+        when(reactiveCompanyProfileService.retrieveCompanyNumber(MOCK_COMPANY_NUMBER))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("unavailable")));
+
+        MvcResult result = mockMvc.perform(authorised(get(COMPANY_PROFILE_URL)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @DisplayName("Retrieve a page of uk establishments through the reactive read path")
+    void getUkEstablishments() throws Exception {
+        UkEstablishmentsList list = new UkEstablishmentsList();
+        list.setItems(List.of(new UkEstablishment().companyNumber("BR123456")));
+        when(reactiveCompanyProfileService.getUkEstablishments(MOCK_COMPANY_NUMBER, 10, 0))
+                .thenReturn(Mono.just(list));
+
+        MvcResult result = mockMvc.perform(authorised(get(GET_UK_ESTABLISHMENTS_URL))
+                        .param("items_per_page", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(list)));
+    }
+
+    @Test
+    @DisplayName("Stream uk establishments as newline delimited JSON through the reactive read path")
+    void streamUkEstablishments() throws Exception {
+        UkEstablishment first = new UkEstablishment().companyNumber("BR123456");
+        UkEstablishment second = new UkEstablishment().companyNumber("BR654321");
+        when(reactiveCompanyProfileService.streamUkEstablishments(MOCK_COMPANY_NUMBER))
+                .thenReturn(Flux.just(first, second));
+
+        MvcResult result = mockMvc.perform(authorised(get(GET_UK_ESTABLISHMENTS_URL))
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(first) + "\n"
+                        + objectMapper.writeValueAsString(second) + "\n"));
+    }
+
+    private static MockHttpServletRequestBuilder authorised(MockHttpServletRequestBuilder request) {
+        return request
+                .header("ERIC-Identity", ERIC_IDENTITY)
+                .header("ERIC-Identity-Type", ERIC_IDENTITY_TYPE)
+                .header("x-request-id", "123456");
+    }
+
+    private static String profileEntityTag() {
+        return "\"" + MOCK_ETAG + "-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "\"";
+    }
+}
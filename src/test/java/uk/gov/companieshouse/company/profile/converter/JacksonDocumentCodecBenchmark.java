@@ -0,0 +1,77 @@
+package uk.gov.companieshouse.company.profile.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.company.profile.config.ApplicationConfig;
+import uk.gov.companieshouse.company.profile.util.TestHelper;
+
+/**
+ * Compares {@link JacksonDocumentCodec} with the JSON round trip made by the SDK's converters, reading and writing
+ * the example company profile. Run from the test classpath with {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonDocumentCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private JacksonDocumentCodec<Data> codec;
+    private Data data;
+    private Document document;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = ApplicationConfig.mongoDbObjectMapper();
+        codec = new JacksonDocumentCodec<>(objectMapper, Data.class);
+        data = new TestHelper().createCompanyProfileObject().getData();
+        document = Document.parse(objectMapper.writeValueAsString(data));
+    }
+
+    @Benchmark
+    public Document writeThroughJson() throws JsonProcessingException {
+        return Document.parse(objectMapper.writeValueAsString(data));
+    }
+
+    @Benchmark
+    public Document writeThroughCodec() {
+        return codec.encode(data);
+    }
+
+    @Benchmark
+    public Data readThroughJson() throws JsonProcessingException {
+        return objectMapper.readValue(document.toJson(), Data.class);
+    }
+
+    @Benchmark
+    public Data readThroughCodec() {
+        return codec.decode(document);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JacksonDocumentCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
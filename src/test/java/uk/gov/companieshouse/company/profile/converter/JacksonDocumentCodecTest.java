@@ -0,0 +1,175 @@
+package uk.gov.companieshouse.company.profile.converter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.api.company.SensitiveData;
+import uk.gov.companieshouse.company.profile.config.ApplicationConfig;
+import uk.gov.companieshouse.company.profile.util.TestHelper;
+
+class JacksonDocumentCodecTest {
+
+    private final ObjectMapper objectMapper = ApplicationConfig.mongoDbObjectMapper();
+    private final JacksonDocumentCodec<Data> dataCodec = new JacksonDocumentCodec<>(objectMapper, Data.class);
+    private final JacksonDocumentCodec<SensitiveData> sensitiveDataCodec =
+            new JacksonDocumentCodec<>(objectMapper, SensitiveData.class);
+
+    @Test
+    void shouldEncodeToSameBytesAsJsonRoundTrip() throws IOException {
+        // given
+        Data data = new TestHelper().createCompanyProfileObject().getData();
+
+        // when
+        Document actual = dataCodec.encode(data);
+
+        // then
+        assertArrayEquals(bytes(jsonEncode(data)), bytes(actual));
+    }
+
+    @Test
+    void shouldEncodeDatesAsBsonDatesAtStartOfDay() {
+        // given
+        Data data = new Data().dateOfCreation(LocalDate.of(1884, 6, 30));
+
+        // when
+        Document actual = dataCodec.encode(data);
+
+        // then
+        assertEquals(Date.from(LocalDate.of(1884, 6, 30).atStartOfDay().toInstant(ZoneOffset.UTC)),
+                actual.get("date_of_creation"));
+        assertArrayEquals(bytes(jsonEncode(data)), bytes(actual));
+    }
+
+    @Test
+    void shouldDecodeSameObjectAsJsonRoundTrip() throws IOException {
+        // given
+        Document stored = jsonEncode(new TestHelper().createCompanyProfileObject().getData());
+
+        // when
+        Data actual = dataCodec.decode(stored);
+
+        // then
+        assertEquals(jsonDecode(stored, Data.class), actual);
+    }
+
+    @Test
+    void shouldDecodeDatesStoredBeforeEpochAndWithTimes() {
+        // given
+        Document stored = new Document("date_of_creation", new Date(-2_700_000_000_000L))
+                .append("date_of_cessation", Date.from(LocalDate.of(2020, 1, 2).atTime(13, 45, 10, 123_000_000)
+                        .toInstant(ZoneOffset.UTC)));
+
+        // when
+        Data actual = dataCodec.decode(stored);
+
+        // then
+        assertEquals(jsonDecode(stored, Data.class), actual);
+    }
+
+    @Test
+    void shouldDecodeNumbersAndNullsAsJsonRoundTrip() {
+        // given
+        Document stored = new Document("company_number", 12345678L)
+                .append("has_charges", true)
+                .append("super_secure_managing_officer_count", 2.0)
+                .append("company_name", null)
+                .append("accounts", new Document("accounting_reference_date",
+                        new Document("day", 31).append("month", 12.0)))
+                .append("sic_codes", List.of("62020", 62090));
+
+        // when
+        Data actual = dataCodec.decode(stored);
+
+        // then
+        assertEquals(jsonDecode(stored, Data.class), actual);
+    }
+
+    @Test
+    void shouldFallBackToJsonRoundTripForOtherBsonTypes() {
+        // given
+        Document stored = new Document("company_number", "12345678")
+                .append("unknown", new Binary(new byte[]{1, 2, 3}));
+
+        // when
+        Data actual = dataCodec.decode(stored);
+
+        // then
+        assertEquals("12345678", actual.getCompanyNumber());
+    }
+
+    @Test
+    void shouldRoundTripSensitiveData() {
+        // given
+        SensitiveData sensitiveData = new SensitiveData().emailAddress("test@example.com");
+
+        // when
+        Document encoded = sensitiveDataCodec.encode(sensitiveData);
+        SensitiveData actual = sensitiveDataCodec.decode(encoded);
+
+        // then
+        assertArrayEquals(bytes(jsonEncode(sensitiveData)), bytes(encoded));
+        assertEquals(sensitiveData, actual);
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldNarrowNumbersAsJsonParserDoes() {
+        // given
+        Map<String, Object> values = Map.of("small", 1L, "large", 3_000_000_000L);
+
+        // when
+        Document actual = new JacksonDocumentCodec<Map>(objectMapper, Map.class).encode(values);
+
+        // then
+        assertEquals(Integer.class, actual.get("small").getClass());
+        assertEquals(Long.class, actual.get("large").getClass());
+    }
+
+    /**
+     * The write half of the JSON round trip made by the SDK's WriteConverter.
+     */
+    private Document jsonEncode(Object value) {
+        try {
+            return Document.parse(objectMapper.writeValueAsString(value));
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * The read half of the JSON round trip made by the SDK's ReadConverter.
+     */
+    private <T> T jsonDecode(Document document, Class<T> type) {
+        try {
+            return objectMapper.readValue(document.toJson(), type);
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static byte[] bytes(Bson document) {
+        BsonDocument bsonDocument = document.toBsonDocument(BsonDocument.class,
+                MongoClientSettings.getDefaultCodecRegistry());
+        ByteBuffer buffer = new RawBsonDocument(bsonDocument, new BsonDocumentCodec()).getByteBuffer().asNIO();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
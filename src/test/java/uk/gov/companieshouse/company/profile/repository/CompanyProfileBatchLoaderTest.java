@@ -0,0 +1,171 @@
+package uk.gov.companieshouse.company.profile.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyProfileBatchLoaderTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+
+    @Mock
+    private CompanyProfileRepository companyProfileRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldReadDirectlyWhenDisabled() {
+        // given
+        CompanyProfileBatchLoader loader = loader(false, 10, Duration.ofMillis(1));
+        VersionedCompanyProfileDocument document = document(COMPANY_NUMBER);
+        when(companyProfileRepository.findById(COMPANY_NUMBER)).thenReturn(Optional.of(document));
+
+        // when
+        Optional<VersionedCompanyProfileDocument> actual = loader.findById(COMPANY_NUMBER);
+
+        // then
+        assertSame(document, actual.orElseThrow());
+        verify(companyProfileRepository).findById(COMPANY_NUMBER);
+        verifyNoMoreInteractions(companyProfileRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldMergeConcurrentLookupsIntoOneQuery() throws Exception {
+        // given
+        int lookups = 4;
+        CompanyProfileBatchLoader loader = loader(true, lookups, Duration.ofSeconds(30));
+        when(companyProfileRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<VersionedCompanyProfileDocument> documents = new ArrayList<>();
+            invocation.<Iterable<String>>getArgument(0).forEach(id -> documents.add(document(id)));
+            return documents;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(lookups);
+        try {
+            // when
+            List<Future<Optional<VersionedCompanyProfileDocument>>> results = new ArrayList<>();
+            for (int i = 0; i < lookups; i++) {
+                String companyNumber = COMPANY_NUMBER + i;
+                results.add(executor.submit(() -> loader.findById(companyNumber)));
+            }
+
+            // then
+            for (int i = 0; i < lookups; i++) {
+                assertEquals(COMPANY_NUMBER + i, results.get(i).get(5, TimeUnit.SECONDS).orElseThrow().getId());
+            }
+            ArgumentCaptor<Iterable<String>> ids = ArgumentCaptor.forClass(Iterable.class);
+            verify(companyProfileRepository, times(1)).findAllById(ids.capture());
+            Set<String> requested = new HashSet<>();
+            ids.getValue().forEach(requested::add);
+            assertEquals(lookups, requested.size());
+
+            DistributionSummary batchSize = meterRegistry.get("company_profile.batch_loader.batch_size")
+                    .summary();
+            assertEquals(1, batchSize.count());
+            assertEquals(lookups, batchSize.totalAmount());
+            assertEquals(lookups, meterRegistry.get("company_profile.batch_loader.wait").timer().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReadBatchOnceWaitWindowHasElapsed() {
+        // given
+        CompanyProfileBatchLoader loader = loader(true, 10, Duration.ofMillis(1));
+        when(companyProfileRepository.findAllById(any())).thenReturn(List.of());
+
+        // when
+        Optional<VersionedCompanyProfileDocument> actual = loader.findById(COMPANY_NUMBER);
+
+        // then
+        assertTrue(actual.isEmpty());
+        verify(companyProfileRepository).findAllById(List.of(COMPANY_NUMBER));
+    }
+
+    @Test
+    void shouldPropagateQueryFailureToLookup() {
+        // given
+        CompanyProfileBatchLoader loader = loader(true, 10, Duration.ofMillis(1));
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("Connection broken");
+        when(companyProfileRepository.findAllById(any())).thenThrow(failure);
+
+        // when
+        Exception actual = assertThrows(DataAccessResourceFailureException.class,
+                () -> loader.findById(COMPANY_NUMBER));
+
+        // then
+        assertSame(failure, actual);
+    }
+
+    @Test
+    void shouldPropagateErrorToEveryLookupInBatch() throws Exception {
+        // given
+        CompanyProfileBatchLoader loader = loader(true, 2, Duration.ofSeconds(5));
+        StackOverflowError error = new StackOverflowError();
+        when(companyProfileRepository.findAllById(any())).thenThrow(error);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // when
+            Future<Optional<VersionedCompanyProfileDocument>> first = executor.submit(
+                    () -> loader.findById(COMPANY_NUMBER));
+            Future<Optional<VersionedCompanyProfileDocument>> second = executor.submit(
+                    () -> loader.findById("87654321"));
+
+            // then
+            for (Future<Optional<VersionedCompanyProfileDocument>> lookup : List.of(first, second)) {
+                Exception actual = assertThrows(ExecutionException.class, () -> lookup.get(2, TimeUnit.SECONDS));
+                assertSame(error, actual.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CompanyProfileBatchLoader loader(boolean enabled, int maximumSize, Duration waitWindow) {
+        return new CompanyProfileBatchLoader(companyProfileRepository, meterRegistry, enabled, maximumSize,
+                waitWindow);
+    }
+
+    private static VersionedCompanyProfileDocument document(String companyNumber) {
+        VersionedCompanyProfileDocument document = new VersionedCompanyProfileDocument();
+        document.setId(companyNumber);
+        return document;
+    }
+}
@@ -0,0 +1,134 @@
+package uk.gov.companieshouse.company.profile.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import uk.gov.companieshouse.company.profile.model.OutboxEvent;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyProfileIndexManagerTest {
+
+    private static final String COLLECTION = "company_profile";
+    private static final String OUTBOX_COLLECTION = "company_profile_outbox";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldCreateDeclaredIndexesMissingFromCollection() {
+        // given
+        CompanyProfileIndexManager manager = manager(true, false);
+        IndexOperations indexOperations = mock(IndexOperations.class);
+        when(mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class)).thenReturn(COLLECTION);
+        when(mongoTemplate.execute(eq(COLLECTION), any(CollectionCallback.class)))
+                .thenReturn(Set.of(List.of("_id:1"), List.of("parent_company_number:1", "_id:1")));
+        when(mongoTemplate.indexOps(VersionedCompanyProfileDocument.class)).thenReturn(indexOperations);
+
+        // when
+        List<String> missing = manager.ensureIndexes(VersionedCompanyProfileDocument.class);
+
+        // then
+        assertEquals(List.of(), missing);
+        verify(indexOperations, times(2)).createIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void shouldReportOutOfServiceWhenIndexesMissingAndQueriesScanCollection() {
+        // given
+        CompanyProfileIndexManager manager = manager(false, true);
+        when(mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class)).thenReturn(COLLECTION);
+        when(mongoTemplate.getCollectionName(OutboxEvent.class)).thenReturn(OUTBOX_COLLECTION);
+        when(mongoTemplate.execute(eq(OUTBOX_COLLECTION), any(CollectionCallback.class)))
+                .thenReturn(Set.of(List.of("_id:1")));
+        when(mongoTemplate.execute(eq(COLLECTION), any(CollectionCallback.class)))
+                .thenReturn(Set.of(List.of("_id:1")), explained("COLLSCAN"), explained("IXSCAN"),
+                        explained("IXSCAN"));
+
+        // when
+        manager.start();
+
+        // then
+        assertEquals(Status.OUT_OF_SERVICE, manager.health().getStatus());
+        assertEquals(5.0, meterRegistry.get("company_profile.indexes.missing").gauge().value());
+        assertEquals(1.0, meterRegistry.get("company_profile.indexes.collection_scans").gauge().value());
+    }
+
+    @Test
+    void shouldStayUpWhenNotFailingReadiness() {
+        // given
+        CompanyProfileIndexManager manager = manager(false, false);
+        when(mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class)).thenReturn(COLLECTION);
+        when(mongoTemplate.getCollectionName(OutboxEvent.class)).thenReturn(OUTBOX_COLLECTION);
+        when(mongoTemplate.execute(eq(OUTBOX_COLLECTION), any(CollectionCallback.class)))
+                .thenReturn(Set.of(List.of("_id:1")));
+        when(mongoTemplate.execute(eq(COLLECTION), any(CollectionCallback.class)))
+                .thenReturn(Set.of(List.of("_id:1")), explained("COLLSCAN"));
+
+        // when
+        manager.start();
+
+        // then
+        assertEquals(Status.UP, manager.health().getStatus());
+    }
+
+    @Test
+    void shouldFindStagesNestedInWinningPlan() {
+        // given
+        Document explain = new Document("queryPlanner", new Document()
+                .append("winningPlan", new Document("queryPlan", new Document("stage", "SORT")
+                        .append("inputStage", new Document("stage", "FETCH")
+                                .append("inputStage", new Document("stage", "IXSCAN")))))
+                .append("rejectedPlans", List.of(new Document("stage", "COLLSCAN"))));
+
+        // when
+        Set<String> stages = CompanyProfileIndexManager.planStages(explain);
+
+        // then
+        assertEquals(Set.of("SORT", "FETCH", "IXSCAN"), stages);
+    }
+
+    private CompanyProfileIndexManager manager(boolean createMissing, boolean failReadiness) {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        return new CompanyProfileIndexManager(mongoTemplate, meterRegistry, true, createMissing, failReadiness);
+    }
+
+    private static Document explained(String stage) {
+        return new Document("queryPlanner", new Document("winningPlan", new Document("stage", stage)));
+    }
+}
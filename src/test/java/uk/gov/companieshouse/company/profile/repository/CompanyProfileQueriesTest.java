@@ -0,0 +1,97 @@
+package uk.gov.companieshouse.company.profile.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.Repository;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+class CompanyProfileQueriesTest {
+
+    private static final String PROBE = "FR123456";
+
+    @Test
+    void shouldGiveShapeOfEveryBuiltAndRepositoryQuery() {
+        // when
+        Map<String, Query> shapes = CompanyProfileQueries.shapes(PROBE);
+
+        // then
+        assertTrue(shapes.keySet().containsAll(List.of("uk_establishments", "link", "delta_at")),
+                String.valueOf(shapes.keySet()));
+        for (Method method : CompanyProfileRepository.class.getDeclaredMethods()) {
+            assertTrue(shapes.containsKey("CompanyProfileRepository." + method.getName()), method.getName());
+        }
+        for (Method method : ReactiveCompanyProfileRepository.class.getDeclaredMethods()) {
+            assertTrue(shapes.containsKey("ReactiveCompanyProfileRepository." + method.getName()), method.getName());
+        }
+    }
+
+    @Test
+    void shouldGiveAnnotatedQueryWithFieldsAndSort() throws NoSuchMethodException {
+        // given
+        Method method = CompanyProfileRepository.class.getMethod(
+                "findAllOpenCompanyProfilesByParentNumberSortedByCreation", String.class);
+
+        // when
+        Query query = CompanyProfileQueries.repositoryQuery(method, PROBE);
+
+        // then
+        assertEquals(new Document("parent_company_number", PROBE).append("data.company_status", "open"),
+                query.getQueryObject());
+        assertEquals(new Document("data.date_of_creation", -1), query.getSortObject());
+    }
+
+    @Test
+    void shouldGiveAnnotatedQueryForCollectionParameter() throws NoSuchMethodException {
+        // given
+        Method method = CompanyProfileRepository.class.getMethod("findCompanyDetailsByIdIn", Collection.class);
+
+        // when
+        Query query = CompanyProfileQueries.repositoryQuery(method, PROBE);
+
+        // then
+        assertEquals(new Document("_id", new Document("$in", List.of(PROBE))), query.getQueryObject());
+    }
+
+    @Test
+    void shouldGiveQueryDerivedFromMethodName() throws NoSuchMethodException {
+        // given
+        Method method = DerivedRepository.class.getMethod("findByParentCompanyNumberOrderByIdDesc", String.class);
+
+        // when
+        Query query = CompanyProfileQueries.repositoryQuery(method, PROBE);
+
+        // then
+        assertEquals(new Document("$and", List.of(new Document("parentCompanyNumber", PROBE))),
+                query.getQueryObject());
+        assertEquals(new Document("id", -1), query.getSortObject());
+    }
+
+    @Test
+    void shouldRejectDerivedQueryWithoutShape() throws NoSuchMethodException {
+        // given
+        Method method = DerivedRepository.class.getMethod("findByParentCompanyNumberStartingWith", String.class);
+
+        // when
+        Executable actual = () -> CompanyProfileQueries.repositoryQuery(method, PROBE);
+
+        // then
+        assertThrows(IllegalArgumentException.class, actual);
+    }
+
+    interface DerivedRepository extends Repository<VersionedCompanyProfileDocument, String> {
+
+        List<VersionedCompanyProfileDocument> findByParentCompanyNumberOrderByIdDesc(String parentCompanyNumber);
+
+        List<VersionedCompanyProfileDocument> findByParentCompanyNumberStartingWith(String parentCompanyNumber);
+    }
+}
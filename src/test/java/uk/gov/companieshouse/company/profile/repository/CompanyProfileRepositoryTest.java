@@ -1,10 +1,10 @@
 package uk.gov.companieshouse.company.profile.repository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 import org.bson.Document;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -52,24 +52,65 @@ class CompanyProfileRepositoryTest {
     }
 
     @Test
-    void findAllCompaniesWithSameParentCompanyNumber() {
+    void countCompaniesWithSameParentCompanyNumber() {
         // given
         insertCompanyProfile(COMPANY_NUMBER + 1, PARENT_COMPANY_NUMBER);
         insertCompanyProfile(COMPANY_NUMBER + 2, PARENT_COMPANY_NUMBER);
         insertCompanyProfile(COMPANY_NUMBER + 3, PARENT_COMPANY_NUMBER + 1);
 
         // when
-        List<VersionedCompanyProfileDocument> result = repository.findAllByParentCompanyNumber(PARENT_COMPANY_NUMBER);
+        long result = repository.countByParentCompanyNumber(PARENT_COMPANY_NUMBER);
 
         // then
-        assertEquals(COMPANY_NUMBER + 1, result.get(0).getId());
-        assertEquals(COMPANY_NUMBER + 2, result.get(1).getId());
-        assertEquals(2, result.size());
+        assertEquals(2, result);
+    }
+
+    @Test
+    void findCompanyDetailsByIdReturnsOnlyDetailFields() {
+        // given
+        insertCompanyProfile(COMPANY_NUMBER, PARENT_COMPANY_NUMBER);
+
+        // when
+        VersionedCompanyProfileDocument result = repository.findCompanyDetailsById(COMPANY_NUMBER).orElseThrow();
+
+        // then
+        assertEquals(COMPANY_NUMBER, result.getCompanyProfile().getCompanyNumber());
+        assertEquals("SHARK AG", result.getCompanyProfile().getCompanyName());
+        assertNull(result.getCompanyProfile().getEtag());
+        assertNull(result.getCompanyProfile().getLinks());
+        assertNull(result.getParentCompanyNumber());
+    }
+
+    @Test
+    void findCompanyProfileDataByIdReturnsOnlyData() {
+        // given
+        insertCompanyProfile(COMPANY_NUMBER, PARENT_COMPANY_NUMBER);
+
+        // when
+        VersionedCompanyProfileDocument result = repository.findCompanyProfileDataById(COMPANY_NUMBER).orElseThrow();
+
+        // then
+        assertEquals("SHARK AG", result.getCompanyProfile().getCompanyName());
+        assertNull(result.getParentCompanyNumber());
+    }
+
+    @Test
+    void findEtagByIdReturnsOnlyEtag() {
+        // given
+        insertCompanyProfile(COMPANY_NUMBER, PARENT_COMPANY_NUMBER);
+
+        // when
+        VersionedCompanyProfileDocument result = repository.findEtagById(COMPANY_NUMBER).orElseThrow();
+
+        // then
+        assertEquals("2f6b00229cf81ab268c4de9526726d258afe52c9", result.getCompanyProfile().getEtag());
+        assertNull(result.getCompanyProfile().getCompanyName());
     }
 
     private void insertCompanyProfile(String companyNumber, String parentCompanyNumber) {
         templateDocument.put("_id", companyNumber);
         templateDocument.put("parent_company_number", parentCompanyNumber);
+        templateDocument.get("data", Document.class).put("company_number", companyNumber);
 
         mongoTemplate.insert(templateDocument, "company_profile");
     }
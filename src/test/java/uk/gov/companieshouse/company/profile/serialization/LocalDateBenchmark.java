@@ -0,0 +1,136 @@
+package uk.gov.companieshouse.company.profile.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link LocalDateDeSerializer} and {@link LocalDateSerializer} with the tree-based implementations they
+ * replaced, kept here as the baseline. Run from the test classpath with {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalDateBenchmark {
+
+    private static final String ISO_DATE = "{\"$date\": \"2023-01-09T18:19:39.396Z\"}";
+    private static final String NUMBER_LONG_DATE = "{\"$date\": {\"$numberLong\": \"-1431388800000\"}}";
+
+    private ObjectReader streamingReader;
+    private ObjectReader treeReader;
+    private ObjectMapper streamingWriter;
+    private ObjectMapper treeWriter;
+    private LocalDate date;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper streaming = new ObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(LocalDate.class, new LocalDateSerializer())
+                .addDeserializer(LocalDate.class, new LocalDateDeSerializer()));
+        ObjectMapper tree = new ObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(LocalDate.class, new TreeLocalDateSerializer())
+                .addDeserializer(LocalDate.class, new TreeLocalDateDeSerializer()));
+        streamingReader = streaming.readerFor(LocalDate.class);
+        treeReader = tree.readerFor(LocalDate.class);
+        streamingWriter = streaming;
+        treeWriter = tree;
+        date = LocalDate.of(2023, 1, 9);
+    }
+
+    @Benchmark
+    public LocalDate readIsoDateStreaming() throws IOException {
+        return streamingReader.readValue(ISO_DATE);
+    }
+
+    @Benchmark
+    public LocalDate readIsoDateTree() throws IOException {
+        return treeReader.readValue(ISO_DATE);
+    }
+
+    @Benchmark
+    public LocalDate readNumberLongDateStreaming() throws IOException {
+        return streamingReader.readValue(NUMBER_LONG_DATE);
+    }
+
+    @Benchmark
+    public LocalDate readNumberLongDateTree() throws IOException {
+        return treeReader.readValue(NUMBER_LONG_DATE);
+    }
+
+    @Benchmark
+    public String writeStreaming() throws IOException {
+        return streamingWriter.writeValueAsString(date);
+    }
+
+    @Benchmark
+    public String writeTree() throws IOException {
+        return treeWriter.writeValueAsString(date);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LocalDateBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    private static final class TreeLocalDateDeSerializer extends JsonDeserializer<LocalDate> {
+
+        @Override
+        public LocalDate deserialize(JsonParser jsonParser, DeserializationContext context) throws IOException {
+            DateTimeFormatter dateTimeFormatter = DateTimeFormatter
+                    .ofPattern("yyyy-MM-dd'T'HH:mm[:ss[.SSS][.SS][.S]]'Z'");
+            JsonNode jsonNode = jsonParser.readValueAsTree();
+            JsonNode dateNode = jsonNode.get("$date");
+            if (dateNode == null || dateNode.isNull()) {
+                return null;
+            }
+            if (dateNode.isTextual()) {
+                return LocalDate.parse(dateNode.textValue(), dateTimeFormatter);
+            }
+            return dateNode.has("$numberLong") ? LocalDate.ofInstant(
+                    Instant.ofEpochMilli(dateNode.get("$numberLong").asLong()), ZoneId.systemDefault()) : null;
+        }
+    }
+
+    private static final class TreeLocalDateSerializer extends JsonSerializer<LocalDate> {
+
+        @Override
+        public void serialize(LocalDate localDate, JsonGenerator jsonGenerator,
+                SerializerProvider serializerProvider) throws IOException {
+            DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+            String format = localDate.atStartOfDay().format(dateTimeFormatter);
+            jsonGenerator.writeRawValue("ISODate(\"" + format + "\")");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package uk.gov.companieshouse.company.profile.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.bson.Document;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.company.profile.config.ApplicationConfig;
+import uk.gov.companieshouse.company.profile.converter.JacksonDocumentCodec;
+
+/**
+ * Checks the date serialisers against local-date-golden.json, which records what the tree-based implementations
+ * they replaced gave for each input.
+ */
+class LocalDateGoldenFileTest {
+
+    private static final String ERROR = "error";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new SimpleModule()
+            .addSerializer(LocalDate.class, new LocalDateSerializer())
+            .addDeserializer(LocalDate.class, new LocalDateDeSerializer()));
+
+    @ParameterizedTest(name = "{0} reads as {1}")
+    @MethodSource("deserializeCases")
+    void shouldReadAsGoldenFile(String input, String expected) {
+        // when
+        String actual = read(input);
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @ParameterizedTest(name = "{0} writes as {1}")
+    @MethodSource("serializeCases")
+    void shouldWriteAsGoldenFile(String date, String expected) throws IOException {
+        // when
+        String actual = MAPPER.writeValueAsString(LocalDate.parse(date));
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @ParameterizedTest(name = "{0} milliseconds read from a document as from its JSON")
+    @ValueSource(longs = {0L, 1577880000000L, 1577923199999L, -2700000000000L, -62135553600000L,
+            253402300799999L, 253402344000000L})
+    void shouldReadStoredDateAsItsJson(long epochMillis) {
+        // given
+        Document stored = new Document("date_of_creation", new Date(epochMillis));
+        ObjectMapper objectMapper = ApplicationConfig.mongoDbObjectMapper();
+
+        // when
+        Data actual = new JacksonDocumentCodec<>(objectMapper, Data.class).decode(stored);
+
+        // then
+        assertEquals(readJson(objectMapper, stored.toJson()).getDateOfCreation(), actual.getDateOfCreation());
+    }
+
+    private static String read(String input) {
+        try {
+            LocalDate date = MAPPER.readValue(input, LocalDate.class);
+            return date == null ? null : date.toString();
+        } catch (Exception exception) {
+            return ERROR;
+        }
+    }
+
+    private static Data readJson(ObjectMapper objectMapper, String json) {
+        try {
+            return objectMapper.readValue(json, Data.class);
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static Stream<Arguments> deserializeCases() throws IOException {
+        return cases("deserialize").map(golden -> Arguments.of(golden.get("input").toString(),
+                golden.get("expected").isNull() ? null : golden.get("expected").asText()));
+    }
+
+    private static Stream<Arguments> serializeCases() throws IOException {
+        return cases("serialize").map(golden -> Arguments.of(golden.get("date").asText(),
+                golden.get("expected").asText()));
+    }
+
+    private static Stream<JsonNode> cases(String name) throws IOException {
+        try (InputStream goldenFile = LocalDateGoldenFileTest.class.getClassLoader()
+                .getResourceAsStream("local-date-golden.json")) {
+            JsonNode cases = new ObjectMapper().readTree(goldenFile).get(name);
+            return StreamSupport.stream(cases.spliterator(), false);
+        }
+    }
+}
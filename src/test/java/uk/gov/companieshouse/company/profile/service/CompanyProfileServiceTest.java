@@ -4,8 +4,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
@@ -15,14 +19,12 @@ import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.CHARGES_DELTA_TYPE;
-import static uk.gov.companieshouse.company.profile.util.LinkRequest.CHARGES_GET;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.CHARGES_LINK_TYPE;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.EXEMPTIONS_DELTA_TYPE;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.EXEMPTIONS_LINK_TYPE;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.FILING_HISTORY_DELTA_TYPE;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.FILING_HISTORY_LINK_TYPE;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.INSOLVENCY_DELTA_TYPE;
-import static uk.gov.companieshouse.company.profile.util.LinkRequest.INSOLVENCY_GET;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.INSOLVENCY_LINK_TYPE;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.OFFICERS_DELTA_TYPE;
 import static uk.gov.companieshouse.company.profile.util.LinkRequest.OFFICERS_LINK_TYPE;
@@ -36,13 +38,18 @@ import static uk.gov.companieshouse.company.profile.util.TestHelper.createExisti
 import static uk.gov.companieshouse.company.profile.util.TestHelper.createExistingLinks;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
+import org.bson.BsonString;
+import org.bson.Document;
 import org.junit.Assert;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -55,15 +62,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReplaceOptions;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import uk.gov.companieshouse.api.company.Accounts;
 import uk.gov.companieshouse.api.company.AnnualReturn;
@@ -87,20 +107,32 @@ import uk.gov.companieshouse.api.model.company.RegisteredOfficeAddressApi;
 import uk.gov.companieshouse.api.model.ukestablishments.PrivateUkEstablishmentsAddressApi;
 import uk.gov.companieshouse.api.model.ukestablishments.PrivateUkEstablishmentsAddressListApi;
 import uk.gov.companieshouse.company.profile.api.CompanyProfileApiService;
+import uk.gov.companieshouse.company.profile.api.ResourceChangedOutbox;
+import uk.gov.companieshouse.company.profile.cache.CompanyNumberFilter;
+import uk.gov.companieshouse.company.profile.cache.CompanyProfileCache;
+import uk.gov.companieshouse.company.profile.cache.CompanyProfileSingleFlight;
 import uk.gov.companieshouse.company.profile.exception.ConflictException;
 import uk.gov.companieshouse.company.profile.exception.ResourceNotFoundException;
 import uk.gov.companieshouse.company.profile.mapper.UkEstablishmentAddressMapper;
+import uk.gov.companieshouse.company.profile.model.BatchLookupResponse;
+import uk.gov.companieshouse.company.profile.model.CompanyDetailsWithEtag;
+import uk.gov.companieshouse.company.profile.model.PagedUkEstablishmentsList;
 import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+import uk.gov.companieshouse.company.profile.repository.CompanyProfileBatchLoader;
 import uk.gov.companieshouse.company.profile.repository.CompanyProfileRepository;
+import uk.gov.companieshouse.company.profile.transform.CompanyProfileChangeSet;
 import uk.gov.companieshouse.company.profile.transform.CompanyProfileTransformer;
 import uk.gov.companieshouse.company.profile.util.LinkRequest;
 import uk.gov.companieshouse.company.profile.util.LinkRequestFactory;
+import uk.gov.companieshouse.company.profile.util.LinkType;
 import uk.gov.companieshouse.company.profile.util.TestHelper;
 
 @ExtendWith(MockitoExtension.class)
 class CompanyProfileServiceTest {
 
     private static final String IS_OVERSEAS_COMPANY_FILE_DISABLED_FIELD = "isOverseasCompanyFileDisabled";
+    private static final int MAXIMUM_ITEMS_PER_PAGE = 500;
+    private static final int MAXIMUM_BATCH_SIZE = 3;
     private static final boolean IS_OVERSEAS_COMPANY_FILE_DISABLED = false;
     private static final String MOCK_COMPANY_NUMBER = "6146287";
     private static final String MOCK_CONTEXT_ID = "123456";
@@ -141,6 +173,18 @@ class CompanyProfileServiceTest {
     private LinkRequestFactory linkRequestFactory;
     @Mock
     private CompanyProfileTransformer companyProfileTransformer;
+    @Mock
+    private CompanyProfileChangeSet companyProfileChangeSet;
+    @Mock
+    private CompanyProfileCache companyProfileCache;
+    @Mock
+    private CompanyProfileSingleFlight companyProfileSingleFlight;
+    @Mock
+    private CompanyProfileBatchLoader companyProfileBatchLoader;
+    @Mock
+    private CompanyNumberFilter companyNumberFilter;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     @Spy
@@ -160,9 +204,9 @@ class CompanyProfileServiceTest {
     private static final String DELTA_AT = "20241129123010123789";
 
     private final LinkRequest chargesLinkRequest = new LinkRequest(MOCK_CONTEXT_ID, MOCK_COMPANY_NUMBER,
-            CHARGES_LINK_TYPE, CHARGES_DELTA_TYPE, CHARGES_GET);
+            CHARGES_LINK_TYPE, CHARGES_DELTA_TYPE, LinkType.CHARGES.getter());
     private final LinkRequest insolvencyLinkRequest = new LinkRequest(MOCK_CONTEXT_ID, MOCK_COMPANY_NUMBER,
-            INSOLVENCY_LINK_TYPE, INSOLVENCY_DELTA_TYPE, INSOLVENCY_GET);
+            INSOLVENCY_LINK_TYPE, INSOLVENCY_DELTA_TYPE, LinkType.INSOLVENCY.getter());
     private static final String CHARGES_LINK = String.format("/company/%s/charges", MOCK_COMPANY_NUMBER);
     private static final String INSOLVENCY_LINK = String.format("/company/%s/insolvency", MOCK_COMPANY_NUMBER);
 
@@ -190,6 +234,23 @@ class CompanyProfileServiceTest {
         var field = CompanyProfileService.class.getDeclaredField(IS_OVERSEAS_COMPANY_FILE_DISABLED_FIELD);
         field.setAccessible(true);
         field.set(companyProfileService, IS_OVERSEAS_COMPANY_FILE_DISABLED);
+        ReflectionTestUtils.setField(companyProfileService, "maximumItemsPerPage", MAXIMUM_ITEMS_PER_PAGE);
+        ReflectionTestUtils.setField(companyProfileService, "maximumBatchSize", MAXIMUM_BATCH_SIZE);
+        ReflectionTestUtils.setField(companyProfileService, "resourceChangedOutbox",
+                new ResourceChangedOutbox(mongoTemplate, companyProfileApiService, false));
+        ReflectionTestUtils.setField(companyProfileService, "transactionOperations",
+                TransactionOperations.withoutTransaction());
+        ReflectionTestUtils.setField(companyProfileService, "companyProfileWriteLanes",
+                new CompanyProfileWriteLanes(meterRegistry, true, 16, Duration.ofSeconds(1)));
+        ReflectionTestUtils.setField(companyProfileService, "companyProfileWriteRetry",
+                new CompanyProfileWriteRetry(meterRegistry, 3, Duration.ZERO, Duration.ZERO));
+        lenient().when(companyProfileSingleFlight.execute(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Data>>getArgument(2).get());
+        lenient().when(companyNumberFilter.mightContain(anyString())).thenReturn(true);
+        lenient().when(companyProfileChangeSet.diff(any(), any()))
+                .thenReturn(new CompanyProfileChangeSet.Diff(new Update().set("data.company_name", "name"), true));
+        lenient().when(companyProfileBatchLoader.findById(anyString()))
+                .thenAnswer(invocation -> companyProfileRepository.findById(invocation.getArgument(0)));
     }
 
     @Test
@@ -204,7 +265,7 @@ class CompanyProfileServiceTest {
         theCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
         theCompanyProfileDocument.getCompanyProfile().setCompanyStatus("string");
 
-        when(companyProfileRepository.findById(anyString()))
+        when(companyProfileRepository.findCompanyProfileDataById(anyString()))
                 .thenReturn(Optional.of(theCompanyProfileDocument));
 
         VersionedCompanyProfileDocument companyProfileActual = companyProfileService.get(MOCK_COMPANY_NUMBER);
@@ -228,7 +289,7 @@ class CompanyProfileServiceTest {
         theCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
         theCompanyProfileDocument.getCompanyProfile().setCompanyStatus("string");
 
-        when(companyProfileRepository.findById(anyString()))
+        when(companyProfileRepository.findCompanyProfileDataById(anyString()))
                 .thenReturn(Optional.of(theCompanyProfileDocument));
 
         VersionedCompanyProfileDocument companyProfileActual = companyProfileService.get(MOCK_COMPANY_NUMBER);
@@ -253,7 +314,7 @@ class CompanyProfileServiceTest {
         theCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
         theCompanyProfileDocument.getCompanyProfile().setCompanyStatus("string");
 
-        when(companyProfileRepository.findById(anyString()))
+        when(companyProfileRepository.findCompanyProfileDataById(anyString()))
                 .thenReturn(Optional.of(theCompanyProfileDocument));
 
         VersionedCompanyProfileDocument companyProfileActual = companyProfileService.get(MOCK_COMPANY_NUMBER);
@@ -274,25 +335,77 @@ class CompanyProfileServiceTest {
                 localDateTime, updated, false);
         mockCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
         mockCompanyProfileDocument.getCompanyProfile().setCompanyStatus("String");
+        mockCompanyProfileDocument.getCompanyProfile().setEtag("etag");
         CompanyDetails mockCompanyDetails = new CompanyDetails();
         mockCompanyDetails.setCompanyStatus("String");
         mockCompanyDetails.setCompanyName("String");
         mockCompanyDetails.setCompanyNumber(MOCK_COMPANY_NUMBER);
         CompanyDetails mockCompanyDetailsOP = mockCompanyDetails;
 
-        when(companyProfileRepository.findById(anyString()))
+        when(companyProfileRepository.findCompanyDetailsById(anyString()))
                 .thenReturn(Optional.of(mockCompanyProfileDocument));
 
-        CompanyDetails companyDetailsActual =
+        CompanyDetailsWithEtag companyDetailsActual =
                 companyProfileService.getCompanyDetails(MOCK_COMPANY_NUMBER);
 
-        assertEquals(mockCompanyDetailsOP, companyDetailsActual);
+        assertEquals(mockCompanyDetailsOP, companyDetailsActual.getCompanyDetails());
+        assertEquals("etag", companyDetailsActual.getEtag());
+        verify(companyProfileRepository, times(0)).findEtagById(any());
+    }
+
+    @Test
+    @DisplayName("When company details are retrieved for a document without a company number then one lookup by id "
+            + "finds it")
+    void getCompanyDetailsForDocumentWithoutCompanyNumber() {
+        Data companyData = new Data();
+        companyData.setCompanyName("String");
+        VersionedCompanyProfileDocument document = new VersionedCompanyProfileDocument();
+        document.setCompanyProfile(companyData);
+
+        when(companyProfileRepository.findCompanyDetailsById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(document));
+
+        CompanyDetails companyDetailsActual = companyProfileService.getCompanyDetails(MOCK_COMPANY_NUMBER)
+                .getCompanyDetails();
+
+        assertEquals("String", companyDetailsActual.getCompanyName());
+        verify(companyProfileRepository).findCompanyDetailsById(MOCK_COMPANY_NUMBER);
+        verifyNoMoreInteractions(companyProfileRepository);
+    }
+
+    @Test
+    @DisplayName("When company details are cached then MongoDB is not queried")
+    void getCompanyDetailsFromCache() {
+        Data companyData = new Data().companyNumber(MOCK_COMPANY_NUMBER);
+        companyData.setCompanyName("String");
+        companyData.setCompanyStatus("active");
+
+        when(companyProfileCache.get(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(companyData));
+
+        CompanyDetails companyDetailsActual = companyProfileService.getCompanyDetails(MOCK_COMPANY_NUMBER)
+                .getCompanyDetails();
+
+        assertEquals("active", companyDetailsActual.getCompanyStatus());
+        verifyNoInteractions(companyProfileRepository);
+    }
+
+    @Test
+    @DisplayName("When company profile is shared from a read already in flight then its data is returned")
+    void getCompanyProfileSharedFromReadInFlight() {
+        Data companyData = new Data().companyNumber(MOCK_COMPANY_NUMBER);
+        when(companyProfileSingleFlight.execute(eq("links"), eq(MOCK_COMPANY_NUMBER), any()))
+                .thenReturn(companyData);
+
+        VersionedCompanyProfileDocument companyProfileActual = companyProfileService.get(MOCK_COMPANY_NUMBER);
+
+        assertEquals(MOCK_COMPANY_NUMBER, companyProfileActual.getId());
+        assertEquals(companyData, companyProfileActual.getCompanyProfile());
+        verifyNoInteractions(companyProfileRepository);
     }
 
     @Test
     @DisplayName("When no company profile is retrieved then throw ResourceNotFoundException")
     void getNoCompanyProfileReturned() {
-        when(companyProfileRepository.findById(anyString()))
+        when(companyProfileRepository.findCompanyProfileDataById(anyString()))
                 .thenReturn(Optional.empty());
 
         Executable actual = () -> companyProfileService.get(MOCK_COMPANY_NUMBER);
@@ -303,19 +416,21 @@ class CompanyProfileServiceTest {
     @Test
     @DisplayName("When no company profile is retrieved then throw ResourceNotFoundException")
     void getNoCompanyDetailsReturned() {
-        when(companyProfileRepository.findById(anyString()))
+        when(companyProfileRepository.findCompanyDetailsById(anyString()))
                 .thenReturn(Optional.empty());
 
         Executable actual = () -> companyProfileService.getCompanyDetails(MOCK_COMPANY_NUMBER);
 
         assertThrows(ResourceNotFoundException.class, actual);
+        verify(companyProfileRepository).findCompanyDetailsById(MOCK_COMPANY_NUMBER);
+        verifyNoMoreInteractions(companyProfileRepository);
     }
 
     @Test
     @DisplayName("When there's a connection issue while performing the GET request then throw a "
             + "service unavailable exception")
     void getConnectionIssueServiceUnavailable() {
-        when(companyProfileRepository.findById(anyString()))
+        when(companyProfileRepository.findCompanyProfileDataById(anyString()))
                 .thenThrow(new DataAccessResourceFailureException("Connection broken"));
 
         Assert.assertThrows(ServiceUnavailableException.class,
@@ -326,7 +441,7 @@ class CompanyProfileServiceTest {
     @DisplayName("When there's a connection issue while performing the GET request then throw a "
             + "service unavailable exception")
     void getCompanyDetailsConnectionIssueServiceUnavailable() {
-        when(companyProfileRepository.findById(anyString()))
+        when(companyProfileRepository.findCompanyDetailsById(anyString()))
                 .thenThrow(new ServiceUnavailableException("Service unavailable"));
 
         Exception exception = assertThrows(ServiceUnavailableException.class,
@@ -339,7 +454,7 @@ class CompanyProfileServiceTest {
     @DisplayName("When an illegal argument exception is thrown while performing the GET request then throw a "
             + "bad request exception")
     void getInvalidBadRequest() {
-        when(companyProfileRepository.findById(anyString()))
+        when(companyProfileRepository.findCompanyProfileDataById(anyString()))
                 .thenThrow(new IllegalArgumentException());
 
         Assert.assertThrows(BadRequestException.class,
@@ -361,7 +476,6 @@ class CompanyProfileServiceTest {
 
         when(companyProfileRepository.findById(anyString()))
                 .thenReturn(Optional.of(mockCompanyProfileDocument));
-        when(apiResponse.getStatusCode()).thenReturn(200);
         when(companyProfileApiService.invokeChsKafkaApi(anyString())).thenReturn(apiResponse);
 
         CompanyProfile companyProfileWithInsolvency = mockCompanyProfileWithoutInsolvency();
@@ -391,9 +505,6 @@ class CompanyProfileServiceTest {
         when(companyProfileRepository.findById(anyString()))
                 .thenReturn(Optional.of(mockCompanyProfileDocument));
 
-        when(apiResponse.getStatusCode()).thenReturn(200);
-        when(companyProfileApiService.invokeChsKafkaApi(anyString())).thenReturn(apiResponse);
-
         CompanyProfile companyProfileWithInsolvency = mockCompanyProfileWithoutInsolvency();
         companyProfileWithInsolvency.getData().getLinks().setInsolvency("INSOLVENCY_LINK");
 
@@ -401,6 +512,64 @@ class CompanyProfileServiceTest {
         Assert.assertThrows(ServiceUnavailableException.class,
                 () -> companyProfileService.updateInsolvencyLink(MOCK_COMPANY_NUMBER,
                         companyProfileWithInsolvency));
+        verifyNoInteractions(companyProfileApiService);
+    }
+
+    @Test
+    @DisplayName("Insolvency links PATCH is made again on a fresh read when the document is changed concurrently")
+    void patchRetriedAfterVersionConflict() {
+        // given
+        Data companyData = new Data().companyNumber(MOCK_COMPANY_NUMBER);
+        companyData.setLinks(new Links());
+        VersionedCompanyProfileDocument versionedDocument = new VersionedCompanyProfileDocument(companyData,
+                LocalDateTime.now(), new Updated(), false);
+        versionedDocument.setId(MOCK_COMPANY_NUMBER);
+        versionedDocument.version(0L);
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(versionedDocument));
+        when(companyProfileRepository.save(any()))
+                .thenThrow(new OptimisticLockingFailureException("version 0 is stale"))
+                .thenReturn(versionedDocument);
+        CompanyProfile companyProfileWithInsolvency = mockCompanyProfileWithoutInsolvency();
+        companyProfileWithInsolvency.getData().getLinks().setInsolvency("INSOLVENCY_LINK");
+
+        // when
+        companyProfileService.updateInsolvencyLink(MOCK_COMPANY_NUMBER, companyProfileWithInsolvency);
+
+        // then
+        verify(companyProfileRepository, times(2)).findById(MOCK_COMPANY_NUMBER);
+        verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
+        assertEquals(1.0, meterRegistry.counter("company_profile.write.retries",
+                "endpoint", "insolvency_links").count());
+        // The lane is entered for each attempt, so it is free while the write backs off
+        assertEquals(2L, meterRegistry.timer("company_profile.write_lane.wait").count());
+    }
+
+    @Test
+    @DisplayName("Insolvency links PATCH throws service unavailable exception when every attempt conflicts")
+    void patchServiceUnavailableWhenRetriesExhausted() {
+        // given
+        Data companyData = new Data().companyNumber(MOCK_COMPANY_NUMBER);
+        companyData.setLinks(new Links());
+        VersionedCompanyProfileDocument versionedDocument = new VersionedCompanyProfileDocument(companyData,
+                LocalDateTime.now(), new Updated(), false);
+        versionedDocument.setId(MOCK_COMPANY_NUMBER);
+        versionedDocument.version(0L);
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(versionedDocument));
+        when(companyProfileRepository.save(any())).thenThrow(new OptimisticLockingFailureException("stale"));
+        CompanyProfile companyProfileWithInsolvency = mockCompanyProfileWithoutInsolvency();
+
+        // when
+        Executable actual = () -> companyProfileService.updateInsolvencyLink(MOCK_COMPANY_NUMBER,
+                companyProfileWithInsolvency);
+
+        // then
+        assertThrows(ServiceUnavailableException.class, actual);
+        verify(companyProfileRepository, times(3)).save(any());
+        verifyNoInteractions(companyProfileApiService);
+        assertEquals(3.0, meterRegistry.counter("company_profile.write.conflicts",
+                "endpoint", "insolvency_links").count());
+        assertEquals(1.0, meterRegistry.counter("company_profile.write.retries_exhausted",
+                "endpoint", "insolvency_links").count());
     }
 
     @Test
@@ -431,16 +600,18 @@ class CompanyProfileServiceTest {
                 EXEMPTIONS_LINK_TYPE, EXEMPTIONS_DELTA_TYPE, Links::getExemptions);
         when(linkRequestFactory.createLinkRequest(EXEMPTIONS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(exemptionsLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(EXEMPTIONS_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 false);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -463,7 +634,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -488,7 +660,8 @@ class CompanyProfileServiceTest {
         assertEquals("Resource state conflict; exemptions link already exists", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -499,9 +672,9 @@ class CompanyProfileServiceTest {
                 EXEMPTIONS_LINK_TYPE, EXEMPTIONS_DELTA_TYPE, Links::getExemptions);
         when(linkRequestFactory.createLinkRequest(EXEMPTIONS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(exemptionsLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -510,7 +683,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -532,7 +706,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -543,10 +718,9 @@ class CompanyProfileServiceTest {
                 EXEMPTIONS_LINK_TYPE, EXEMPTIONS_DELTA_TYPE, Links::getExemptions);
         when(linkRequestFactory.createLinkRequest(EXEMPTIONS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(exemptionsLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(EXEMPTIONS_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -554,7 +728,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -566,20 +741,51 @@ class CompanyProfileServiceTest {
                 EXEMPTIONS_LINK_TYPE, EXEMPTIONS_DELTA_TYPE, Links::getExemptions);
         when(linkRequestFactory.createLinkRequest(EXEMPTIONS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(exemptionsLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getExemptions()).thenReturn(String.format("/company/%s/exemptions", MOCK_COMPANY_NUMBER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(EXEMPTIONS_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 true);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
+    @Test
+    @DisplayName("Delete exemptions link unsets only the link of a document that has it")
+    void deleteExemptionsLinkUpdatesOnlyLinkFields() {
+        // given
+        LinkRequest exemptionsLinkRequest = new LinkRequest("123456", MOCK_COMPANY_NUMBER,
+                EXEMPTIONS_LINK_TYPE, EXEMPTIONS_DELTA_TYPE, Links::getExemptions);
+        when(linkRequestFactory.createLinkRequest(EXEMPTIONS_LINK_TYPE,
+                MOCK_COMPANY_NUMBER)).thenReturn(exemptionsLinkRequest);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+
+        // when
+        companyProfileService.processLinkRequest(EXEMPTIONS_LINK_TYPE, MOCK_COMPANY_NUMBER, true);
+
+        // then
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), updateCaptor.capture(),
+                eq(VersionedCompanyProfileDocument.class));
+        Document filter = queryCaptor.getValue().getQueryObject();
+        assertEquals(Set.of("_id", "data.links.exemptions"), filter.keySet());
+        Document update = updateCaptor.getValue().getUpdateObject();
+        assertEquals(new Document("data.links.exemptions", 1), update.get("$unset"));
+        Document set = (Document) update.get("$set");
+        assertEquals(Set.of("data.etag", "updated", "has_mortgages"), set.keySet());
+        assertEquals(true, set.get("has_mortgages"));
+        verify(companyProfileCache).invalidate(MOCK_COMPANY_NUMBER);
+    }
+
     @Test
     @DisplayName("Delete exemptions link throws document not found exception")
     void deleteExemptionsLinkNotFound() {
@@ -599,7 +805,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -623,7 +830,8 @@ class CompanyProfileServiceTest {
         assertEquals("Resource state conflict; exemptions link already does not exist", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -634,10 +842,9 @@ class CompanyProfileServiceTest {
                 EXEMPTIONS_LINK_TYPE, EXEMPTIONS_DELTA_TYPE, Links::getExemptions);
         when(linkRequestFactory.createLinkRequest(EXEMPTIONS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(exemptionsLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getExemptions()).thenReturn(String.format("/company/%s/exemptions", MOCK_COMPANY_NUMBER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -646,7 +853,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -668,7 +876,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -679,11 +888,9 @@ class CompanyProfileServiceTest {
                 EXEMPTIONS_LINK_TYPE, EXEMPTIONS_DELTA_TYPE, Links::getExemptions);
         when(linkRequestFactory.createLinkRequest(EXEMPTIONS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(exemptionsLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getExemptions()).thenReturn(String.format("/company/%s/exemptions", MOCK_COMPANY_NUMBER));
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(EXEMPTIONS_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -691,7 +898,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -701,17 +909,98 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(CHARGES_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(chargesLinkRequest);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
+
+        // when
+        companyProfileService.processLinkRequest(CHARGES_LINK_TYPE, MOCK_COMPANY_NUMBER,
+                false);
+
+        // then
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
+        verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
+    }
+
+    @Test
+    @DisplayName("Add charges link sets only the link, etag, updated and charges flags of a document without it")
+    void addChargesLinkUpdatesOnlyLinkFields() {
+        // given
+        when(linkRequestFactory.createLinkRequest(CHARGES_LINK_TYPE,
+                MOCK_COMPANY_NUMBER)).thenReturn(chargesLinkRequest);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+
+        // when
+        companyProfileService.processLinkRequest(CHARGES_LINK_TYPE, MOCK_COMPANY_NUMBER, false);
+
+        // then
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), updateCaptor.capture(),
+                eq(VersionedCompanyProfileDocument.class));
+        Document filter = queryCaptor.getValue().getQueryObject();
+        assertEquals(MOCK_COMPANY_NUMBER, filter.get("_id"));
+        assertEquals(new Document("$ne", null), filter.get("data"));
+        assertTrue(((Document) filter.get("data.links.charges")).containsKey("$not"));
+        assertEquals(new Document("_id", 1), queryCaptor.getValue().getFieldsObject());
+        Document set = (Document) updateCaptor.getValue().getUpdateObject().get("$set");
+        assertEquals(Set.of("data.etag", "updated", "data.links.charges", "data.has_charges", "has_mortgages"),
+                set.keySet());
+        assertEquals(String.format("/company/%s/charges", MOCK_COMPANY_NUMBER), set.get("data.links.charges"));
+        assertEquals(true, set.get("data.has_charges"));
+        assertEquals(true, set.get("has_mortgages"));
+        assertEquals(CHARGES_DELTA_TYPE, ((Updated) set.get("updated")).getType());
+        assertEquals(new Document("version", 1), updateCaptor.getValue().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    @DisplayName("Add charges link is made again when the link is removed concurrently")
+    void addChargesLinkRetriedWhenChangedConcurrently() {
+        // given
+        when(linkRequestFactory.createLinkRequest(CHARGES_LINK_TYPE,
+                MOCK_COMPANY_NUMBER)).thenReturn(chargesLinkRequest);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(null)
+                .thenReturn(document);
         when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
         when(document.getCompanyProfile()).thenReturn(data);
         when(data.getLinks()).thenReturn(links);
 
         // when
-        companyProfileService.processLinkRequest(CHARGES_LINK_TYPE, MOCK_COMPANY_NUMBER,
-                false);
+        companyProfileService.processLinkRequest(CHARGES_LINK_TYPE, MOCK_COMPANY_NUMBER, false);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
+        assertEquals(1.0, meterRegistry.counter("company_profile.write.retries", "endpoint", "add_link").count());
+        assertEquals(2L, meterRegistry.timer("company_profile.write_lane.wait").count());
+    }
+
+    @Test
+    @DisplayName("Add charges link throws resource state conflict exception when the link is removed concurrently")
+    void addChargesLinkChangedConcurrently() {
+        // given
+        when(linkRequestFactory.createLinkRequest(CHARGES_LINK_TYPE,
+                MOCK_COMPANY_NUMBER)).thenReturn(chargesLinkRequest);
+        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
+        when(document.getCompanyProfile()).thenReturn(data);
+        when(data.getLinks()).thenReturn(links);
+
+        // when
+        Executable executable = () -> companyProfileService.processLinkRequest(CHARGES_LINK_TYPE, MOCK_COMPANY_NUMBER,
+                false);
+
+        // then
+        Exception exception = assertThrows(ResourceStateConflictException.class, executable);
+        assertEquals("Resource state conflict; charges link was changed by another request", exception.getMessage());
+        verifyNoInteractions(companyProfileApiService);
+        verifyNoInteractions(companyProfileCache);
     }
 
     @Test
@@ -731,7 +1020,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -754,7 +1044,8 @@ class CompanyProfileServiceTest {
         assertEquals("Resource state conflict; charges link already exists", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -763,9 +1054,9 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(CHARGES_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(chargesLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -774,7 +1065,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -794,7 +1086,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -803,10 +1096,9 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(CHARGES_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(chargesLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(CHARGES_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -814,7 +1106,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -824,17 +1117,18 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(CHARGES_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(chargesLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getCharges()).thenReturn(CHARGES_LINK);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(CHARGES_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 true);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -855,7 +1149,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -877,7 +1172,8 @@ class CompanyProfileServiceTest {
         assertEquals("Resource state conflict; charges link already does not exist", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -886,10 +1182,9 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(CHARGES_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(chargesLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getCharges()).thenReturn(CHARGES_LINK);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -898,7 +1193,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -918,7 +1214,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -927,11 +1224,9 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(CHARGES_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(chargesLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getCharges()).thenReturn(CHARGES_LINK);
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(CHARGES_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -939,7 +1234,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -949,16 +1245,18 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(INSOLVENCY_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(insolvencyLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(INSOLVENCY_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 false);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -979,7 +1277,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1002,7 +1301,8 @@ class CompanyProfileServiceTest {
         assertEquals("Resource state conflict; insolvency link already exists", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1011,9 +1311,9 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(INSOLVENCY_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(insolvencyLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -1022,7 +1322,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1042,7 +1343,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1051,10 +1353,9 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(INSOLVENCY_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(insolvencyLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(INSOLVENCY_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -1062,7 +1363,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -1072,17 +1374,18 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(INSOLVENCY_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(insolvencyLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getInsolvency()).thenReturn(INSOLVENCY_LINK);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(INSOLVENCY_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 true);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1103,7 +1406,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1125,7 +1429,8 @@ class CompanyProfileServiceTest {
         assertEquals("Resource state conflict; insolvency link already does not exist", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1134,10 +1439,9 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(INSOLVENCY_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(insolvencyLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getInsolvency()).thenReturn(INSOLVENCY_LINK);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -1146,7 +1450,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1166,7 +1471,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1175,12 +1481,9 @@ class CompanyProfileServiceTest {
         // given
         when(linkRequestFactory.createLinkRequest(INSOLVENCY_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(insolvencyLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getInsolvency()).thenReturn(INSOLVENCY_LINK);
-        when(document.getVersion()).thenReturn(0L);
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(INSOLVENCY_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -1188,7 +1491,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -1200,16 +1504,18 @@ class CompanyProfileServiceTest {
                 OFFICERS_LINK_TYPE, OFFICERS_DELTA_TYPE, Links::getOfficers);
         when(linkRequestFactory.createLinkRequest(OFFICERS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(OFFICERS_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 false);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1232,7 +1538,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1257,7 +1564,8 @@ class CompanyProfileServiceTest {
         assertEquals("Resource state conflict; officers link already exists", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1268,9 +1576,9 @@ class CompanyProfileServiceTest {
                 OFFICERS_LINK_TYPE, OFFICERS_DELTA_TYPE, Links::getOfficers);
         when(linkRequestFactory.createLinkRequest(OFFICERS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -1279,7 +1587,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1301,7 +1610,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1312,10 +1622,9 @@ class CompanyProfileServiceTest {
                 OFFICERS_LINK_TYPE, OFFICERS_DELTA_TYPE, Links::getOfficers);
         when(linkRequestFactory.createLinkRequest(OFFICERS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(OFFICERS_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -1323,7 +1632,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -1336,17 +1646,18 @@ class CompanyProfileServiceTest {
                 OFFICERS_LINK_TYPE, OFFICERS_DELTA_TYPE, Links::getOfficers);
         when(linkRequestFactory.createLinkRequest(OFFICERS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getOfficers()).thenReturn(String.format("/company/%s/officers", MOCK_COMPANY_NUMBER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(OFFICERS_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 true);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1369,7 +1680,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1393,7 +1705,8 @@ class CompanyProfileServiceTest {
         assertEquals("Resource state conflict; officers link already does not exist", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1404,10 +1717,9 @@ class CompanyProfileServiceTest {
                 OFFICERS_LINK_TYPE, OFFICERS_DELTA_TYPE, Links::getOfficers);
         when(linkRequestFactory.createLinkRequest(OFFICERS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getOfficers()).thenReturn(String.format("/company/%s/officers", MOCK_COMPANY_NUMBER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -1416,7 +1728,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1438,7 +1751,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1449,12 +1763,9 @@ class CompanyProfileServiceTest {
                 OFFICERS_LINK_TYPE, OFFICERS_DELTA_TYPE, Links::getOfficers);
         when(linkRequestFactory.createLinkRequest(OFFICERS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getOfficers()).thenReturn(String.format("/company/%s/officers", MOCK_COMPANY_NUMBER));
-        when(document.getVersion()).thenReturn(0L);
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(OFFICERS_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -1462,7 +1773,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -1475,16 +1787,18 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControlStatements);
         when(linkRequestFactory.createLinkRequest(PSC_STATEMENTS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(PSC_STATEMENTS_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 false);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1508,7 +1822,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1536,7 +1851,8 @@ class CompanyProfileServiceTest {
                 " link already exists", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1548,9 +1864,9 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControlStatements);
         when(linkRequestFactory.createLinkRequest(PSC_STATEMENTS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -1559,7 +1875,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1582,7 +1899,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1594,11 +1912,9 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControlStatements);
         when(linkRequestFactory.createLinkRequest(PSC_STATEMENTS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(document.getVersion()).thenReturn(0L);
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(PSC_STATEMENTS_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -1606,7 +1922,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -1619,17 +1936,17 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControlStatements);
         when(linkRequestFactory.createLinkRequest(PSC_STATEMENTS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getPersonsWithSignificantControlStatements()).thenReturn(String.format(
-                "/company/%s/persons-with-significant-control-statements", MOCK_COMPANY_NUMBER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(PSC_STATEMENTS_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 true);
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1653,7 +1970,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1679,7 +1997,8 @@ class CompanyProfileServiceTest {
                 " link already does not exist", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1691,11 +2010,9 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControlStatements);
         when(linkRequestFactory.createLinkRequest(PSC_STATEMENTS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getPersonsWithSignificantControlStatements()).thenReturn(String.format(
-                "/company/%s/persons-with-significant-control-statements", MOCK_COMPANY_NUMBER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -1704,7 +2021,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1727,7 +2045,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1739,12 +2058,9 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControlStatements);
         when(linkRequestFactory.createLinkRequest(PSC_STATEMENTS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getPersonsWithSignificantControlStatements()).thenReturn(String.format(
-                "/company/%s/persons-with-significant-control-statements", MOCK_COMPANY_NUMBER));
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(PSC_STATEMENTS_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -1752,7 +2068,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -1778,16 +2095,18 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControl);
         when(linkRequestFactory.createLinkRequest(PSC_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(PSC_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 false);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1811,7 +2130,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1839,7 +2159,8 @@ class CompanyProfileServiceTest {
                 " link already exists", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1851,9 +2172,9 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControl);
         when(linkRequestFactory.createLinkRequest(PSC_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -1862,7 +2183,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1885,7 +2207,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1897,10 +2220,9 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControl);
         when(linkRequestFactory.createLinkRequest(PSC_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(PSC_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -1908,7 +2230,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -1921,17 +2244,17 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControl);
         when(linkRequestFactory.createLinkRequest(PSC_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getPersonsWithSignificantControl()).thenReturn(String.format(
-                "/company/%s/persons-with-significant-control", MOCK_COMPANY_NUMBER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(PSC_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 true);
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -1955,7 +2278,8 @@ class CompanyProfileServiceTest {
         assertEquals(String.format(EXPECTED_NOT_FOUND_EXCEPTION_MESSAGE, MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1981,7 +2305,8 @@ class CompanyProfileServiceTest {
                 " link already does not exist", exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -1993,11 +2318,9 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControl);
         when(linkRequestFactory.createLinkRequest(PSC_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getPersonsWithSignificantControl()).thenReturn(String.format(
-                "/company/%s/persons-with-significant-control", MOCK_COMPANY_NUMBER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -2006,7 +2329,8 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -2029,7 +2353,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -2041,11 +2366,12 @@ class CompanyProfileServiceTest {
                 Links::getPersonsWithSignificantControl);
         when(linkRequestFactory.createLinkRequest(PSC_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(officersLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(existingCompanyProfileDocument));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
         existingCompanyProfileDocument.version(null);
         existingCompanyProfileDocument.getCompanyProfile().getLinks().setPersonsWithSignificantControl(String.format(
                 "/company/%s/persons-with-significant-control", MOCK_COMPANY_NUMBER));
-        when(mongoTemplate.save(any())).thenThrow(ServiceUnavailableException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(PSC_LINK_TYPE, MOCK_COMPANY_NUMBER,
@@ -2053,18 +2379,23 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
         verifyNoInteractions(companyProfileApiService);
     }
 
     @Test
     @DisplayName("Put company profile")
     void putCompanyProfileSuccessfully() {
-        when(companyProfileRepository.findById(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(Optional.of(existingParentCompanyProfileDocument));
-        existingParentCompanyProfileDocument.getCompanyProfile().getLinks().setUkEstablishments(null);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingParentCompanyProfileDocument);
         when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.empty());
         when(companyProfileTransformer.transform(any(), any(), any()))
-                .thenReturn(companyProfileDocument.version(0L));
+                .thenReturn(companyProfileDocument);
+        when(mongoTemplate.replace(any(Query.class), any(VersionedCompanyProfileDocument.class),
+                any(ReplaceOptions.class)))
+                .thenReturn(UpdateResult.acknowledged(0L, 0L, new BsonString(MOCK_COMPANY_NUMBER)));
 
         companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER,
                 companyProfile);
@@ -2072,8 +2403,11 @@ class CompanyProfileServiceTest {
         Assertions.assertNotNull(companyProfile);
         Assertions.assertNotNull(companyProfileDocument);
         Assertions.assertNull(companyProfileDocument.getCompanyProfile().getLinks().getOverseas());
-        verify(companyProfileRepository).insert(companyProfileDocument);
+        assertEquals(0L, companyProfileDocument.getVersion());
+        verify(mongoTemplate).replace(any(Query.class), eq(companyProfileDocument), any(ReplaceOptions.class));
+        verify(companyProfileRepository, never()).insert(any(VersionedCompanyProfileDocument.class));
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(companyNumberFilter).add(MOCK_COMPANY_NUMBER);
     }
 
     @Test
@@ -2094,13 +2428,16 @@ class CompanyProfileServiceTest {
     @Test
     @DisplayName("Put company profile with existing links")
     void putCompanyProfileWithExistingLinksSuccessfully() {
-        when(companyProfileRepository.findById(MOCK_PARENT_COMPANY_NUMBER))
-                .thenReturn(Optional.of(existingParentCompanyProfileDocument));
-        existingParentCompanyProfileDocument.getCompanyProfile().getLinks().setUkEstablishments(null);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingParentCompanyProfileDocument);
 
+        existingCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
         when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(existingCompanyProfileDocument));
         when(companyProfileTransformer.transform(existingCompanyProfileDocument, companyProfile, existingLinks))
                 .thenReturn(existingCompanyProfileDocument);
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
 
         companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER,
                 companyProfile);
@@ -2109,7 +2446,9 @@ class CompanyProfileServiceTest {
         Assertions.assertNotNull(companyProfileDocument);
         Assertions.assertNotNull(existingCompanyProfileDocument);
         Assertions.assertNotNull(existingLinks);
-        verify(companyProfileRepository).save(existingCompanyProfileDocument);
+        verify(companyProfileChangeSet).diff(any(), eq(existingCompanyProfileDocument));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class));
+        verify(mongoTemplate, never()).replace(any(Query.class), any(), any(ReplaceOptions.class));
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
     }
 
@@ -2222,6 +2561,210 @@ class CompanyProfileServiceTest {
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
     }
 
+    @Test
+    @DisplayName("When the company profile is cached then it is returned without querying MongoDB")
+    void testRetrieveCompanyNumberFromCache() throws ResourceNotFoundException {
+        Data cachedData = new Data();
+        cachedData.setCompanyNumber(MOCK_COMPANY_NUMBER);
+        ConfirmationStatement cachedConfirmationStatement = new ConfirmationStatement();
+        cachedConfirmationStatement.setNextDue(LocalDate.now().minusDays(1));
+        cachedConfirmationStatement.setOverdue(false);
+        cachedData.setConfirmationStatement(cachedConfirmationStatement);
+
+        when(companyProfileCache.get(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(cachedData));
+
+        Data result = companyProfileService.retrieveCompanyNumber(MOCK_COMPANY_NUMBER);
+
+        assertEquals(MOCK_COMPANY_NUMBER, result.getCompanyNumber());
+        assertEquals(true, result.getConfirmationStatement().getOverdue());
+        verifyNoInteractions(companyProfileRepository);
+        verify(companyProfileCache, never()).put(anyString(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("When the company profile is not cached then the shaped profile is cached after it is retrieved")
+    void testRetrieveCompanyNumberPopulatesCache() throws ResourceNotFoundException {
+        VersionedCompanyProfileDocument doc = new VersionedCompanyProfileDocument();
+        Data theData = new Data();
+        theData.setCompanyNumber(MOCK_COMPANY_NUMBER);
+        theData.setProofStatus("paper");
+        doc.setCompanyProfile(theData);
+
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(doc));
+
+        Data result = companyProfileService.retrieveCompanyNumber(MOCK_COMPANY_NUMBER);
+
+        verify(companyProfileCache).put(MOCK_COMPANY_NUMBER, 0L, result);
+        assertNull(result.getProofStatus());
+    }
+
+    @Test
+    @DisplayName("Retrieve etag from the cache without querying MongoDB")
+    void testGetEtagFromCache() {
+        when(companyProfileCache.getEtag(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of("etag"));
+
+        Optional<String> result = companyProfileService.getEtag(MOCK_COMPANY_NUMBER);
+
+        assertEquals(Optional.of("etag"), result);
+        verifyNoInteractions(companyProfileRepository);
+    }
+
+    @Test
+    @DisplayName("Retrieve etag using a projected query when not cached")
+    void testGetEtagFromRepository() {
+        VersionedCompanyProfileDocument doc = new VersionedCompanyProfileDocument();
+        doc.setCompanyProfile(new Data().etag("etag"));
+        when(companyProfileRepository.findEtagById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(doc));
+
+        Optional<String> result = companyProfileService.getEtag(MOCK_COMPANY_NUMBER);
+
+        assertEquals(Optional.of("etag"), result);
+        verify(companyProfileRepository, times(0)).findById(any());
+    }
+
+    @Test
+    @DisplayName("Retrieve etag throws ServiceUnavailableException when MongoDB is unavailable")
+    void testGetEtagServiceUnavailable() {
+        when(companyProfileRepository.findEtagById(MOCK_COMPANY_NUMBER))
+                .thenThrow(new DataAccessResourceFailureException("..."));
+
+        assertThrows(ServiceUnavailableException.class, () -> companyProfileService.getEtag(MOCK_COMPANY_NUMBER));
+    }
+
+    @Test
+    @DisplayName("Retrieve etag is empty without querying MongoDB when the company number is not in the filter")
+    void testGetEtagRejectedByFilter() {
+        when(companyNumberFilter.mightContain(MOCK_COMPANY_NUMBER)).thenReturn(false);
+
+        Optional<String> result = companyProfileService.getEtag(MOCK_COMPANY_NUMBER);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(companyProfileRepository);
+    }
+
+    @Test
+    @DisplayName("Retrieve company profile throws ResourceNotFoundException without querying MongoDB when the "
+            + "company number is not in the filter")
+    void testRetrieveCompanyNumberRejectedByFilter() {
+        when(companyNumberFilter.mightContain(MOCK_COMPANY_NUMBER)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> companyProfileService.retrieveCompanyNumber(MOCK_COMPANY_NUMBER));
+        verifyNoInteractions(companyProfileRepository);
+        verifyNoInteractions(companyProfileSingleFlight);
+    }
+
+    @Test
+    @DisplayName("Get company links throws ResourceNotFoundException without querying MongoDB when the company "
+            + "number is not in the filter")
+    void testGetRejectedByFilter() {
+        when(companyNumberFilter.mightContain(MOCK_COMPANY_NUMBER)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> companyProfileService.get(MOCK_COMPANY_NUMBER));
+        verifyNoInteractions(companyProfileRepository);
+    }
+
+    @Test
+    @DisplayName("Company profile exists when it is cached")
+    void testExistsWhenCached() {
+        when(companyProfileCache.getEtag(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of("etag"));
+
+        assertTrue(companyProfileService.exists(MOCK_COMPANY_NUMBER));
+        verifyNoInteractions(companyProfileRepository);
+    }
+
+    @Test
+    @DisplayName("Company profile does not exist when the company number is not in the filter")
+    void testExistsRejectedByFilter() {
+        when(companyNumberFilter.mightContain(MOCK_COMPANY_NUMBER)).thenReturn(false);
+
+        assertFalse(companyProfileService.exists(MOCK_COMPANY_NUMBER));
+        verifyNoInteractions(companyProfileRepository);
+    }
+
+    @Test
+    @DisplayName("Company profile existence is checked in MongoDB when the company number might be in the filter")
+    void testExistsChecksRepository() {
+        when(companyProfileRepository.existsById(MOCK_COMPANY_NUMBER)).thenReturn(false);
+
+        assertFalse(companyProfileService.exists(MOCK_COMPANY_NUMBER));
+        verify(companyProfileRepository).existsById(MOCK_COMPANY_NUMBER);
+    }
+
+    @Test
+    @DisplayName("Company profile existence throws ServiceUnavailableException when MongoDB is unavailable")
+    void testExistsServiceUnavailable() {
+        when(companyProfileRepository.existsById(MOCK_COMPANY_NUMBER))
+                .thenThrow(new DataAccessResourceFailureException("..."));
+
+        assertThrows(ServiceUnavailableException.class, () -> companyProfileService.exists(MOCK_COMPANY_NUMBER));
+    }
+
+    @Test
+    @DisplayName("Retrieve several company profiles with one query and report those not found")
+    void testRetrieveCompanyProfiles() {
+        VersionedCompanyProfileDocument doc = new VersionedCompanyProfileDocument();
+        doc.setId(MOCK_COMPANY_NUMBER);
+        Data theData = new Data();
+        theData.setCompanyNumber(MOCK_COMPANY_NUMBER);
+        theData.setProofStatus("paper");
+        doc.setCompanyProfile(theData);
+
+        when(companyProfileRepository.findAllById(List.of(MOCK_COMPANY_NUMBER, "00000000")))
+                .thenReturn(List.of(doc));
+
+        BatchLookupResponse<Data> result = companyProfileService.retrieveCompanyProfiles(
+                List.of(MOCK_COMPANY_NUMBER, "00000000", MOCK_COMPANY_NUMBER));
+
+        assertEquals(List.of("00000000"), result.getMissing());
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getItems().get(MOCK_COMPANY_NUMBER).getProofStatus());
+        verify(companyProfileCache).put(MOCK_COMPANY_NUMBER, 0L, theData);
+        verify(companyProfileRepository, times(0)).findById(any());
+    }
+
+    @Test
+    @DisplayName("Retrieve several company profiles without querying MongoDB when all are cached")
+    void testRetrieveCompanyProfilesFromCache() {
+        Data theData = new Data();
+        theData.setCompanyNumber(MOCK_COMPANY_NUMBER);
+        when(companyProfileCache.get(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(theData));
+
+        BatchLookupResponse<Data> result = companyProfileService.retrieveCompanyProfiles(List.of(MOCK_COMPANY_NUMBER));
+
+        assertEquals(theData, result.getItems().get(MOCK_COMPANY_NUMBER));
+        assertTrue(result.getMissing().isEmpty());
+        verifyNoInteractions(companyProfileRepository);
+    }
+
+    @Test
+    @DisplayName("Retrieve several company profiles rejects a batch larger than the maximum")
+    void testRetrieveCompanyProfilesBadRequest() {
+        List<String> companyNumbers = List.of("00000001", "00000002", "00000003", "00000004");
+
+        assertThrows(BadRequestException.class, () -> companyProfileService.retrieveCompanyProfiles(companyNumbers));
+        verifyNoInteractions(companyProfileRepository);
+    }
+
+    @Test
+    @DisplayName("Get company details for several company numbers with one projected query")
+    void testRetrieveCompanyDetails() {
+        Data theData = new Data().companyNumber(MOCK_COMPANY_NUMBER);
+        theData.setCompanyName("String");
+        VersionedCompanyProfileDocument doc = new VersionedCompanyProfileDocument();
+        doc.setId(MOCK_COMPANY_NUMBER);
+        doc.setCompanyProfile(theData);
+
+        when(companyProfileRepository.findCompanyDetailsByIdIn(List.of(MOCK_COMPANY_NUMBER, "00000000")))
+                .thenReturn(List.of(doc));
+
+        BatchLookupResponse<CompanyDetails> result = companyProfileService.retrieveCompanyDetails(
+                List.of(MOCK_COMPANY_NUMBER, "00000000"));
+
+        assertEquals("String", result.getItems().get(MOCK_COMPANY_NUMBER).getCompanyName());
+        assertEquals(List.of("00000000"), result.getMissing());
+    }
+
     @Test
     @DisplayName("When Resource Not Found exception is thrown and that it is handled well by the CompanyProfileService")
     void testRetrieveCompanyNumberResourceNotFoundException() {
@@ -2234,43 +2777,68 @@ class CompanyProfileServiceTest {
     @Test
     @DisplayName("When company number is provided delete company profile")
     void testDeleteCompanyProfile() {
-        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.ofNullable(existingCompanyProfileDocument));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingCompanyProfileDocument);
         companyProfileService.deleteCompanyProfile(MOCK_COMPANY_NUMBER, MOCK_DELTA_AT);
 
-        verify(companyProfileRepository, times(1)).findById(MOCK_COMPANY_NUMBER);
-        verify(companyProfileRepository, times(1)).delete(existingCompanyProfileDocument);
+        verify(companyProfileRepository, never()).findById(MOCK_COMPANY_NUMBER);
+        verify(companyProfileCache).invalidate(MOCK_COMPANY_NUMBER);
+        verify(companyProfileApiService).invokeChsKafkaApiWithDeleteEvent(MOCK_COMPANY_NUMBER,
+                existingCompanyProfileDocument.getCompanyProfile());
         verify(companyProfileService, times((0))).checkForDeleteLink(any());
     }
 
     @Test
     @DisplayName("Check delete link should be called when deleting Uk establishments")
     void testDeleteCompanyProfileUkEstablishments() {
-        when(companyProfileRepository.findById(UK_ESTABLISHMENT_COMPANY_NUMBER)).
-                thenReturn(Optional.ofNullable(existingUkEstablishmentCompany));
-        when(companyProfileRepository.findById(ANOTHER_PARENT_COMPANY_NUMBER))
-                .thenReturn(Optional.ofNullable(existingParentCompany));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingUkEstablishmentCompany);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingParentCompany);
         companyProfileService.deleteCompanyProfile(UK_ESTABLISHMENT_COMPANY_NUMBER, MOCK_DELTA_AT);
 
-        verify(companyProfileRepository, times(1)).findById(UK_ESTABLISHMENT_COMPANY_NUMBER);
-        verify(companyProfileRepository, times(1)).findById(ANOTHER_PARENT_COMPANY_NUMBER);
+        verify(companyProfileRepository, never()).findById(UK_ESTABLISHMENT_COMPANY_NUMBER);
+        verify(companyProfileRepository, never()).findById(ANOTHER_PARENT_COMPANY_NUMBER);
         verify(companyProfileService, times(1)).checkForDeleteLinkUkEstablishmentParent(any());
-        verify(companyProfileRepository, times(1)).delete(existingUkEstablishmentCompany);
+        verify(companyProfileApiService).invokeChsKafkaApiWithDeleteEvent(UK_ESTABLISHMENT_COMPANY_NUMBER,
+                existingUkEstablishmentCompany.getCompanyProfile());
+    }
+
+    @Test
+    @DisplayName("Keep the parent uk establishments link when another Uk establishment remains after a delete")
+    void testDeleteCompanyProfileUkEstablishmentsKeepsParentLinkWhileAnotherRemains() {
+        // given
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingUkEstablishmentCompany);
+        when(companyProfileRepository.countByParentCompanyNumber(ANOTHER_PARENT_COMPANY_NUMBER)).thenReturn(1L);
+        when(mongoTemplate.exists(any(Query.class), eq(VersionedCompanyProfileDocument.class))).thenReturn(true);
+
+        // when
+        companyProfileService.deleteCompanyProfile(UK_ESTABLISHMENT_COMPANY_NUMBER, MOCK_DELTA_AT);
+
+        // then
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileApiService, never()).invokeChsKafkaApi(ANOTHER_PARENT_COMPANY_NUMBER);
+        verify(companyProfileApiService).invokeChsKafkaApiWithDeleteEvent(UK_ESTABLISHMENT_COMPANY_NUMBER,
+                existingUkEstablishmentCompany.getCompanyProfile());
     }
 
     @Test
     @DisplayName("Check that child Uk establishment should still be deleted when parent is not found")
     void shouldStillDeleteChildUkEstablishmentWhenParentNotFound() {
-        when(companyProfileRepository.findById(UK_ESTABLISHMENT_COMPANY_NUMBER))
-                .thenReturn(Optional.ofNullable(existingUkEstablishmentCompany));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingUkEstablishmentCompany);
         when(companyProfileRepository.findById(ANOTHER_PARENT_COMPANY_NUMBER))
                 .thenReturn(Optional.empty());
 
         companyProfileService.deleteCompanyProfile(UK_ESTABLISHMENT_COMPANY_NUMBER, MOCK_DELTA_AT);
 
-        verify(companyProfileRepository).findById(UK_ESTABLISHMENT_COMPANY_NUMBER);
         verify(companyProfileRepository).findById(ANOTHER_PARENT_COMPANY_NUMBER);
         verify(companyProfileService).checkForDeleteLinkUkEstablishmentParent(any());
-        verify(companyProfileRepository, times(1)).delete(existingUkEstablishmentCompany);
+        verify(companyProfileApiService).invokeChsKafkaApiWithDeleteEvent(UK_ESTABLISHMENT_COMPANY_NUMBER,
+                existingUkEstablishmentCompany.getCompanyProfile());
     }
 
     @Test
@@ -2316,6 +2884,310 @@ class CompanyProfileServiceTest {
         verifyNoInteractions(companyProfileApiService);
     }
 
+    @Test
+    @DisplayName("Delete company profile only removes a document not holding a later delta")
+    void testDeleteCompanyProfileFiltersOnDeltaAt() {
+        // given
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        // when
+        companyProfileService.deleteCompanyProfile(MOCK_COMPANY_NUMBER, MOCK_DELTA_AT);
+
+        // then
+        verify(mongoTemplate).findAndRemove(queryCaptor.capture(), eq(VersionedCompanyProfileDocument.class));
+        Document filter = queryCaptor.getValue().getQueryObject();
+        assertEquals(MOCK_COMPANY_NUMBER, filter.get("_id"));
+        assertEquals(List.of(new Document("delta_at", null),
+                        new Document("delta_at", new Document("$lte", LocalDateTime.of(2024, 11, 29, 12, 30, 10,
+                                123789000)))),
+                filter.get("$or"));
+    }
+
+    @Test
+    @DisplayName("When a document is replaced during every attempt of a delete throw service unavailable exception")
+    void testDeleteCompanyProfileChangedConcurrently() {
+        // given
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER))
+                .thenReturn(Optional.of(existingCompanyProfileDocument));
+
+        // when
+        Executable actual = () -> companyProfileService.deleteCompanyProfile(MOCK_COMPANY_NUMBER, MOCK_DELTA_AT);
+
+        // then
+        assertThrows(ServiceUnavailableException.class, actual);
+        verify(mongoTemplate, times(3)).findAndRemove(any(Query.class), eq(VersionedCompanyProfileDocument.class));
+        verifyNoInteractions(companyProfileApiService);
+        verifyNoInteractions(companyProfileCache);
+    }
+
+    @Test
+    @DisplayName("A parent link conflict within the delete transaction makes the whole delete again")
+    void testDeleteCompanyProfileUkEstablishmentsRetriedAtTransactionBoundary() {
+        // given
+        ReflectionTestUtils.setField(companyProfileService, "transactionOperations",
+                (TransactionOperations) new TransactionOperations() {
+                    @Override
+                    public <T> T execute(TransactionCallback<T> action) {
+                        TransactionSynchronizationManager.setActualTransactionActive(true);
+                        try {
+                            return action.doInTransaction(new SimpleTransactionStatus());
+                        } finally {
+                            TransactionSynchronizationManager.setActualTransactionActive(false);
+                        }
+                    }
+                });
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingUkEstablishmentCompany);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(null, existingParentCompany);
+        when(companyProfileRepository.findById(ANOTHER_PARENT_COMPANY_NUMBER))
+                .thenReturn(Optional.of(existingParentCompany));
+
+        // when
+        companyProfileService.deleteCompanyProfile(UK_ESTABLISHMENT_COMPANY_NUMBER, MOCK_DELTA_AT);
+
+        // then
+        verify(mongoTemplate, times(2)).findAndRemove(any(Query.class), eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileApiService).invokeChsKafkaApiWithDeleteEvent(UK_ESTABLISHMENT_COMPANY_NUMBER,
+                existingUkEstablishmentCompany.getCompanyProfile());
+        assertEquals(1.0, meterRegistry.get("company_profile.write.retries").tag("endpoint", "delete").counter()
+                .count());
+    }
+
+    @Test
+    @DisplayName("A parent link conflict without a transaction carries on the delete from the removal already made")
+    void testDeleteCompanyProfileUkEstablishmentsRetriedFromRemoval() {
+        // given
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingUkEstablishmentCompany);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(null, existingParentCompany);
+        when(companyProfileRepository.findById(ANOTHER_PARENT_COMPANY_NUMBER))
+                .thenReturn(Optional.of(existingParentCompany));
+
+        // when
+        companyProfileService.deleteCompanyProfile(UK_ESTABLISHMENT_COMPANY_NUMBER, MOCK_DELTA_AT);
+
+        // then
+        verify(mongoTemplate).findAndRemove(any(Query.class), eq(VersionedCompanyProfileDocument.class));
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileApiService).invokeChsKafkaApiWithDeleteEvent(UK_ESTABLISHMENT_COMPANY_NUMBER,
+                existingUkEstablishmentCompany.getCompanyProfile());
+        assertEquals(1.0, meterRegistry.get("company_profile.write.retries").tag("endpoint", "delete").counter()
+                .count());
+    }
+
+    @Test
+    @DisplayName("A parent link conflict of a put uk establishment is retried only by the put")
+    void putUkEstablishmentParentLinkConflictRetriedOnlyByPut() throws IOException {
+        // given
+        CompanyProfile companyProfile = testHelper.createCompanyProfileObject();
+        VersionedCompanyProfileDocument parentDocument = new VersionedCompanyProfileDocument();
+        parentDocument.setCompanyProfile(new Data().links(new Links()));
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.empty());
+        when(companyProfileRepository.findById(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(Optional.of(parentDocument));
+
+        // when
+        Executable actual = () -> companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+
+        // then
+        assertThrows(ServiceUnavailableException.class, actual);
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(mongoTemplate, never()).replace(any(Query.class), any(VersionedCompanyProfileDocument.class),
+                any(ReplaceOptions.class));
+        verifyNoInteractions(companyProfileApiService);
+    }
+
+    @Test
+    @DisplayName("Put company profile is made again on a fresh read when the document is changed concurrently")
+    void putCompanyProfileRetriedAfterVersionConflict() {
+        // given
+        existingCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER))
+                .thenReturn(Optional.of(existingCompanyProfileDocument));
+        when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(existingCompanyProfileDocument);
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(0L, 0L, null))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+        companyProfile.getData().setBranchCompanyDetails(null);
+
+        // when
+        companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+
+        // then
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
+        verify(companyProfileCache).invalidate(MOCK_COMPANY_NUMBER);
+        assertEquals(1.0, meterRegistry.counter("company_profile.write.conflicts",
+                "endpoint", "company_profile").count());
+    }
+
+    @Test
+    @DisplayName("Put company profile fails when a later delta is written after the document is read")
+    void putCompanyProfileThrowsConflictExceptionWhenLaterDeltaWrittenConcurrently() {
+        // given
+        existingCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER))
+                .thenReturn(Optional.of(existingCompanyProfileDocument))
+                .thenReturn(Optional.of(companyProfileDocument));
+        when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(existingCompanyProfileDocument);
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(0L, 0L, null));
+        companyProfile.getData().setBranchCompanyDetails(null);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        // when
+        Executable actual = () -> companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+
+        // then
+        assertThrows(ConflictException.class, actual);
+        verify(mongoTemplate).updateFirst(queryCaptor.capture(), any(), eq(VersionedCompanyProfileDocument.class));
+        Document filter = queryCaptor.getValue().getQueryObject();
+        assertTrue(filter.containsKey("$or"));
+        assertTrue(filter.containsKey("version"));
+        verifyNoInteractions(companyProfileApiService);
+        verifyNoInteractions(companyProfileCache);
+    }
+
+    @Test
+    @DisplayName("Put company profile fails when a document with a later delta is inserted after the read")
+    void putCompanyProfileThrowsConflictExceptionWhenLaterDeltaInsertedConcurrently() {
+        // given
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(companyProfileDocument));
+        when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(new VersionedCompanyProfileDocument());
+        when(mongoTemplate.replace(any(Query.class), any(VersionedCompanyProfileDocument.class),
+                any(ReplaceOptions.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+        companyProfile.getData().setBranchCompanyDetails(null);
+
+        // when
+        Executable actual = () -> companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+
+        // then
+        assertThrows(ConflictException.class, actual);
+        verifyNoInteractions(companyProfileChangeSet);
+        verifyNoInteractions(companyNumberFilter);
+        verifyNoInteractions(companyProfileApiService);
+    }
+
+    @Test
+    @DisplayName("Put company profile with unchanged content only advances delta_at")
+    void putCompanyProfileWithUnchangedContentSuppressesEvent() {
+        // given
+        ReflectionTestUtils.setField(companyProfileService, "resourceChangedOutbox",
+                new ResourceChangedOutbox(mongoTemplate, companyProfileApiService, true));
+        existingCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER))
+                .thenReturn(Optional.of(existingCompanyProfileDocument));
+        when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(existingCompanyProfileDocument);
+        Update deltaAtUpdate = new Update().set("delta_at", LocalDateTime.now());
+        when(companyProfileChangeSet.diff(any(), any()))
+                .thenReturn(new CompanyProfileChangeSet.Diff(deltaAtUpdate, false));
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+        companyProfile.getData().setBranchCompanyDetails(null);
+
+        // when
+        companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+
+        // then
+        verify(mongoTemplate).updateFirst(any(Query.class), eq(deltaAtUpdate),
+                eq(VersionedCompanyProfileDocument.class));
+        verifyNoInteractions(companyProfileApiService);
+        verifyNoInteractions(companyProfileCache);
+        // delta_at is still written, so only the event is suppressed
+        assertEquals(0.0, meterRegistry.counter("company_profile.write.suppressed").count());
+        assertEquals(1.0, meterRegistry.counter("company_profile.event.suppressed").count());
+    }
+
+    @Test
+    @DisplayName("Put company profile resent unchanged writes nothing")
+    void putCompanyProfileResentSuppressesWrite() {
+        // given
+        ReflectionTestUtils.setField(companyProfileService, "resourceChangedOutbox",
+                new ResourceChangedOutbox(mongoTemplate, companyProfileApiService, true));
+        existingCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER))
+                .thenReturn(Optional.of(existingCompanyProfileDocument));
+        when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(existingCompanyProfileDocument);
+        when(companyProfileChangeSet.diff(any(), any()))
+                .thenReturn(new CompanyProfileChangeSet.Diff(new Update(), false));
+        companyProfile.getData().setBranchCompanyDetails(null);
+
+        // when
+        companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+
+        // then
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class));
+        verifyNoInteractions(companyProfileApiService);
+        assertEquals(1.0, meterRegistry.counter("company_profile.write.suppressed").count());
+        assertEquals(1.0, meterRegistry.counter("company_profile.event.suppressed").count());
+    }
+
+    @Test
+    @DisplayName("Put company profile with unchanged content still sends the event without the outbox")
+    void putCompanyProfileWithUnchangedContentSendsEventWithoutOutbox() throws IOException {
+        // given
+        CompanyProfile companyProfile = testHelper.createCompanyProfileObject();
+        existingCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER))
+                .thenReturn(Optional.of(existingCompanyProfileDocument));
+        when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(existingCompanyProfileDocument);
+        Update deltaAtUpdate = new Update().set("delta_at", LocalDateTime.now());
+        when(companyProfileChangeSet.diff(any(), any()))
+                .thenReturn(new CompanyProfileChangeSet.Diff(deltaAtUpdate, false));
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+        companyProfile.getData().setBranchCompanyDetails(null);
+
+        // when
+        companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+
+        // then
+        verify(mongoTemplate).updateFirst(any(Query.class), eq(deltaAtUpdate),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
+        assertEquals(0.0, meterRegistry.counter("company_profile.event.suppressed").count());
+    }
+
+    @Test
+    @DisplayName("Put company profile resent after its event failed sends the event without the outbox")
+    void putCompanyProfileResentAfterEventFailedSendsEventWithoutOutbox() throws IOException {
+        // given
+        CompanyProfile companyProfile = testHelper.createCompanyProfileObject();
+        existingCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER))
+                .thenReturn(Optional.of(existingCompanyProfileDocument));
+        when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(existingCompanyProfileDocument);
+        when(companyProfileChangeSet.diff(any(), any()))
+                .thenReturn(new CompanyProfileChangeSet.Diff(new Update().set("data.company_name", "name"), true))
+                .thenReturn(new CompanyProfileChangeSet.Diff(new Update(), false));
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+        when(companyProfileApiService.invokeChsKafkaApi(MOCK_COMPANY_NUMBER))
+                .thenThrow(new ServiceUnavailableException("chs-kafka-api unavailable"))
+                .thenReturn(apiResponse);
+        companyProfile.getData().setBranchCompanyDetails(null);
+
+        // when
+        Executable first = () -> companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+        assertThrows(ServiceUnavailableException.class, first);
+        companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+
+        // then
+        verify(mongoTemplate).updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileApiService, times(2)).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
+        assertEquals(1.0, meterRegistry.counter("company_profile.write.suppressed").count());
+        assertEquals(0.0, meterRegistry.counter("company_profile.event.suppressed").count());
+    }
+
     @Test
     @DisplayName("Add filing history link successfully updates MongoDB and calls chs-kafka-api")
     void addFilingHistoryLink() {
@@ -2324,16 +3196,18 @@ class CompanyProfileServiceTest {
                 FILING_HISTORY_LINK_TYPE, FILING_HISTORY_DELTA_TYPE, Links::getFilingHistory);
 
         when(linkRequestFactory.createLinkRequest(anyString(), anyString())).thenReturn(filingHistoryLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(FILING_HISTORY_LINK_TYPE, MOCK_COMPANY_NUMBER, false);
 
         // then
         verify(linkRequestFactory).createLinkRequest(FILING_HISTORY_LINK_TYPE, MOCK_COMPANY_NUMBER);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -2443,7 +3317,12 @@ class CompanyProfileServiceTest {
 
         theCompanyProfileDocument.setId(MOCK_PARENT_COMPANY_NUMBER);
         theCompanyProfileDocument.getCompanyProfile().setCompanyNumber(MOCK_PARENT_COMPANY_NUMBER);
-        when(companyProfileRepository.findById(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(Optional.of(existingParentCompanyProfileDocument));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingParentCompanyProfileDocument);
+        when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(theCompanyProfileDocument);
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
 
         BranchCompanyDetails branchCompanyDetails = new BranchCompanyDetails();
         branchCompanyDetails.setParentCompanyNumber(MOCK_PARENT_COMPANY_NUMBER);
@@ -2461,13 +3340,16 @@ class CompanyProfileServiceTest {
     @Test
     @DisplayName("Put company profile with existing links")
     void putUkEstablishmentAndOverseasSuccessfully() {
-        when(companyProfileRepository.findById(MOCK_PARENT_COMPANY_NUMBER))
-                .thenReturn(Optional.of(existingParentCompanyProfileDocument));
-        existingParentCompanyProfileDocument.getCompanyProfile().getLinks().setUkEstablishments(null);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(existingParentCompanyProfileDocument);
 
+        existingCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
         when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.of(existingCompanyProfileDocument));
         when(companyProfileTransformer.transform(existingCompanyProfileDocument, companyProfile, existingLinks))
                 .thenReturn(existingCompanyProfileDocument);
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
 
         companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER,
                 companyProfile);
@@ -2477,7 +3359,9 @@ class CompanyProfileServiceTest {
         Assertions.assertNotNull(existingCompanyProfileDocument);
         Assertions.assertNotNull(existingLinks);
         Assertions.assertEquals(companyProfile.getData().getLinks().getOverseas(), String.format("/company/%s", MOCK_PARENT_COMPANY_NUMBER));
-        verify(companyProfileRepository).save(existingCompanyProfileDocument);
+        verify(companyProfileChangeSet).diff(any(), eq(existingCompanyProfileDocument));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class));
+        verify(mongoTemplate, never()).replace(any(Query.class), any(), any(ReplaceOptions.class));
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
     }
 
@@ -2501,19 +3385,19 @@ class CompanyProfileServiceTest {
                 UK_ESTABLISHMENTS_LINK_TYPE, UK_ESTABLISHMENTS_DELTA_TYPE, Links::getUkEstablishments);
         when(linkRequestFactory.createLinkRequest(UK_ESTABLISHMENTS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(ukEstablishmentLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getUkEstablishments()).thenReturn(String.format(
-                "/company/%s/uk-establishments", MOCK_COMPANY_NUMBER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
 
         // when
         companyProfileService.processLinkRequest(UK_ESTABLISHMENTS_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 true);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
-        verify(companyProfileRepository).findAllByParentCompanyNumber(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository, never()).findById(any());
+        verify(companyProfileRepository).countByParentCompanyNumber(MOCK_COMPANY_NUMBER);
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -2525,21 +3409,18 @@ class CompanyProfileServiceTest {
                 UK_ESTABLISHMENTS_LINK_TYPE, UK_ESTABLISHMENTS_DELTA_TYPE, Links::getUkEstablishments);
         when(linkRequestFactory.createLinkRequest(UK_ESTABLISHMENTS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(ukEstablishmentLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getUkEstablishments()).thenReturn(String.format(
-                "/company/%s/uk-establishments", MOCK_COMPANY_NUMBER));
-        when(companyProfileRepository.findAllByParentCompanyNumber(MOCK_COMPANY_NUMBER))
-                .thenReturn(ukEstablishmentsTestInput);
+        when(mongoTemplate.exists(any(Query.class), eq(VersionedCompanyProfileDocument.class))).thenReturn(true);
+        when(companyProfileRepository.countByParentCompanyNumber(MOCK_COMPANY_NUMBER)).thenReturn(2L);
 
         // when
         companyProfileService.processLinkRequest(UK_ESTABLISHMENTS_LINK_TYPE, MOCK_COMPANY_NUMBER,
                 true);
 
         // then
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
-        verify(companyProfileRepository).findAllByParentCompanyNumber(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).exists(any(Query.class), eq(VersionedCompanyProfileDocument.class));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository).countByParentCompanyNumber(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -2563,7 +3444,8 @@ class CompanyProfileServiceTest {
                 MOCK_COMPANY_NUMBER), exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -2588,7 +3470,8 @@ class CompanyProfileServiceTest {
                 exception.getMessage());
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -2599,11 +3482,9 @@ class CompanyProfileServiceTest {
                 UK_ESTABLISHMENTS_LINK_TYPE, UK_ESTABLISHMENTS_DELTA_TYPE, Links::getUkEstablishments);
         when(linkRequestFactory.createLinkRequest(UK_ESTABLISHMENTS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(ukEstablishmentLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getUkEstablishments()).thenReturn(String.format(
-                "/company/%s/uk-establishments", MOCK_COMPANY_NUMBER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(document);
         when(companyProfileApiService.invokeChsKafkaApi(any())).thenThrow(IllegalArgumentException.class);
 
         // when
@@ -2612,8 +3493,9 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
-        verify(companyProfileRepository).findAllByParentCompanyNumber(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository).countByParentCompanyNumber(MOCK_COMPANY_NUMBER);
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
     }
 
@@ -2635,7 +3517,8 @@ class CompanyProfileServiceTest {
         assertThrows(ServiceUnavailableException.class, executable);
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
-        verifyNoInteractions(mongoTemplate);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
     }
 
     @Test
@@ -2646,12 +3529,9 @@ class CompanyProfileServiceTest {
                 UK_ESTABLISHMENTS_LINK_TYPE, UK_ESTABLISHMENTS_DELTA_TYPE, Links::getUkEstablishments);
         when(linkRequestFactory.createLinkRequest(UK_ESTABLISHMENTS_LINK_TYPE,
                 MOCK_COMPANY_NUMBER)).thenReturn(ukEstablishmentLinkRequest);
-        when(companyProfileRepository.findById(any())).thenReturn(Optional.of(document));
-        when(document.getCompanyProfile()).thenReturn(data);
-        when(data.getLinks()).thenReturn(links);
-        when(links.getUkEstablishments()).thenReturn(String.format(
-                "/company/%s/uk-establishments", MOCK_COMPANY_NUMBER));
-        when(companyProfileRepository.save(any())).thenThrow(ServiceUnavailableException.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class)))
+                .thenThrow(DataAccessResourceFailureException.class);
 
         // when
         Executable executable = () -> companyProfileService.processLinkRequest(UK_ESTABLISHMENTS_LINK_TYPE,
@@ -2659,8 +3539,9 @@ class CompanyProfileServiceTest {
 
         // then
         assertThrows(ServiceUnavailableException.class, executable);
-        verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
-        verify(companyProfileRepository).findAllByParentCompanyNumber(MOCK_COMPANY_NUMBER);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+        verify(companyProfileRepository).countByParentCompanyNumber(MOCK_COMPANY_NUMBER);
         verifyNoInteractions(companyProfileApiService);
     }
 
@@ -2670,15 +3551,62 @@ class CompanyProfileServiceTest {
         when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.empty());
         when(companyProfileRepository.findById(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(Optional.empty());
         when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(companyProfileDocument);
+        when(mongoTemplate.replace(any(Query.class), any(VersionedCompanyProfileDocument.class),
+                any(ReplaceOptions.class)))
+                .thenReturn(UpdateResult.acknowledged(0L, 0L, new BsonString(MOCK_COMPANY_NUMBER)));
 
         companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER,
                 companyProfile);
 
-        verify(companyProfileRepository).insert(companyProfileDocument);
+        verify(mongoTemplate).replace(any(Query.class), eq(companyProfileDocument), any(ReplaceOptions.class));
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_COMPANY_NUMBER);
         verify(companyProfileApiService).invokeChsKafkaApi(MOCK_PARENT_COMPANY_NUMBER);
     }
 
+    @Test
+    @DisplayName("Put company profile still invalidates the cache and adds to the filter when its event fails")
+    void putCompanyProfileRefreshesCacheAndFilterWhenEventFails() throws IOException {
+        // given
+        CompanyProfile companyProfile = testHelper.createCompanyProfileObject();
+        companyProfile.getData().setBranchCompanyDetails(null);
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.empty());
+        when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(new VersionedCompanyProfileDocument());
+        when(mongoTemplate.replace(any(Query.class), any(VersionedCompanyProfileDocument.class),
+                any(ReplaceOptions.class)))
+                .thenReturn(UpdateResult.acknowledged(0L, 0L, new BsonString(MOCK_COMPANY_NUMBER)));
+        when(companyProfileApiService.invokeChsKafkaApi(MOCK_COMPANY_NUMBER))
+                .thenThrow(new ServiceUnavailableException("chs-kafka-api unavailable"));
+
+        // when
+        Executable actual = () -> companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+
+        // then
+        assertThrows(ServiceUnavailableException.class, actual);
+        verify(companyNumberFilter).add(MOCK_COMPANY_NUMBER);
+        verify(companyProfileCache).invalidate(MOCK_COMPANY_NUMBER);
+    }
+
+    @Test
+    @DisplayName("Created parent company is added to the filter when its event fails")
+    void createParentCompanyAddsToFilterWhenEventFails() throws IOException {
+        // given
+        CompanyProfile companyProfile = testHelper.createCompanyProfileObject();
+        when(companyProfileRepository.findById(MOCK_COMPANY_NUMBER)).thenReturn(Optional.empty());
+        when(companyProfileRepository.findById(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(Optional.empty());
+        when(companyProfileApiService.invokeChsKafkaApi(MOCK_PARENT_COMPANY_NUMBER))
+                .thenThrow(new ServiceUnavailableException("chs-kafka-api unavailable"));
+
+        // when
+        Executable actual = () -> companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER, companyProfile);
+
+        // then
+        assertThrows(ServiceUnavailableException.class, actual);
+        verify(companyProfileRepository).insert(any(VersionedCompanyProfileDocument.class));
+        verify(companyNumberFilter).add(MOCK_PARENT_COMPANY_NUMBER);
+        verify(mongoTemplate, never()).replace(any(Query.class), any(VersionedCompanyProfileDocument.class),
+                any(ReplaceOptions.class));
+    }
+
     @Test
     @DisplayName("Overdue not set when all fields are null")
     void testDetermineOverDueAllNull() {
@@ -2695,25 +3623,77 @@ class CompanyProfileServiceTest {
     }
 
     @Test
-    @DisplayName("Returns a list of UK establishments for given parent company number")
+    @DisplayName("Returns every UK establishment for given parent company number without items per page")
     void testGetUKEstablishmentsReturnsCorrectData() {
-        VersionedCompanyProfileDocument theCompanyProfileDocument = new VersionedCompanyProfileDocument();
-        theCompanyProfileDocument.setId(MOCK_PARENT_COMPANY_NUMBER);
         // given
-        when(companyProfileRepository.findById(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(
-                Optional.of(theCompanyProfileDocument));
-        when(companyProfileRepository.findAllByParentCompanyNumber(MOCK_PARENT_COMPANY_NUMBER))
+        when(companyProfileRepository.existsById(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(true);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(queryCaptor.capture(), eq(VersionedCompanyProfileDocument.class)))
                 .thenReturn(ukEstablishmentsTestInput);
+        when(companyProfileRepository.countByParentCompanyNumber(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(2L);
 
         // when
-        UkEstablishmentsList result = companyProfileService.getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER);
+        UkEstablishmentsList result = companyProfileService.getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER,
+                null, 0);
 
         // then
         assertEquals("/company/321033", result.getLinks().getSelf());
         assertEquals("related-companies", result.getKind());
         assertEquals(ukEstablishmentsTestOutput, result.getItems());
-        verify(companyProfileRepository).findById(MOCK_PARENT_COMPANY_NUMBER);
-        verify(companyProfileRepository).findAllByParentCompanyNumber(MOCK_PARENT_COMPANY_NUMBER);
+        PagedUkEstablishmentsList page = (PagedUkEstablishmentsList) result;
+        assertEquals(ukEstablishmentsTestOutput.size(), page.getItemsPerPage());
+        assertEquals(0, page.getStartIndex());
+        assertEquals(2L, page.getTotalResults());
+        assertEquals(0, queryCaptor.getValue().getLimit());
+        verify(companyProfileRepository).existsById(MOCK_PARENT_COMPANY_NUMBER);
+        verify(companyProfileRepository, times(0)).findById(any());
+    }
+
+    @Test
+    @DisplayName("Returns a projected page of UK establishments ordered by company number")
+    void testGetUKEstablishmentsQueriesRequestedPage() {
+        // given
+        when(companyProfileRepository.existsById(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(true);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        // when
+        companyProfileService.getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, 1000, 20);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(VersionedCompanyProfileDocument.class));
+        Query query = queryCaptor.getValue();
+        assertEquals(MAXIMUM_ITEMS_PER_PAGE, query.getLimit());
+        assertEquals(20, query.getSkip());
+        assertEquals(MOCK_PARENT_COMPANY_NUMBER, query.getQueryObject().get("parent_company_number"));
+        assertEquals(1, query.getSortObject().get("_id"));
+        assertEquals(1, query.getFieldsObject().get("data.company_name"));
+        assertNull(query.getFieldsObject().get("data"));
+    }
+
+    @Test
+    @DisplayName("Rejects a UK establishments request with a negative start index")
+    void testGetUKEstablishmentsBadRequest() {
+        // when
+        Executable executable = () -> companyProfileService.getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, 10, -1);
+
+        // then
+        assertThrows(BadRequestException.class, executable);
+        verifyNoInteractions(companyProfileRepository);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Returns not found for UK establishments of a parent company that does not exist")
+    void testGetUKEstablishmentsNotFound() {
+        // given
+        when(companyProfileRepository.existsById(MOCK_PARENT_COMPANY_NUMBER)).thenReturn(false);
+
+        // when
+        Executable executable = () -> companyProfileService.getUkEstablishments(MOCK_PARENT_COMPANY_NUMBER, null, 0);
+
+        // then
+        assertThrows(ResourceNotFoundException.class, executable);
+        verifyNoInteractions(mongoTemplate);
     }
 
     @Test
@@ -2736,6 +3716,8 @@ class CompanyProfileServiceTest {
         profileToTransform.getData().setCompanyNumber("6146287");
         when(companyProfileTransformer.transform(existingDoc, profileToTransform, null))
                 .thenReturn(companyProfileDocument);
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
 
         CompanyProfile theCompanyProfile = new CompanyProfile()
                 .deltaAt(DELTA_AT);
@@ -2748,7 +3730,10 @@ class CompanyProfileServiceTest {
         verify(companyProfileTransformer).transform(existingDoc, profileToTransform, null);
 
         Assertions.assertNotNull(companyProfileDocument);
-        verify(companyProfileRepository).save(companyProfileDocument);
+        assertEquals(2L, companyProfileDocument.getVersion());
+        verify(companyProfileChangeSet).snapshot(existingDoc);
+        verify(companyProfileChangeSet).diff(any(), eq(companyProfileDocument));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class));
         verify(companyProfileRepository).findById(MOCK_COMPANY_NUMBER);
     }
 
@@ -2763,8 +3748,11 @@ class CompanyProfileServiceTest {
         theCompanyProfile.getData().setHasBeenLiquidated(false);
         theCompanyProfile.getData().setCompanyNumber(MOCK_COMPANY_NUMBER);
 
+        existingCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
         when(companyProfileRepository.findById(anyString())).thenReturn(Optional.of(existingCompanyProfileDocument));
         when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(companyProfileDocument);
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
 
         companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER,
                 theCompanyProfile);
@@ -2783,8 +3771,11 @@ class CompanyProfileServiceTest {
         theCompanyProfile.getData().setHasBeenLiquidated(false);
         theCompanyProfile.getData().setCompanyNumber(MOCK_COMPANY_NUMBER);
 
+        existingCompanyProfileDocument.setId(MOCK_COMPANY_NUMBER);
         when(companyProfileRepository.findById(anyString())).thenReturn(Optional.of(existingCompanyProfileDocument));
         when(companyProfileTransformer.transform(any(), any(), any())).thenReturn(companyProfileDocument);
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
 
         companyProfileService.processCompanyProfile(MOCK_COMPANY_NUMBER,
                 theCompanyProfile);
@@ -0,0 +1,169 @@
+package uk.gov.companieshouse.company.profile.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import uk.gov.companieshouse.company.profile.model.MigrationCheckpoint;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyProfileVersionMigratorTest {
+
+    private static final String COLLECTION = "company_profile";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Captor
+    private ArgumentCaptor<Query> query;
+    @Captor
+    private ArgumentCaptor<MigrationCheckpoint> checkpoint;
+
+    private MeterRegistry meterRegistry;
+    private CompanyProfileVersionMigrator migrator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        migrator = new CompanyProfileVersionMigrator(mongoTemplate, meterRegistry, true, 2, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void shouldStampBatchOfLegacyDocumentsAndCheckpointLastId() {
+        // given
+        when(mongoTemplate.count(any(Query.class), eq(VersionedCompanyProfileDocument.class))).thenReturn(3L);
+        when(mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class)).thenReturn(COLLECTION);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION)))
+                .thenReturn(List.of(new Document("_id", "00000001"), new Document("_id", "00000002")));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(2L, 2L, null));
+
+        // when
+        boolean more = migrator.migrateBatch();
+
+        // then
+        assertTrue(more);
+        verify(mongoTemplate).find(query.capture(), eq(Document.class), eq(COLLECTION));
+        assertEquals(new Document("version", null), query.getValue().getQueryObject());
+        assertEquals(2, query.getValue().getLimit());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(),
+                eq(VersionedCompanyProfileDocument.class));
+        Document stamped = query.getValue().getQueryObject();
+        assertEquals(new Document("$in", List.of("00000001", "00000002")), stamped.get("_id"));
+        assertTrue(stamped.containsKey("version"));
+        assertNull(stamped.get("version"));
+        assertEquals(new Document("version", 0L), update.getValue().getUpdateObject().get("$set"));
+        verify(mongoTemplate).save(checkpoint.capture());
+        assertEquals("00000002", checkpoint.getValue().getLastId());
+        assertEquals(2L, checkpoint.getValue().getMigrated());
+        assertEquals(2.0, meterRegistry.counter("company_profile.version_migration.migrated").count());
+        assertEquals(1.0, meterRegistry.get("company_profile.version_migration.remaining").gauge().value());
+    }
+
+    @Test
+    void shouldResumeAfterCheckpointedId() {
+        // given
+        MigrationCheckpoint saved = new MigrationCheckpoint("version");
+        saved.setLastId("00000002");
+        saved.setPassMigrated(2L);
+        when(mongoTemplate.findById("version", MigrationCheckpoint.class)).thenReturn(saved);
+        when(mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class)).thenReturn(COLLECTION);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION)))
+                .thenReturn(List.of(new Document("_id", "00000003")));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+
+        // when
+        migrator.migrateBatch();
+
+        // then
+        verify(mongoTemplate).find(query.capture(), eq(Document.class), eq(COLLECTION));
+        assertEquals(new Document("$gt", "00000002"), query.getValue().getQueryObject().get("_id"));
+        verify(mongoTemplate).save(checkpoint.capture());
+        assertEquals("00000003", checkpoint.getValue().getLastId());
+        assertEquals(3L, checkpoint.getValue().getPassMigrated());
+    }
+
+    @Test
+    void shouldStartAnotherPassWhenPassStampedDocuments() {
+        // given
+        MigrationCheckpoint saved = new MigrationCheckpoint("version");
+        saved.setLastId("00000003");
+        saved.setPassMigrated(3L);
+        when(mongoTemplate.findById("version", MigrationCheckpoint.class)).thenReturn(saved);
+        when(mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class)).thenReturn(COLLECTION);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(List.of());
+
+        // when
+        boolean more = migrator.migrateBatch();
+
+        // then
+        assertTrue(more);
+        verify(mongoTemplate).save(checkpoint.capture());
+        assertNull(checkpoint.getValue().getLastId());
+        assertEquals(0L, checkpoint.getValue().getPassMigrated());
+        assertNull(checkpoint.getValue().getCompletedAt());
+    }
+
+    @Test
+    void shouldCompleteWhenPassStampedNothing() {
+        // given
+        MigrationCheckpoint saved = new MigrationCheckpoint("version");
+        saved.setMigrated(3L);
+        when(mongoTemplate.findById("version", MigrationCheckpoint.class)).thenReturn(saved);
+        when(mongoTemplate.getCollectionName(VersionedCompanyProfileDocument.class)).thenReturn(COLLECTION);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(List.of());
+
+        // when
+        boolean more = migrator.migrateBatch();
+
+        // then
+        assertFalse(more);
+        verify(mongoTemplate).save(checkpoint.capture());
+        assertNotNull(checkpoint.getValue().getCompletedAt());
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class),
+                eq(VersionedCompanyProfileDocument.class));
+    }
+
+    @Test
+    void shouldNotMigrateOnceComplete() {
+        // given
+        MigrationCheckpoint saved = new MigrationCheckpoint("version");
+        saved.setCompletedAt(Instant.now());
+        when(mongoTemplate.findById("version", MigrationCheckpoint.class)).thenReturn(saved);
+
+        // when
+        boolean more = migrator.migrateBatch();
+
+        // then
+        assertFalse(more);
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+        verify(mongoTemplate, never()).save(any());
+    }
+}
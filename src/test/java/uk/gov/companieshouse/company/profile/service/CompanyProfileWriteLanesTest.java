@@ -0,0 +1,110 @@
+package uk.gov.companieshouse.company.profile.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.exception.ServiceUnavailableException;
+
+class CompanyProfileWriteLanesTest {
+
+    // Hashed to lanes 0 and 1 of two
+    private static final String COMPANY_NUMBER = "0";
+    private static final String OTHER_COMPANY_NUMBER = "1";
+
+    private MeterRegistry meterRegistry;
+    private final CountDownLatch inFlight = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldQueueWritesOfCompanyBehindEachOther() throws Exception {
+        // given
+        CompanyProfileWriteLanes lanes = new CompanyProfileWriteLanes(meterRegistry, true, 2, Duration.ofSeconds(5));
+        List<String> writes = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> lanes.run(COMPANY_NUMBER, () -> {
+            inFlight.countDown();
+            awaitRelease();
+            writes.add("first");
+        }));
+        inFlight.await();
+
+        // when
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() ->
+                lanes.run(COMPANY_NUMBER, () -> writes.add("second")));
+        while (meterRegistry.get("company_profile.write_lane.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        // then
+        assertEquals(List.of("first", "second"), writes);
+        assertEquals(0.0, meterRegistry.get("company_profile.write_lane.depth").gauge().value());
+        assertEquals(2L, meterRegistry.timer("company_profile.write_lane.wait").count());
+    }
+
+    @Test
+    void shouldRunWritesOfCompaniesInOtherLanesInParallel() throws Exception {
+        // given
+        CompanyProfileWriteLanes lanes = new CompanyProfileWriteLanes(meterRegistry, true, 2, Duration.ofSeconds(5));
+        CompletableFuture<Void> held = CompletableFuture.runAsync(() -> lanes.run(COMPANY_NUMBER, () -> {
+            inFlight.countDown();
+            awaitRelease();
+        }));
+        inFlight.await();
+        List<String> writes = new CopyOnWriteArrayList<>();
+
+        // when
+        lanes.run(OTHER_COMPANY_NUMBER, () -> writes.add("other"));
+        release.countDown();
+        held.get(5, TimeUnit.SECONDS);
+
+        // then
+        assertEquals(List.of("other"), writes);
+    }
+
+    @Test
+    void shouldRejectWriteWhenItWaitsLongerThanMaximumWait() throws Exception {
+        // given
+        CompanyProfileWriteLanes lanes = new CompanyProfileWriteLanes(meterRegistry, true, 2, Duration.ofMillis(10));
+        CompletableFuture<Void> held = CompletableFuture.runAsync(() -> lanes.run(COMPANY_NUMBER, () -> {
+            inFlight.countDown();
+            awaitRelease();
+        }));
+        inFlight.await();
+        List<String> writes = new CopyOnWriteArrayList<>();
+
+        // when
+        assertThrows(ServiceUnavailableException.class, () -> lanes.run(COMPANY_NUMBER, () -> writes.add("late")));
+        release.countDown();
+        held.get(5, TimeUnit.SECONDS);
+
+        // then
+        assertTrue(writes.isEmpty());
+        assertEquals(1.0, meterRegistry.counter("company_profile.write_lane.timed_out").count());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.companieshouse.company.profile.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import uk.gov.companieshouse.api.exception.ServiceUnavailableException;
+
+class CompanyProfileWriteRetryTest {
+
+    private static final String ENDPOINT = "company_profile";
+
+    private MeterRegistry meterRegistry;
+    private CompanyProfileWriteRetry retry;
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retry = new CompanyProfileWriteRetry(meterRegistry, 3, Duration.ofMillis(1), Duration.ofMillis(10));
+    }
+
+    @Test
+    void shouldMakeWriteAgainUntilItNoLongerConflicts() {
+        // when
+        retry.run(ENDPOINT, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+        }, () -> new ServiceUnavailableException("exhausted"));
+
+        // then
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.counter("company_profile.write.conflicts", "endpoint", ENDPOINT).count());
+        assertEquals(2.0, meterRegistry.counter("company_profile.write.retries", "endpoint", ENDPOINT).count());
+    }
+
+    @Test
+    void shouldThrowGivenExceptionWhenLastAttemptConflicts() {
+        // given
+        ServiceUnavailableException exhausted = new ServiceUnavailableException("exhausted");
+
+        // when
+        Exception exception = assertThrows(ServiceUnavailableException.class, () -> retry.run(ENDPOINT, () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }, () -> exhausted));
+
+        // then
+        assertSame(exhausted, exception);
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("company_profile.write.retries_exhausted", "endpoint", ENDPOINT)
+                .count());
+    }
+
+    @Test
+    void shouldNotMakeWriteAgainWhenItFailsOtherwise() {
+        // when
+        assertThrows(DataAccessResourceFailureException.class, () -> retry.run(ENDPOINT, () -> {
+            attempts.incrementAndGet();
+            throw new DataAccessResourceFailureException("Connection broken");
+        }, () -> new ServiceUnavailableException("exhausted")));
+
+        // then
+        assertEquals(1, attempts.get());
+    }
+}
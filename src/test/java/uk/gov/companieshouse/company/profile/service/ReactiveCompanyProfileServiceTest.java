@@ -0,0 +1,264 @@
+package uk.gov.companieshouse.company.profile.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.api.company.RegisteredOfficeAddress;
+import uk.gov.companieshouse.api.company.UkEstablishment;
+import uk.gov.companieshouse.api.company.UkEstablishmentsList;
+import uk.gov.companieshouse.api.exception.BadRequestException;
+import uk.gov.companieshouse.api.model.ukestablishments.PrivateUkEstablishmentsAddressListApi;
+import uk.gov.companieshouse.company.profile.cache.CompanyNumberFilter;
+import uk.gov.companieshouse.company.profile.cache.CompanyProfileCache;
+import uk.gov.companieshouse.company.profile.exception.ResourceNotFoundException;
+import uk.gov.companieshouse.company.profile.model.PagedUkEstablishmentsList;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+import uk.gov.companieshouse.company.profile.repository.ReactiveCompanyProfileRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCompanyProfileServiceTest {
+
+    private static final String COMPANY_NUMBER = "FR123456";
+    private static final String UK_ESTABLISHMENT_NUMBER = "BR123456";
+    private static final String ETAG = "etag";
+
+    @Mock
+    private ReactiveCompanyProfileRepository reactiveCompanyProfileRepository;
+
+    @Mock
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Mock
+    private CompanyProfileService companyProfileService;
+
+    @Mock
+    private CompanyProfileCache companyProfileCache;
+
+    @Mock
+    private CompanyNumberFilter companyNumberFilter;
+
+    @InjectMocks
+    private ReactiveCompanyProfileService reactiveCompanyProfileService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(companyNumberFilter.mightContain(any())).thenReturn(true);
+    }
+
+    @Test
+    void shouldReturnCachedEtagWithoutReadingMongo() {
+        // given
+        when(companyProfileCache.getEtag(COMPANY_NUMBER)).thenReturn(Optional.of(ETAG));
+
+        // when
+        String actual = reactiveCompanyProfileService.getEtag(COMPANY_NUMBER).block();
+
+        // then
+        assertEquals(ETAG, actual);
+        verifyNoInteractions(reactiveCompanyProfileRepository);
+    }
+
+    @Test
+    void shouldReadEtagFromMongo() {
+        // given
+        when(reactiveCompanyProfileRepository.findEtagById(COMPANY_NUMBER))
+                .thenReturn(Mono.just(document(COMPANY_NUMBER)));
+
+        // when
+        String actual = reactiveCompanyProfileService.getEtag(COMPANY_NUMBER).block();
+
+        // then
+        assertEquals(ETAG, actual);
+    }
+
+    @Test
+    void shouldReturnNoEtagWhenFilterRejectsCompanyNumber() {
+        // given
+        when(companyNumberFilter.mightContain(COMPANY_NUMBER)).thenReturn(false);
+
+        // when
+        String actual = reactiveCompanyProfileService.getEtag(COMPANY_NUMBER).block();
+
+        // then
+        assertNull(actual);
+        verifyNoInteractions(reactiveCompanyProfileRepository);
+    }
+
+    @Test
+    void shouldShapeAndCacheCompanyProfileReadFromMongo() {
+        // given
+        VersionedCompanyProfileDocument document = document(COMPANY_NUMBER);
+        Data shaped = new Data().companyNumber(COMPANY_NUMBER);
+        when(reactiveCompanyProfileRepository.findById(COMPANY_NUMBER)).thenReturn(Mono.just(document));
+        when(companyProfileService.shapeCompanyProfile(document)).thenReturn(shaped);
+
+        // when
+        Data actual = reactiveCompanyProfileService.retrieveCompanyNumber(COMPANY_NUMBER).block();
+
+        // then
+        assertSame(shaped, actual);
+        verify(companyProfileCache).put(COMPANY_NUMBER, 0L, shaped);
+    }
+
+    @Test
+    void shouldReturnCachedCompanyProfile() {
+        // given
+        Data cached = new Data().companyNumber(COMPANY_NUMBER);
+        when(companyProfileCache.get(COMPANY_NUMBER)).thenReturn(Optional.of(cached));
+        when(companyProfileService.refreshOverdue(cached)).thenReturn(cached);
+
+        // when
+        Data actual = reactiveCompanyProfileService.retrieveCompanyNumber(COMPANY_NUMBER).block();
+
+        // then
+        assertSame(cached, actual);
+        verifyNoInteractions(reactiveCompanyProfileRepository);
+    }
+
+    @Test
+    void shouldErrorWithNotFoundWhenCompanyProfileDoesNotExist() {
+        // given
+        when(reactiveCompanyProfileRepository.findById(COMPANY_NUMBER)).thenReturn(Mono.empty());
+
+        // when
+        Mono<Data> actual = reactiveCompanyProfileService.retrieveCompanyNumber(COMPANY_NUMBER);
+
+        // then
+        assertThrows(ResourceNotFoundException.class, actual::block);
+    }
+
+    @Test
+    void shouldReadPageOfUkEstablishmentsWithCount() {
+        // given
+        when(companyProfileService.resolvePageSize(null, 0)).thenReturn(CompanyProfileService.UNPAGED);
+        when(reactiveCompanyProfileRepository.existsById(COMPANY_NUMBER)).thenReturn(Mono.just(true));
+        when(reactiveMongoTemplate.find(any(Query.class), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(Flux.just(ukEstablishmentDocument()));
+        when(reactiveCompanyProfileRepository.countByParentCompanyNumber(COMPANY_NUMBER)).thenReturn(Mono.just(1L));
+
+        // when
+        UkEstablishmentsList actual = reactiveCompanyProfileService
+                .getUkEstablishments(COMPANY_NUMBER, null, 0).block();
+
+        // then
+        assertEquals(1, actual.getItems().size());
+        assertEquals(1, ((PagedUkEstablishmentsList) actual).getItemsPerPage());
+        assertEquals(UK_ESTABLISHMENT_NUMBER, actual.getItems().getFirst().getCompanyNumber());
+        assertEquals("London", actual.getItems().getFirst().getLocality());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(reactiveMongoTemplate).find(query.capture(), eq(VersionedCompanyProfileDocument.class));
+        assertEquals(0, query.getValue().getLimit());
+    }
+
+    @Test
+    void shouldErrorWithBadRequestForInvalidPage() {
+        // given
+        when(companyProfileService.resolvePageSize(0, 0)).thenThrow(new BadRequestException("invalid"));
+
+        // when
+        Mono<UkEstablishmentsList> actual = reactiveCompanyProfileService.getUkEstablishments(COMPANY_NUMBER, 0, 0);
+
+        // then
+        assertThrows(BadRequestException.class, actual::block);
+        verifyNoInteractions(reactiveCompanyProfileRepository, reactiveMongoTemplate);
+    }
+
+    @Test
+    void shouldErrorWithNotFoundWhenParentCompanyDoesNotExist() {
+        // given
+        when(reactiveCompanyProfileRepository.existsById(COMPANY_NUMBER)).thenReturn(Mono.just(false));
+
+        // when
+        Flux<UkEstablishment> actual = reactiveCompanyProfileService.streamUkEstablishments(COMPANY_NUMBER);
+
+        // then
+        assertThrows(ResourceNotFoundException.class, actual::blockLast);
+        verifyNoInteractions(reactiveMongoTemplate);
+    }
+
+    @Test
+    void shouldStreamEveryUkEstablishmentUnpaged() {
+        // given
+        when(reactiveCompanyProfileRepository.existsById(COMPANY_NUMBER)).thenReturn(Mono.just(true));
+        when(reactiveMongoTemplate.find(any(Query.class), eq(VersionedCompanyProfileDocument.class)))
+                .thenReturn(Flux.just(ukEstablishmentDocument(), ukEstablishmentDocument()));
+
+        // when
+        List<UkEstablishment> actual = reactiveCompanyProfileService.streamUkEstablishments(COMPANY_NUMBER)
+                .collectList().block();
+
+        // then
+        assertEquals(2, actual.size());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(reactiveMongoTemplate).find(query.capture(), eq(VersionedCompanyProfileDocument.class));
+        assertEquals(0, query.getValue().getLimit());
+    }
+
+    @Test
+    void shouldCollectUkEstablishmentsAddresses() {
+        // given
+        when(reactiveCompanyProfileRepository.existsById(COMPANY_NUMBER)).thenReturn(Mono.just(true));
+        when(reactiveCompanyProfileRepository.findAllOpenCompanyProfilesByParentNumberSortedByCreation(COMPANY_NUMBER))
+                .thenReturn(Flux.just(ukEstablishmentDocument()));
+
+        // when
+        PrivateUkEstablishmentsAddressListApi actual = reactiveCompanyProfileService
+                .getUkEstablishmentsAddresses(COMPANY_NUMBER).block();
+
+        // then
+        assertEquals(1, actual.getData().size());
+        assertEquals(UK_ESTABLISHMENT_NUMBER, actual.getData().getFirst().getCompanyNumber());
+    }
+
+    @Test
+    void shouldPropagateMongoErrors() {
+        // given
+        when(reactiveCompanyProfileRepository.findById(COMPANY_NUMBER))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("unavailable")));
+
+        // when
+        Mono<Data> actual = reactiveCompanyProfileService.retrieveCompanyNumber(COMPANY_NUMBER);
+
+        // then
+        assertThrows(DataAccessResourceFailureException.class, actual::block);
+    }
+
+    private static VersionedCompanyProfileDocument document(String companyNumber) {
+        VersionedCompanyProfileDocument document = new VersionedCompanyProfileDocument();
+        document.setId(companyNumber);
+        document.setCompanyProfile(new Data().companyNumber(companyNumber).etag(ETAG));
+        return document;
+    }
+
+    private static VersionedCompanyProfileDocument ukEstablishmentDocument() {
+        VersionedCompanyProfileDocument document = document(UK_ESTABLISHMENT_NUMBER);
+        document.getCompanyProfile()
+                .companyName("Company Limited")
+                .companyStatus("open")
+                .registeredOfficeAddress(new RegisteredOfficeAddress().locality("London"));
+        return document;
+    }
+}
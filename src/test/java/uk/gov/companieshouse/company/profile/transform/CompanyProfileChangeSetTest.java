@@ -0,0 +1,145 @@
+package uk.gov.companieshouse.company.profile.transform;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.Set;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Update;
+import uk.gov.companieshouse.api.company.Data;
+import uk.gov.companieshouse.api.company.Links;
+import uk.gov.companieshouse.api.model.Updated;
+import uk.gov.companieshouse.company.profile.config.ApplicationConfig;
+import uk.gov.companieshouse.company.profile.model.VersionedCompanyProfileDocument;
+
+class CompanyProfileChangeSetTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final String STORED_ETAG = "stored-etag";
+    private static final String NEW_ETAG = "new-etag";
+
+    private MeterRegistry meterRegistry;
+    private CompanyProfileChangeSet changeSet;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new ApplicationConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        meterRegistry = new SimpleMeterRegistry();
+        changeSet = new CompanyProfileChangeSet(converter, meterRegistry);
+    }
+
+    @Test
+    void shouldSetOnlyDeltaAtAndKeepEtagWhenProfileUnchanged() {
+        // given
+        Document stored = changeSet.snapshot(document(data(STORED_ETAG), 1L, LocalDateTime.of(2024, 1, 1, 0, 0)));
+        VersionedCompanyProfileDocument transformed = document(data(NEW_ETAG), 2L,
+                LocalDateTime.of(2024, 1, 2, 0, 0));
+
+        // when
+        CompanyProfileChangeSet.Diff diff = changeSet.diff(stored, transformed);
+
+        // then
+        assertFalse(diff.contentChanged());
+        assertEquals(Set.of("$set"), diff.update().getUpdateObject().keySet());
+        assertEquals(Set.of("delta_at"), ((Document) diff.update().getUpdateObject().get("$set")).keySet());
+        assertEquals(STORED_ETAG, transformed.getCompanyProfile().getEtag());
+        assertEquals(1.0, meterRegistry.summary("company_profile.write.changed_paths").totalAmount());
+    }
+
+    @Test
+    void shouldWriteNothingWhenDeltaResent() {
+        // given
+        LocalDateTime deltaAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Document stored = changeSet.snapshot(document(data(STORED_ETAG), 1L, deltaAt));
+        VersionedCompanyProfileDocument transformed = document(data(NEW_ETAG), 2L, deltaAt);
+        transformed.getUpdated().setAt(deltaAt.plusDays(1));
+
+        // when
+        CompanyProfileChangeSet.Diff diff = changeSet.diff(stored, transformed);
+
+        // then
+        assertFalse(diff.contentChanged());
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    void shouldSetChangedAndUnsetRemovedProfileFields() {
+        // given
+        Data storedData = data(STORED_ETAG).companyStatus("active");
+        Document stored = changeSet.snapshot(document(storedData, 1L, LocalDateTime.of(2024, 1, 1, 0, 0)));
+        Data data = data(NEW_ETAG).companyName("NEW NAME LIMITED");
+        data.getLinks().setCharges("/company/12345678/charges");
+        VersionedCompanyProfileDocument transformed = document(data, 2L, LocalDateTime.of(2024, 1, 2, 0, 0));
+
+        // when
+        CompanyProfileChangeSet.Diff diff = changeSet.diff(stored, transformed);
+
+        // then
+        assertTrue(diff.contentChanged());
+        Update update = diff.update();
+        Document set = (Document) update.getUpdateObject().get("$set");
+        assertEquals(Set.of("data.company_name", "data.etag", "data.links.charges", "delta_at", "updated.at",
+                "version"), set.keySet());
+        assertEquals("NEW NAME LIMITED", set.get("data.company_name"));
+        assertEquals(NEW_ETAG, set.get("data.etag"));
+        assertEquals(new Document("data.company_status", 1), update.getUpdateObject().get("$unset"));
+        assertEquals(1.0, meterRegistry.counter("company_profile.write.changed_path", "path", "data.company_name")
+                .count());
+        assertEquals(1.0, meterRegistry.counter("company_profile.write.changed_path", "path", "data.company_status")
+                .count());
+        assertEquals(7.0, meterRegistry.summary("company_profile.write.changed_paths").totalAmount());
+    }
+
+    @Test
+    void shouldSetWholeProfileWhenNoneStored() {
+        // given
+        VersionedCompanyProfileDocument storedDocument = document(null, 1L, null);
+        Document stored = changeSet.snapshot(storedDocument);
+        VersionedCompanyProfileDocument transformed = document(data(NEW_ETAG), 2L,
+                LocalDateTime.of(2024, 1, 2, 0, 0));
+
+        // when
+        CompanyProfileChangeSet.Diff diff = changeSet.diff(stored, transformed);
+
+        // then
+        assertTrue(diff.contentChanged());
+        Document set = (Document) diff.update().getUpdateObject().get("$set");
+        assertEquals(NEW_ETAG, ((Document) set.get("data")).get("etag"));
+        assertEquals(NEW_ETAG, transformed.getCompanyProfile().getEtag());
+    }
+
+    private static VersionedCompanyProfileDocument document(Data data, Long version, LocalDateTime deltaAt) {
+        VersionedCompanyProfileDocument document = new VersionedCompanyProfileDocument();
+        document.setId(COMPANY_NUMBER);
+        document.setCompanyProfile(data);
+        document.setDeltaAt(deltaAt);
+        document.setUpdated(new Updated().setAt(deltaAt));
+        return document.version(version);
+    }
+
+    private static Data data(String etag) {
+        Links links = new Links();
+        links.setSelf("/company/12345678");
+        Data data = new Data().companyNumber(COMPANY_NUMBER).companyName("COMPANY LIMITED");
+        data.setEtag(etag);
+        data.setLinks(links);
+        return data;
+    }
+}
@@ -0,0 +1,81 @@
+package uk.gov.companieshouse.company.profile.transform;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.gov.companieshouse.api.company.Links;
+import uk.gov.companieshouse.company.profile.util.LinkType;
+
+/**
+ * Compares merging the links of a delta onto the stored links through {@link LinkType} with the reflective merge
+ * {@link CompanyProfileTransformer} used before, kept here as the baseline. Run from the test classpath with
+ * {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinksMergeBenchmark {
+
+    private Links incoming;
+    private Links existing;
+
+    @Setup
+    public void setUp() {
+        incoming = new Links();
+        incoming.setSelf("/company/00010001");
+        incoming.setFilingHistory("/company/00010001/filing-history");
+        incoming.setOfficers("/company/00010001/officers");
+        existing = new Links();
+        existing.setSelf("/company/00010001");
+        existing.setCharges("/company/00010001/charges");
+        existing.setInsolvency("/company/00010001/insolvency");
+        existing.setPersonsWithSignificantControl("/company/00010001/persons-with-significant-control");
+    }
+
+    @Benchmark
+    public Links mergeThroughRegistry() {
+        return LinkType.merge(incoming, existing);
+    }
+
+    @Benchmark
+    public Links mergeThroughReflection() {
+        Links links = new Links();
+        for (Field linkField : Links.class.getDeclaredFields()) {
+            String upperCamelCaseField = linkField.getName().substring(0, 1).toUpperCase()
+                    + linkField.getName().substring(1);
+            try {
+                Method getMethod = Links.class.getMethod("get" + upperCamelCaseField);
+                Method setMethod = Links.class.getMethod("set" + upperCamelCaseField, String.class);
+                String newLink = (String) getMethod.invoke(incoming);
+                setMethod.invoke(links, newLink != null ? newLink : getMethod.invoke(existing));
+            } catch (ReflectiveOperationException ex) {
+                // Skipped, as the transformer logged and skipped fields without accessors
+            }
+        }
+        return links;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LinksMergeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package uk.gov.companieshouse.company.profile.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class EtagUtilsTest {
+
+    private static final String ENTITY_TAG = "\"abc123\"";
+
+    @Test
+    void shouldQuoteEtag() {
+        // given
+
+        // when
+        final String actual = EtagUtils.toEntityTag("abc123");
+
+        // then
+        assertEquals(ENTITY_TAG, actual);
+    }
+
+    @Test
+    void shouldReturnNullEntityTagWhenEtagIsNull() {
+        // given
+
+        // when
+        final String actual = EtagUtils.toEntityTag(null);
+
+        // then
+        assertNull(actual);
+    }
+
+    @Test
+    void shouldMatchAnyEntityTagInList() {
+        // given
+        final String ifNoneMatch = "\"other\", W/\"abc123\"";
+
+        // when
+        final boolean actual = EtagUtils.matchesIfNoneMatch(ifNoneMatch, ENTITY_TAG);
+
+        // then
+        assertTrue(actual);
+    }
+
+    @Test
+    void shouldMatchWildcard() {
+        // given
+
+        // when
+        final boolean actual = EtagUtils.matchesIfNoneMatch("*", ENTITY_TAG);
+
+        // then
+        assertTrue(actual);
+    }
+
+    @Test
+    void shouldNotMatchDifferentEntityTag() {
+        // given
+
+        // when
+        final boolean actual = EtagUtils.matchesIfNoneMatch("\"other\"", ENTITY_TAG);
+
+        // then
+        assertFalse(actual);
+    }
+
+    @Test
+    void shouldNotMatchWhenResourceHasNoEntityTag() {
+        // given
+
+        // when
+        final boolean actual = EtagUtils.matchesIfNoneMatch("*", null);
+
+        // then
+        assertFalse(actual);
+    }
+}
@@ -0,0 +1,52 @@
+package uk.gov.companieshouse.company.profile.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class JitteredBackoffTest {
+
+    @Test
+    void shouldWaitNoLongerThanBackoffDoubledForEachAttempt() {
+        // given
+        JitteredBackoff backoff = new JitteredBackoff(Duration.ofMillis(10), Duration.ofSeconds(1));
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            Duration first = backoff.delay(1);
+            Duration third = backoff.delay(3);
+
+            // then
+            assertTrue(first.toMillis() <= 10, String.valueOf(first));
+            assertTrue(third.toMillis() <= 40, String.valueOf(third));
+        }
+    }
+
+    @Test
+    void shouldWaitNoLongerThanMaximum() {
+        // given
+        JitteredBackoff backoff = new JitteredBackoff(Duration.ofMillis(10), Duration.ofMillis(50));
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            Duration delay = backoff.delay(Integer.MAX_VALUE);
+
+            // then
+            assertTrue(delay.toMillis() <= 50, String.valueOf(delay));
+        }
+    }
+
+    @Test
+    void shouldNotWaitWithoutBackoff() {
+        // given
+        JitteredBackoff backoff = new JitteredBackoff(Duration.ZERO, Duration.ZERO);
+
+        // when
+        Duration delay = backoff.delay(5);
+
+        // then
+        assertEquals(Duration.ZERO, delay);
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.companieshouse.company.profile.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.company.Links;
+
+class LinkTypeTest {
+
+    @Test
+    void shouldReadAndWriteEveryLinkField() throws IllegalAccessException {
+        // given
+        Links links = new Links();
+
+        // when
+        for (LinkType link : LinkType.values()) {
+            link.set(links, link.name());
+        }
+
+        // then
+        long linkFields = Arrays.stream(Links.class.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .count();
+        assertEquals(linkFields, LinkType.values().length);
+        for (Field field : Links.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                Object value = field.get(links);
+                assertTrue(Arrays.stream(LinkType.values()).anyMatch(link -> link.name().equals(value)),
+                        field.getName());
+            }
+        }
+    }
+
+    @Test
+    void shouldMergeIncomingLinksOntoExistingLinks() {
+        // given
+        Links incoming = new Links();
+        incoming.setCharges("/company/00019993/charges");
+        Links existing = new Links();
+        existing.setCharges("/company/00010001/charges");
+        existing.setInsolvency("/company/00010001/insolvency");
+
+        // when
+        Links actual = LinkType.merge(incoming, existing);
+
+        // then
+        Links expected = new Links();
+        expected.setCharges("/company/00019993/charges");
+        expected.setInsolvency("/company/00010001/insolvency");
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void shouldFindLinkByLinkType() {
+        // given
+
+        // when
+        Optional<LinkType> actual = LinkType.fromLinkType("persons-with-significant-control-statements");
+
+        // then
+        assertEquals(Optional.of(LinkType.PSC_STATEMENTS), actual);
+        assertEquals("/company/12345678/persons-with-significant-control-statements",
+                actual.get().linkFor("12345678"));
+    }
+
+    @Test
+    void shouldNotFindLinkWithoutLinkType() {
+        // given
+
+        // when
+        Optional<LinkType> actual = LinkType.fromLinkType("overseas");
+
+        // then
+        assertEquals(Optional.empty(), actual);
+    }
+}